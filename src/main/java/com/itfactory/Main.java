@@ -2,12 +2,15 @@ package com.itfactory;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Our Main class of the Spring Boot application, properly annotated;
+ * Scheduling is enabled for periodic maintenance tasks (e.g. payroll aggregates recompute);
  */
 
 @SpringBootApplication
+@EnableScheduling
 public class Main {
 
     public static void main(String[] args) {
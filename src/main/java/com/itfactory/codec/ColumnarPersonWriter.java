@@ -0,0 +1,110 @@
+package com.itfactory.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.itfactory.model.PersonColumns;
+
+import java.io.IOException;
+
+/**
+ * Writing persons in the columnar /all layout: one object per row group, holding one array per column, so field names are sent
+ * once per group, not once per row, and a client decodes each column as a whole vector;
+ * name and domain are dictionary encoded (DictionaryEncoder): {"reset": ..., "dictionary": [values added], "codes": [...]};
+ * a missing domain (a person whose job doesn't exist) has code -1;
+ * The document is {"rowGroups": [{"rowCount": n, "id": [...], "name": {...}, "email": [...], "jobId": [...], "domain": {...},
+ * "salaryIndex": [...]}, ...], "rowCount": total};
+ */
+
+public final class ColumnarPersonWriter {
+
+    //the dictionaries are dropped past this many values;
+    private static final int MAX_DICTIONARY_SIZE = 65_536;
+
+    private final JsonGenerator generator;
+
+    private final DictionaryEncoder nameDictionary = new DictionaryEncoder(MAX_DICTIONARY_SIZE);
+
+    private final DictionaryEncoder domainDictionary = new DictionaryEncoder(MAX_DICTIONARY_SIZE);
+
+    private int[] codes = new int[0];
+
+    private long rowCount;
+
+    public ColumnarPersonWriter(JsonGenerator generator) {
+
+        this.generator = generator;
+    }
+
+    public void writeStart() throws IOException {
+
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("rowGroups");
+    }
+
+    public void writeRowGroup(PersonColumns columns) throws IOException {
+
+        int size = columns.size();
+
+        if (size == 0) {
+
+            return;
+        }
+
+        if (codes.length < size) {
+
+            codes = new int[size];
+        }
+
+        generator.writeStartObject();
+        generator.writeNumberField("rowCount", size);
+
+        generator.writeFieldName("id");
+        generator.writeArray(columns.ids(), 0, size);
+
+        writeDictionaryColumn("name", nameDictionary, columns.names(), size);
+
+        generator.writeFieldName("email");
+        generator.writeArray(columns.emails(), 0, size);
+
+        generator.writeFieldName("jobId");
+        generator.writeArray(columns.jobIds(), 0, size);
+
+        writeDictionaryColumn("domain", domainDictionary, columns.domains(), size);
+
+        generator.writeFieldName("salaryIndex");
+        generator.writeArray(columns.salaryIndexes(), 0, size);
+
+        generator.writeEndObject();
+        rowCount += size;
+    }
+
+    public void writeEnd() throws IOException {
+
+        generator.writeEndArray();
+        generator.writeNumberField("rowCount", rowCount);
+        generator.writeEndObject();
+    }
+
+    private void writeDictionaryColumn(String name, DictionaryEncoder dictionary, String[] values, int size) throws IOException {
+
+        dictionary.startGroup();
+
+        for (int i = 0; i < size; i++) {
+
+            codes[i] = dictionary.encode(values[i]);
+        }
+
+        generator.writeObjectFieldStart(name);
+        generator.writeBooleanField("reset", dictionary.isReset());
+        generator.writeArrayFieldStart("dictionary");
+
+        for (String value : dictionary.added()) {
+
+            generator.writeString(value);
+        }
+
+        generator.writeEndArray();
+        generator.writeFieldName("codes");
+        generator.writeArray(codes, 0, size);
+        generator.writeEndObject();
+    }
+}
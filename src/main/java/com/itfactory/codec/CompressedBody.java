@@ -0,0 +1,39 @@
+package com.itfactory.codec;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * A response body, already compressed with the given encoding (or not, with identity);
+ * Sent with its Content-Encoding, so the container's own compression (server.compression) leaves it as it is;
+ */
+
+public record CompressedBody(byte[] bytes, ContentEncoding encoding) {
+
+    public ResponseEntity<byte[]> toResponseEntity(HttpStatus status, MediaType contentType) {
+
+        return toResponseEntity(status, contentType, null);
+    }
+
+    //with the ETag of this representation, if it has one;
+    public ResponseEntity<byte[]> toResponseEntity(HttpStatus status, MediaType contentType, String eTag) {
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status)
+                .contentType(contentType)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (eTag != null) {
+
+            response.eTag(eTag);
+        }
+
+        if (encoding != ContentEncoding.IDENTITY) {
+
+            response.header(HttpHeaders.CONTENT_ENCODING, encoding.getToken());
+        }
+
+        return response.body(bytes);
+    }
+}
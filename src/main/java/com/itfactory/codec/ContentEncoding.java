@@ -0,0 +1,153 @@
+package com.itfactory.codec;
+
+import io.airlift.compress.zstd.ZstdCompressor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The content codings a response body can be compressed with, chosen by the Accept-Encoding header:
+ * gzip (understood by every client), and zstd (smaller and faster to decode; pure Java, from aircompressor);
+ * brotli is left out, as there is no pure-Java brotli encoder (only decoders);
+ * Meant for bodies compressed once and served many times (CompressedBodyCache), so each coding uses a high compression level;
+ */
+
+public enum ContentEncoding {
+
+    IDENTITY("identity") {
+        @Override
+        public byte[] compress(byte[] body) {
+
+            return body;
+        }
+    },
+
+    GZIP("gzip") {
+        @Override
+        public byte[] compress(byte[] body) {
+
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 64);
+
+            try (GZIPOutputStream output = new GZIPOutputStream(compressed) {{ def.setLevel(Deflater.BEST_COMPRESSION); }}) {
+
+                output.write(body);
+            } catch (IOException e) {
+
+                throw new UncheckedIOException(e);
+            }
+
+            return compressed.toByteArray();
+        }
+    },
+
+    ZSTD("zstd") {
+        @Override
+        public byte[] compress(byte[] body) {
+
+            ZstdCompressor compressor = new ZstdCompressor();
+            byte[] compressed = new byte[compressor.maxCompressedLength(body.length)];
+            int length = compressor.compress(body, 0, body.length, compressed, 0, compressed.length);
+
+            return Arrays.copyOf(compressed, length);
+        }
+    };
+
+    private final String token;
+
+    ContentEncoding(String token) {
+
+        this.token = token;
+    }
+
+    //the value of the Content-Encoding header;
+    public String getToken() {
+
+        return token;
+    }
+
+    public abstract byte[] compress(byte[] body);
+
+    public static ContentEncoding forToken(String token) {
+
+        for (ContentEncoding encoding : values()) {
+
+            if (encoding.token.equalsIgnoreCase(token.trim())) {
+
+                return encoding;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown content encoding: " + token);
+    }
+
+    /*the first of the encodings given (in the server's order of preference) accepted with the highest quality;
+    identity if none is, or without an Accept-Encoding header (identity is always acceptable to us, RFC 9110 12.5.3);*/
+    public static ContentEncoding negotiate(String acceptEncoding, ContentEncoding... encodings) {
+
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+
+            return IDENTITY;
+        }
+
+        Map<String, Double> qualities = qualitiesOf(acceptEncoding);
+        double anyQuality = qualities.getOrDefault("*", 0.0);
+
+        ContentEncoding best = IDENTITY;
+        double bestQuality = 0;
+
+        for (ContentEncoding encoding : encodings) {
+
+            double quality = qualities.getOrDefault(encoding.token, anyQuality);
+
+            if (quality > bestQuality) {
+
+                best = encoding;
+                bestQuality = quality;
+            }
+        }
+
+        return best;
+    }
+
+    //coding token -> q-value; a malformed q-value counts as 0 (not acceptable);
+    private static Map<String, Double> qualitiesOf(String acceptEncoding) {
+
+        Map<String, Double> qualities = new HashMap<>();
+
+        for (String codings : acceptEncoding.split(",")) {
+
+            String[] parameters = codings.split(";");
+            String token = parameters[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1;
+
+            for (int i = 1; i < parameters.length; i++) {
+
+                String parameter = parameters[i].trim();
+
+                if (parameter.startsWith("q=")) {
+
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+
+                        quality = 0;
+                    }
+                }
+            }
+
+            if (!token.isEmpty()) {
+
+                qualities.put(token, quality);
+            }
+        }
+
+        return qualities;
+    }
+}
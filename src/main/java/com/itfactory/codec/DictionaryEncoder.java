@@ -0,0 +1,74 @@
+package com.itfactory.codec;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionary encoding of a string column, across the row groups of one columnar export: each distinct value gets a code (its
+ * position in the dictionary), and each row group sends only the values added to the dictionary since the previous one;
+ * Once the dictionary holds maxSize values, it is dropped at the start of the next group (which says so), so memory stays bounded
+ * on both sides even for a column with few repeats;
+ */
+
+public final class DictionaryEncoder {
+
+    //the code of a null value;
+    public static final int NULL_CODE = -1;
+
+    private final int maxSize;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+
+    private final List<String> added = new ArrayList<>();
+
+    private boolean reset;
+
+    public DictionaryEncoder(int maxSize) {
+
+        this.maxSize = maxSize;
+    }
+
+    public void startGroup() {
+
+        added.clear();
+        reset = codes.size() >= maxSize;
+
+        if (reset) {
+
+            codes.clear();
+        }
+    }
+
+    public int encode(String value) {
+
+        if (value == null) {
+
+            return NULL_CODE;
+        }
+
+        Integer code = codes.get(value);
+
+        if (code == null) {
+
+            code = codes.size();
+            codes.put(value, code);
+            added.add(value);
+        }
+
+        return code;
+    }
+
+    //the values added in the current group, in code order (continuing the dictionary, or starting it again after a reset);
+    public List<String> added() {
+
+        return added;
+    }
+
+    //whether the client drops its dictionary before adding this group's values;
+    public boolean isReset() {
+
+        return reset;
+    }
+}
@@ -0,0 +1,62 @@
+package com.itfactory.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.itfactory.model.Job;
+import com.itfactory.model.JobDto;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The JSON codec of Job, as PersonJsonCodec: a missing baseSalary still gets Job()'s random default (500 to 10000);
+ */
+
+public final class JobJsonCodec implements JsonCodec<Job> {
+
+    @Override
+    public Class<Job> type() {
+
+        return Job.class;
+    }
+
+    @Override
+    public Job read(JsonParser parser) throws IOException {
+
+        JsonCodec.expect(parser, JsonToken.START_OBJECT);
+
+        int id = 0;
+        String name = null;
+        String domain = null;
+        double baseSalary = 0;
+        boolean baseSalaryRead = false;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+
+            String field = parser.currentName();
+            parser.nextToken();
+
+            switch (field) {
+                case "id" -> id = JsonCodec.readInt(parser);
+                case "name" -> name = JsonCodec.readString(parser);
+                case "domain" -> domain = JsonCodec.readString(parser);
+                case "baseSalary" -> {
+                    baseSalary = JsonCodec.readDouble(parser);
+                    baseSalaryRead = true;
+                }
+                default -> parser.skipChildren();
+            }
+        }
+
+        JsonCodec.expect(parser, JsonToken.END_OBJECT);
+
+        return new Job(id, name, domain, baseSalaryRead ? baseSalary : ThreadLocalRandom.current().nextDouble(500, 10000));
+    }
+
+    @Override
+    public void write(JsonGenerator generator, Job job) throws IOException {
+
+        JobDto.write(generator, job);
+    }
+}
@@ -0,0 +1,54 @@
+package com.itfactory.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * A hand-written codec of a model class, reading and writing it token by token (JsonParser / JsonGenerator), without reflection;
+ * The parser and generator can be of any Jackson format (JSON, or CBOR): the codec only sees tokens;
+ * Registered with the HTTP message converters by JsonCodecHttpMessageConverter;
+ */
+
+public interface JsonCodec<T> {
+
+    Class<T> type();
+
+    //reading one object; the parser is at its START_OBJECT token, and is left at its END_OBJECT token;
+    T read(JsonParser parser) throws IOException;
+
+    void write(JsonGenerator generator, T value) throws IOException;
+
+    //unknown fields are skipped (as Jackson does for our @RequestBody models), nulls read as the default value;
+    static int readInt(JsonParser parser) throws IOException {
+
+        return parser.currentToken() == JsonToken.VALUE_NULL ? 0 : parser.getIntValue();
+    }
+
+    static double readDouble(JsonParser parser) throws IOException {
+
+        return parser.currentToken() == JsonToken.VALUE_NULL ? 0 : parser.getDoubleValue();
+    }
+
+    //any scalar reads as text (as Jackson binds a String); an object or array is rejected, instead of being read as null;
+    static String readString(JsonParser parser) throws IOException {
+
+        if (!parser.currentToken().isScalarValue()) {
+
+            throw new JsonParseException(parser, "Expected a string, found " + parser.currentToken());
+        }
+
+        return parser.getValueAsString();
+    }
+
+    static void expect(JsonParser parser, JsonToken token) throws IOException {
+
+        if (parser.currentToken() != token) {
+
+            throw new JsonParseException(parser, "Expected " + token + ", found " + parser.currentToken());
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.itfactory.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An HTTP message converter of the model classes that have a JsonCodec, and of lists of them (the batch ingest endpoints);
+ * Registered ahead of the Jackson converters (MessageConverterConfig), so @RequestBody Person, Job, List<Person> and List<Job> are
+ * read by the codecs instead of Jackson databinding; other types are left to Jackson;
+ * One converter per format: the same codecs read JSON or CBOR, given the JsonFactory of that format;
+ */
+
+public class JsonCodecHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    private final JsonFactory jsonFactory;
+
+    private final Map<Class<?>, JsonCodec<?>> codecsByType = new HashMap<>();
+
+    public JsonCodecHttpMessageConverter(JsonFactory jsonFactory, MediaType mediaType, JsonCodec<?>... codecs) {
+
+        super(mediaType);
+        this.jsonFactory = jsonFactory;
+
+        for (JsonCodec<?> codec : codecs) {
+
+            codecsByType.put(codec.type(), codec);
+        }
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+
+        return codecsByType.containsKey(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+
+        return (codecOf(type) != null || elementCodecOf(type) != null) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+
+        return (codecOf(type == null ? clazz : type) != null || elementCodecOf(type) != null) && canWrite(mediaType);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+
+        JsonCodec<?> elementCodec = elementCodecOf(type);
+
+        try (JsonParser parser = jsonFactory.createParser(inputMessage.getBody())) {
+
+            parser.nextToken();
+
+            if (elementCodec == null) {
+
+                return codecOf(type).read(parser);
+            }
+
+            //a list is read element by element, each straight into its model object;
+            JsonCodec.expect(parser, JsonToken.START_ARRAY);
+            List<Object> values = new ArrayList<>();
+
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+
+                values.add(elementCodec.read(parser));
+            }
+
+            return values;
+        } catch (JsonProcessingException e) {
+
+            throw new HttpMessageNotReadableException("Invalid request body: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+
+        Type valueType = type == null ? value.getClass() : type;
+        JsonCodec<Object> codec = writerOf(valueType);
+
+        //the response stream is closed by the container, not by the generator;
+        try (JsonGenerator generator = jsonFactory.createGenerator(StreamUtils.nonClosing(outputMessage.getBody()))) {
+
+            if (codec != null) {
+
+                codec.write(generator, value);
+                return;
+            }
+
+            JsonCodec<Object> elementCodec = elementWriterOf(valueType);
+
+            if (elementCodec == null) {
+
+                throw new HttpMessageNotWritableException("No codec for " + valueType, null);
+            }
+
+            generator.writeStartArray();
+
+            for (Object element : (List<?>) value) {
+
+                elementCodec.write(generator, element);
+            }
+
+            generator.writeEndArray();
+        }
+    }
+
+    private JsonCodec<?> codecOf(Type type) {
+
+        return type instanceof Class<?> clazz ? codecsByType.get(clazz) : null;
+    }
+
+    //the codec of the elements of a List<T>, if T has one;
+    private JsonCodec<?> elementCodecOf(Type type) {
+
+        if (type instanceof ParameterizedType parameterizedType && parameterizedType.getRawType() == List.class) {
+
+            return codecOf(parameterizedType.getActualTypeArguments()[0]);
+        }
+
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private JsonCodec<Object> writerOf(Type type) {
+
+        return (JsonCodec<Object>) codecOf(type);
+    }
+
+    @SuppressWarnings("unchecked")
+    private JsonCodec<Object> elementWriterOf(Type type) {
+
+        return (JsonCodec<Object>) elementCodecOf(type);
+    }
+}
@@ -0,0 +1,96 @@
+package com.itfactory.codec;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Length-prefixed framing of a stream of records: each frame is its length (an unsigned varint, 1 byte up to 127 bytes) followed
+ * by that many bytes; a reader takes one frame at a time, without buffering the stream or knowing the record count;
+ */
+
+public final class LengthPrefixedFrames {
+
+    //a larger length prefix means a corrupt (or foreign) stream, rather than a record;
+    public static final int MAX_FRAME_LENGTH = 16 * 1024 * 1024;
+
+    private LengthPrefixedFrames() {
+    }
+
+    public static void writeFrame(OutputStream output, byte[] bytes, int length) throws IOException {
+
+        writeLength(output, length);
+        output.write(bytes, 0, length);
+    }
+
+    //the length prefix alone, for a frame whose bytes the caller writes next;
+    public static void writeLength(OutputStream output, int length) throws IOException {
+
+        int value = length;
+
+        while ((value & ~0x7F) != 0) {
+
+            output.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        output.write(value);
+    }
+
+    //reading the frames of a stream, one at a time;
+    public static final class Reader {
+
+        private final InputStream input;
+
+        public Reader(InputStream input) {
+
+            this.input = input;
+        }
+
+        //the next frame, or null at the end of the stream; EOFException if the stream ends inside a frame;
+        public byte[] next() throws IOException {
+
+            int length = 0;
+            int shift = 0;
+            int read;
+
+            while ((read = input.read()) >= 0x80) {
+
+                length |= (read & 0x7F) << shift;
+                shift += 7;
+
+                if (shift > 28) {
+
+                    throw new IOException("Invalid frame length prefix");
+                }
+            }
+
+            if (read < 0) {
+
+                if (shift == 0) {
+
+                    return null;
+                }
+
+                throw new EOFException("Stream ended inside a frame length prefix");
+            }
+
+            length |= read << shift;
+
+            if (length < 0 || length > MAX_FRAME_LENGTH) {
+
+                throw new IOException("Frame length " + length + " is above the maximum of " + MAX_FRAME_LENGTH);
+            }
+
+            byte[] frame = input.readNBytes(length);
+
+            if (frame.length < length) {
+
+                throw new EOFException("Stream ended inside a frame");
+            }
+
+            return frame;
+        }
+    }
+}
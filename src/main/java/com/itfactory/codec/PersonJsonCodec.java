@@ -0,0 +1,65 @@
+package com.itfactory.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.itfactory.model.Person;
+import com.itfactory.model.PersonDto;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The JSON codec of Person: the fields Jackson binds (id, name, email, jobId, salaryIndex), read into the all-fields constructor;
+ * Person() is never called, so no Random is created per person; a missing salaryIndex still gets Person()'s random default (1 or 2);
+ */
+
+public final class PersonJsonCodec implements JsonCodec<Person> {
+
+    @Override
+    public Class<Person> type() {
+
+        return Person.class;
+    }
+
+    @Override
+    public Person read(JsonParser parser) throws IOException {
+
+        JsonCodec.expect(parser, JsonToken.START_OBJECT);
+
+        int id = 0;
+        String name = null;
+        String email = null;
+        int jobId = 0;
+        double salaryIndex = 0;
+        boolean salaryIndexRead = false;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+
+            String field = parser.currentName();
+            parser.nextToken();
+
+            switch (field) {
+                case "id" -> id = JsonCodec.readInt(parser);
+                case "name" -> name = JsonCodec.readString(parser);
+                case "email" -> email = JsonCodec.readString(parser);
+                case "jobId" -> jobId = JsonCodec.readInt(parser);
+                case "salaryIndex" -> {
+                    salaryIndex = JsonCodec.readDouble(parser);
+                    salaryIndexRead = true;
+                }
+                default -> parser.skipChildren();
+            }
+        }
+
+        JsonCodec.expect(parser, JsonToken.END_OBJECT);
+
+        return new Person(id, name, email, jobId, salaryIndexRead ? salaryIndex : ThreadLocalRandom.current().nextInt(1, 3));
+    }
+
+    @Override
+    public void write(JsonGenerator generator, Person person) throws IOException {
+
+        PersonDto.write(generator, person);
+    }
+}
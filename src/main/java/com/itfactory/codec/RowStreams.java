@@ -0,0 +1,179 @@
+package com.itfactory.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.itfactory.exceptions.DatabaseOperationException;
+import com.itfactory.model.PersonColumns;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Streaming rows to a response as they are read, in a WireFormat: a JSON or CBOR array, or CBOR frames;
+ * or, for the columnar export, row groups of persons (ColumnarPersonWriter), as JSON or CBOR;
+ * Rows are written straight from the source, so no list of rows, DTOs or per-row strings is built;
+ * A failure after the first row can't change the status anymore, so the response is aborted (left incomplete);
+ */
+
+public final class RowStreams {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RowStreams.class);
+
+    //thread-safe, and recycling its buffers across generators;
+    private static final CBORFactory CBOR_FACTORY = new CBORFactory();
+
+    private static final int OUTPUT_BUFFER_SIZE = 8192;
+
+    private RowStreams() {
+    }
+
+    //the rows to stream, each passed to the consumer as it is read;
+    @FunctionalInterface
+    public interface RowSource<T> {
+
+        void forEach(Consumer<T> consumer) throws DatabaseOperationException;
+    }
+
+    //writing one row as an object, with the generator of the format;
+    @FunctionalInterface
+    public interface RowWriter<T> {
+
+        void write(JsonGenerator generator, T row) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface StreamTask {
+
+        void run(OutputStream output) throws IOException, DatabaseOperationException;
+    }
+
+    public static <T> StreamingResponseBody body(WireFormat format, JsonFactory jsonFactory, RowSource<T> source, RowWriter<T> writer) {
+
+        return body(output -> {
+
+            if (format == WireFormat.CBOR_FRAMES) {
+
+                writeFrames(output, source, writer);
+            } else {
+
+                writeArray(generatorFactory(format, jsonFactory), output, source, writer);
+            }
+        });
+    }
+
+    //a single row, as one JSON or CBOR object;
+    public static <T> StreamingResponseBody objectBody(WireFormat format, JsonFactory jsonFactory, T row, RowWriter<T> writer) {
+
+        return body(output -> {
+
+            try (JsonGenerator generator = generatorFactory(format, jsonFactory).createGenerator(output)) {
+
+                writer.write(generator, row);
+            }
+        });
+    }
+
+    //the persons of a row group source (PersonService.forEachPersonRowGroup), in the columnar layout (ColumnarPersonWriter);
+    public static StreamingResponseBody columnarBody(WireFormat format, JsonFactory jsonFactory, RowSource<PersonColumns> rowGroups) {
+
+        return body(output -> {
+
+            try (JsonGenerator generator = generatorFactory(format, jsonFactory).createGenerator(output)) {
+
+                ColumnarPersonWriter writer = new ColumnarPersonWriter(generator);
+                writer.writeStart();
+                rowGroups.forEach(columns -> {
+
+                    try {
+                        writer.writeRowGroup(columns);
+                    } catch (IOException e) {
+
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                writer.writeEnd();
+            }
+        });
+    }
+
+    //running a stream writer, turning a failure into an IOException (which aborts the response);
+    private static StreamingResponseBody body(StreamTask task) {
+
+        return output -> {
+
+            try {
+                task.run(output);
+            } catch (UncheckedIOException e) {
+
+                throw e.getCause();
+            } catch (DatabaseOperationException e) {
+
+                LOGGER.error("Failed to stream rows", e);
+                throw new IOException("Failed to retrieve rows: " + e.getMessage(), e);
+            }
+        };
+    }
+
+    private static JsonFactory generatorFactory(WireFormat format, JsonFactory jsonFactory) {
+
+        return format == WireFormat.CBOR ? CBOR_FACTORY : jsonFactory;
+    }
+
+    private static <T> void writeArray(JsonFactory factory, OutputStream output, RowSource<T> source, RowWriter<T> writer)
+            throws IOException, DatabaseOperationException {
+
+        try (JsonGenerator generator = factory.createGenerator(output)) {
+
+            generator.writeStartArray();
+            source.forEach(row -> write(generator, writer, row));
+            generator.writeEndArray();
+        }
+    }
+
+    //each row is encoded into a reused buffer (one generator writing root-level objects), then framed by its length;
+    private static <T> void writeFrames(OutputStream output, RowSource<T> source, RowWriter<T> writer)
+            throws IOException, DatabaseOperationException {
+
+        ByteArrayOutputStream frame = new ByteArrayOutputStream(256);
+        OutputStream bufferedOutput = new BufferedOutputStream(output, OUTPUT_BUFFER_SIZE);
+
+        try (JsonGenerator generator = CBOR_FACTORY.createGenerator(frame)) {
+
+            source.forEach(row -> {
+
+                try {
+                    writer.write(generator, row);
+                    generator.flush();
+                    LengthPrefixedFrames.writeLength(bufferedOutput, frame.size());
+                    frame.writeTo(bufferedOutput);
+                    frame.reset();
+                } catch (IOException e) {
+
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+
+        bufferedOutput.flush();
+    }
+
+    private static <T> void write(JsonGenerator generator, RowWriter<T> writer, T row) {
+
+        try {
+            writer.write(generator, row);
+        } catch (IOException e) {
+
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.itfactory.codec;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The encodings served by the JSON API (v2), chosen by the Accept header:
+ * JSON (the default), CBOR (the same objects, in binary: smaller, and no number formatting or parsing), and, for /all only,
+ * CBOR frames: one CBOR object per row, each prefixed by its length (LengthPrefixedFrames), so a client decodes rows as they arrive;
+ */
+
+public enum WireFormat {
+
+    JSON(MediaType.APPLICATION_JSON_VALUE),
+    CBOR("application/cbor"),
+    CBOR_FRAMES("application/x-cbor-frames");
+
+    public static final String CBOR_VALUE = "application/cbor";
+
+    public static final String CBOR_FRAMES_VALUE = "application/x-cbor-frames";
+
+    private final MediaType mediaType;
+
+    WireFormat(String mediaType) {
+
+        this.mediaType = MediaType.parseMediaType(mediaType);
+    }
+
+    public MediaType getMediaType() {
+
+        return mediaType;
+    }
+
+    //the first of the formats given (in the server's order of preference) accepted with the highest quality, or null if none is;
+    public static WireFormat negotiate(String accept, WireFormat... formats) {
+
+        if (accept == null || accept.isBlank()) {
+
+            return formats[0];
+        }
+
+        List<MediaType> acceptedTypes;
+
+        try {
+            acceptedTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+
+            return formats[0];
+        }
+
+        //a stable sort, so types of equal quality keep the client's order;
+        acceptedTypes.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+
+        for (MediaType acceptedType : acceptedTypes) {
+
+            if (acceptedType.getQualityValue() == 0) {
+
+                continue;
+            }
+
+            for (WireFormat format : formats) {
+
+                if (acceptedType.includes(format.mediaType)) {
+
+                    return format;
+                }
+            }
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,32 @@
+package com.itfactory.controller;
+
+import com.itfactory.exceptions.DatabaseOperationException;
+import com.itfactory.exceptions.InvalidFieldsException;
+import com.itfactory.model.ApiError;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Mapping the exceptions of the JSON API (v2) controllers to an ApiError body, with the same status codes as the v1 controllers;
+ * an invalid fields= parameter is a client error (400);
+ */
+
+@RestControllerAdvice(assignableTypes = {PersonApiController.class, JobApiController.class})
+public class ApiExceptionHandler {
+
+    @ExceptionHandler(InvalidFieldsException.class)
+    public ResponseEntity<ApiError> handleInvalidFieldsException(InvalidFieldsException e) {
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ApiError(HttpStatus.BAD_REQUEST.value(), e.getMessage()));
+    }
+
+    @ExceptionHandler(DatabaseOperationException.class)
+    public ResponseEntity<ApiError> handleDatabaseOperationException(DatabaseOperationException e) {
+
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ApiError(HttpStatus.INTERNAL_SERVER_ERROR.value(), e.getMessage()));
+    }
+}
@@ -0,0 +1,61 @@
+package com.itfactory.controller;
+
+import com.itfactory.service.ChangeStreamService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * ChangeStreamController pushes the person and job writes to clients as Server-Sent Events (event ids, names like person.updated,
+ * and the written row as JSON data), instead of them polling /person/all;
+ * A client resumes with the id of the last event it got, as the Last-Event-ID header (sent by EventSource on reconnect) or "since";
+ * if some events after it are no longer kept, a "reset" event comes first, and the client resyncs from /person/all and /job/all;
+ */
+
+@RestController
+@RequestMapping("/changes")
+public class ChangeStreamController {
+
+    private final ChangeStreamService changeStreamService;
+
+    @Autowired
+    public ChangeStreamController(ChangeStreamService changeStreamService) {
+
+        this.changeStreamService = changeStreamService;
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                                                    @RequestParam(required = false) String since) {
+
+        String resumeToken = lastEventId != null ? lastEventId : since;
+        SseEmitter emitter = changeStreamService.subscribe(parseResumeToken(resumeToken));
+
+        if (emitter == null) {
+
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+
+        return ResponseEntity.ok(emitter);
+    }
+
+    //a token that isn't an event id can't be resumed from: the client gets a reset;
+    private static Long parseResumeToken(String resumeToken) {
+
+        if (resumeToken == null || resumeToken.isBlank()) {
+
+            return null;
+        }
+
+        try {
+            return Long.parseLong(resumeToken.trim());
+        } catch (NumberFormatException e) {
+
+            return -1L;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.itfactory.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.itfactory.codec.RowStreams;
+import com.itfactory.codec.WireFormat;
+import com.itfactory.exceptions.DatabaseOperationException;
+import com.itfactory.model.Job;
+import com.itfactory.model.JobDto;
+import com.itfactory.model.JobField;
+import com.itfactory.model.ResourceField;
+import com.itfactory.service.JobService;
+import com.itfactory.storage.TableVersions;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * JobApiController is the JSON API (v2) for jobs: the same operations as JobRestController, returning typed DTOs;
+ * DTOs are served as JSON, or as CBOR (application/cbor) when the client asks for it;
+ * Failures are answered by ApiExceptionHandler, as an ApiError;
+ */
+
+@RestController
+@RequestMapping(value = "/api/v2/job", produces = {MediaType.APPLICATION_JSON_VALUE, WireFormat.CBOR_VALUE})
+public class JobApiController {
+
+    private final JobService jobService;
+
+    private final ObjectMapper objectMapper;
+
+    private TableVersions tableVersions;
+
+    @Autowired
+    public JobApiController(JobService jobService, ObjectMapper objectMapper) {
+
+        this.jobService = jobService;
+        this.objectMapper = objectMapper;
+    }
+
+    //without the table versions, reads have no ETag;
+    @Autowired
+    public void setTableVersions(TableVersions tableVersions) {
+
+        this.tableVersions = tableVersions;
+    }
+
+    //tagged with the job's row version (and format): a client sending back a current ETag gets a 304, without a database read;
+    @GetMapping("/{id}")
+    public ResponseEntity<JobDto> getJobById(@PathVariable int id,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept, WebRequest webRequest) throws DatabaseOperationException {
+
+        WireFormat format = WireFormat.negotiate(accept, WireFormat.JSON, WireFormat.CBOR);
+        String eTag = tableVersions == null || format == null ? null
+                : tableVersions.rowETag(TableVersions.JOB, id, format.name().toLowerCase(Locale.ROOT));
+
+        if (eTag != null && webRequest.checkNotModified(eTag)) {
+
+            return null;
+        }
+
+        JobDto job = JobDto.of(jobService.getJobById(id));
+
+        if (eTag == null) {
+
+            return ResponseEntity.status(HttpStatus.OK).body(job);
+        }
+
+        return ResponseEntity.status(HttpStatus.OK).eTag(eTag).header(HttpHeaders.VARY, HttpHeaders.ACCEPT).body(job);
+    }
+
+    //only the fields named in fields= (e.g. fields=id,name) are read from the database and returned;
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<StreamingResponseBody> getJobFieldsById(@PathVariable int id, @RequestParam String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) throws DatabaseOperationException {
+
+        Set<JobField> selectedFields = ResourceField.parse(fields, JobField.class);
+        WireFormat format = WireFormat.negotiate(accept, WireFormat.JSON, WireFormat.CBOR);
+
+        if (format == null) {
+
+            return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
+        }
+
+        Job job = jobService.getJobById(id, selectedFields);
+
+        return ResponseEntity.status(HttpStatus.OK).contentType(format.getMediaType()).body(RowStreams.objectBody(
+                format, objectMapper.getFactory(), job, (generator, row) -> JobDto.write(generator, row, selectedFields)));
+    }
+
+    @PostMapping(consumes = {MediaType.APPLICATION_JSON_VALUE, WireFormat.CBOR_VALUE})
+    public ResponseEntity<JobDto> insertJob(@RequestBody JobDto job) throws DatabaseOperationException {
+
+        jobService.insertJob(job.toJob());
+        return ResponseEntity.status(HttpStatus.CREATED).body(job);
+    }
+
+    //batch ingest: an array of jobs, read by JobJsonCodec, as /api/v2/person/batch;
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, WireFormat.CBOR_VALUE})
+    public ResponseEntity<Void> insertJobs(@RequestBody List<Job> jobs) throws DatabaseOperationException {
+
+        jobService.insertJobs(jobs);
+        return ResponseEntity.status(HttpStatus.CREATED).build();
+    }
+
+    //the (few) jobs are read in one query, then written one by one, in the formats (and with the fields=) of /api/v2/person/all;
+    @GetMapping(value = "/all", produces = {MediaType.APPLICATION_JSON_VALUE, WireFormat.CBOR_VALUE, WireFormat.CBOR_FRAMES_VALUE})
+    public ResponseEntity<StreamingResponseBody> getAllJobs(@RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) throws DatabaseOperationException {
+
+        Set<JobField> selectedFields = ResourceField.parse(fields, JobField.class);
+        RowStreams.RowWriter<Job> writer = fields == null
+                ? JobDto::write
+                : (generator, job) -> JobDto.write(generator, job, selectedFields);
+        WireFormat format = WireFormat.negotiate(accept, WireFormat.JSON, WireFormat.CBOR, WireFormat.CBOR_FRAMES);
+
+        if (format == null) {
+
+            return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
+        }
+
+        List<Job> jobs = fields == null ? jobService.getAllJobs() : jobService.getAllJobs(selectedFields);
+
+        return ResponseEntity.status(HttpStatus.OK).contentType(format.getMediaType())
+                .body(RowStreams.body(format, objectMapper.getFactory(), jobs::forEach, writer));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteJob(@PathVariable int id) throws DatabaseOperationException {
+
+        jobService.deleteJob(id);
+        return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+    }
+
+    @PutMapping("/{id}/base-salary/{baseSalary}")
+    public JobDto updateBaseSalary(@PathVariable int id, @PathVariable double baseSalary) throws DatabaseOperationException {
+
+        return JobDto.of(jobService.updateBaseSalary(id, baseSalary));
+    }
+}
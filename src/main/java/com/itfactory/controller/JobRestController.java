@@ -1,20 +1,37 @@
 package com.itfactory.controller;
 
+import com.itfactory.codec.CompressedBody;
+import com.itfactory.codec.ContentEncoding;
+import com.itfactory.exceptions.ChangesExpiredException;
 import com.itfactory.exceptions.DatabaseOperationException;
 import com.itfactory.model.Job;
+import com.itfactory.model.Person;
+import com.itfactory.model.RowChanges;
+import com.itfactory.model.SalaryChange;
 import com.itfactory.service.JobService;
+import com.itfactory.service.PersonService;
+import com.itfactory.storage.CompressedBodyCache;
+import com.itfactory.storage.TableVersions;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 /**
  * JobRestController contains the REST web services for interacting with the job database;
  * Defining HTTP methods and endpoints for our user management system;
- * Controller methods return a ResponseEntity of type String, including an HTTP status code;
+ * Controller methods return a ResponseEntity of type String, including an HTTP status code (/all: its bytes, possibly compressed);
  * Each handler method contains a call to the Service method;
  */
 
@@ -22,14 +39,42 @@ import java.util.List;
 @RequestMapping("/job")
 public class JobRestController {
 
+    private static final MediaType TEXT_HTML_UTF8 = new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8);
+
     private final JobService jobService;
 
+    private PersonService personService;
+
+    private CompressedBodyCache compressedBodyCache;
+
+    private TableVersions tableVersions;
+
     @Autowired
     public JobRestController(JobService jobService) {
 
         this.jobService = jobService;
     }
 
+    @Autowired
+    public void setPersonService(PersonService personService) {
+
+        this.personService = personService;
+    }
+
+    //without the compressed body cache, /all is rendered (uncompressed) on every request;
+    @Autowired
+    public void setCompressedBodyCache(CompressedBodyCache compressedBodyCache) {
+
+        this.compressedBodyCache = compressedBodyCache;
+    }
+
+    //without the table versions (or the cache), /all has no ETag;
+    @Autowired
+    public void setTableVersions(TableVersions tableVersions) {
+
+        this.tableVersions = tableVersions;
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<String> getJobById(@PathVariable String id) {
 
@@ -54,17 +99,79 @@ public class JobRestController {
         }
     }
 
+    //cached (and compressed), revalidated in the background after a write, and tagged with the job table version, as /person/all;
     @GetMapping("/all")
-    public ResponseEntity<String> getAllJobs() {
+    public ResponseEntity<byte[]> getAllJobs(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                             WebRequest webRequest) {
+
+        CompressedBodyCache.BodyRenderer renderer = () -> "Job database retrieved successfully:\n"
+                + "<pre>\n" + getAllJobsHtmlResponse() + "<pre>";
 
         try {
-            StringBuilder getAllHtmlResponse = getAllJobsHtmlResponse();
-            return ResponseEntity.status(HttpStatus.OK).body("Job database retrieved successfully:\n"
-                    + "<pre>\n" + getAllHtmlResponse + "<pre>");
+            if (compressedBodyCache == null || tableVersions == null) {
+
+                return new CompressedBody(renderer.render().getBytes(StandardCharsets.UTF_8), ContentEncoding.IDENTITY)
+                        .toResponseEntity(HttpStatus.OK, TEXT_HTML_UTF8);
+            }
+
+            //read before rendering, so the body is never older than the version tagging it;
+            long version = tableVersions.tableVersion(TableVersions.JOB);
+            CompressedBodyCache.CachedBody body = compressedBodyCache.getIfCached(CompressedBodyCache.ALL_JOBS, version, renderer);
+
+            //tagged with the version of the body served (an older one, while the current version is rendered in the background);
+            String eTag = tableVersions.eTag(CompressedBodyCache.ALL_JOBS, body != null ? body.getVersion() : version,
+                    compressedBodyCache.encodingFor(acceptEncoding).getToken());
+
+            if (webRequest.checkNotModified(eTag)) {
+
+                return null;
+            }
+
+            if (body == null) {
+
+                body = compressedBodyCache.render(CompressedBodyCache.ALL_JOBS, version, renderer);
+            }
+
+            return compressedBodyCache.encode(body, acceptEncoding).toResponseEntity(HttpStatus.OK, TEXT_HTML_UTF8, eTag);
         } catch (DatabaseOperationException e) {
 
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).contentType(TEXT_HTML_UTF8).body(
+                    ("Failed to retrieve job database: " + e.getMessage()).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    //delta sync of jobs, as /person/changes;
+    @GetMapping("/changes")
+    public ResponseEntity<String> getJobChanges(@RequestParam(required = false) String since,
+                                                @RequestParam(defaultValue = "1000") String limit) {
+
+        try {
+            RowChanges<Job> changes = jobService.getJobChanges(since == null ? null : Long.valueOf(since), Integer.parseInt(limit));
+            StringBuilder htmlResponse = new StringBuilder();
+
+            for (Job jobLooped : changes.changed()) {
+
+                htmlResponse.append(String.format("Job id: %2d; name: %18s; domain: %12s; base salary: %8.1f\n",
+                        jobLooped.getId(), jobLooped.getName(), jobLooped.getDomain(), jobLooped.getBaseSalary()));
+            }
+
+            changes.deletedIds().forEach(id -> htmlResponse.append("Deleted job id: ").append(id).append("\n"));
+            htmlResponse.append("Version: ").append(changes.version()).append("\n");
+
+            if (changes.hasMore()) {
+
+                htmlResponse.append("More changes: /job/changes?since=").append(changes.version()).append("\n");
+            }
+
+            return ResponseEntity.status(HttpStatus.OK).body("Job changes retrieved successfully:\n"
+                    + "<pre>\n" + htmlResponse + "</pre>");
+        } catch (ChangesExpiredException e) {
+
+            return ResponseEntity.status(HttpStatus.GONE).body("Failed to retrieve job changes: " + e.getMessage());
+        } catch (DatabaseOperationException | NumberFormatException e) {
+
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
-                    "Failed to retrieve job database: " + e.getMessage());
+                    "Failed to retrieve job changes: " + e.getMessage());
         }
     }
 
@@ -97,6 +204,71 @@ public class JobRestController {
         }
     }
 
+    //each change of the job's base salary, optionally within a from/to range;
+    @GetMapping("/{id}/base-salary/history")
+    public ResponseEntity<String> getBaseSalaryHistory(@PathVariable String id, @RequestParam(required = false) String from,
+                                                       @RequestParam(required = false) String to) {
+
+        try {
+            List<SalaryChange> history = jobService.getBaseSalaryHistory(
+                    Integer.parseInt(id), parseDateTime(from, false), parseDateTime(to, true));
+            StringBuilder htmlResponse = new StringBuilder();
+
+            for (SalaryChange change : history) {
+
+                htmlResponse.append(String.format("%s; base salary: %9.2f -> %9.2f\n", change.changedAt(), change.before(), change.after()));
+            }
+
+            if (history.isEmpty()) {
+
+                htmlResponse.append("No base salary changes recorded.\n");
+            }
+
+            return ResponseEntity.status(HttpStatus.OK).body("Base salary history retrieved successfully:\n"
+                    + "<pre>\n" + htmlResponse + "</pre>");
+        } catch (DatabaseOperationException | NumberFormatException | DateTimeParseException e) {
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
+                    "Failed to retrieve base salary history: " + e.getMessage());
+        }
+    }
+
+    //listing the persons holding a job, one page at a time; the last id of a page is passed as "after", to get the next one;
+    @GetMapping("/{id}/persons")
+    public ResponseEntity<String> getJobPersons(@PathVariable String id, @RequestParam(required = false) String after,
+                                                @RequestParam(defaultValue = "50") String size) {
+
+        try {
+            Job job = jobService.getJobById(Integer.parseInt(id));
+            int pageSize = Integer.parseInt(size);
+
+            List<Person> persons = personService.getPersonsByJobId(
+                    job.getId(), after == null ? Integer.MIN_VALUE : Integer.parseInt(after), pageSize);
+
+            StringBuilder htmlResponse = new StringBuilder();
+
+            for (Person personLooped : persons) {
+
+                htmlResponse.append(String.format(
+                        "Person id: %2d; name: %18s; email: %25s; salary index: %3.1f\n",
+                        personLooped.getId(), personLooped.getName(), personLooped.getEmail(), personLooped.getSalaryIndex()
+                ));
+            }
+
+            if (persons.size() == pageSize) {
+
+                htmlResponse.append("Next page: after=").append(persons.get(persons.size() - 1).getId()).append("\n");
+            }
+
+            return ResponseEntity.status(HttpStatus.OK).body(job.getName() + "'s persons retrieved successfully:\n"
+                    + "<pre>\n" + htmlResponse + "</pre>");
+        } catch (DatabaseOperationException | NumberFormatException e) {
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
+                    "Failed to retrieve persons holding job: " + e.getMessage());
+        }
+    }
+
     private StringBuilder getAllJobsHtmlResponse() throws DatabaseOperationException {
 
         StringBuilder htmlResponse = new StringBuilder();
@@ -112,4 +284,20 @@ public class JobRestController {
 
         return htmlResponse;
     }
+
+    //from and to are a date (yyyy-MM-dd, from the start or to the end of the day) or a date-time (yyyy-MM-ddTHH:mm[:ss]);
+    private static LocalDateTime parseDateTime(String value, boolean endOfDay) {
+
+        if (value == null) {
+
+            return null;
+        }
+
+        if (value.contains("T")) {
+
+            return LocalDateTime.parse(value);
+        }
+
+        return endOfDay ? LocalDate.parse(value).atTime(LocalTime.MAX) : LocalDate.parse(value).atStartOfDay();
+    }
 }
\ No newline at end of file
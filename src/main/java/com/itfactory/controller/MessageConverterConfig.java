@@ -0,0 +1,40 @@
+package com.itfactory.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.itfactory.codec.JobJsonCodec;
+import com.itfactory.codec.JsonCodecHttpMessageConverter;
+import com.itfactory.codec.PersonJsonCodec;
+import com.itfactory.codec.WireFormat;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Registering the Person and Job codecs (JsonCodecHttpMessageConverter), for JSON and CBOR, ahead of the Jackson converters;
+ */
+
+@Configuration
+public class MessageConverterConfig implements WebMvcConfigurer {
+
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public MessageConverterConfig(ObjectMapper objectMapper) {
+
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+
+        converters.add(0, new JsonCodecHttpMessageConverter(new CBORFactory(), WireFormat.CBOR.getMediaType(),
+                new PersonJsonCodec(), new JobJsonCodec()));
+        converters.add(0, new JsonCodecHttpMessageConverter(objectMapper.getFactory(), WireFormat.JSON.getMediaType(),
+                new PersonJsonCodec(), new JobJsonCodec()));
+    }
+}
@@ -0,0 +1,183 @@
+package com.itfactory.controller;
+
+import com.itfactory.exceptions.DatabaseOperationException;
+import com.itfactory.model.PayrollImpact;
+import com.itfactory.model.PayrollSimulation;
+import com.itfactory.model.PayrollSummary;
+import com.itfactory.model.PayrollTotals;
+import com.itfactory.model.PersonSalary;
+import com.itfactory.model.SalaryPercentiles;
+import com.itfactory.model.SalaryScenario;
+import com.itfactory.service.PayrollService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * PayrollRestController contains the REST web services for payroll reports, over the person and job databases;
+ * Controller methods return a ResponseEntity of type String, including an HTTP status code;
+ */
+
+@RestController
+@RequestMapping("/payroll")
+public class PayrollRestController {
+
+    private final PayrollService payrollService;
+
+    @Autowired
+    public PayrollRestController(PayrollService payrollService) {
+
+        this.payrollService = payrollService;
+    }
+
+    //headcount and salary totals per job, per domain and overall; served from the materialized aggregates;
+    @GetMapping("/summary")
+    public ResponseEntity<String> getPayrollSummary() {
+
+        try {
+            PayrollSummary summary = payrollService.getPayrollSummary();
+            StringBuilder htmlResponse = new StringBuilder();
+
+            summary.byJobId().forEach((jobId, totals) -> htmlResponse.append(totalsLine("Job id: " + jobId, totals)));
+            htmlResponse.append("\n");
+            summary.byDomain().forEach((domain, totals) -> htmlResponse.append(totalsLine("Domain: " + domain, totals)));
+            htmlResponse.append("\n").append(totalsLine("Total", summary.total()));
+
+            return ResponseEntity.status(HttpStatus.OK).body("Payroll summary retrieved successfully:\n"
+                    + "<pre>\n" + htmlResponse + "</pre>");
+        } catch (DatabaseOperationException e) {
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
+                    "Failed to retrieve payroll summary: " + e.getMessage());
+        }
+    }
+
+    //p50/p90/p99 salaries and a salary histogram, for a domain and/or a job (everyone if neither is given);
+    @GetMapping("/percentiles")
+    public ResponseEntity<String> getSalaryPercentiles(@RequestParam(required = false) String domain,
+                                                       @RequestParam(required = false) String jobId) {
+
+        try {
+            SalaryPercentiles percentiles = payrollService.getSalaryPercentiles(
+                    domain, jobId == null ? null : Integer.parseInt(jobId));
+            StringBuilder htmlResponse = new StringBuilder(String.format(
+                    "Persons: %d; p50 salary: %.1f; p90 salary: %.1f; p99 salary: %.1f\n\n",
+                    percentiles.count(), percentiles.p50(), percentiles.p90(), percentiles.p99()));
+
+            for (SalaryPercentiles.Bucket bucket : percentiles.histogram()) {
+
+                htmlResponse.append(String.format("Salary %8.1f - %8.1f: %6d persons\n", bucket.from(), bucket.to(), bucket.count()));
+            }
+
+            return ResponseEntity.status(HttpStatus.OK).body("Salary percentiles retrieved successfully:\n"
+                    + "<pre>\n" + htmlResponse + "</pre>");
+        } catch (DatabaseOperationException | NumberFormatException e) {
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
+                    "Failed to retrieve salary percentiles: " + e.getMessage());
+        }
+    }
+
+    //the n highest paid persons, of a domain (or of everyone), highest first;
+    @GetMapping("/top")
+    public ResponseEntity<String> getTopPaidPersons(@RequestParam(defaultValue = "10") String n,
+                                                    @RequestParam(required = false) String domain) {
+
+        try {
+            List<PersonSalary> persons = payrollService.getTopPaidPersons(Integer.parseInt(n), domain);
+            StringBuilder htmlResponse = new StringBuilder();
+
+            for (PersonSalary personLooped : persons) {
+
+                htmlResponse.append(String.format(
+                        "Person id: %2d; name: %18s; job id: %3d; salary index: %3.1f; salary: %8.1f\n",
+                        personLooped.person().getId(), personLooped.person().getName(), personLooped.person().getJobId(),
+                        personLooped.person().getSalaryIndex(), personLooped.salary()
+                ));
+            }
+
+            return ResponseEntity.status(HttpStatus.OK).body("Top paid persons retrieved successfully:\n"
+                    + "<pre>\n" + htmlResponse + "</pre>");
+        } catch (DatabaseOperationException | NumberFormatException e) {
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
+                    "Failed to retrieve top paid persons: " + e.getMessage());
+        }
+    }
+
+    /*payroll impact of hypothetical changes, nothing is written; e.g. ?domainRaise=IT:7&salaryIndexCap=2.5
+    domainRaise=<domain>:<percent> and jobRaise=<job id>:<percent> raise base salaries; salaryIndex=<person id>:<salary index> overrides one person;*/
+    @GetMapping("/simulate")
+    public ResponseEntity<String> simulatePayroll(@RequestParam(required = false) List<String> domainRaise,
+                                                  @RequestParam(required = false) List<String> jobRaise,
+                                                  @RequestParam(required = false) List<String> salaryIndex,
+                                                  @RequestParam(required = false) String salaryIndexCap,
+                                                  @RequestParam(required = false) String salaryIndexFloor) {
+
+        try {
+            SalaryScenario scenario = new SalaryScenario(parsePairs(domainRaise, Function.identity()),
+                    parsePairs(jobRaise, Integer::parseInt), parsePairs(salaryIndex, Integer::parseInt),
+                    salaryIndexCap == null ? null : Double.parseDouble(salaryIndexCap),
+                    salaryIndexFloor == null ? null : Double.parseDouble(salaryIndexFloor));
+            PayrollSimulation simulation = payrollService.simulatePayroll(scenario);
+            StringBuilder htmlResponse = new StringBuilder();
+
+            simulation.byJobId().forEach((jobId, impact) -> htmlResponse.append(impactLine("Job id: " + jobId, impact)));
+            htmlResponse.append("\n");
+            simulation.byDomain().forEach((domain, impact) -> htmlResponse.append(impactLine("Domain: " + domain, impact)));
+            htmlResponse.append("\n").append(impactLine("Total", simulation.total()));
+
+            return ResponseEntity.status(HttpStatus.OK).body("Payroll simulation completed successfully:\n"
+                    + "<pre>\n" + htmlResponse + "</pre>");
+        } catch (DatabaseOperationException | NumberFormatException e) {
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
+                    "Failed to simulate payroll: " + e.getMessage());
+        }
+    }
+
+    private static String totalsLine(String label, PayrollTotals totals) {
+
+        return String.format("%-22s; persons: %5d; salary sum: %12.1f; salary index sum: %8.1f; "
+                        + "average salary: %8.1f; min salary: %8.1f; max salary: %8.1f\n",
+                label, totals.count(), totals.salarySum(), totals.salaryIndexSum(),
+                totals.averageSalary(), totals.minSalary(), totals.maxSalary());
+    }
+
+    private static String impactLine(String label, PayrollImpact impact) {
+
+        return String.format("%-22s; persons: %5d; current salary sum: %12.1f; simulated salary sum: %12.1f; "
+                        + "delta: %+12.1f (%+.2f%%)\n",
+                label, impact.count(), impact.currentSalarySum(), impact.simulatedSalarySum(), impact.delta(), impact.deltaPercent());
+    }
+
+    //parsing "<key>:<value>" parameters (split on the last colon, so a key may contain one);
+    private static <K> Map<K, Double> parsePairs(List<String> pairs, Function<String, K> keyParser) {
+
+        Map<K, Double> parsed = new HashMap<>();
+
+        for (String pair : pairs == null ? List.<String>of() : pairs) {
+
+            int separator = pair.lastIndexOf(':');
+
+            if (separator <= 0) {
+
+                throw new NumberFormatException("Invalid Input '" + pair + "' - Please specify <key>:<value>!");
+            }
+
+            parsed.put(keyParser.apply(pair.substring(0, separator).trim()), Double.parseDouble(pair.substring(separator + 1)));
+        }
+
+        return parsed;
+    }
+}
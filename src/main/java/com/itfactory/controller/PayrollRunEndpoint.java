@@ -0,0 +1,32 @@
+package com.itfactory.controller;
+
+import com.itfactory.model.PayrollRunProgress;
+import com.itfactory.service.PayrollRunService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Custom actuator endpoint (/actuator/payrollrun), exposing the progress of the current (or last) monthly payroll run;
+ */
+
+@Component
+@Endpoint(id = "payrollrun")
+public class PayrollRunEndpoint {
+
+    private final PayrollRunService payrollRunService;
+
+    @Autowired
+    public PayrollRunEndpoint(PayrollRunService payrollRunService) {
+
+        this.payrollRunService = payrollRunService;
+    }
+
+    @ReadOperation
+    public PayrollRunProgress progress() {
+
+        return payrollRunService.getProgress();
+    }
+}
@@ -0,0 +1,187 @@
+package com.itfactory.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.itfactory.codec.RowStreams;
+import com.itfactory.codec.WireFormat;
+import com.itfactory.exceptions.DatabaseOperationException;
+import com.itfactory.model.JobDto;
+import com.itfactory.model.Person;
+import com.itfactory.model.PersonDto;
+import com.itfactory.model.PersonField;
+import com.itfactory.model.PersonSalaryDto;
+import com.itfactory.model.ResourceField;
+import com.itfactory.service.PersonService;
+import com.itfactory.storage.TableVersions;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * PersonApiController is the JSON API (v2) for persons: the same operations as PersonRestController, returning typed DTOs;
+ * DTOs are served as JSON, or as CBOR (application/cbor) when the client asks for it;
+ * Failures are answered by ApiExceptionHandler, as an ApiError;
+ */
+
+@RestController
+@RequestMapping(value = "/api/v2/person", produces = {MediaType.APPLICATION_JSON_VALUE, WireFormat.CBOR_VALUE})
+public class PersonApiController {
+
+    private final PersonService personService;
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${api.columnar.row-group-size:4096}")
+    private int rowGroupSize = 4096;
+
+    private TableVersions tableVersions;
+
+    @Autowired
+    public PersonApiController(PersonService personService, ObjectMapper objectMapper) {
+
+        this.personService = personService;
+        this.objectMapper = objectMapper;
+    }
+
+    //without the table versions, reads have no ETag;
+    @Autowired
+    public void setTableVersions(TableVersions tableVersions) {
+
+        this.tableVersions = tableVersions;
+    }
+
+    //tagged with the person's row version (and format): a client sending back a current ETag gets a 304, without a database read;
+    @GetMapping("/{id}")
+    public ResponseEntity<PersonDto> getPersonById(@PathVariable int id,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept, WebRequest webRequest) throws DatabaseOperationException {
+
+        WireFormat format = WireFormat.negotiate(accept, WireFormat.JSON, WireFormat.CBOR);
+        String eTag = tableVersions == null || format == null ? null
+                : tableVersions.rowETag(TableVersions.PERSON, id, format.name().toLowerCase(Locale.ROOT));
+
+        if (eTag != null && webRequest.checkNotModified(eTag)) {
+
+            return null;
+        }
+
+        PersonDto person = PersonDto.of(personService.getPersonById(id));
+
+        if (eTag == null) {
+
+            return ResponseEntity.status(HttpStatus.OK).body(person);
+        }
+
+        return ResponseEntity.status(HttpStatus.OK).eTag(eTag).header(HttpHeaders.VARY, HttpHeaders.ACCEPT).body(person);
+    }
+
+    //only the fields named in fields= (e.g. fields=id,name) are read from the database and returned;
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<StreamingResponseBody> getPersonFieldsById(@PathVariable int id, @RequestParam String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) throws DatabaseOperationException {
+
+        Set<PersonField> selectedFields = ResourceField.parse(fields, PersonField.class);
+        WireFormat format = WireFormat.negotiate(accept, WireFormat.JSON, WireFormat.CBOR);
+
+        if (format == null) {
+
+            return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
+        }
+
+        Person person = personService.getPersonById(id, selectedFields);
+
+        return ResponseEntity.status(HttpStatus.OK).contentType(format.getMediaType()).body(RowStreams.objectBody(
+                format, objectMapper.getFactory(), person, (generator, row) -> PersonDto.write(generator, row, selectedFields)));
+    }
+
+    @PostMapping(consumes = {MediaType.APPLICATION_JSON_VALUE, WireFormat.CBOR_VALUE})
+    public ResponseEntity<PersonDto> insertPerson(@RequestBody PersonDto person) throws DatabaseOperationException {
+
+        personService.insertPerson(person.toPerson());
+        return ResponseEntity.status(HttpStatus.CREATED).body(person);
+    }
+
+    /*batch ingest: an array of persons (JSON, or CBOR), read straight into Person objects by PersonJsonCodec
+    (JsonCodecHttpMessageConverter), and inserted in a single transaction;*/
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, WireFormat.CBOR_VALUE})
+    public ResponseEntity<Void> insertPersons(@RequestBody List<Person> persons) throws DatabaseOperationException {
+
+        personService.insertPersons(persons);
+        return ResponseEntity.status(HttpStatus.CREATED).build();
+    }
+
+    /*persons written one by one to the response as they are read (RowStreams), as JSON, CBOR, or CBOR frames
+    (application/x-cbor-frames: one length-prefixed CBOR object per person, decodable as it arrives);
+    with fields=, only those fields are read from the database and written;*/
+    @GetMapping(value = "/all", produces = {MediaType.APPLICATION_JSON_VALUE, WireFormat.CBOR_VALUE, WireFormat.CBOR_FRAMES_VALUE})
+    public ResponseEntity<StreamingResponseBody> getAllPersons(@RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) throws DatabaseOperationException {
+
+        Set<PersonField> selectedFields = ResourceField.parse(fields, PersonField.class);
+        RowStreams.RowWriter<Person> writer = fields == null
+                ? PersonDto::write
+                : (generator, person) -> PersonDto.write(generator, person, selectedFields);
+        WireFormat format = WireFormat.negotiate(accept, WireFormat.JSON, WireFormat.CBOR, WireFormat.CBOR_FRAMES);
+
+        if (format == null) {
+
+            return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
+        }
+
+        return ResponseEntity.status(HttpStatus.OK).contentType(format.getMediaType())
+                .body(RowStreams.body(format, objectMapper.getFactory(),
+                        consumer -> personService.forEachPerson(selectedFields, consumer), writer));
+    }
+
+    /*the columnar export (?layout=columnar): persons in row groups of one array per column, with dictionary encoded names and
+    job domains (ColumnarPersonWriter), read from the database cursor one row group at a time; as JSON or CBOR;*/
+    @GetMapping(value = "/all", params = "layout=columnar", produces = {MediaType.APPLICATION_JSON_VALUE, WireFormat.CBOR_VALUE})
+    public ResponseEntity<StreamingResponseBody> getAllPersonsColumnar(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+
+        WireFormat format = WireFormat.negotiate(accept, WireFormat.JSON, WireFormat.CBOR);
+
+        if (format == null) {
+
+            return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
+        }
+
+        return ResponseEntity.status(HttpStatus.OK).contentType(format.getMediaType())
+                .body(RowStreams.columnarBody(format, objectMapper.getFactory(),
+                        consumer -> personService.forEachPersonRowGroup(rowGroupSize, consumer)));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deletePerson(@PathVariable int id) throws DatabaseOperationException {
+
+        personService.deletePerson(id);
+        return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+    }
+
+    @PutMapping("/{id}/salary-index/{salaryIndex}")
+    public PersonDto updateSalaryIndex(@PathVariable int id, @PathVariable double salaryIndex) throws DatabaseOperationException {
+
+        return PersonDto.of(personService.updateSalaryIndex(id, salaryIndex));
+    }
+
+    @GetMapping("/{id}/job")
+    public JobDto getPersonJob(@PathVariable int id) throws DatabaseOperationException {
+
+        return JobDto.of(personService.getPersonJob(id));
+    }
+
+    @GetMapping("/{id}/salary")
+    public PersonSalaryDto getPersonSalary(@PathVariable int id) throws DatabaseOperationException {
+
+        return new PersonSalaryDto(id, personService.getPersonSalary(id));
+    }
+}
@@ -1,20 +1,39 @@
 package com.itfactory.controller;
 
+import com.itfactory.codec.CompressedBody;
+import com.itfactory.codec.ContentEncoding;
+import com.itfactory.exceptions.ChangesExpiredException;
 import com.itfactory.exceptions.DatabaseOperationException;
 import com.itfactory.model.Person;
+import com.itfactory.model.PersonSalary;
+import com.itfactory.model.RowChanges;
+import com.itfactory.model.SalaryHistoryEntry;
+import com.itfactory.model.WorkExperienceCounts;
+import com.itfactory.model.WorkExperienceDistribution;
 import com.itfactory.service.PersonService;
+import com.itfactory.storage.CompressedBodyCache;
+import com.itfactory.storage.SearchMatch;
+import com.itfactory.storage.TableVersions;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 /**
  * PersonRestController contains the REST web services for interacting with the person database;
  * Defining HTTP methods and endpoints for our user management system;
- * Controller methods return a ResponseEntity of type String, including an HTTP status code;
+ * Controller methods return a ResponseEntity of type String, including an HTTP status code (/all: its bytes, possibly compressed);
  * Each handler method contains a call to the Service method;
  */
 
@@ -22,9 +41,15 @@ import java.util.List;
 @RequestMapping("/person")
 public class PersonRestController {
 
+    private static final MediaType TEXT_HTML_UTF8 = new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8);
+
     //Creating a PersonService object, as to call the PersonService methods;
     private final PersonService personService;
 
+    private CompressedBodyCache compressedBodyCache;
+
+    private TableVersions tableVersions;
+
     //Injecting the PersonService object, by use of @Autowired;
     @Autowired
     public PersonRestController(PersonService personService) {
@@ -32,6 +57,20 @@ public class PersonRestController {
         this.personService = personService;
     }
 
+    //Injecting the compressed body cache by setter injection; without it, /all is rendered (uncompressed) on every request;
+    @Autowired
+    public void setCompressedBodyCache(CompressedBodyCache compressedBodyCache) {
+
+        this.compressedBodyCache = compressedBodyCache;
+    }
+
+    //Injecting the table versions by setter injection; without them (or the cache), /all has no ETag;
+    @Autowired
+    public void setTableVersions(TableVersions tableVersions) {
+
+        this.tableVersions = tableVersions;
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<String> getPersonById(@PathVariable String id) {
 
@@ -44,6 +83,100 @@ public class PersonRestController {
         }
     }
 
+    @GetMapping("/by-email/{email}")
+    public ResponseEntity<String> getPersonByEmail(@PathVariable String email) {
+
+        try {
+            Person person = personService.getPersonByEmail(email);
+            return ResponseEntity.status(HttpStatus.OK).body("Person retrieved by email successfully: " + "\n" + person);
+        } catch (DatabaseOperationException e) {
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to get person by email: " + e.getMessage());
+        }
+    }
+
+    //typo tolerant name search, best matches first; also usable for typeahead (the last word of the query is matched as a prefix);
+    @GetMapping("/search")
+    public ResponseEntity<String> searchPersons(@RequestParam String q, @RequestParam(defaultValue = "10") String limit) {
+
+        try {
+            List<SearchMatch> matches = personService.searchPersons(q, Integer.parseInt(limit));
+            StringBuilder htmlResponse = new StringBuilder();
+
+            for (SearchMatch match : matches) {
+
+                htmlResponse.append(String.format(
+                        "Person id: %2d; name: %18s; email: %25s; score: %4.2f\n",
+                        match.person().getId(), match.person().getName(), match.person().getEmail(), match.score()
+                ));
+            }
+
+            return ResponseEntity.status(HttpStatus.OK).body("Persons matching '" + q + "' retrieved successfully:\n"
+                    + "<pre>\n" + htmlResponse + "</pre>");
+        } catch (DatabaseOperationException | NumberFormatException e) {
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to search persons: " + e.getMessage());
+        }
+    }
+
+    //persons with a salary index between min and max (inclusive), lowest first;
+    @GetMapping("/salary-index")
+    public ResponseEntity<String> getPersonsBySalaryIndexRange(@RequestParam(defaultValue = "1") String min,
+                                                               @RequestParam(defaultValue = "3") String max,
+                                                               @RequestParam(defaultValue = "50") String size) {
+
+        try {
+            List<Person> persons = personService.getPersonsBySalaryIndexRange(
+                    Double.parseDouble(min), Double.parseDouble(max), Integer.parseInt(size));
+            StringBuilder htmlResponse = new StringBuilder();
+
+            for (Person personLooped : persons) {
+
+                htmlResponse.append(String.format(
+                        "Person id: %2d; name: %18s; email: %25s; job id: %3d; salary index: %3.1f\n",
+                        personLooped.getId(), personLooped.getName(), personLooped.getEmail(),
+                        personLooped.getJobId(), personLooped.getSalaryIndex()
+                ));
+            }
+
+            return ResponseEntity.status(HttpStatus.OK).body("Persons by salary index range retrieved successfully:\n"
+                    + "<pre>\n" + htmlResponse + "</pre>");
+        } catch (DatabaseOperationException | NumberFormatException e) {
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
+                    "Failed to retrieve persons by salary index range: " + e.getMessage());
+        }
+    }
+
+    //persons with a computed salary (salary index * job base salary) between min and max (inclusive), lowest first;
+    @GetMapping("/salary")
+    public ResponseEntity<String> getPersonsBySalaryRange(@RequestParam(defaultValue = "0") String min,
+                                                          @RequestParam(required = false) String max,
+                                                          @RequestParam(defaultValue = "50") String size) {
+
+        try {
+            List<PersonSalary> persons = personService.getPersonsBySalaryRange(Double.parseDouble(min),
+                    max == null ? Double.MAX_VALUE : Double.parseDouble(max), Integer.parseInt(size));
+            StringBuilder htmlResponse = new StringBuilder();
+
+            for (PersonSalary personLooped : persons) {
+
+                htmlResponse.append(String.format(
+                        "Person id: %2d; name: %18s; job id: %3d; salary index: %3.1f; salary: %8.1f\n",
+                        personLooped.person().getId(), personLooped.person().getName(), personLooped.person().getJobId(),
+                        personLooped.person().getSalaryIndex(), personLooped.salary()
+                ));
+            }
+
+            return ResponseEntity.status(HttpStatus.OK).body("Persons by salary range retrieved successfully:\n"
+                    + "<pre>\n" + htmlResponse + "</pre>");
+        } catch (DatabaseOperationException | NumberFormatException e) {
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
+                    "Failed to retrieve persons by salary range: " + e.getMessage());
+        }
+    }
+
     @PostMapping
     public ResponseEntity<String> insertPerson(@RequestBody Person person) {
 
@@ -56,18 +189,86 @@ public class PersonRestController {
         }
     }
 
+    /*the rendered (and compressed) body is cached until the next write, so polling clients get the same bytes without a re-render;
+    after a write, the previous body is served (stale-while-revalidate) while the new one is rendered off the request thread;
+    tagged with the version of the body served: a client sending back a current ETag (If-None-Match) gets a 304, before anything is read;*/
     @GetMapping("/all")
-    public ResponseEntity<String> getAllPersons() {
+    public ResponseEntity<byte[]> getAllPersons(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                WebRequest webRequest) {
+
+        CompressedBodyCache.BodyRenderer renderer = () -> "Person database retrieved successfully:\n"
+                + "<pre>" + getAllPersonsHtmlResponse() + "</pre>";
 
         try {
-            StringBuilder getAllHtmlResponse = getAllPersonsHtmlResponse();
-            return ResponseEntity.status(HttpStatus.OK)
-                    .body("Person database retrieved successfully:\n"
-                            + "<pre>" + getAllHtmlResponse + "</pre>");
+            if (compressedBodyCache == null || tableVersions == null) {
+
+                return new CompressedBody(renderer.render().getBytes(StandardCharsets.UTF_8), ContentEncoding.IDENTITY)
+                        .toResponseEntity(HttpStatus.OK, TEXT_HTML_UTF8);
+            }
+
+            //read before rendering, so the body is never older than the version tagging it;
+            long version = tableVersions.tableVersion(TableVersions.PERSON);
+            CompressedBodyCache.CachedBody body = compressedBodyCache.getIfCached(CompressedBodyCache.ALL_PERSONS, version, renderer);
+
+            //tagged with the version of the body served (an older one, while the current version is rendered in the background);
+            String eTag = tableVersions.eTag(CompressedBodyCache.ALL_PERSONS, body != null ? body.getVersion() : version,
+                    compressedBodyCache.encodingFor(acceptEncoding).getToken());
+
+            if (webRequest.checkNotModified(eTag)) {
+
+                return null;
+            }
+
+            if (body == null) {
+
+                body = compressedBodyCache.render(CompressedBodyCache.ALL_PERSONS, version, renderer);
+            }
+
+            return compressedBodyCache.encode(body, acceptEncoding).toResponseEntity(HttpStatus.OK, TEXT_HTML_UTF8, eTag);
         } catch (DatabaseOperationException e) {
 
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).contentType(TEXT_HTML_UTF8).body(
+                    ("Failed to retrieve person database: " + e.getMessage()).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /*delta sync: the persons changed and the ids deleted since a version (the "Version" of the previous response), in version order;
+    without since, every person; 410 if deletes since that version were already compacted (sync again without since);*/
+    @GetMapping("/changes")
+    public ResponseEntity<String> getPersonChanges(@RequestParam(required = false) String since,
+                                                   @RequestParam(defaultValue = "1000") String limit) {
+
+        try {
+            RowChanges<Person> changes = personService.getPersonChanges(
+                    since == null ? null : Long.valueOf(since), Integer.parseInt(limit));
+            StringBuilder htmlResponse = new StringBuilder();
+
+            for (Person personLooped : changes.changed()) {
+
+                htmlResponse.append(String.format(
+                        "Person id: %2d; name: %18s; email: %25s; job id: %3d; salary index: %3.1f\n",
+                        personLooped.getId(), personLooped.getName(), personLooped.getEmail(),
+                        personLooped.getJobId(), personLooped.getSalaryIndex()
+                ));
+            }
+
+            changes.deletedIds().forEach(id -> htmlResponse.append("Deleted person id: ").append(id).append("\n"));
+            htmlResponse.append("Version: ").append(changes.version()).append("\n");
+
+            if (changes.hasMore()) {
+
+                htmlResponse.append("More changes: /person/changes?since=").append(changes.version()).append("\n");
+            }
+
+            return ResponseEntity.status(HttpStatus.OK).body("Person changes retrieved successfully:\n"
+                    + "<pre>\n" + htmlResponse + "</pre>");
+        } catch (ChangesExpiredException e) {
+
+            return ResponseEntity.status(HttpStatus.GONE).body("Failed to retrieve person changes: " + e.getMessage());
+        } catch (DatabaseOperationException | NumberFormatException e) {
+
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
-                    "Failed to retrieve person database: " + e.getMessage());
+                    "Failed to retrieve person changes: " + e.getMessage());
         }
     }
 
@@ -127,6 +328,36 @@ public class PersonRestController {
         }
     }
 
+    //each change of the person's salary index or their job's base salary, optionally within a from/to range;
+    @GetMapping("/{id}/salary/history")
+    public ResponseEntity<String> getSalaryHistory(@PathVariable String id, @RequestParam(required = false) String from,
+                                                   @RequestParam(required = false) String to) {
+
+        try {
+            List<SalaryHistoryEntry> history = personService.getSalaryHistory(
+                    Integer.parseInt(id), parseDateTime(from, false), parseDateTime(to, true));
+            StringBuilder htmlResponse = new StringBuilder();
+
+            for (SalaryHistoryEntry entry : history) {
+
+                htmlResponse.append(String.format("%s; changed: %-12s; salary index: %4.2f; base salary: %9.2f; salary: %9.2f\n",
+                        entry.changedAt(), entry.changed(), entry.salaryIndex(), entry.baseSalary(), entry.salary()));
+            }
+
+            if (history.isEmpty()) {
+
+                htmlResponse.append("No salary changes recorded.\n");
+            }
+
+            return ResponseEntity.status(HttpStatus.OK).body("Salary history retrieved successfully:\n"
+                    + "<pre>\n" + htmlResponse + "</pre>");
+        } catch (DatabaseOperationException | NumberFormatException | DateTimeParseException e) {
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
+                    "Failed to retrieve salary history: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/{id}/workexperience")
     public ResponseEntity<String> getPersonWorkExperience(@PathVariable String id) {
 
@@ -140,6 +371,28 @@ public class PersonRestController {
         }
     }
 
+    //number of persons in each work experience tier, per job, per domain and overall;
+    @GetMapping("/work-experience/distribution")
+    public ResponseEntity<String> getWorkExperienceDistribution() {
+
+        try {
+            WorkExperienceDistribution distribution = personService.getWorkExperienceDistribution();
+            StringBuilder htmlResponse = new StringBuilder();
+
+            distribution.byJobId().forEach((jobId, counts) -> htmlResponse.append(countsLine("Job id: " + jobId, counts)));
+            htmlResponse.append("\n");
+            distribution.byDomain().forEach((domain, counts) -> htmlResponse.append(countsLine("Domain: " + domain, counts)));
+            htmlResponse.append("\n").append(countsLine("Total", distribution.total()));
+
+            return ResponseEntity.status(HttpStatus.OK).body("Work experience distribution retrieved successfully:\n"
+                    + "<pre>\n" + htmlResponse + "</pre>");
+        } catch (DatabaseOperationException e) {
+
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
+                    "Failed to retrieve work experience distribution: " + e.getMessage());
+        }
+    }
+
     private StringBuilder getAllPersonsHtmlResponse() throws DatabaseOperationException {
 
         List<Person> persons = personService.getAllPersons();
@@ -156,4 +409,26 @@ public class PersonRestController {
 
         return htmlResponse;
     }
+
+    private static String countsLine(String label, WorkExperienceCounts counts) {
+
+        return String.format("%-22s; entry: %5d; entry-to-mid: %5d; mid: %5d; senior: %5d; persons: %6d\n",
+                label, counts.entry(), counts.entryToMid(), counts.middle(), counts.senior(), counts.total());
+    }
+
+    //from and to are a date (yyyy-MM-dd, from the start or to the end of the day) or a date-time (yyyy-MM-ddTHH:mm[:ss]);
+    private static LocalDateTime parseDateTime(String value, boolean endOfDay) {
+
+        if (value == null) {
+
+            return null;
+        }
+
+        if (value.contains("T")) {
+
+            return LocalDateTime.parse(value);
+        }
+
+        return endOfDay ? LocalDate.parse(value).atTime(LocalTime.MAX) : LocalDate.parse(value).atStartOfDay();
+    }
 }
\ No newline at end of file
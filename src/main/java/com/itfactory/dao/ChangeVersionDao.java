@@ -0,0 +1,178 @@
+package com.itfactory.dao;
+
+import com.itfactory.exceptions.ChangesExpiredException;
+import com.itfactory.exceptions.DatabaseOperationException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.sql.*;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Row versions for delta sync: every person and job write takes the next version of change_sequence ('row'), in its transaction;
+ * The sequence row stays locked until the write commits, so versions become visible in increasing order: a client synced up to
+ * version v never misses a row committed later with a lower version;
+ * Deletes leave a tombstone (entity, id, version); tombstones past the retention window are compacted, and 'compacted' records the
+ * highest version removed: changes since an older version can't be served anymore (ChangesExpiredException);
+ * The static methods run inside the caller's transaction (PersonDao, JobDao);
+ */
+
+@Repository
+public class ChangeVersionDao {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChangeVersionDao.class);
+
+    public static final String PERSON = "person";
+
+    public static final String JOB = "job";
+
+    @Value("${db.url}")
+    private String DB_URL;
+
+    @Value("${db.user}")
+    private String DB_USER;
+
+    @Value("${db.pass}")
+    private String DB_PASS;
+
+    //deleting the tombstones older than the retention window; returns how many were deleted;
+    public int compactTombstones(Duration retention) throws DatabaseOperationException {
+
+        try (Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS)) {
+            LOGGER.info("Connected to MySQL database;");
+
+            connection.setAutoCommit(false);
+
+            try {
+                PreparedStatement horizonStatement = connection.prepareStatement(
+                        "SELECT MAX(rowVersion) FROM tombstone WHERE deletedAt < ?");
+                horizonStatement.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now().minus(retention)));
+                ResultSet resultSet = horizonStatement.executeQuery();
+                resultSet.next();
+                long horizon = resultSet.getLong(1);
+
+                if (resultSet.wasNull()) {
+
+                    connection.rollback();
+                    return 0;
+                }
+
+                //removing by version (not time), so everything up to the recorded horizon is gone, and nothing after it;
+                PreparedStatement deleteStatement = connection.prepareStatement("DELETE FROM tombstone WHERE rowVersion <= ?");
+                deleteStatement.setLong(1, horizon);
+                int deleted = deleteStatement.executeUpdate();
+
+                PreparedStatement compactedStatement = connection.prepareStatement(
+                        "UPDATE change_sequence SET version = GREATEST(version, ?) WHERE name = 'compacted'");
+                compactedStatement.setLong(1, horizon);
+                compactedStatement.executeUpdate();
+
+                connection.commit();
+
+                LOGGER.info("Compacted " + deleted + " tombstones, up to version " + horizon + ";");
+                return deleted;
+            } catch (SQLException e) {
+
+                connection.rollback();
+                throw e;
+            }
+
+        } catch (SQLException e) {
+
+            LOGGER.error("Connection failure", e);
+            throw new DatabaseOperationException(e.getMessage());
+        }
+    }
+
+    //the next row version; the sequence row stays locked until the caller's transaction ends;
+    static long nextVersion(Connection connection) throws SQLException {
+
+        connection.prepareStatement("UPDATE change_sequence SET version = LAST_INSERT_ID(version + 1) WHERE name = 'row'")
+                .executeUpdate();
+
+        ResultSet resultSet = connection.prepareStatement("SELECT LAST_INSERT_ID()").executeQuery();
+        resultSet.next();
+
+        return resultSet.getLong(1);
+    }
+
+    //reserving count consecutive row versions at once (for a batch insert); returns the first of them;
+    static long nextVersions(Connection connection, int count) throws SQLException {
+
+        PreparedStatement statement = connection.prepareStatement(
+                "UPDATE change_sequence SET version = LAST_INSERT_ID(version + ?) WHERE name = 'row'");
+        statement.setInt(1, count);
+        statement.executeUpdate();
+
+        ResultSet resultSet = connection.prepareStatement("SELECT LAST_INSERT_ID()").executeQuery();
+        resultSet.next();
+
+        return resultSet.getLong(1) - count + 1;
+    }
+
+    static void insertTombstone(Connection connection, String entity, int id, long version) throws SQLException {
+
+        PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO tombstone (entity, id, rowVersion, deletedAt) VALUES (?, ?, ?, NOW())");
+        statement.setString(1, entity);
+        statement.setInt(2, id);
+        statement.setLong(3, version);
+        statement.executeUpdate();
+    }
+
+    /*the latest committed row version, after checking that changes since the given version can still be served (since < 0 asks for
+    every row, without deletes); being the first read of the caller's transaction, it also fixes the snapshot its next reads see;*/
+    static long currentVersion(Connection connection, long since) throws SQLException, ChangesExpiredException {
+
+        ResultSet resultSet = connection.prepareStatement(
+                "SELECT name, version FROM change_sequence WHERE name IN ('row', 'compacted')").executeQuery();
+        long current = 0;
+        long compacted = 0;
+
+        while (resultSet.next()) {
+
+            if (resultSet.getString("name").equals("row")) {
+
+                current = resultSet.getLong("version");
+            } else {
+
+                compacted = resultSet.getLong("version");
+            }
+        }
+
+        if (since >= 0 && since < compacted) {
+
+            throw new ChangesExpiredException("Changes since version " + since + " are no longer available (deletes before version "
+                    + compacted + " were compacted) - resync without since.");
+        }
+
+        return current;
+    }
+
+    //the ids deleted since the given version, with their versions, oldest first (at most limit);
+    static void getTombstones(Connection connection, String entity, long since, int limit,
+                              List<Integer> deletedIds, List<Long> deletedVersions) throws SQLException {
+
+        PreparedStatement statement = connection.prepareStatement(
+                "SELECT id, rowVersion FROM tombstone WHERE entity = ? AND rowVersion > ? ORDER BY rowVersion LIMIT ?");
+        statement.setString(1, entity);
+        statement.setLong(2, since);
+        statement.setInt(3, limit);
+
+        ResultSet resultSet = statement.executeQuery();
+        int idColumn = resultSet.findColumn("id");
+        int rowVersionColumn = resultSet.findColumn("rowVersion");
+
+        while (resultSet.next()) {
+
+            deletedIds.add(resultSet.getInt(idColumn));
+            deletedVersions.add(resultSet.getLong(rowVersionColumn));
+        }
+    }
+}
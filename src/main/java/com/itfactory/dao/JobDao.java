@@ -2,6 +2,9 @@ package com.itfactory.dao;
 
 import com.itfactory.exceptions.DatabaseOperationException;
 import com.itfactory.model.Job;
+import com.itfactory.model.JobField;
+import com.itfactory.model.ResourceField;
+import com.itfactory.model.RowChanges;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,6 +15,7 @@ import org.springframework.stereotype.Repository;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 /**
  * JobDao contains the database manipulation functionality (CRUD) for our job database;
@@ -23,6 +27,9 @@ public class JobDao {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(JobDao.class);
 
+    //rows sent to the database per JDBC batch, when inserting a batch of jobs;
+    private static final int BATCH_SIZE = 1000;
+
     @Value("${db.url}")
     private String DB_URL;
 
@@ -45,14 +52,11 @@ public class JobDao {
 
             LOGGER.info("Executing query: SELECT * FROM job WHERE id = " + id);
             ResultSet resultSet = statement.executeQuery();
+            JobRowMapper mapper = JobRowMapper.of(resultSet);
 
             if (resultSet.next()) {
 
-                Job retrievedJob = new Job();
-                retrievedJob.setId(resultSet.getInt("id"));
-                retrievedJob.setName(resultSet.getString("name"));
-                retrievedJob.setDomain(resultSet.getString("domain"));
-                retrievedJob.setBaseSalary(resultSet.getDouble("baseSalary"));
+                Job retrievedJob = mapper.map();
 
                 LOGGER.info("Retrieved job by id successfully;");
                 System.out.println(retrievedJob);
@@ -69,21 +73,63 @@ public class JobDao {
         }
     }
 
-    public void insertJob(Job job) throws DatabaseOperationException {
+    //reading only the selected fields' columns (the other fields are left unset);
+    public Job getJobById(int id, Set<JobField> fields) throws DatabaseOperationException {
 
-        try {
-            Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS);
+        String query = "SELECT " + ResourceField.columns(fields) + " FROM job WHERE id = ?";
+
+        try (Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS)) {
             LOGGER.info("Connected to MySQL database;");
 
-            PreparedStatement statement = connection.prepareStatement("INSERT INTO job VALUES(?, ?, ?, ?)");
+            PreparedStatement statement = connection.prepareStatement(query);
             LOGGER.info("Prepared statement;");
 
-            statement.setInt(1, job.getId());
-            statement.setString(2, job.getName());
-            statement.setString(3, job.getDomain());
-            statement.setDouble(4, job.getBaseSalary());
+            statement.setInt(1, id);
+
+            LOGGER.info("Executing query: " + query.replace("?", String.valueOf(id)));
+            ResultSet resultSet = statement.executeQuery();
+
+            if (!resultSet.next()) {
+
+                throw new DatabaseOperationException("No job was found in the database with the given id.");
+            }
+
+            LOGGER.info("Retrieved job by id successfully;");
+            return JobRowMapper.of(resultSet).map();
+
+        } catch (SQLException e) {
+
+            LOGGER.error("Connection failure", e);
+            throw new DatabaseOperationException(e.getMessage());
+        }
+    }
+
+    public void insertJob(Job job) throws DatabaseOperationException {
+
+        try (Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS)) {
+            LOGGER.info("Connected to MySQL database;");
+
+            connection.setAutoCommit(false);
+
+            try {
+                PreparedStatement statement = connection.prepareStatement(
+                        "INSERT INTO job (id, name, domain, baseSalary, rowVersion) VALUES(?, ?, ?, ?, ?)");
+                LOGGER.info("Prepared statement;");
+
+                statement.setInt(1, job.getId());
+                statement.setString(2, job.getName());
+                statement.setString(3, job.getDomain());
+                statement.setDouble(4, job.getBaseSalary());
+                statement.setLong(5, ChangeVersionDao.nextVersion(connection));
+
+                statement.execute();
+                connection.commit();
+            } catch (SQLException e) {
+
+                connection.rollback();
+                throw e;
+            }
 
-            statement.execute();
             System.out.println(job);
             LOGGER.info("Entry added successfully;");
 
@@ -94,6 +140,54 @@ public class JobDao {
         }
     }
 
+    //inserting a batch of jobs (batch ingest) in a single transaction, as PersonDao.insertPersons;
+    public void insertJobs(List<Job> jobs) throws DatabaseOperationException {
+
+        try (Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS)) {
+            LOGGER.info("Connected to MySQL database;");
+
+            connection.setAutoCommit(false);
+
+            try {
+                PreparedStatement statement = connection.prepareStatement(
+                        "INSERT INTO job (id, name, domain, baseSalary, rowVersion) VALUES(?, ?, ?, ?, ?)");
+                LOGGER.info("Prepared statement;");
+
+                long firstVersion = ChangeVersionDao.nextVersions(connection, jobs.size());
+
+                for (int i = 0; i < jobs.size(); i++) {
+
+                    Job job = jobs.get(i);
+                    statement.setInt(1, job.getId());
+                    statement.setString(2, job.getName());
+                    statement.setString(3, job.getDomain());
+                    statement.setDouble(4, job.getBaseSalary());
+                    statement.setLong(5, firstVersion + i);
+                    statement.addBatch();
+
+                    if ((i + 1) % BATCH_SIZE == 0) {
+
+                        statement.executeBatch();
+                    }
+                }
+
+                statement.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+
+                connection.rollback();
+                throw e;
+            }
+
+            LOGGER.info("Added " + jobs.size() + " entries successfully;");
+
+        } catch (SQLException e) {
+
+            LOGGER.error("Connection failure", e);
+            throw new DatabaseOperationException(e.getMessage());
+        }
+    }
+
     public List<Job> getAllJobs() throws DatabaseOperationException {
 
         try {
@@ -105,16 +199,13 @@ public class JobDao {
 
             LOGGER.info("Executing query: SELECT * FROM job");
             ResultSet resultSet = statement.executeQuery();
+            JobRowMapper mapper = JobRowMapper.of(resultSet);
 
             List<Job> retrievedList = new ArrayList<>();
 
             while (resultSet.next()) {
 
-                Job jobRetrieved = new Job();
-                jobRetrieved.setId(resultSet.getInt("id"));
-                jobRetrieved.setName(resultSet.getString("name"));
-                jobRetrieved.setDomain(resultSet.getString("domain"));
-                jobRetrieved.setBaseSalary(resultSet.getInt("baseSalary"));
+                Job jobRetrieved = mapper.map();
 
                 retrievedList.add(jobRetrieved);
             }
@@ -130,20 +221,61 @@ public class JobDao {
         }
     }
 
-    public void deleteJob(int id) throws DatabaseOperationException {
+    public List<Job> getAllJobs(Set<JobField> fields) throws DatabaseOperationException {
 
-        try {
-            Connection connection = DriverManager.getConnection(
-                    DB_URL, DB_USER, DB_PASS);
+        String query = "SELECT " + ResourceField.columns(fields) + " FROM job ORDER BY id";
+
+        try (Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS)) {
             LOGGER.info("Connected to MySQL database;");
 
-            PreparedStatement statement = connection.prepareStatement("DELETE FROM job WHERE id = ?");
+            PreparedStatement statement = connection.prepareStatement(query);
             LOGGER.info("Prepared statement;");
 
-            statement.setInt(1, id);
+            LOGGER.info("Executing query: " + query);
+            ResultSet resultSet = statement.executeQuery();
+
+            List<Job> retrievedList = new ArrayList<>();
+
+            JobRowMapper mapper = JobRowMapper.of(resultSet);
+
+            while (resultSet.next()) {
+
+                retrievedList.add(mapper.map());
+            }
+
+            LOGGER.info("Retrieved database entries successfully;");
+            return retrievedList;
+
+        } catch (SQLException e) {
+
+            LOGGER.error("Connection failure", e);
+            throw new DatabaseOperationException(e.getMessage());
+        }
+    }
+
+    public void deleteJob(int id) throws DatabaseOperationException {
+
+        try (Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS)) {
+            LOGGER.info("Connected to MySQL database;");
 
             getJobById(id);
-            statement.execute();
+            connection.setAutoCommit(false);
+
+            try {
+                PreparedStatement statement = connection.prepareStatement("DELETE FROM job WHERE id = ?");
+                LOGGER.info("Prepared statement;");
+
+                statement.setInt(1, id);
+
+                statement.execute();
+                ChangeVersionDao.insertTombstone(connection, ChangeVersionDao.JOB, id, ChangeVersionDao.nextVersion(connection));
+                connection.commit();
+            } catch (SQLException e) {
+
+                connection.rollback();
+                throw e;
+            }
+
             LOGGER.info("Entry deleted successfully, for id = " + id);
 
         } catch (SQLException e) {
@@ -155,17 +287,26 @@ public class JobDao {
 
     public Job updateBaseSalary(int id, double baseSalary) throws DatabaseOperationException {
 
-        try {
-            Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS);
+        try (Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS)) {
             LOGGER.info("Connected to MySQL database;");
 
-            PreparedStatement statement = connection.prepareStatement("UPDATE job SET baseSalary = ? WHERE id = ?");
-            LOGGER.info("Prepared statement;");
+            connection.setAutoCommit(false);
+
+            try {
+                PreparedStatement statement = connection.prepareStatement("UPDATE job SET baseSalary = ?, rowVersion = ? WHERE id = ?");
+                LOGGER.info("Prepared statement;");
 
-            statement.setDouble(1, baseSalary);
-            statement.setInt(2, id);
+                statement.setDouble(1, baseSalary);
+                statement.setLong(2, ChangeVersionDao.nextVersion(connection));
+                statement.setInt(3, id);
 
-            statement.execute();
+                statement.execute();
+                connection.commit();
+            } catch (SQLException e) {
+
+                connection.rollback();
+                throw e;
+            }
 
             LOGGER.info("Updating base salary successfully, for id = " + id);
             return getJobById(id);
@@ -176,4 +317,61 @@ public class JobDao {
             throw new DatabaseOperationException(e.getMessage());
         }
     }
+
+    //jobs inserted or updated, and ids deleted, since a row version (delta sync); PersonDao.getPersonChanges works the same way;
+    public RowChanges<Job> getJobChanges(long since, int limit) throws DatabaseOperationException {
+
+        try (Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS)) {
+            LOGGER.info("Connected to MySQL database;");
+
+            connection.setAutoCommit(false);
+            long currentVersion = ChangeVersionDao.currentVersion(connection, since);
+
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT * FROM job WHERE rowVersion > ? ORDER BY rowVersion" + (since < 0 ? "" : " LIMIT ?"));
+            LOGGER.info("Prepared statement;");
+
+            statement.setLong(1, since);
+
+            if (since >= 0) {
+
+                statement.setInt(2, limit + 1);
+            }
+
+            LOGGER.info("Executing query: SELECT * FROM job WHERE rowVersion > " + since + " ORDER BY rowVersion");
+            ResultSet resultSet = statement.executeQuery();
+            JobRowMapper mapper = JobRowMapper.of(resultSet);
+            int rowVersionColumn = resultSet.findColumn("rowVersion");
+
+            List<Job> retrievedList = new ArrayList<>();
+            List<Long> rowVersions = new ArrayList<>();
+
+            while (resultSet.next()) {
+
+                Job jobRetrieved = mapper.map();
+
+                retrievedList.add(jobRetrieved);
+                rowVersions.add(resultSet.getLong(rowVersionColumn));
+            }
+
+            List<Integer> deletedIds = new ArrayList<>();
+            List<Long> deletedVersions = new ArrayList<>();
+
+            if (since >= 0) {
+
+                ChangeVersionDao.getTombstones(connection, ChangeVersionDao.JOB, since, limit + 1, deletedIds, deletedVersions);
+            }
+
+            connection.commit();
+
+            LOGGER.info("Retrieved job changes successfully;");
+            return RowChanges.of(retrievedList, rowVersions, deletedIds, deletedVersions,
+                    since < 0 ? Integer.MAX_VALUE : limit, since, currentVersion);
+
+        } catch (SQLException e) {
+
+            LOGGER.error("Connection failure", e);
+            throw new DatabaseOperationException(e.getMessage());
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.itfactory.dao;
+
+import com.itfactory.model.Job;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * Mapping the rows of a result set to Job objects, reading columns by index, as PersonRowMapper;
+ * Domains are deduplicated (StringInterner.DOMAINS), so every job (and person row group) of a domain shares one instance;
+ */
+
+public final class JobRowMapper {
+
+    private final ResultSet resultSet;
+
+    private final int idColumn;
+
+    private final int nameColumn;
+
+    private final int domainColumn;
+
+    private final int baseSalaryColumn;
+
+    private JobRowMapper(ResultSet resultSet, int idColumn, int nameColumn, int domainColumn, int baseSalaryColumn) {
+
+        this.resultSet = resultSet;
+        this.idColumn = idColumn;
+        this.nameColumn = nameColumn;
+        this.domainColumn = domainColumn;
+        this.baseSalaryColumn = baseSalaryColumn;
+    }
+
+    //the first column labelled as each job field (0 if there is none);
+    public static JobRowMapper of(ResultSet resultSet) throws SQLException {
+
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int[] columns = new int[4];
+
+        for (int column = 1; column <= metaData.getColumnCount(); column++) {
+
+            int field = switch (metaData.getColumnLabel(column).toLowerCase(Locale.ROOT)) {
+                case "id" -> 0;
+                case "name" -> 1;
+                case "domain" -> 2;
+                case "basesalary" -> 3;
+                default -> -1;
+            };
+
+            if (field >= 0 && columns[field] == 0) {
+
+                columns[field] = column;
+            }
+        }
+
+        return new JobRowMapper(resultSet, columns[0], columns[1], columns[2], columns[3]);
+    }
+
+    //the job at the current row of the result set;
+    public Job map() throws SQLException {
+
+        return new Job(
+                idColumn == 0 ? 0 : resultSet.getInt(idColumn),
+                nameColumn == 0 ? null : resultSet.getString(nameColumn),
+                domainColumn == 0 ? null : StringInterner.DOMAINS.intern(resultSet.getString(domainColumn)),
+                baseSalaryColumn == 0 ? 0 : resultSet.getDouble(baseSalaryColumn));
+    }
+}
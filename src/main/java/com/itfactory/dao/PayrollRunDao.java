@@ -0,0 +1,204 @@
+package com.itfactory.dao;
+
+import com.itfactory.exceptions.DatabaseOperationException;
+import com.itfactory.model.PayrollRun;
+import com.itfactory.model.PersonSalary;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.sql.*;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * PayrollRunDao persists the monthly payroll runs: the run itself (payroll_run), one salary row per person (payroll_run_salary),
+ * and one checkpoint per committed partition (payroll_run_checkpoint), holding the id range it covers;
+ * A partition's salary rows and its checkpoint are committed in the same transaction, so a checkpoint always means a complete partition;
+ */
+
+@Repository
+public class PayrollRunDao {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PayrollRunDao.class);
+
+    //rows sent to the database per JDBC batch, when writing a partition;
+    private static final int BATCH_SIZE = 1000;
+
+    @Value("${db.url}")
+    private String DB_URL;
+
+    @Value("${db.user}")
+    private String DB_USER;
+
+    @Value("${db.pass}")
+    private String DB_PASS;
+
+    //the run of a period, or null if it wasn't started yet;
+    public PayrollRun getRunByPeriod(String period) throws DatabaseOperationException {
+
+        try (Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS)) {
+            LOGGER.info("Connected to MySQL database;");
+
+            PreparedStatement statement = connection.prepareStatement("SELECT * FROM payroll_run WHERE period = ?");
+            LOGGER.info("Prepared statement;");
+
+            statement.setString(1, period);
+
+            LOGGER.info("Executing query: SELECT * FROM payroll_run WHERE period = " + period);
+            ResultSet resultSet = statement.executeQuery();
+
+            if (!resultSet.next()) {
+
+                return null;
+            }
+
+            LOGGER.info("Retrieved payroll run by period successfully;");
+            return new PayrollRun(resultSet.getInt("id"), resultSet.getString("period"),
+                    resultSet.getInt("partitionSize"), resultSet.getTimestamp("completedAt") != null);
+
+        } catch (SQLException e) {
+
+            LOGGER.error("Connection failure", e);
+            throw new DatabaseOperationException(e.getMessage());
+        }
+    }
+
+    public PayrollRun insertRun(String period, int partitionSize) throws DatabaseOperationException {
+
+        try (Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS)) {
+            LOGGER.info("Connected to MySQL database;");
+
+            PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO payroll_run (period, partitionSize, startedAt) VALUES (?, ?, NOW())", Statement.RETURN_GENERATED_KEYS);
+            LOGGER.info("Prepared statement;");
+
+            statement.setString(1, period);
+            statement.setInt(2, partitionSize);
+
+            statement.executeUpdate();
+            ResultSet generatedKeys = statement.getGeneratedKeys();
+            generatedKeys.next();
+
+            LOGGER.info("Inserted payroll run for period " + period + " successfully;");
+            return new PayrollRun(generatedKeys.getInt(1), period, partitionSize, false);
+
+        } catch (SQLException e) {
+
+            LOGGER.error("Connection failure", e);
+            throw new DatabaseOperationException(e.getMessage());
+        }
+    }
+
+    //the id ranges of the partitions of a run already committed (by this or an earlier, interrupted attempt), from id -> to id;
+    public NavigableMap<Integer, Integer> getCommittedPartitions(int runId) throws DatabaseOperationException {
+
+        try (Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS)) {
+            LOGGER.info("Connected to MySQL database;");
+
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT fromId, toId FROM payroll_run_checkpoint WHERE runId = ?");
+            LOGGER.info("Prepared statement;");
+
+            statement.setInt(1, runId);
+
+            LOGGER.info("Executing query: SELECT fromId, toId FROM payroll_run_checkpoint WHERE runId = " + runId);
+            ResultSet resultSet = statement.executeQuery();
+
+            NavigableMap<Integer, Integer> committedPartitions = new TreeMap<>();
+
+            while (resultSet.next()) {
+
+                committedPartitions.put(resultSet.getInt("fromId"), resultSet.getInt("toId"));
+            }
+
+            LOGGER.info("Retrieved committed payroll run partitions successfully;");
+            return committedPartitions;
+
+        } catch (SQLException e) {
+
+            LOGGER.error("Connection failure", e);
+            throw new DatabaseOperationException(e.getMessage());
+        }
+    }
+
+    //bulk-writing the salaries of one partition (ids fromId to toId, both inclusive), and its checkpoint, in a single transaction
+    //(rolled back as a whole on failure);
+    public void writePartition(int runId, int fromId, int toId, List<PersonSalary> salaries, int skipped) throws DatabaseOperationException {
+
+        try (Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS)) {
+            LOGGER.info("Connected to MySQL database;");
+
+            connection.setAutoCommit(false);
+
+            try {
+                PreparedStatement salaryStatement = connection.prepareStatement(
+                        "INSERT INTO payroll_run_salary (runId, personId, jobId, salaryIndex, salary) VALUES (?, ?, ?, ?, ?)");
+
+                for (int i = 0; i < salaries.size(); i++) {
+
+                    PersonSalary personSalary = salaries.get(i);
+                    salaryStatement.setInt(1, runId);
+                    salaryStatement.setInt(2, personSalary.person().getId());
+                    salaryStatement.setInt(3, personSalary.person().getJobId());
+                    salaryStatement.setDouble(4, personSalary.person().getSalaryIndex());
+                    salaryStatement.setDouble(5, personSalary.salary());
+                    salaryStatement.addBatch();
+
+                    if ((i + 1) % BATCH_SIZE == 0) {
+
+                        salaryStatement.executeBatch();
+                    }
+                }
+
+                salaryStatement.executeBatch();
+
+                PreparedStatement checkpointStatement = connection.prepareStatement(
+                        "INSERT INTO payroll_run_checkpoint (runId, fromId, toId, persons, skipped, committedAt) VALUES (?, ?, ?, ?, ?, NOW())");
+                checkpointStatement.setInt(1, runId);
+                checkpointStatement.setInt(2, fromId);
+                checkpointStatement.setInt(3, toId);
+                checkpointStatement.setInt(4, salaries.size());
+                checkpointStatement.setInt(5, skipped);
+                checkpointStatement.executeUpdate();
+
+                connection.commit();
+            } catch (SQLException e) {
+
+                connection.rollback();
+                throw e;
+            }
+
+            LOGGER.info("Committed payroll run " + runId + " partition of ids " + fromId + " to " + toId + " (" + salaries.size() + " persons);");
+
+        } catch (SQLException e) {
+
+            LOGGER.error("Connection failure", e);
+            throw new DatabaseOperationException(e.getMessage());
+        }
+    }
+
+    public void completeRun(int runId) throws DatabaseOperationException {
+
+        try (Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS)) {
+            LOGGER.info("Connected to MySQL database;");
+
+            PreparedStatement statement = connection.prepareStatement("UPDATE payroll_run SET completedAt = NOW() WHERE id = ?");
+            LOGGER.info("Prepared statement;");
+
+            statement.setInt(1, runId);
+            statement.executeUpdate();
+
+            LOGGER.info("Completed payroll run " + runId + " successfully;");
+
+        } catch (SQLException e) {
+
+            LOGGER.error("Connection failure", e);
+            throw new DatabaseOperationException(e.getMessage());
+        }
+    }
+}
@@ -2,6 +2,17 @@ package com.itfactory.dao;
 
 import com.itfactory.exceptions.DatabaseOperationException;
 import com.itfactory.model.Person;
+import com.itfactory.model.PersonColumns;
+import com.itfactory.model.PersonField;
+import com.itfactory.model.PersonRecord;
+import com.itfactory.model.ResourceField;
+import com.itfactory.model.PersonSalary;
+import com.itfactory.model.RowChanges;
+import com.itfactory.model.WorkExperience;
+import com.itfactory.model.WorkExperienceCounts;
+import com.itfactory.model.WorkExperienceDistribution;
+import com.itfactory.rules.SalaryRule;
+import com.itfactory.rules.SalaryRules;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,7 +22,13 @@ import org.springframework.stereotype.Repository;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * PersonDao contains the database manipulation functionality (CRUD) for our person database;
@@ -24,6 +41,9 @@ public class PersonDao {
     //Creating the Logger, to log messages regarding the different application execution steps;
     private static final Logger LOGGER = LoggerFactory.getLogger(PersonDao.class);
 
+    //rows sent to the database per JDBC batch, when inserting a batch of persons;
+    private static final int BATCH_SIZE = 1000;
+
     //Calling the database connection values from application.properties, by use of @Value;
     @Value("${db.url}")
     private String DB_URL;
@@ -52,17 +72,13 @@ public class PersonDao {
             //Creating the resultSet, as the result of our statement execution (in our case - getting the entries where id = given id);
             LOGGER.info("Executing query: SELECT * FROM person WHERE id = " + id);
             ResultSet resultSet = statement.executeQuery();
+            PersonRowMapper mapper = PersonRowMapper.of(resultSet);
 
             /*Checking if resultSet has any results returned (by resultSet.next() boolean), then creating a Person object,
             using the obtained resultSet information;*/
             if (resultSet.next()) {
 
-                Person retrievedPerson = new Person();
-                retrievedPerson.setId(resultSet.getInt("id"));
-                retrievedPerson.setName(resultSet.getString("name"));
-                retrievedPerson.setEmail(resultSet.getString("email"));
-                retrievedPerson.setJobId(resultSet.getInt("jobId"));
-                retrievedPerson.setSalaryIndex(resultSet.getDouble("salaryIndex"));
+                Person retrievedPerson = mapper.map();
 
                 //returning the created Person object;
                 LOGGER.info("Retrieved person by id successfully;");
@@ -82,24 +98,120 @@ public class PersonDao {
         }
     }
 
-    public void insertPerson(Person person) throws DatabaseOperationException {
+    //reading only the selected fields' columns (the other fields are left unset);
+    public Person getPersonById(int id, Set<PersonField> fields) throws DatabaseOperationException {
 
-        try {
-            Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS);
+        String query = "SELECT " + ResourceField.columns(fields) + " FROM person WHERE id = ?";
+
+        try (Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS)) {
+            LOGGER.info("Connected to MySQL database;");
+
+            PreparedStatement statement = connection.prepareStatement(query);
+            LOGGER.info("Prepared statement;");
+
+            statement.setInt(1, id);
+
+            LOGGER.info("Executing query: " + query.replace("?", String.valueOf(id)));
+            ResultSet resultSet = statement.executeQuery();
+
+            if (!resultSet.next()) {
+
+                throw new DatabaseOperationException("No person found with given id.");
+            }
+
+            LOGGER.info("Retrieved person by id successfully;");
+            return PersonRowMapper.of(resultSet).map();
+
+        } catch (SQLException e) {
+
+            LOGGER.error("Connection failure", e);
+            throw new DatabaseOperationException(e.getMessage());
+        }
+    }
+
+    //looking a person up by normalized email (trimmed, lower-case), matching the unique index on LOWER(TRIM(email));
+    public Person getPersonByEmail(String email) throws DatabaseOperationException {
+
+        try (Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS)) {
+            LOGGER.info("Connected to MySQL database;");
+
+            PreparedStatement statement = connection.prepareStatement("SELECT * FROM person WHERE LOWER(TRIM(email)) = ?");
+            LOGGER.info("Prepared statement;");
+
+            statement.setString(1, Person.normalizeEmail(email));
+
+            LOGGER.info("Executing query: SELECT * FROM person WHERE LOWER(TRIM(email)) = " + Person.normalizeEmail(email));
+            ResultSet resultSet = statement.executeQuery();
+            PersonRowMapper mapper = PersonRowMapper.of(resultSet);
+
+            if (resultSet.next()) {
+
+                Person retrievedPerson = mapper.map();
+
+                LOGGER.info("Retrieved person by email successfully;");
+                return retrievedPerson;
+            } else {
+
+                throw new DatabaseOperationException("No person found with given email.");
+            }
+
+        } catch (SQLException e) {
+
+            LOGGER.error("Connection failure", e);
+            throw new DatabaseOperationException(e.getMessage());
+        }
+    }
+
+    //checking if an email is already in use, reading only the unique email index;
+    public boolean emailExists(String email) throws DatabaseOperationException {
+
+        try (Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS)) {
             LOGGER.info("Connected to MySQL database;");
 
-            PreparedStatement statement = connection.prepareStatement("INSERT INTO person VALUES(?, ?, ?, ?, ?)");
+            PreparedStatement statement = connection.prepareStatement("SELECT 1 FROM person WHERE LOWER(TRIM(email)) = ?");
             LOGGER.info("Prepared statement;");
 
-            //Inserting a person into the database - preparing the statement with all the relevant data from given Person parameter;
-            statement.setInt(1, person.getId());
-            statement.setString(2, person.getName());
-            statement.setString(3, person.getEmail());
-            statement.setInt(4, person.getJobId());
-            statement.setDouble(5, person.getSalaryIndex());
+            statement.setString(1, Person.normalizeEmail(email));
+
+            return statement.executeQuery().next();
+
+        } catch (SQLException e) {
+
+            LOGGER.error("Connection failure", e);
+            throw new DatabaseOperationException(e.getMessage());
+        }
+    }
+
+    public void insertPerson(Person person) throws DatabaseOperationException {
+
+        try (Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS)) {
+            LOGGER.info("Connected to MySQL database;");
+
+            //the insert and its row version (ChangeVersionDao) are committed together;
+            connection.setAutoCommit(false);
+
+            try {
+                PreparedStatement statement = connection.prepareStatement(
+                        "INSERT INTO person (id, name, email, jobId, salaryIndex, rowVersion) VALUES(?, ?, ?, ?, ?, ?)");
+                LOGGER.info("Prepared statement;");
+
+                //Inserting a person into the database - preparing the statement with all the relevant data from given Person parameter;
+                statement.setInt(1, person.getId());
+                statement.setString(2, person.getName());
+                statement.setString(3, person.getEmail());
+                statement.setInt(4, person.getJobId());
+                statement.setDouble(5, person.getSalaryIndex());
+                statement.setLong(6, ChangeVersionDao.nextVersion(connection));
+
+                //Statement execution, inserting the person into the database;
+                statement.execute();
+                connection.commit();
+            } catch (SQLException e) {
+
+                connection.rollback();
+                throw e;
+            }
 
-            //Statement execution, inserting the person into the database;
-            statement.execute();
             System.out.println(person);
             LOGGER.info("Entry added successfully;");
 
@@ -110,6 +222,55 @@ public class PersonDao {
         }
     }
 
+    //inserting a batch of persons (batch ingest) in a single transaction, with consecutive row versions; none is inserted on failure;
+    public void insertPersons(List<Person> persons) throws DatabaseOperationException {
+
+        try (Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS)) {
+            LOGGER.info("Connected to MySQL database;");
+
+            connection.setAutoCommit(false);
+
+            try {
+                PreparedStatement statement = connection.prepareStatement(
+                        "INSERT INTO person (id, name, email, jobId, salaryIndex, rowVersion) VALUES(?, ?, ?, ?, ?, ?)");
+                LOGGER.info("Prepared statement;");
+
+                long firstVersion = ChangeVersionDao.nextVersions(connection, persons.size());
+
+                for (int i = 0; i < persons.size(); i++) {
+
+                    Person person = persons.get(i);
+                    statement.setInt(1, person.getId());
+                    statement.setString(2, person.getName());
+                    statement.setString(3, person.getEmail());
+                    statement.setInt(4, person.getJobId());
+                    statement.setDouble(5, person.getSalaryIndex());
+                    statement.setLong(6, firstVersion + i);
+                    statement.addBatch();
+
+                    if ((i + 1) % BATCH_SIZE == 0) {
+
+                        statement.executeBatch();
+                    }
+                }
+
+                statement.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+
+                connection.rollback();
+                throw e;
+            }
+
+            LOGGER.info("Added " + persons.size() + " entries successfully;");
+
+        } catch (SQLException e) {
+
+            LOGGER.error("Connection failure", e);
+            throw new DatabaseOperationException(e.getMessage());
+        }
+    }
+
     public List<Person> getAllPersons() throws DatabaseOperationException {
 
         try {
@@ -122,18 +283,14 @@ public class PersonDao {
             //Assigning to resultSet the result of executing the above query - getting all database entries;
             LOGGER.info("Executing query: SELECT * FROM person");
             ResultSet resultSet = statement.executeQuery();
+            PersonRowMapper mapper = PersonRowMapper.of(resultSet);
 
             List<Person> retrievedList = new ArrayList<>();
 
             while (resultSet.next()) {
 
                 //Creating a Person object from each database entry;
-                Person personRetrieved = new Person();
-                personRetrieved.setId(resultSet.getInt("id"));
-                personRetrieved.setName(resultSet.getString("name"));
-                personRetrieved.setEmail(resultSet.getString("email"));
-                personRetrieved.setJobId(resultSet.getInt("jobId"));
-                personRetrieved.setSalaryIndex(resultSet.getDouble("salaryIndex"));
+                Person personRetrieved = mapper.map();
 
                 //adding Person object to the list;
                 retrievedList.add(personRetrieved);
@@ -152,21 +309,526 @@ public class PersonDao {
         }
     }
 
-    public void deletePerson(int id) throws DatabaseOperationException {
+    //streaming every person (only the selected fields' columns) to the consumer as it is read, in id order;
+    public void forEachPerson(Set<PersonField> fields, Consumer<Person> consumer) throws DatabaseOperationException {
 
-        try {
-            Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS);
+        String query = "SELECT " + ResourceField.columns(fields) + " FROM person ORDER BY id";
+
+        try (Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS)) {
             LOGGER.info("Connected to MySQL database;");
 
-            PreparedStatement statement = connection.prepareStatement("DELETE FROM person WHERE id = ?");
+            //a forward-only cursor, with the driver streaming rows instead of buffering the result set;
+            PreparedStatement statement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
             LOGGER.info("Prepared statement;");
 
-            //inputting into the statement the id of the Person to be removed;
-            statement.setInt(1, id);
+            statement.setFetchSize(Integer.MIN_VALUE);
+
+            LOGGER.info("Executing query: " + query);
+            ResultSet resultSet = statement.executeQuery();
+
+            PersonRowMapper mapper = PersonRowMapper.of(resultSet);
+
+            while (resultSet.next()) {
+
+                consumer.accept(mapper.map());
+            }
+
+            LOGGER.info("Streamed all persons successfully;");
+
+        } catch (SQLException e) {
+
+            LOGGER.error("Connection failure", e);
+            throw new DatabaseOperationException(e.getMessage());
+        }
+    }
+
+    //every person, as the immutable records loaded into the in-memory structures (StorageLoader), streamed from the cursor;
+    public List<PersonRecord> getAllPersonRecords() throws DatabaseOperationException {
+
+        try (Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS)) {
+            LOGGER.info("Connected to MySQL database;");
+
+            PreparedStatement statement = connection.prepareStatement("SELECT * FROM person ORDER BY id",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            LOGGER.info("Prepared statement;");
+
+            statement.setFetchSize(Integer.MIN_VALUE);
+
+            LOGGER.info("Executing query: SELECT * FROM person ORDER BY id");
+            ResultSet resultSet = statement.executeQuery();
+            PersonRowMapper mapper = PersonRowMapper.of(resultSet);
+
+            List<PersonRecord> retrievedList = new ArrayList<>();
+
+            while (resultSet.next()) {
+
+                retrievedList.add(mapper.mapRecord());
+            }
+
+            LOGGER.info("Retrieved all person records successfully;");
+            return retrievedList;
+
+        } catch (SQLException e) {
+
+            LOGGER.error("Connection failure", e);
+            throw new DatabaseOperationException(e.getMessage());
+        }
+    }
+
+    /*streaming every person, with their job's domain, in row groups of up to rowGroupSize persons filled straight from the
+    result set cursor; the same PersonColumns is passed for every group, and cleared after the consumer returns;*/
+    public void forEachPersonRowGroup(int rowGroupSize, Consumer<PersonColumns> consumer) throws DatabaseOperationException {
+
+        try (Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS)) {
+            LOGGER.info("Connected to MySQL database;");
+
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT p.id, p.name, p.email, p.jobId, j.domain, p.salaryIndex FROM person p LEFT JOIN job j ON j.id = p.jobId ORDER BY p.id",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            LOGGER.info("Prepared statement;");
+
+            statement.setFetchSize(Integer.MIN_VALUE);
+
+            LOGGER.info("Executing query: streaming all persons in row groups of " + rowGroupSize);
+            ResultSet resultSet = statement.executeQuery();
+
+            PersonColumns columns = new PersonColumns(rowGroupSize);
+
+            while (resultSet.next()) {
+
+                columns.add(resultSet.getInt(1), resultSet.getString(2), resultSet.getString(3), resultSet.getInt(4),
+                        StringInterner.DOMAINS.intern(resultSet.getString(5)), resultSet.getDouble(6));
+
+                if (columns.isFull()) {
+
+                    consumer.accept(columns);
+                    columns.clear();
+                }
+            }
+
+            if (columns.size() > 0) {
+
+                consumer.accept(columns);
+            }
+
+            LOGGER.info("Streamed all persons in row groups successfully;");
+
+        } catch (SQLException e) {
+
+            LOGGER.error("Connection failure", e);
+            throw new DatabaseOperationException(e.getMessage());
+        }
+    }
+
+    //getting one page of the persons holding a job, ordered by id and starting after the given id (served by the person(jobId, id) index);
+    public List<Person> getPersonsByJobId(int jobId, int afterId, int size) throws DatabaseOperationException {
+
+        try (Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS)) {
+            LOGGER.info("Connected to MySQL database;");
+
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT * FROM person WHERE jobId = ? AND id > ? ORDER BY id LIMIT ?");
+            LOGGER.info("Prepared statement;");
+
+            statement.setInt(1, jobId);
+            statement.setInt(2, afterId);
+            statement.setInt(3, size);
+
+            LOGGER.info("Executing query: SELECT * FROM person WHERE jobId = " + jobId + " AND id > " + afterId
+                    + " ORDER BY id LIMIT " + size);
+            ResultSet resultSet = statement.executeQuery();
+            PersonRowMapper mapper = PersonRowMapper.of(resultSet);
+
+            List<Person> retrievedList = new ArrayList<>();
+
+            while (resultSet.next()) {
+
+                Person personRetrieved = mapper.map();
+
+                retrievedList.add(personRetrieved);
+            }
+
+            LOGGER.info("Retrieved persons by job id successfully;");
+            return retrievedList;
+
+        } catch (SQLException e) {
+
+            LOGGER.error("Connection failure", e);
+            throw new DatabaseOperationException(e.getMessage());
+        }
+    }
+
+    //getting persons with a salary index between min and max, ordered by salary index (served by the person(salaryIndex, id) index);
+    public List<Person> getPersonsBySalaryIndexRange(double min, double max, int size) throws DatabaseOperationException {
+
+        try (Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS)) {
+            LOGGER.info("Connected to MySQL database;");
+
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT * FROM person WHERE salaryIndex BETWEEN ? AND ? ORDER BY salaryIndex, id LIMIT ?");
+            LOGGER.info("Prepared statement;");
+
+            statement.setDouble(1, min);
+            statement.setDouble(2, max);
+            statement.setInt(3, size);
+
+            LOGGER.info("Executing query: SELECT * FROM person WHERE salaryIndex BETWEEN " + min + " AND " + max
+                    + " ORDER BY salaryIndex, id LIMIT " + size);
+            ResultSet resultSet = statement.executeQuery();
+            PersonRowMapper mapper = PersonRowMapper.of(resultSet);
+
+            List<Person> retrievedList = new ArrayList<>();
+
+            while (resultSet.next()) {
+
+                Person personRetrieved = mapper.map();
+
+                retrievedList.add(personRetrieved);
+            }
+
+            LOGGER.info("Retrieved persons by salary index range successfully;");
+            return retrievedList;
+
+        } catch (SQLException e) {
+
+            LOGGER.error("Connection failure", e);
+            throw new DatabaseOperationException(e.getMessage());
+        }
+    }
+
+    /*getting persons with a computed salary (the salary rule of their job's domain) between min and max, ordered by salary;
+    the salary is computed by the rules, not by SQL, so this streams every person (only used until the in-memory index is loaded),
+    keeping the lowest size salaries in range (bounded max-heap, highest salary on top);*/
+    public List<PersonSalary> getPersonsBySalaryRange(double min, double max, int size, SalaryRules rules) throws DatabaseOperationException {
+
+        try (Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS)) {
+            LOGGER.info("Connected to MySQL database;");
+
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT p.*, j.domain, j.baseSalary FROM person p JOIN job j ON p.jobId = j.id",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            LOGGER.info("Prepared statement;");
+
+            statement.setFetchSize(Integer.MIN_VALUE);
+
+            LOGGER.info("Executing query: streaming persons for salary BETWEEN " + min + " AND " + max + " LIMIT " + size);
+            ResultSet resultSet = statement.executeQuery();
+            PersonRowMapper mapper = PersonRowMapper.of(resultSet);
+            int salaryIndexColumn = resultSet.findColumn("salaryIndex");
+            int domainColumn = resultSet.findColumn("domain");
+            int baseSalaryColumn = resultSet.findColumn("baseSalary");
+
+            Comparator<PersonSalary> salaryOrder = Comparator.comparingDouble(PersonSalary::salary)
+                    .thenComparingInt(personSalary -> personSalary.person().getId());
+            PriorityQueue<PersonSalary> lowestSalaries = new PriorityQueue<>(size + 1, salaryOrder.reversed());
+
+            while (resultSet.next()) {
+
+                double salary = salaryOf(rules, resultSet, salaryIndexColumn, domainColumn, baseSalaryColumn);
+
+                if (salary < min || salary > max || (lowestSalaries.size() == size && salary > lowestSalaries.peek().salary())) {
+
+                    continue;
+                }
+
+                Person personRetrieved = mapper.map();
+
+                lowestSalaries.add(new PersonSalary(personRetrieved, salary));
+
+                if (lowestSalaries.size() > size) {
+
+                    lowestSalaries.poll();
+                }
+            }
+
+            List<PersonSalary> retrievedList = new ArrayList<>(lowestSalaries);
+            retrievedList.sort(salaryOrder);
+
+            LOGGER.info("Retrieved persons by salary range successfully;");
+            return retrievedList;
+
+        } catch (SQLException e) {
+
+            LOGGER.error("Connection failure", e);
+            throw new DatabaseOperationException(e.getMessage());
+        }
+    }
+
+    /*getting the highest paid persons (of a domain, or of everyone), highest first, in a single streamed pass over person join job;
+    only the best size rows are kept (bounded min-heap, lowest salary on top), instead of loading the whole table;
+    salaries are computed by the rules of each job's domain;*/
+    public List<PersonSalary> getTopPersonsBySalary(int size, String domain, SalaryRules rules) throws DatabaseOperationException {
+
+        try (Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS)) {
+            LOGGER.info("Connected to MySQL database;");
+
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT p.*, j.domain, j.baseSalary FROM person p JOIN job j ON p.jobId = j.id"
+                            + (domain == null ? "" : " WHERE j.domain = ?"),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            LOGGER.info("Prepared statement;");
+
+            //MySQL Connector/J streams rows one by one (instead of buffering the whole result) with this fetch size;
+            statement.setFetchSize(Integer.MIN_VALUE);
+
+            if (domain != null) {
+
+                statement.setString(1, domain);
+            }
+
+            LOGGER.info("Executing query: streaming persons with salary" + (domain == null ? "" : ", for domain = " + domain));
+            ResultSet resultSet = statement.executeQuery();
+            PersonRowMapper mapper = PersonRowMapper.of(resultSet);
+            int salaryIndexColumn = resultSet.findColumn("salaryIndex");
+            int domainColumn = resultSet.findColumn("domain");
+            int baseSalaryColumn = resultSet.findColumn("baseSalary");
+
+            Comparator<PersonSalary> salaryOrder = Comparator.comparingDouble(PersonSalary::salary)
+                    .thenComparing(personSalary -> -personSalary.person().getId());
+            PriorityQueue<PersonSalary> topSalaries = new PriorityQueue<>(size + 1, salaryOrder);
+
+            while (resultSet.next()) {
+
+                double salary = salaryOf(rules, resultSet, salaryIndexColumn, domainColumn, baseSalaryColumn);
+
+                //most rows fall below the lowest kept salary, and are skipped without building a Person;
+                if (topSalaries.size() == size && salary < topSalaries.peek().salary()) {
+
+                    continue;
+                }
+
+                Person personRetrieved = mapper.map();
+
+                topSalaries.add(new PersonSalary(personRetrieved, salary));
+
+                if (topSalaries.size() > size) {
+
+                    topSalaries.poll();
+                }
+            }
+
+            List<PersonSalary> retrievedList = new ArrayList<>(topSalaries);
+            retrievedList.sort(salaryOrder.reversed());
+
+            LOGGER.info("Retrieved top persons by salary successfully;");
+            return retrievedList;
+
+        } catch (SQLException e) {
+
+            LOGGER.error("Connection failure", e);
+            throw new DatabaseOperationException(e.getMessage());
+        }
+    }
+
+    /*work experience tier counts per job and domain (by the tiers of each domain), counted in a single streamed pass
+    (only reading the job id, salary index and domain);*/
+    public WorkExperienceDistribution getWorkExperienceDistribution(SalaryRules rules) throws DatabaseOperationException {
+
+        try (Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS)) {
+            LOGGER.info("Connected to MySQL database;");
+
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT p.jobId, p.salaryIndex, j.domain FROM person p LEFT JOIN job j ON p.jobId = j.id",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            LOGGER.info("Prepared statement;");
+
+            statement.setFetchSize(Integer.MIN_VALUE);
+
+            LOGGER.info("Executing query: streaming job ids and salary indexes of all persons");
+            ResultSet resultSet = statement.executeQuery();
+
+            Map<Integer, long[]> tierCountsByJobId = new HashMap<>();
+            Map<Integer, String> domainsByJobId = new HashMap<>();
+
+            //read by the positions of the selected columns;
+            while (resultSet.next()) {
+
+                int jobId = resultSet.getInt(1);
+                String domain = resultSet.getString(3);
+
+                tierCountsByJobId.computeIfAbsent(jobId, key -> new long[WorkExperience.values().length])
+                        [rules.tierRuleOf(domain).workExperienceOf(resultSet.getDouble(2)).ordinal()]++;
+
+                if (domain != null) {
+
+                    domainsByJobId.put(jobId, domain);
+                }
+            }
+
+            Map<Integer, WorkExperienceCounts> countsByJobId = new HashMap<>();
+            tierCountsByJobId.forEach((jobId, tierCounts) -> countsByJobId.put(jobId, WorkExperienceCounts.of(tierCounts)));
+
+            LOGGER.info("Retrieved work experience distribution successfully;");
+            return WorkExperienceDistribution.of(countsByJobId, domainsByJobId);
+
+        } catch (SQLException e) {
+
+            LOGGER.error("Connection failure", e);
+            throw new DatabaseOperationException(e.getMessage());
+        }
+    }
+
+    /*persons with an id from fromId to toId (both inclusive), by id, at most limit of them; a primary key range read, one payroll run
+    partition: the next one starts after the last id read (keyset paging), so sparse or extreme ids never make empty partitions;*/
+    public List<Person> getPersonsByIdRange(int fromId, int toId, int limit) throws DatabaseOperationException {
+
+        try (Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS)) {
+            LOGGER.info("Connected to MySQL database;");
+
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT * FROM person WHERE id >= ? AND id <= ? ORDER BY id LIMIT ?");
+            LOGGER.info("Prepared statement;");
+
+            statement.setInt(1, fromId);
+            statement.setInt(2, toId);
+            statement.setInt(3, limit);
+
+            LOGGER.info("Executing query: SELECT * FROM person WHERE id >= " + fromId + " AND id <= " + toId + " ORDER BY id LIMIT " + limit);
+            ResultSet resultSet = statement.executeQuery();
+            PersonRowMapper mapper = PersonRowMapper.of(resultSet);
+
+            List<Person> retrievedList = new ArrayList<>();
+
+            while (resultSet.next()) {
+
+                Person personRetrieved = mapper.map();
+
+                retrievedList.add(personRetrieved);
+            }
+
+            LOGGER.info("Retrieved persons by id range successfully;");
+            return retrievedList;
+
+        } catch (SQLException e) {
+
+            LOGGER.error("Connection failure", e);
+            throw new DatabaseOperationException(e.getMessage());
+        }
+    }
+
+    /*persons inserted or updated, and ids deleted, since a row version (delta sync), at most limit of them, in version order;
+    since < 0 asks for every person (no deletes, no limit), to start syncing; read in one transaction, so from one snapshot;*/
+    public RowChanges<Person> getPersonChanges(long since, int limit) throws DatabaseOperationException {
+
+        try (Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS)) {
+            LOGGER.info("Connected to MySQL database;");
+
+            connection.setAutoCommit(false);
+            long currentVersion = ChangeVersionDao.currentVersion(connection, since);
+
+            //one more than the limit, to tell whether the page is full;
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT * FROM person WHERE rowVersion > ? ORDER BY rowVersion" + (since < 0 ? "" : " LIMIT ?"));
+            LOGGER.info("Prepared statement;");
+
+            statement.setLong(1, since);
+
+            if (since >= 0) {
+
+                statement.setInt(2, limit + 1);
+            }
+
+            LOGGER.info("Executing query: SELECT * FROM person WHERE rowVersion > " + since + " ORDER BY rowVersion");
+            ResultSet resultSet = statement.executeQuery();
+            PersonRowMapper mapper = PersonRowMapper.of(resultSet);
+            int rowVersionColumn = resultSet.findColumn("rowVersion");
+
+            List<Person> retrievedList = new ArrayList<>();
+            List<Long> rowVersions = new ArrayList<>();
+
+            while (resultSet.next()) {
+
+                Person personRetrieved = mapper.map();
+
+                retrievedList.add(personRetrieved);
+                rowVersions.add(resultSet.getLong(rowVersionColumn));
+            }
+
+            List<Integer> deletedIds = new ArrayList<>();
+            List<Long> deletedVersions = new ArrayList<>();
+
+            if (since >= 0) {
+
+                ChangeVersionDao.getTombstones(connection, ChangeVersionDao.PERSON, since, limit + 1, deletedIds, deletedVersions);
+            }
+
+            connection.commit();
+
+            LOGGER.info("Retrieved person changes successfully;");
+            return RowChanges.of(retrievedList, rowVersions, deletedIds, deletedVersions,
+                    since < 0 ? Integer.MAX_VALUE : limit, since, currentVersion);
+
+        } catch (SQLException e) {
+
+            LOGGER.error("Connection failure", e);
+            throw new DatabaseOperationException(e.getMessage());
+        }
+    }
+
+    //searching persons by a name fragment (only used until the in-memory name search index is loaded; not typo tolerant);
+    public List<Person> searchPersonsByName(String query, int limit) throws DatabaseOperationException {
+
+        try (Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS)) {
+            LOGGER.info("Connected to MySQL database;");
+
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT * FROM person WHERE name LIKE ? ORDER BY id LIMIT ?");
+            LOGGER.info("Prepared statement;");
+
+            //escaping LIKE wildcards, so the query is matched literally;
+            statement.setString(1, "%" + query.replaceAll("([\\\\%_])", "\\\\$1") + "%");
+            statement.setInt(2, limit);
+
+            LOGGER.info("Executing query: SELECT * FROM person WHERE name LIKE '%" + query + "%' ORDER BY id LIMIT " + limit);
+            ResultSet resultSet = statement.executeQuery();
+            PersonRowMapper mapper = PersonRowMapper.of(resultSet);
+
+            List<Person> retrievedList = new ArrayList<>();
+
+            while (resultSet.next()) {
+
+                Person personRetrieved = mapper.map();
+
+                retrievedList.add(personRetrieved);
+            }
+
+            LOGGER.info("Retrieved persons by name successfully;");
+            return retrievedList;
+
+        } catch (SQLException e) {
+
+            LOGGER.error("Connection failure", e);
+            throw new DatabaseOperationException(e.getMessage());
+        }
+    }
+
+    public void deletePerson(int id) throws DatabaseOperationException {
+
+        try (Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS)) {
+            LOGGER.info("Connected to MySQL database;");
 
             getPersonById(id);
-            //executing the statement, removing the entry;
-            statement.execute();
+
+            //the delete and its tombstone (for delta sync, ChangeVersionDao) are committed together;
+            connection.setAutoCommit(false);
+
+            try {
+                PreparedStatement statement = connection.prepareStatement("DELETE FROM person WHERE id = ?");
+                LOGGER.info("Prepared statement;");
+
+                //inputting into the statement the id of the Person to be removed;
+                statement.setInt(1, id);
+
+                //executing the statement, removing the entry;
+                statement.execute();
+                ChangeVersionDao.insertTombstone(connection, ChangeVersionDao.PERSON, id, ChangeVersionDao.nextVersion(connection));
+                connection.commit();
+            } catch (SQLException e) {
+
+                connection.rollback();
+                throw e;
+            }
+
             LOGGER.info("Entry deleted successfully, for id = " + id);
 
         } catch (SQLException | DatabaseOperationException e) {
@@ -178,19 +840,29 @@ public class PersonDao {
 
     public Person updateSalaryIndex(int id, double salaryIndex) throws DatabaseOperationException {
 
-        try {
-            Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS);
+        try (Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS)) {
             LOGGER.info("Connected to MySQL database;");
 
-            PreparedStatement statement = connection.prepareStatement("UPDATE person SET salaryIndex = ? WHERE id = ?");
-            LOGGER.info("Prepared statement;");
+            connection.setAutoCommit(false);
+
+            try {
+                PreparedStatement statement = connection.prepareStatement(
+                        "UPDATE person SET salaryIndex = ?, rowVersion = ? WHERE id = ?");
+                LOGGER.info("Prepared statement;");
 
-            //preparing the statement with given id and new salary index for the entry;
-            statement.setDouble(1, salaryIndex);
-            statement.setInt(2, id);
+                //preparing the statement with given id and new salary index for the entry, and the next row version;
+                statement.setDouble(1, salaryIndex);
+                statement.setLong(2, ChangeVersionDao.nextVersion(connection));
+                statement.setInt(3, id);
 
-            //executing the statement, updating salary index for given id entry;
-            statement.execute();
+                //executing the statement, updating salary index for given id entry;
+                statement.execute();
+                connection.commit();
+            } catch (SQLException e) {
+
+                connection.rollback();
+                throw e;
+            }
 
             //returning the updated person entry;
             LOGGER.info("Updating salary index successfully, for id = " + id);
@@ -202,4 +874,13 @@ public class PersonDao {
             throw new DatabaseOperationException(e.getMessage());
         }
     }
+
+    //the salary of the current row, by the rule of its job's domain;
+    private static double salaryOf(SalaryRules rules, ResultSet resultSet, int salaryIndexColumn, int domainColumn, int baseSalaryColumn)
+            throws SQLException {
+
+        SalaryRule salaryRule = rules.salaryRuleOf(resultSet.getString(domainColumn));
+
+        return salaryRule.salaryOf(resultSet.getDouble(salaryIndexColumn), resultSet.getDouble(baseSalaryColumn));
+    }
 }
\ No newline at end of file
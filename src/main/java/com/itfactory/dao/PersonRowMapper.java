@@ -0,0 +1,89 @@
+package com.itfactory.dao;
+
+import com.itfactory.model.Person;
+import com.itfactory.model.PersonRecord;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * Mapping the rows of a result set to Person objects, reading columns by index;
+ * The column indexes are resolved once per result set (from its metadata), instead of a column label lookup per field and row;
+ * A person column the query didn't select (e.g. a fields= projection) is left unset; columns the mapper doesn't know are ignored,
+ * so other values of the row (e.g. a computed salary) are read by the DAO itself, with their index resolved once as well;
+ */
+
+public final class PersonRowMapper {
+
+    private final ResultSet resultSet;
+
+    private final int idColumn;
+
+    private final int nameColumn;
+
+    private final int emailColumn;
+
+    private final int jobIdColumn;
+
+    private final int salaryIndexColumn;
+
+    private PersonRowMapper(ResultSet resultSet, int idColumn, int nameColumn, int emailColumn, int jobIdColumn, int salaryIndexColumn) {
+
+        this.resultSet = resultSet;
+        this.idColumn = idColumn;
+        this.nameColumn = nameColumn;
+        this.emailColumn = emailColumn;
+        this.jobIdColumn = jobIdColumn;
+        this.salaryIndexColumn = salaryIndexColumn;
+    }
+
+    //the first column labelled as each person field (0 if there is none);
+    public static PersonRowMapper of(ResultSet resultSet) throws SQLException {
+
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int[] columns = new int[5];
+
+        for (int column = 1; column <= metaData.getColumnCount(); column++) {
+
+            int field = switch (metaData.getColumnLabel(column).toLowerCase(Locale.ROOT)) {
+                case "id" -> 0;
+                case "name" -> 1;
+                case "email" -> 2;
+                case "jobid" -> 3;
+                case "salaryindex" -> 4;
+                default -> -1;
+            };
+
+            if (field >= 0 && columns[field] == 0) {
+
+                columns[field] = column;
+            }
+        }
+
+        return new PersonRowMapper(resultSet, columns[0], columns[1], columns[2], columns[3], columns[4]);
+    }
+
+    //the person at the current row of the result set;
+    public Person map() throws SQLException {
+
+        return new Person(
+                idColumn == 0 ? 0 : resultSet.getInt(idColumn),
+                nameColumn == 0 ? null : resultSet.getString(nameColumn),
+                emailColumn == 0 ? null : resultSet.getString(emailColumn),
+                jobIdColumn == 0 ? 0 : resultSet.getInt(jobIdColumn),
+                salaryIndexColumn == 0 ? 0 : resultSet.getDouble(salaryIndexColumn));
+    }
+
+    //the same row, as the immutable read model kept by the in-memory structures;
+    public PersonRecord mapRecord() throws SQLException {
+
+        return new PersonRecord(
+                idColumn == 0 ? 0 : resultSet.getInt(idColumn),
+                nameColumn == 0 ? null : resultSet.getString(nameColumn),
+                emailColumn == 0 ? null : resultSet.getString(emailColumn),
+                jobIdColumn == 0 ? 0 : resultSet.getInt(jobIdColumn),
+                salaryIndexColumn == 0 ? 0 : resultSet.getDouble(salaryIndexColumn));
+    }
+}
@@ -0,0 +1,145 @@
+package com.itfactory.dao;
+
+import com.itfactory.exceptions.DatabaseOperationException;
+import com.itfactory.model.SalaryChange;
+import com.itfactory.model.SalaryChangeRecord;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * SalaryHistoryDao persists the salary history (salary_history): one row per salary index or base salary change, never updated;
+ * Rows are written in batches by the salary history appender (SalaryHistoryStore), and read back in id (time) order;
+ */
+
+@Repository
+public class SalaryHistoryDao {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SalaryHistoryDao.class);
+
+    @Value("${db.url}")
+    private String DB_URL;
+
+    @Value("${db.user}")
+    private String DB_USER;
+
+    @Value("${db.pass}")
+    private String DB_PASS;
+
+    //appending a batch of changes in a single transaction;
+    public void insertChanges(List<SalaryChangeRecord> records) throws DatabaseOperationException {
+
+        try (Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS)) {
+            LOGGER.info("Connected to MySQL database;");
+
+            connection.setAutoCommit(false);
+
+            try {
+                PreparedStatement statement = connection.prepareStatement(
+                        "INSERT INTO salary_history (entity, entityId, changedAt, valueBefore, valueAfter) VALUES (?, ?, ?, ?, ?)");
+
+                for (SalaryChangeRecord record : records) {
+
+                    statement.setString(1, record.entity());
+                    statement.setInt(2, record.entityId());
+                    statement.setTimestamp(3, Timestamp.valueOf(record.change().changedAt()));
+                    statement.setDouble(4, record.change().before());
+                    statement.setDouble(5, record.change().after());
+                    statement.addBatch();
+                }
+
+                statement.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+
+                connection.rollback();
+                throw e;
+            }
+
+            LOGGER.info("Inserted " + records.size() + " salary changes successfully;");
+
+        } catch (SQLException e) {
+
+            LOGGER.error("Connection failure", e);
+            throw new DatabaseOperationException(e.getMessage());
+        }
+    }
+
+    //the changes of one person (PERSON) or job (JOB) within [from, to] (null for no bound), in time order;
+    public List<SalaryChange> getChanges(String entity, int entityId, LocalDateTime from, LocalDateTime to)
+            throws DatabaseOperationException {
+
+        try (Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS)) {
+            LOGGER.info("Connected to MySQL database;");
+
+            PreparedStatement statement = connection.prepareStatement("SELECT changedAt, valueBefore, valueAfter FROM salary_history "
+                    + "WHERE entity = ? AND entityId = ? AND changedAt >= ? AND changedAt <= ? ORDER BY id");
+            LOGGER.info("Prepared statement;");
+
+            statement.setString(1, entity);
+            statement.setInt(2, entityId);
+            statement.setTimestamp(3, Timestamp.valueOf(from == null ? LocalDateTime.of(1970, 1, 1, 0, 0) : from));
+            statement.setTimestamp(4, Timestamp.valueOf(to == null ? LocalDateTime.of(9999, 12, 31, 23, 59) : to));
+
+            LOGGER.info("Executing query: SELECT salary changes of " + entity + " " + entityId + " from " + from + " to " + to);
+            ResultSet resultSet = statement.executeQuery();
+
+            List<SalaryChange> changes = new ArrayList<>();
+
+            while (resultSet.next()) {
+
+                changes.add(new SalaryChange(resultSet.getTimestamp("changedAt").toLocalDateTime(),
+                        resultSet.getDouble("valueBefore"), resultSet.getDouble("valueAfter")));
+            }
+
+            LOGGER.info("Retrieved salary changes successfully;");
+            return changes;
+
+        } catch (SQLException e) {
+
+            LOGGER.error("Connection failure", e);
+            throw new DatabaseOperationException(e.getMessage());
+        }
+    }
+
+    //streaming every change, in id (time) order, to the consumer; used to load the in-memory history at startup;
+    public void forEachChange(Consumer<SalaryChangeRecord> consumer) throws DatabaseOperationException {
+
+        try (Connection connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS)) {
+            LOGGER.info("Connected to MySQL database;");
+
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT entity, entityId, changedAt, valueBefore, valueAfter FROM salary_history ORDER BY id",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            LOGGER.info("Prepared statement;");
+
+            statement.setFetchSize(Integer.MIN_VALUE);
+
+            LOGGER.info("Executing query: streaming all salary changes");
+            ResultSet resultSet = statement.executeQuery();
+
+            while (resultSet.next()) {
+
+                consumer.accept(new SalaryChangeRecord(resultSet.getString("entity"), resultSet.getInt("entityId"),
+                        new SalaryChange(resultSet.getTimestamp("changedAt").toLocalDateTime(),
+                                resultSet.getDouble("valueBefore"), resultSet.getDouble("valueAfter"))));
+            }
+
+            LOGGER.info("Retrieved all salary changes successfully;");
+
+        } catch (SQLException e) {
+
+            LOGGER.error("Connection failure", e);
+            throw new DatabaseOperationException(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.itfactory.dao;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Deduplicating low-cardinality strings read from the database (job domains), so rows holding the same value share one instance;
+ * Bounded: once full, new values are returned as they are (not deduplicated), so an unexpectedly high cardinality can't grow it;
+ */
+
+public final class StringInterner {
+
+    //the job domains of every row mapper; there are a few dozen of them;
+    public static final StringInterner DOMAINS = new StringInterner(4096);
+
+    private final int maxSize;
+
+    private final ConcurrentHashMap<String, String> values = new ConcurrentHashMap<>();
+
+    public StringInterner(int maxSize) {
+
+        this.maxSize = maxSize;
+    }
+
+    public String intern(String value) {
+
+        if (value == null) {
+
+            return null;
+        }
+
+        String interned = values.get(value);
+
+        if (interned != null) {
+
+            return interned;
+        }
+
+        if (values.size() >= maxSize) {
+
+            return value;
+        }
+
+        interned = values.putIfAbsent(value, value);
+
+        return interned == null ? value : interned;
+    }
+
+    public int size() {
+
+        return values.size();
+    }
+}
@@ -0,0 +1,15 @@
+package com.itfactory.exceptions;
+
+/**
+ * Thrown when changes are requested since a version older than the kept deletes (tombstones): the client has to resync in full;
+ */
+
+public class ChangesExpiredException extends DatabaseOperationException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ChangesExpiredException(String message) {
+
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package com.itfactory.exceptions;
+
+/**
+ * Thrown when a fields= parameter names a field the resource doesn't have (or names none);
+ */
+
+public class InvalidFieldsException extends DatabaseOperationException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidFieldsException(String message) {
+
+        super(message);
+    }
+}
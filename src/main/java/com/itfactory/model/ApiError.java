@@ -0,0 +1,8 @@
+package com.itfactory.model;
+
+/**
+ * The body of a failed JSON API (/api/v2) request: the HTTP status code and the error message;
+ */
+
+public record ApiError(int status, String message) {
+}
@@ -0,0 +1,9 @@
+package com.itfactory.model;
+
+/**
+ * A person or job write, as pushed by the change stream: its id (increasing), entity ("person" or "job"), type ("inserted",
+ * "updated" or "deleted"), the id of the written row, and the row after the write (the deleted row, for a delete);
+ */
+
+public record ChangeEvent(long id, String entity, String type, int entityId, Object data) {
+}
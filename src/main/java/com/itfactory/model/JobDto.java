@@ -0,0 +1,52 @@
+package com.itfactory.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * A job as returned (and accepted) by the JSON API (/api/v2/job);
+ */
+
+public record JobDto(int id, String name, String domain, double baseSalary) {
+
+    public static JobDto of(Job job) {
+
+        return new JobDto(job.getId(), job.getName(), job.getDomain(), job.getBaseSalary());
+    }
+
+    public Job toJob() {
+
+        return new Job(id, name, domain, baseSalary);
+    }
+
+    //writing the same object Jackson would serialize, field by field, for rows streamed without building the DTO list;
+    public static void write(JsonGenerator generator, Job job) throws IOException {
+
+        generator.writeStartObject();
+        generator.writeNumberField("id", job.getId());
+        generator.writeStringField("name", job.getName());
+        generator.writeStringField("domain", job.getDomain());
+        generator.writeNumberField("baseSalary", job.getBaseSalary());
+        generator.writeEndObject();
+    }
+
+    //writing only the selected fields (fields=), in their declaration order;
+    public static void write(JsonGenerator generator, Job job, Set<JobField> fields) throws IOException {
+
+        generator.writeStartObject();
+
+        for (JobField field : fields) {
+
+            switch (field) {
+                case ID -> generator.writeNumberField("id", job.getId());
+                case NAME -> generator.writeStringField("name", job.getName());
+                case DOMAIN -> generator.writeStringField("domain", job.getDomain());
+                case BASE_SALARY -> generator.writeNumberField("baseSalary", job.getBaseSalary());
+            }
+        }
+
+        generator.writeEndObject();
+    }
+}
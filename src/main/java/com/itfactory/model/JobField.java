@@ -0,0 +1,35 @@
+package com.itfactory.model;
+
+/**
+ * The job fields a client may select with fields=;
+ */
+
+public enum JobField implements ResourceField {
+
+    ID("id", "id"),
+    NAME("name", "name"),
+    DOMAIN("domain", "domain"),
+    BASE_SALARY("baseSalary", "baseSalary");
+
+    private final String fieldName;
+
+    private final String column;
+
+    JobField(String fieldName, String column) {
+
+        this.fieldName = fieldName;
+        this.column = column;
+    }
+
+    @Override
+    public String fieldName() {
+
+        return fieldName;
+    }
+
+    @Override
+    public String column() {
+
+        return column;
+    }
+}
@@ -0,0 +1,26 @@
+package com.itfactory.model;
+
+/**
+ * Current and simulated salary sums for a group of persons (a job, a domain, or everyone);
+ */
+
+public record PayrollImpact(long count, double currentSalarySum, double simulatedSalarySum) {
+
+    public static final PayrollImpact EMPTY = new PayrollImpact(0, 0, 0);
+
+    public double delta() {
+
+        return simulatedSalarySum - currentSalarySum;
+    }
+
+    public double deltaPercent() {
+
+        return currentSalarySum == 0 ? 0 : 100 * delta() / currentSalarySum;
+    }
+
+    public PayrollImpact plus(PayrollImpact other) {
+
+        return new PayrollImpact(count + other.count, currentSalarySum + other.currentSalarySum,
+                simulatedSalarySum + other.simulatedSalarySum);
+    }
+}
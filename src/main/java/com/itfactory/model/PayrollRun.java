@@ -0,0 +1,9 @@
+package com.itfactory.model;
+
+/**
+ * A monthly payroll run (payroll_run table): the period it snapshots (yyyy-MM), and the number of persons of its partitions;
+ * A partition covers an id range, from the id after the previous partition to its partitionSize-th person (the last id, for the last one);
+ */
+
+public record PayrollRun(int id, String period, int partitionSize, boolean completed) {
+}
@@ -0,0 +1,15 @@
+package com.itfactory.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of the current (or last) payroll run, as exposed by the payrollrun actuator endpoint;
+ * Status is one of IDLE, RUNNING, COMPLETED, FAILED; partitions committed by an earlier, interrupted attempt count as committed;
+ * While running, totalPartitions only counts the partitions read so far (they are cut as the persons are read);
+ */
+
+public record PayrollRunProgress(String period, String status, int totalPartitions, int committedPartitions,
+                                 long personsWritten, long personsSkipped, LocalDateTime startedAt, LocalDateTime finishedAt) {
+
+    public static final PayrollRunProgress IDLE = new PayrollRunProgress(null, "IDLE", 0, 0, 0, 0, null, null);
+}
@@ -0,0 +1,10 @@
+package com.itfactory.model;
+
+import java.util.SortedMap;
+
+/**
+ * The payroll impact of a SalaryScenario, per job id, per domain, and for the whole company;
+ */
+
+public record PayrollSimulation(SortedMap<Integer, PayrollImpact> byJobId, SortedMap<String, PayrollImpact> byDomain, PayrollImpact total) {
+}
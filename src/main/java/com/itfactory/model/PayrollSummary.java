@@ -0,0 +1,10 @@
+package com.itfactory.model;
+
+import java.util.SortedMap;
+
+/**
+ * Payroll totals per job id, per domain, and for the whole company;
+ */
+
+public record PayrollSummary(SortedMap<Integer, PayrollTotals> byJobId, SortedMap<String, PayrollTotals> byDomain, PayrollTotals total) {
+}
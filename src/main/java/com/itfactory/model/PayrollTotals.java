@@ -0,0 +1,32 @@
+package com.itfactory.model;
+
+/**
+ * Payroll totals for a group of persons (a job, a domain, or everyone);
+ * Salaries are computed salaries (salary index * base salary of the job); min and max are 0 for an empty group;
+ */
+
+public record PayrollTotals(long count, double salarySum, double salaryIndexSum, double minSalary, double maxSalary) {
+
+    public static final PayrollTotals EMPTY = new PayrollTotals(0, 0, 0, 0, 0);
+
+    public double averageSalary() {
+
+        return count == 0 ? 0 : salarySum / count;
+    }
+
+    public PayrollTotals plus(PayrollTotals other) {
+
+        if (count == 0) {
+
+            return other;
+        }
+
+        if (other.count == 0) {
+
+            return this;
+        }
+
+        return new PayrollTotals(count + other.count, salarySum + other.salarySum, salaryIndexSum + other.salaryIndexSum,
+                Math.min(minSalary, other.minSalary), Math.max(maxSalary, other.maxSalary));
+    }
+}
@@ -1,5 +1,6 @@
 package com.itfactory.model;
 
+import java.util.Locale;
 import java.util.Objects;
 import java.util.Random;
 
@@ -7,6 +8,7 @@ import java.util.Random;
  * Our Person model;
  * Using 2 toString variants (toStringLine used for printing getAllPersons result to console);
  * Encapsulated class - private fields and setters/getters usable;
+ * Persons are equal only if all fields are, id included, as their PersonRecord;
  */
 
 public class Person extends BaseModel {
@@ -60,6 +62,12 @@ public class Person extends BaseModel {
         this.jobId = jobId;
     }
 
+    //emails are compared (and uniquely indexed) trimmed and lower-cased;
+    public static String normalizeEmail(String email) {
+
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
     @Override
     public String toString() {
 
@@ -79,12 +87,13 @@ public class Person extends BaseModel {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Person person = (Person) o;
-        return jobId == person.jobId && Double.compare(salaryIndex, person.salaryIndex) == 0 && Objects.equals(email, person.email);
+        return getId() == person.getId() && jobId == person.jobId && Double.compare(salaryIndex, person.salaryIndex) == 0
+                && Objects.equals(getName(), person.getName()) && Objects.equals(email, person.email);
     }
 
     @Override
     public int hashCode() {
 
-        return Objects.hash(email, jobId, salaryIndex);
+        return Objects.hash(getId(), getName(), email, jobId, salaryIndex);
     }
 }
\ No newline at end of file
@@ -0,0 +1,91 @@
+package com.itfactory.model;
+
+/**
+ * A row group of persons, stored by column (one array per field, with their job's domain), for the columnar /all export;
+ * Filled row by row up to its capacity, then read and cleared for the next group, so one instance serves a whole export;
+ * Arrays are read up to size(); positions past it hold rows of an earlier group;
+ */
+
+public final class PersonColumns {
+
+    private final int[] ids;
+
+    private final String[] names;
+
+    private final String[] emails;
+
+    private final int[] jobIds;
+
+    private final String[] domains;
+
+    private final double[] salaryIndexes;
+
+    private int size;
+
+    public PersonColumns(int capacity) {
+
+        ids = new int[capacity];
+        names = new String[capacity];
+        emails = new String[capacity];
+        jobIds = new int[capacity];
+        domains = new String[capacity];
+        salaryIndexes = new double[capacity];
+    }
+
+    //domain is null for a person whose job doesn't exist;
+    public void add(int id, String name, String email, int jobId, String domain, double salaryIndex) {
+
+        ids[size] = id;
+        names[size] = name;
+        emails[size] = email;
+        jobIds[size] = jobId;
+        domains[size] = domain;
+        salaryIndexes[size] = salaryIndex;
+        size++;
+    }
+
+    public int size() {
+
+        return size;
+    }
+
+    public boolean isFull() {
+
+        return size == ids.length;
+    }
+
+    public void clear() {
+
+        size = 0;
+    }
+
+    public int[] ids() {
+
+        return ids;
+    }
+
+    public String[] names() {
+
+        return names;
+    }
+
+    public String[] emails() {
+
+        return emails;
+    }
+
+    public int[] jobIds() {
+
+        return jobIds;
+    }
+
+    public String[] domains() {
+
+        return domains;
+    }
+
+    public double[] salaryIndexes() {
+
+        return salaryIndexes;
+    }
+}
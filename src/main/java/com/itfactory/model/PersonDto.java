@@ -0,0 +1,54 @@
+package com.itfactory.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * A person as returned (and accepted) by the JSON API (/api/v2/person);
+ */
+
+public record PersonDto(int id, String name, String email, int jobId, double salaryIndex) {
+
+    public static PersonDto of(Person person) {
+
+        return new PersonDto(person.getId(), person.getName(), person.getEmail(), person.getJobId(), person.getSalaryIndex());
+    }
+
+    public Person toPerson() {
+
+        return new Person(id, name, email, jobId, salaryIndex);
+    }
+
+    //writing the same object Jackson would serialize, field by field, for rows streamed without building the DTO list;
+    public static void write(JsonGenerator generator, Person person) throws IOException {
+
+        generator.writeStartObject();
+        generator.writeNumberField("id", person.getId());
+        generator.writeStringField("name", person.getName());
+        generator.writeStringField("email", person.getEmail());
+        generator.writeNumberField("jobId", person.getJobId());
+        generator.writeNumberField("salaryIndex", person.getSalaryIndex());
+        generator.writeEndObject();
+    }
+
+    //writing only the selected fields (fields=), in their declaration order;
+    public static void write(JsonGenerator generator, Person person, Set<PersonField> fields) throws IOException {
+
+        generator.writeStartObject();
+
+        for (PersonField field : fields) {
+
+            switch (field) {
+                case ID -> generator.writeNumberField("id", person.getId());
+                case NAME -> generator.writeStringField("name", person.getName());
+                case EMAIL -> generator.writeStringField("email", person.getEmail());
+                case JOB_ID -> generator.writeNumberField("jobId", person.getJobId());
+                case SALARY_INDEX -> generator.writeNumberField("salaryIndex", person.getSalaryIndex());
+            }
+        }
+
+        generator.writeEndObject();
+    }
+}
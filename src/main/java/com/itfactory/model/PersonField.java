@@ -0,0 +1,36 @@
+package com.itfactory.model;
+
+/**
+ * The person fields a client may select with fields=;
+ */
+
+public enum PersonField implements ResourceField {
+
+    ID("id", "id"),
+    NAME("name", "name"),
+    EMAIL("email", "email"),
+    JOB_ID("jobId", "jobId"),
+    SALARY_INDEX("salaryIndex", "salaryIndex");
+
+    private final String fieldName;
+
+    private final String column;
+
+    PersonField(String fieldName, String column) {
+
+        this.fieldName = fieldName;
+        this.column = column;
+    }
+
+    @Override
+    public String fieldName() {
+
+        return fieldName;
+    }
+
+    @Override
+    public String column() {
+
+        return column;
+    }
+}
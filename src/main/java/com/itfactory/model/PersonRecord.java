@@ -0,0 +1,21 @@
+package com.itfactory.model;
+
+/**
+ * The immutable read model of a person, kept by the in-memory structures (PersonChangeListener);
+ * Being immutable, one record per person is shared by every structure, instead of each keeping its own Person copy;
+ * As Person, records are equal only if all fields are, id included;
+ */
+
+public record PersonRecord(int id, String name, String email, int jobId, double salaryIndex) {
+
+    public static PersonRecord of(Person person) {
+
+        return new PersonRecord(person.getId(), person.getName(), person.getEmail(), person.getJobId(), person.getSalaryIndex());
+    }
+
+    //a new (mutable) Person, for the callers of the services;
+    public Person toPerson() {
+
+        return new Person(id, name, email, jobId, salaryIndex);
+    }
+}
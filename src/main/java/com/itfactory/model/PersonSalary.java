@@ -0,0 +1,8 @@
+package com.itfactory.model;
+
+/**
+ * A person, together with its computed salary (salary index * base salary of its job);
+ */
+
+public record PersonSalary(Person person, double salary) {
+}
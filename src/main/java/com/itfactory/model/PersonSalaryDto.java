@@ -0,0 +1,8 @@
+package com.itfactory.model;
+
+/**
+ * A person's computed salary, as returned by the JSON API (/api/v2/person/{id}/salary);
+ */
+
+public record PersonSalaryDto(int id, double salary) {
+}
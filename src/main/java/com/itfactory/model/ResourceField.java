@@ -0,0 +1,60 @@
+package com.itfactory.model;
+
+import com.itfactory.exceptions.InvalidFieldsException;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * A field of a resource that a client may select with fields= (PersonField, JobField), with the column it is read from;
+ * The enums are the whitelist: only their columns ever reach a SQL projection;
+ */
+
+public interface ResourceField {
+
+    //the name in the API (and JSON);
+    String fieldName();
+
+    String column();
+
+    //parsing a comma separated list of field names; null (no fields= parameter) selects every field;
+    static <F extends Enum<F> & ResourceField> EnumSet<F> parse(String fields, Class<F> type) throws InvalidFieldsException {
+
+        if (fields == null) {
+
+            return EnumSet.allOf(type);
+        }
+
+        EnumSet<F> selected = EnumSet.noneOf(type);
+
+        for (String name : fields.split(",")) {
+
+            String fieldName = name.trim();
+
+            if (fieldName.isEmpty()) {
+
+                continue;
+            }
+
+            F field = Arrays.stream(type.getEnumConstants()).filter(constant -> constant.fieldName().equals(fieldName))
+                    .findFirst().orElseThrow(() -> new InvalidFieldsException("Invalid field '" + fieldName + "' - expected any of "
+                            + Arrays.stream(type.getEnumConstants()).map(ResourceField::fieldName).collect(Collectors.joining(", ")) + "."));
+            selected.add(field);
+        }
+
+        if (selected.isEmpty()) {
+
+            throw new InvalidFieldsException("Invalid fields - at least one field is expected.");
+        }
+
+        return selected;
+    }
+
+    //the SQL projection of the fields, in their declaration order (the order a row mapper reads them by index);
+    static String columns(Set<? extends ResourceField> fields) {
+
+        return fields.stream().map(ResourceField::column).collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,42 @@
+package com.itfactory.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rows changed (inserted or updated) and ids deleted since a row version, for delta sync (/person/changes, /job/changes);
+ * version is what the client passes as "since" next time; hasMore means the page was full, and the client should ask again right away;
+ */
+
+public record RowChanges<T>(List<T> changed, List<Integer> deletedIds, long version, boolean hasMore) {
+
+    /*merging changed rows and deleted ids (each with its row version, in increasing version order) into one page of at most limit
+    changes; a full page ends at its last change's version, otherwise at currentVersion (the latest committed row version), so
+    versions taken by other tables' writes are skipped too;*/
+    public static <T> RowChanges<T> of(List<T> rows, List<Long> rowVersions, List<Integer> deletedIds, List<Long> deletedVersions,
+                                       int limit, long since, long currentVersion) {
+
+        List<T> changed = new ArrayList<>();
+        List<Integer> deleted = new ArrayList<>();
+        long version = since;
+        int i = 0;
+        int j = 0;
+
+        while (changed.size() + deleted.size() < limit && (i < rows.size() || j < deletedIds.size())) {
+
+            if (j == deletedIds.size() || (i < rows.size() && rowVersions.get(i) < deletedVersions.get(j))) {
+
+                changed.add(rows.get(i));
+                version = rowVersions.get(i++);
+            } else {
+
+                deleted.add(deletedIds.get(j));
+                version = deletedVersions.get(j++);
+            }
+        }
+
+        boolean hasMore = i < rows.size() || j < deletedIds.size();
+
+        return new RowChanges<>(changed, deleted, hasMore ? version : Math.max(version, currentVersion), hasMore);
+    }
+}
@@ -0,0 +1,10 @@
+package com.itfactory.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * One change of a salary input: a person's salary index, or a job's base salary, from its value before to its value after;
+ */
+
+public record SalaryChange(LocalDateTime changedAt, double before, double after) {
+}
@@ -0,0 +1,12 @@
+package com.itfactory.model;
+
+/**
+ * A salary change, with the entity it belongs to (PERSON for a salary index change, JOB for a base salary change) and its id;
+ */
+
+public record SalaryChangeRecord(String entity, int entityId, SalaryChange change) {
+
+    public static final String PERSON = "PERSON";
+
+    public static final String JOB = "JOB";
+}
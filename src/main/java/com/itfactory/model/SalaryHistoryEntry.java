@@ -0,0 +1,54 @@
+package com.itfactory.model;
+
+import com.itfactory.rules.SalaryRule;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One point of a person's salary history: the salary index and base salary in effect after a change of either, and the salary
+ * (by the current salary rule of the person's job domain);
+ * changed is "salary index" or "base salary";
+ */
+
+public record SalaryHistoryEntry(LocalDateTime changedAt, String changed, double salaryIndex, double baseSalary, double salary) {
+
+    /*merging a person's salary index changes and their job's base salary changes (each in time order) into the person's salary history,
+    keeping the entries changed within [from, to] (null for no bound); the values in effect before the first change of each are
+    its "before" value, or the current value if it never changed;*/
+    public static List<SalaryHistoryEntry> of(double currentSalaryIndex, List<SalaryChange> salaryIndexChanges,
+                                              double currentBaseSalary, List<SalaryChange> baseSalaryChanges,
+                                              LocalDateTime from, LocalDateTime to, SalaryRule salaryRule) {
+
+        double salaryIndex = salaryIndexChanges.isEmpty() ? currentSalaryIndex : salaryIndexChanges.get(0).before();
+        double baseSalary = baseSalaryChanges.isEmpty() ? currentBaseSalary : baseSalaryChanges.get(0).before();
+        List<SalaryHistoryEntry> entries = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+
+        while (i < salaryIndexChanges.size() || j < baseSalaryChanges.size()) {
+
+            //on the same time, the salary index change goes first;
+            boolean salaryIndexChange = j == baseSalaryChanges.size() || (i < salaryIndexChanges.size()
+                    && !salaryIndexChanges.get(i).changedAt().isAfter(baseSalaryChanges.get(j).changedAt()));
+            SalaryChange change = salaryIndexChange ? salaryIndexChanges.get(i++) : baseSalaryChanges.get(j++);
+
+            if (salaryIndexChange) {
+
+                salaryIndex = change.after();
+            } else {
+
+                baseSalary = change.after();
+            }
+
+            if ((from == null || !change.changedAt().isBefore(from)) && (to == null || !change.changedAt().isAfter(to))) {
+
+                entries.add(new SalaryHistoryEntry(change.changedAt(), salaryIndexChange ? "salary index" : "base salary",
+                        salaryIndex, baseSalary, salaryRule.salaryOf(salaryIndex, baseSalary)));
+            }
+        }
+
+        return entries;
+    }
+}
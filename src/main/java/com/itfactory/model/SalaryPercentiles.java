@@ -0,0 +1,15 @@
+package com.itfactory.model;
+
+import java.util.List;
+
+/**
+ * Salary percentiles (nearest rank) and an equal-width salary histogram, for a group of persons (a job, a domain, or everyone);
+ * All values are 0, and the histogram empty, for an empty group;
+ */
+
+public record SalaryPercentiles(long count, double p50, double p90, double p99, List<Bucket> histogram) {
+
+    //persons with a salary from "from" (inclusive) to "to" (exclusive, except for the last bucket);
+    public record Bucket(double from, double to, long count) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.itfactory.model;
+
+import java.util.Map;
+
+/**
+ * A set of hypothetical salary changes, to be simulated without writing anything;
+ * Base salary raises (in percent) by domain (case-insensitive) and by job id apply on top of each other;
+ * Salary index overrides (by person id) replace the current salary index; the cap and floor (null for none) then bound every salary index;
+ */
+
+public record SalaryScenario(Map<String, Double> domainRaisePercents, Map<Integer, Double> jobRaisePercents,
+                             Map<Integer, Double> salaryIndexOverrides, Double salaryIndexCap, Double salaryIndexFloor) {
+}
@@ -2,11 +2,61 @@ package com.itfactory.model;
 
 /**
  * Enum used in the UserManager-implemented method from PersonManager (getting work experience);
+ * Each tier starts at a salary index threshold; a salary index is classified through a lookup table built from the thresholds;
  */
 
 public enum WorkExperience {
 
-    ENTRY, ENTRYTOMID, MIDDLE, SENIOR;
+    ENTRY(1.0), ENTRYTOMID(1.4), MIDDLE(1.8), SENIOR(2.2);
+
+    //the lookup covers the valid salary index range (1 to 3) in bins of 0.01, so every threshold falls on a bin edge;
+    private static final double MIN_SALARY_INDEX = 1.0;
+
+    private static final int BINS_PER_UNIT = 100;
+
+    private static final int BIN_COUNT = 2 * BINS_PER_UNIT + 1;
+
+    //the tiers by ordinal, with the top tier repeated, so a lookup can add one to any tier without going out of bounds;
+    private static final WorkExperience[] TIERS = {ENTRY, ENTRYTOMID, MIDDLE, SENIOR, SENIOR};
+
+    //the tier (ordinal) of each bin, and the threshold splitting the bin (positive infinity if none);
+    private static final int[] TIER_BY_BIN = new int[BIN_COUNT];
+
+    private static final double[] SPLIT_BY_BIN = new double[BIN_COUNT];
+
+    static {
+
+        for (int bin = 0; bin < BIN_COUNT; bin++) {
+
+            TIER_BY_BIN[bin] = classify(MIN_SALARY_INDEX + (bin + 0.5) / BINS_PER_UNIT).ordinal();
+            SPLIT_BY_BIN[bin] = Double.POSITIVE_INFINITY;
+        }
+
+        //in floating point, a threshold and the value right below it can land in the same bin (1.4 - 1.0 is 0.3999...);
+        //such a bin keeps the lower tier, and values from the threshold up get the next one;
+        for (WorkExperience tier : values()) {
+
+            int bin = binOf(tier.minSalaryIndex);
+
+            if (tier.ordinal() > 0 && binOf(Math.nextDown(tier.minSalaryIndex)) == bin) {
+
+                TIER_BY_BIN[bin] = tier.ordinal() - 1;
+                SPLIT_BY_BIN[bin] = tier.minSalaryIndex;
+            }
+        }
+    }
+
+    private final double minSalaryIndex;
+
+    WorkExperience(double minSalaryIndex) {
+
+        this.minSalaryIndex = minSalaryIndex;
+    }
+
+    public double getMinSalaryIndex() {
+
+        return minSalaryIndex;
+    }
 
     public String getWorkExperience() {
 
@@ -18,4 +68,40 @@ public enum WorkExperience {
             default -> " is further than mid level; they have been working here more than 3 years;";
         };
     }
+
+    //the tier of a salary index: one table lookup, plus the split check, without a comparison chain over the thresholds;
+    //salary indexes outside of 1 - 3 get the tier of the nearest end of the range;
+    public static WorkExperience of(double salaryIndex) {
+
+        int bin = binOf(salaryIndex);
+
+        return TIERS[TIER_BY_BIN[bin] + isAtLeast(salaryIndex, SPLIT_BY_BIN[bin])];
+    }
+
+    private static int binOf(double salaryIndex) {
+
+        return (int) Math.max(0, Math.min(BIN_COUNT - 1, (salaryIndex - MIN_SALARY_INDEX) * BINS_PER_UNIT));
+    }
+
+    //1 if value >= threshold, else 0, read from the sign bit of their difference (exact: it is only zero when both are equal);
+    private static int isAtLeast(double value, double threshold) {
+
+        return (int) (Double.doubleToRawLongBits(value - threshold) >>> 63) ^ 1;
+    }
+
+    //the reference classification, a comparison per threshold; only used to fill the lookup table;
+    private static WorkExperience classify(double salaryIndex) {
+
+        WorkExperience[] tiers = values();
+
+        for (int tier = tiers.length - 1; tier > 0; tier--) {
+
+            if (salaryIndex >= tiers[tier].minSalaryIndex) {
+
+                return tiers[tier];
+            }
+        }
+
+        return ENTRY;
+    }
 }
\ No newline at end of file
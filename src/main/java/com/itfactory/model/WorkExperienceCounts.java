@@ -0,0 +1,38 @@
+package com.itfactory.model;
+
+/**
+ * Number of persons in each work experience tier, for a group of persons (a job, a domain, or everyone);
+ */
+
+public record WorkExperienceCounts(long entry, long entryToMid, long middle, long senior) {
+
+    public static final WorkExperienceCounts EMPTY = new WorkExperienceCounts(0, 0, 0, 0);
+
+    //counts indexed by WorkExperience ordinal;
+    public static WorkExperienceCounts of(long[] countsByTier) {
+
+        return new WorkExperienceCounts(countsByTier[WorkExperience.ENTRY.ordinal()], countsByTier[WorkExperience.ENTRYTOMID.ordinal()],
+                countsByTier[WorkExperience.MIDDLE.ordinal()], countsByTier[WorkExperience.SENIOR.ordinal()]);
+    }
+
+    public long count(WorkExperience workExperience) {
+
+        return switch (workExperience) {
+
+            case ENTRY -> entry;
+            case ENTRYTOMID -> entryToMid;
+            case MIDDLE -> middle;
+            case SENIOR -> senior;
+        };
+    }
+
+    public long total() {
+
+        return entry + entryToMid + middle + senior;
+    }
+
+    public WorkExperienceCounts plus(WorkExperienceCounts other) {
+
+        return new WorkExperienceCounts(entry + other.entry, entryToMid + other.entryToMid, middle + other.middle, senior + other.senior);
+    }
+}
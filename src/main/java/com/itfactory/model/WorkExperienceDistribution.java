@@ -0,0 +1,42 @@
+package com.itfactory.model;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Work experience tier counts per job id, per domain, and for the whole company;
+ * Persons of an unknown job are counted for their job id and in the total, but not for any domain;
+ */
+
+public record WorkExperienceDistribution(SortedMap<Integer, WorkExperienceCounts> byJobId, SortedMap<String, WorkExperienceCounts> byDomain,
+                                         WorkExperienceCounts total) {
+
+    //rolling the counts of each job up to its domain (looked up by job id) and to the total;
+    public static WorkExperienceDistribution of(Map<Integer, WorkExperienceCounts> countsByJobId, Map<Integer, String> domainsByJobId) {
+
+        SortedMap<Integer, WorkExperienceCounts> byJobId = new TreeMap<>();
+        SortedMap<String, WorkExperienceCounts> byDomain = new TreeMap<>();
+        WorkExperienceCounts total = WorkExperienceCounts.EMPTY;
+
+        for (Map.Entry<Integer, WorkExperienceCounts> entry : countsByJobId.entrySet()) {
+
+            if (entry.getValue().total() == 0) {
+
+                continue;
+            }
+
+            String domain = domainsByJobId.get(entry.getKey());
+
+            byJobId.put(entry.getKey(), entry.getValue());
+            total = total.plus(entry.getValue());
+
+            if (domain != null) {
+
+                byDomain.merge(domain, entry.getValue(), WorkExperienceCounts::plus);
+            }
+        }
+
+        return new WorkExperienceDistribution(byJobId, byDomain, total);
+    }
+}
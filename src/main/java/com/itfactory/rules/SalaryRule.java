@@ -0,0 +1,11 @@
+package com.itfactory.rules;
+
+/**
+ * A compiled salary rule: the salary of a person, from their salary index and their job's base salary;
+ */
+
+@FunctionalInterface
+public interface SalaryRule {
+
+    double salaryOf(double salaryIndex, double baseSalary);
+}
@@ -0,0 +1,129 @@
+package com.itfactory.rules;
+
+import com.itfactory.model.WorkExperience;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * Holding the current salary rules (SalaryRules), loaded from a properties file and compiled once per load;
+ * A file on disk (file:...) is checked for changes periodically and recompiled, so rules change without a redeploy;
+ * A rules file that fails to compile is logged and ignored, keeping the previous rules (the built-in ones, at first);
+ */
+
+@Component
+public class SalaryRuleEngine {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SalaryRuleEngine.class);
+
+    private static final String CLASSPATH_PREFIX = "classpath:";
+
+    private static final String FILE_PREFIX = "file:";
+
+    private final String location;
+
+    private volatile SalaryRules rules = SalaryRules.BUILT_IN;
+
+    //modification time of the loaded rules file; guarded by the engine monitor;
+    private long loadedModifiedMillis = Long.MIN_VALUE;
+
+    @Autowired
+    public SalaryRuleEngine(@Value("${salary.rules.location:classpath:salary-rules.properties}") String location) {
+
+        this.location = location;
+        load();
+    }
+
+    //fixed rules, never reloaded;
+    public SalaryRuleEngine(SalaryRules rules) {
+
+        this.location = null;
+        this.rules = rules;
+    }
+
+    //the current rules; callers evaluating many persons take them once, so they all get the same rules;
+    public SalaryRules getRules() {
+
+        return rules;
+    }
+
+    public double salaryOf(String domain, double salaryIndex, double baseSalary) {
+
+        return rules.salaryRuleOf(domain).salaryOf(salaryIndex, baseSalary);
+    }
+
+    public WorkExperience workExperienceOf(String domain, double salaryIndex) {
+
+        return rules.tierRuleOf(domain).workExperienceOf(salaryIndex);
+    }
+
+    //classpath rules are loaded once; file rules are recompiled when the file changes;
+    @Scheduled(fixedDelayString = "${salary.rules.reload-interval-ms:60000}")
+    public synchronized void reloadIfChanged() {
+
+        load();
+    }
+
+    //private, so the constructor's first load doesn't call a method a subclass could override;
+    private void load() {
+
+        if (location == null || (location.startsWith(CLASSPATH_PREFIX) && loadedModifiedMillis != Long.MIN_VALUE)) {
+
+            return;
+        }
+
+        try {
+            Properties properties = new Properties();
+            long modifiedMillis = 0;
+
+            if (location.startsWith(CLASSPATH_PREFIX)) {
+
+                try (InputStream input = SalaryRuleEngine.class.getClassLoader()
+                        .getResourceAsStream(location.substring(CLASSPATH_PREFIX.length()))) {
+
+                    if (input == null) {
+
+                        LOGGER.warn("Salary rules " + location + " not found, using the built-in rules;");
+                        loadedModifiedMillis = modifiedMillis;
+                        return;
+                    }
+
+                    properties.load(input);
+                }
+            } else {
+
+                Path path = Path.of(location.startsWith(FILE_PREFIX) ? location.substring(FILE_PREFIX.length()) : location);
+                modifiedMillis = Files.getLastModifiedTime(path).toMillis();
+
+                if (modifiedMillis == loadedModifiedMillis) {
+
+                    return;
+                }
+
+                try (InputStream input = Files.newInputStream(path)) {
+
+                    properties.load(input);
+                }
+            }
+
+            //a file that fails to compile is not retried until it changes again;
+            loadedModifiedMillis = modifiedMillis;
+            rules = SalaryRules.compile(properties);
+            LOGGER.info("Salary rules loaded from " + location + ";");
+        } catch (IOException | IllegalArgumentException e) {
+
+            LOGGER.error("Failed to load salary rules from " + location + ", keeping the previous rules", e);
+        }
+    }
+}
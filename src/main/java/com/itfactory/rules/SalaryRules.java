@@ -0,0 +1,240 @@
+package com.itfactory.rules;
+
+import com.itfactory.model.WorkExperience;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A set of salary and work experience rules, per domain, compiled once (from properties) into SalaryRule and TierRule lambdas;
+ * Evaluating a rule is a plain call: nothing is parsed, looked up by name or reflected per call;
+ * Properties are "<domain>.<setting>", where domain is a job domain (case-insensitive) or "default" (for every other domain):
+ * bonus-percent (salary = salaryIndex * baseSalary * (1 + bonus-percent / 100)), band-min and band-max (the salary is clamped to
+ * the band), and tiers (the salary index thresholds of ENTRYTOMID, MIDDLE and SENIOR); a domain inherits the settings it doesn't set;
+ * Every salary and tier of the application goes through these rules: the indexes and aggregates sum salary indexes for the domains
+ * without a band (isLinear), and tiers are counted from salary index histograms, so tier thresholds have at most 2 decimals;
+ * Without any properties, the rules are the built-in ones (JobService.calculateSalary and WorkExperience.of);
+ */
+
+public final class SalaryRules {
+
+    public static final String DEFAULT_DOMAIN = "default";
+
+    private static final WorkExperience[] TIERS = WorkExperience.values();
+
+    private static final double[] DEFAULT_TIER_THRESHOLDS = Arrays.stream(TIERS).skip(1).mapToDouble(WorkExperience::getMinSalaryIndex).toArray();
+
+    private static final Map<String, String> NO_SETTINGS = Map.of();
+
+    //domains resolved (case-insensitively) are cached by their exact spelling, up to this many;
+    private static final int MAX_RESOLVED_DOMAINS = 1024;
+
+    public static final SalaryRules BUILT_IN = compile(new Properties());
+
+    private final DomainRules defaultRules;
+
+    private final Map<String, DomainRules> rulesByDomain;
+
+    private final boolean domainTierRules;
+
+    private final Map<String, DomainRules> resolvedByDomain = new ConcurrentHashMap<>();
+
+    private SalaryRules(DomainRules defaultRules, Map<String, DomainRules> rulesByDomain) {
+
+        this.defaultRules = defaultRules;
+        this.rulesByDomain = rulesByDomain;
+        this.domainTierRules = rulesByDomain.values().stream()
+                .anyMatch(rules -> !Arrays.equals(rules.tierThresholds(), defaultRules.tierThresholds()));
+    }
+
+    //throws IllegalArgumentException for an unknown setting or an invalid value;
+    public static SalaryRules compile(Properties properties) {
+
+        Map<String, Map<String, String>> settingsByDomain = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+        for (String key : properties.stringPropertyNames()) {
+
+            int separator = key.lastIndexOf('.');
+
+            if (separator <= 0) {
+
+                throw new IllegalArgumentException("Invalid salary rule '" + key + "' - expected <domain>.<setting>");
+            }
+
+            settingsByDomain.computeIfAbsent(key.substring(0, separator).trim(), domain -> new HashMap<>())
+                    .put(key.substring(separator + 1).trim(), properties.getProperty(key).trim());
+        }
+
+        Map<String, String> defaultSettings = settingsByDomain.getOrDefault(DEFAULT_DOMAIN, NO_SETTINGS);
+        Map<String, DomainRules> rulesByDomain = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+        settingsByDomain.forEach((domain, settings) -> {
+
+            if (!domain.equalsIgnoreCase(DEFAULT_DOMAIN)) {
+
+                rulesByDomain.put(domain, compileDomain(domain, settings, defaultSettings));
+            }
+        });
+
+        return new SalaryRules(compileDomain(DEFAULT_DOMAIN, defaultSettings, NO_SETTINGS), rulesByDomain);
+    }
+
+    //the rule of a domain (the default rule for a domain without rules of its own); looked up without allocating;
+    public SalaryRule salaryRuleOf(String domain) {
+
+        return rulesOf(domain).salaryRule();
+    }
+
+    public TierRule tierRuleOf(String domain) {
+
+        return rulesOf(domain).tierRule();
+    }
+
+    /*whether the domain's salary is salaryIndex * baseSalary times a constant (no band), so the salary of a sum of salary indexes is
+    the sum of their salaries: totals are then computed from salary index sums, instead of person by person;*/
+    public boolean isLinear(String domain) {
+
+        return rulesOf(domain).linear();
+    }
+
+    //whether some domain has tiers of its own, in which case a person's tier depends on their job's domain;
+    public boolean hasDomainTierRules() {
+
+        return domainTierRules;
+    }
+
+    /*salaries of a batch of persons (their domains, salary indexes and base salaries, at the same positions), written to salaries;
+    nothing is allocated, and the inputs are not validated (callers check the salary index and base salary ranges first);*/
+    public void salariesOf(String[] domains, double[] salaryIndexes, double[] baseSalaries, double[] salaries, int count) {
+
+        if (rulesByDomain.isEmpty()) {
+
+            //one rule for every domain: a single call site, which the JIT inlines into the loop;
+            SalaryRule salaryRule = defaultRules.salaryRule();
+
+            for (int i = 0; i < count; i++) {
+
+                salaries[i] = salaryRule.salaryOf(salaryIndexes[i], baseSalaries[i]);
+            }
+
+            return;
+        }
+
+        for (int i = 0; i < count; i++) {
+
+            salaries[i] = rulesOf(domains[i]).salaryRule().salaryOf(salaryIndexes[i], baseSalaries[i]);
+        }
+    }
+
+    //a hash lookup of the exact domain; the case-insensitive lookup (string comparisons) only runs once per spelling;
+    private DomainRules rulesOf(String domain) {
+
+        if (domain == null) {
+
+            return defaultRules;
+        }
+
+        DomainRules rules = resolvedByDomain.get(domain);
+
+        if (rules == null) {
+
+            rules = rulesByDomain.getOrDefault(domain, defaultRules);
+
+            if (resolvedByDomain.size() < MAX_RESOLVED_DOMAINS) {
+
+                resolvedByDomain.put(domain, rules);
+            }
+        }
+
+        return rules;
+    }
+
+    private static DomainRules compileDomain(String domain, Map<String, String> settings, Map<String, String> defaultSettings) {
+
+        for (String setting : settings.keySet()) {
+
+            if (!setting.equals("bonus-percent") && !setting.equals("band-min") && !setting.equals("band-max") && !setting.equals("tiers")) {
+
+                throw new IllegalArgumentException("Unknown salary rule setting '" + domain + "." + setting + "'");
+            }
+        }
+
+        Map<String, String> merged = new HashMap<>(defaultSettings);
+        merged.putAll(settings);
+
+        double bonusPercent = parse(domain, "bonus-percent", merged.getOrDefault("bonus-percent", "0"));
+        double bandMin = parse(domain, "band-min", merged.getOrDefault("band-min", "-Infinity"));
+        double bandMax = parse(domain, "band-max", merged.getOrDefault("band-max", "Infinity"));
+
+        if (bonusPercent <= -100 || bandMin > bandMax) {
+
+            throw new IllegalArgumentException("Invalid salary rules for '" + domain + "' - bonus-percent must be above -100, "
+                    + "and band-min must not be above band-max");
+        }
+
+        double[] thresholds = merged.containsKey("tiers")
+                ? Arrays.stream(merged.get("tiers").split(",")).mapToDouble(value -> parse(domain, "tiers", value)).toArray()
+                : DEFAULT_TIER_THRESHOLDS;
+
+        boolean linear = bandMin == Double.NEGATIVE_INFINITY && bandMax == Double.POSITIVE_INFINITY;
+
+        return new DomainRules(compileSalaryRule(bonusPercent, bandMin, bandMax), compileTierRule(domain, thresholds), thresholds, linear);
+    }
+
+    //composing the lambda from the settings in use only; without bonus and band, it is the built-in salaryIndex * baseSalary;
+    private static SalaryRule compileSalaryRule(double bonusPercent, double bandMin, double bandMax) {
+
+        double factor = 1 + bonusPercent / 100;
+        SalaryRule unbounded = bonusPercent == 0
+                ? (salaryIndex, baseSalary) -> salaryIndex * baseSalary
+                : (salaryIndex, baseSalary) -> salaryIndex * baseSalary * factor;
+
+        if (bandMin == Double.NEGATIVE_INFINITY && bandMax == Double.POSITIVE_INFINITY) {
+
+            return unbounded;
+        }
+
+        return (salaryIndex, baseSalary) -> Math.min(bandMax, Math.max(bandMin, unbounded.salaryOf(salaryIndex, baseSalary)));
+    }
+
+    /*the built-in thresholds keep the WorkExperience lookup table; other thresholds are counted (one comparison per threshold);
+    thresholds are on the 0.01 grid of the salary index histograms, so tiers counted per histogram bin are exact;*/
+    private static TierRule compileTierRule(String domain, double[] thresholds) {
+
+        if (Arrays.equals(thresholds, DEFAULT_TIER_THRESHOLDS)) {
+
+            return WorkExperience::of;
+        }
+
+        if (thresholds.length != TIERS.length - 1 || thresholds[0] < 1 || thresholds[thresholds.length - 1] > 3
+                || thresholds[0] >= thresholds[1] || thresholds[1] >= thresholds[2]
+                || Arrays.stream(thresholds).anyMatch(threshold -> Math.abs(threshold * 100 - Math.rint(threshold * 100)) > 1e-9)) {
+
+            throw new IllegalArgumentException("Invalid tiers for '" + domain + "' - expected " + (TIERS.length - 1)
+                    + " increasing salary indexes from 1 to 3, with at most 2 decimals");
+        }
+
+        double entryToMid = thresholds[0];
+        double middle = thresholds[1];
+        double senior = thresholds[2];
+
+        return salaryIndex -> TIERS[(salaryIndex >= entryToMid ? 1 : 0) + (salaryIndex >= middle ? 1 : 0) + (salaryIndex >= senior ? 1 : 0)];
+    }
+
+    private static double parse(String domain, String setting, String value) {
+
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+
+            throw new IllegalArgumentException("Invalid value '" + value + "' for salary rule '" + domain + "." + setting + "'");
+        }
+    }
+
+    private record DomainRules(SalaryRule salaryRule, TierRule tierRule, double[] tierThresholds, boolean linear) {
+    }
+}
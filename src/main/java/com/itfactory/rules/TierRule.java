@@ -0,0 +1,13 @@
+package com.itfactory.rules;
+
+import com.itfactory.model.WorkExperience;
+
+/**
+ * A compiled work experience rule: the tier of a person, from their salary index;
+ */
+
+@FunctionalInterface
+public interface TierRule {
+
+    WorkExperience workExperienceOf(double salaryIndex);
+}
@@ -0,0 +1,313 @@
+package com.itfactory.service;
+
+import com.itfactory.storage.ChangeFeed;
+import com.itfactory.storage.ChangeFeedEvent;
+import com.itfactory.storage.ChangeFeedSubscriber;
+import com.itfactory.storage.EventRingBuffer;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Server-Sent Events subscriptions to the change feed (ChangeFeed), for /changes/stream;
+ * Each subscriber has its own bounded ring buffer (changes.stream.buffer-capacity events), filled by the writes and drained by
+ * a small pool of sender threads, so a write never waits for a client;
+ * A resuming subscriber first reads the events it missed from the feed's replay buffer, a buffer-capacity at a time, as fast as
+ * it is sent them, so only the writes made meanwhile fill its buffer (however long its backlog);
+ * A subscriber whose buffer is full is too slow: by default (changes.stream.slow-consumer-policy=disconnect) it is disconnected,
+ * and resumes by reconnecting with its Last-Event-ID; with "drop", its oldest buffered events are dropped instead, and a "dropped"
+ * event (with the number dropped) precedes the next one it gets;
+ * Idle subscribers get a keep-alive comment periodically, which also finds the disconnected ones;
+ */
+
+@Service
+public class ChangeStreamService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChangeStreamService.class);
+
+    private final ChangeFeed changeFeed;
+
+    private final ExecutorService senders;
+
+    private final Set<SseSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final int bufferCapacity;
+
+    private final boolean dropOldest;
+
+    private final int maxSubscribers;
+
+    private final Supplier<SseEmitter> emitters;
+
+    @Autowired
+    public ChangeStreamService(ChangeFeed changeFeed,
+                               @Value("${changes.stream.sender-threads:2}") int senderThreads,
+                               @Value("${changes.stream.buffer-capacity:256}") int bufferCapacity,
+                               @Value("${changes.stream.slow-consumer-policy:disconnect}") String slowConsumerPolicy,
+                               @Value("${changes.stream.max-subscribers:100}") int maxSubscribers,
+                               @Value("${changes.stream.timeout-ms:1800000}") long timeoutMillis) {
+
+        this(changeFeed, senderThreads, bufferCapacity, slowConsumerPolicy, maxSubscribers, () -> new SseEmitter(timeoutMillis));
+    }
+
+    //creating the subscription emitters with the given supplier (e.g. in tests);
+    ChangeStreamService(ChangeFeed changeFeed, int senderThreads, int bufferCapacity, String slowConsumerPolicy,
+                        int maxSubscribers, Supplier<SseEmitter> emitters) {
+
+        this.changeFeed = changeFeed;
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+
+            Thread thread = new Thread(runnable, "change-stream-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.bufferCapacity = bufferCapacity;
+        this.dropOldest = "drop".equalsIgnoreCase(slowConsumerPolicy);
+        this.maxSubscribers = maxSubscribers;
+        this.emitters = emitters;
+    }
+
+    /*a new subscription, resuming after lastEventId (the Last-Event-ID of a reconnecting client, or null);
+    returns null if there are already changes.stream.max-subscribers subscribers;*/
+    public SseEmitter subscribe(Long lastEventId) {
+
+        if (subscribers.size() >= maxSubscribers) {
+
+            return null;
+        }
+
+        SseEmitter emitter = emitters.get();
+        SseSubscriber subscriber = new SseSubscriber(emitter, new EventRingBuffer(bufferCapacity), lastEventId);
+
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+
+        subscribers.add(subscriber);
+
+        if (changeFeed.subscribe(subscriber, lastEventId)) {
+
+            subscriber.startReplay();
+        }
+
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+
+        return subscribers.size();
+    }
+
+    @Scheduled(fixedDelayString = "${changes.stream.keep-alive-ms:15000}")
+    public void keepAlive() {
+
+        subscribers.forEach(SseSubscriber::keepAlive);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdownNow();
+    }
+
+    private final class SseSubscriber implements ChangeFeedSubscriber {
+
+        private final SseEmitter emitter;
+
+        //guarded by the subscriber monitor, with the fields below;
+        private final EventRingBuffer buffer;
+
+        private boolean sending;
+
+        private boolean closed;
+
+        private long dropped;
+
+        //the id of the last event replayed, while catching up (null once caught up, or reset);
+        private Long replayAfter;
+
+        //the id of the last event sent, so the buffered events already replayed are skipped; used by the send task only;
+        private long lastSentId;
+
+        private SseSubscriber(SseEmitter emitter, EventRingBuffer buffer, Long lastEventId) {
+
+            this.emitter = emitter;
+            this.buffer = buffer;
+            this.replayAfter = lastEventId;
+            this.lastSentId = lastEventId == null ? Long.MIN_VALUE : lastEventId;
+        }
+
+        @Override
+        public synchronized void offer(ChangeFeedEvent event) {
+
+            if (closed) {
+
+                return;
+            }
+
+            //the subscriber resyncs instead of catching up;
+            if (ChangeFeed.RESET.equals(event.name())) {
+
+                replayAfter = null;
+            }
+
+            if (buffer.isFull() && !dropOldest) {
+
+                LOGGER.warn("Change stream subscriber too slow (" + buffer.size() + " events behind), disconnecting;");
+                closed = true;
+                senders.execute(emitter::complete);
+                return;
+            }
+
+            if (!buffer.add(event)) {
+
+                dropped++;
+            }
+
+            startSending(false);
+        }
+
+        private synchronized void startReplay() {
+
+            if (!closed && replayAfter != null) {
+
+                startSending(false);
+            }
+        }
+
+        private synchronized void keepAlive() {
+
+            if (!closed && !sending && buffer.isEmpty()) {
+
+                startSending(true);
+            }
+        }
+
+        private void close() {
+
+            synchronized (this) {
+
+                closed = true;
+            }
+
+            subscribers.remove(this);
+            changeFeed.unsubscribe(this);
+        }
+
+        //called holding the subscriber monitor; one send task per subscriber at a time keeps its events in order;
+        private void startSending(boolean keepAlive) {
+
+            if (!sending) {
+
+                sending = true;
+                senders.execute(() -> send(keepAlive));
+            }
+        }
+
+        private void send(boolean keepAlive) {
+
+            try {
+                if (keepAlive) {
+
+                    emitter.send(SseEmitter.event().comment("keep-alive"));
+                }
+
+                while (true) {
+
+                    Long replayFrom;
+
+                    synchronized (this) {
+
+                        replayFrom = closed ? null : replayAfter;
+                    }
+
+                    if (replayFrom != null) {
+
+                        replay(replayFrom);
+                        continue;
+                    }
+
+                    ChangeFeedEvent event;
+                    long droppedEvents;
+
+                    synchronized (this) {
+
+                        event = closed ? null : buffer.poll();
+
+                        if (event == null) {
+
+                            sending = false;
+                            return;
+                        }
+
+                        droppedEvents = dropped;
+                        dropped = 0;
+                    }
+
+                    if (droppedEvents > 0) {
+
+                        emitter.send(SseEmitter.event().name("dropped").data(droppedEvents));
+                    }
+
+                    if (event.id() > lastSentId || ChangeFeed.RESET.equals(event.name())) {
+
+                        sendEvent(event);
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+
+                //the client went away; the emitter's completion callback unsubscribes it;
+                synchronized (this) {
+
+                    sending = false;
+                }
+
+                emitter.completeWithError(e);
+                close();
+            }
+        }
+
+        //the next events missed, read from the feed's replay buffer (not through the subscriber buffer);
+        private void replay(long afterId) throws IOException {
+
+            List<ChangeFeedEvent> events = changeFeed.replay(afterId, bufferCapacity);
+
+            for (ChangeFeedEvent event : events) {
+
+                sendEvent(event);
+            }
+
+            synchronized (this) {
+
+                //caught up (the later events are buffered), or reset: the buffered events come next;
+                boolean done = events.size() < bufferCapacity || ChangeFeed.RESET.equals(events.get(0).name());
+                replayAfter = closed || done ? null : lastSentId;
+            }
+        }
+
+        private void sendEvent(ChangeFeedEvent event) throws IOException {
+
+            emitter.send(SseEmitter.event().id(String.valueOf(event.id())).name(event.name())
+                    .data(event.data(), MediaType.APPLICATION_JSON));
+            lastSentId = event.id();
+        }
+    }
+}
@@ -3,12 +3,27 @@ package com.itfactory.service;
 import com.itfactory.dao.JobDao;
 import com.itfactory.exceptions.DatabaseOperationException;
 import com.itfactory.model.Job;
+import com.itfactory.model.JobField;
 import com.itfactory.model.Person;
+import com.itfactory.model.RowChanges;
+import com.itfactory.model.SalaryChange;
+import com.itfactory.model.SalaryChangeRecord;
+
+import com.itfactory.rules.SalaryRuleEngine;
+import com.itfactory.storage.JobChangeListener;
+import com.itfactory.storage.SalaryHistoryStore;
+import com.itfactory.storage.TableVersions;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Job database related service methods for validating data and sending requests to DAO (by request sent through Controller class);
@@ -18,24 +33,95 @@ import java.util.List;
 @Service
 public class JobService {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(JobService.class);
+
+    public static final int MAX_BATCH_SIZE = 100_000;
+
     private final JobDao jobDao;
 
+    private List<JobChangeListener> jobChangeListeners = List.of();
+
+    private TableVersions tableVersions;
+
+    private SalaryRuleEngine salaryRuleEngine;
+
+    private SalaryHistoryStore salaryHistoryStore;
+
     @Autowired
     public JobService(JobDao jobDao) {
 
         this.jobDao = jobDao;
     }
 
+    //in-memory structures depending on jobs (computed salary index), notified after each successful write;
+    @Autowired
+    public void setJobChangeListeners(List<JobChangeListener> jobChangeListeners) {
+
+        this.jobChangeListeners = jobChangeListeners;
+    }
+
+    //bumped after each successful write, as in PersonService;
+    @Autowired
+    public void setTableVersions(TableVersions tableVersions) {
+
+        this.tableVersions = tableVersions;
+    }
+
+    //configured salary rules (per domain bonus and band); without them, the salary is salary index * base salary;
+    @Autowired
+    public void setSalaryRuleEngine(SalaryRuleEngine salaryRuleEngine) {
+
+        this.salaryRuleEngine = salaryRuleEngine;
+    }
+
+    //base salary history; without it, salary history is not available;
+    @Autowired
+    public void setSalaryHistoryStore(SalaryHistoryStore salaryHistoryStore) {
+
+        this.salaryHistoryStore = salaryHistoryStore;
+    }
+
     public Job getJobById(int id) throws DatabaseOperationException {
 
         return jobDao.getJobById(id);
     }
 
+    //a job with only the selected fields read (the others are left unset);
+    public Job getJobById(int id, Set<JobField> fields) throws DatabaseOperationException {
+
+        return jobDao.getJobById(id, fields);
+    }
+
     public void insertJob(Job job) throws DatabaseOperationException {
 
         validateInsertJobInput(job);
 
         jobDao.insertJob(job);
+
+        notifyListeners(listener -> listener.jobInserted(job));
+        rowWritten(job.getId());
+    }
+
+    //batch ingest: every job is checked before any is inserted, all in one transaction;
+    public void insertJobs(List<Job> jobs) throws DatabaseOperationException {
+
+        if (jobs.isEmpty() || jobs.size() > MAX_BATCH_SIZE) {
+
+            throw new DatabaseOperationException("Invalid Input for Batch Size - Please send from 1 to " + MAX_BATCH_SIZE + " jobs!");
+        }
+
+        for (Job job : jobs) {
+
+            validateInsertJobInput(job);
+        }
+
+        jobDao.insertJobs(jobs);
+
+        for (Job job : jobs) {
+
+            notifyListeners(listener -> listener.jobInserted(job));
+            rowWritten(job.getId());
+        }
     }
 
     public List<Job> getAllJobs() throws DatabaseOperationException {
@@ -43,28 +129,104 @@ public class JobService {
         return jobDao.getAllJobs();
     }
 
+    public List<Job> getAllJobs(Set<JobField> fields) throws DatabaseOperationException {
+
+        return jobDao.getAllJobs(fields);
+    }
+
     public void deleteJob(int id) throws DatabaseOperationException {
 
-        jobDao.getJobById(id);
+        Job deletedJob = jobDao.getJobById(id);
 
         jobDao.deleteJob(id);
+
+        notifyListeners(listener -> listener.jobDeleted(deletedJob));
+        rowWritten(id);
     }
 
     public Job updateBaseSalary(int id, double baseSalary) throws DatabaseOperationException {
 
-        validateUpdateBaseSalaryInput(id, baseSalary);
+        Job job = validateUpdateBaseSalaryInput(id, baseSalary);
 
-        return jobDao.updateBaseSalary(id, baseSalary);
+        Job updatedJob = jobDao.updateBaseSalary(id, baseSalary);
+
+        notifyListeners(listener -> listener.jobUpdated(job, updatedJob));
+        rowWritten(id);
+
+        return updatedJob;
+    }
+
+    //jobs changed and deleted since a row version, for delta sync; without since, every job, and the version to sync from;
+    public RowChanges<Job> getJobChanges(Long since, int limit) throws DatabaseOperationException {
+
+        if (since != null && since < 0) {
+
+            throw new DatabaseOperationException("Invalid version - since must not be negative.");
+        }
+
+        if (limit < 1 || limit > PersonService.MAX_PAGE_SIZE) {
+
+            throw new DatabaseOperationException("Invalid limit - must be between 1 and " + PersonService.MAX_PAGE_SIZE + ".");
+        }
+
+        return jobDao.getJobChanges(since == null ? -1 : since, limit);
+    }
+
+    //the job's base salary changes within [from, to] (null for no bound), in time order;
+    public List<SalaryChange> getBaseSalaryHistory(int id, LocalDateTime from, LocalDateTime to) throws DatabaseOperationException {
+
+        if (from != null && to != null && from.isAfter(to)) {
+
+            throw new DatabaseOperationException("Invalid range - from must not be after to.");
+        }
+
+        if (salaryHistoryStore == null) {
+
+            throw new DatabaseOperationException("Salary history is not available.");
+        }
+
+        return salaryHistoryStore.getChanges(SalaryChangeRecord.JOB, getJobById(id).getId(), from, to);
     }
 
     public double calculateSalary(Person person, Job job) throws DatabaseOperationException {
 
         validateCalculateSalaryInput(person, job);
 
+        if (salaryRuleEngine != null) {
+
+            double salary = salaryRuleEngine.salaryOf(job.getDomain(), person.getSalaryIndex(), job.getBaseSalary());
+
+            System.out.println(person.getName() + "'s salary is: " + salary);
+            return salary;
+        }
+
         System.out.println(person.getName() + "'s salary is: " + person.getSalaryIndex() * job.getBaseSalary());
         return person.getSalaryIndex() * job.getBaseSalary();
     }
 
+    //the database write already succeeded, so a failing listener is logged, and doesn't fail the request;
+    private void notifyListeners(Consumer<JobChangeListener> notification) {
+
+        for (JobChangeListener listener : jobChangeListeners) {
+
+            try {
+                notification.accept(listener);
+            } catch (RuntimeException e) {
+
+                LOGGER.error("Failed to apply job change to " + listener.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    //the job's new version (ETag), bumped once the listeners have applied the write;
+    private void rowWritten(int id) {
+
+        if (tableVersions != null) {
+
+            tableVersions.rowWritten(TableVersions.JOB, id);
+        }
+    }
+
     //validation methods for JobService;
     private static void validateInsertJobInput(Job job) throws DatabaseOperationException {
 
@@ -91,9 +253,12 @@ public class JobService {
         }
     }
 
-    private void validateUpdateBaseSalaryInput(int id, double baseSalary) throws DatabaseOperationException {
+    //returning the job as it is before the update;
+    private Job validateUpdateBaseSalaryInput(int id, double baseSalary) throws DatabaseOperationException {
 
-        if (getJobById(id).getBaseSalary() == baseSalary) {
+        Job job = getJobById(id);
+
+        if (job.getBaseSalary() == baseSalary) {
 
             throw new DatabaseOperationException(
                     "Job base salary is already: " + baseSalary);
@@ -102,9 +267,12 @@ public class JobService {
         if (baseSalary < 500) throw new DatabaseOperationException(
 
                 "Invalid Input for Base Salary - Please specify a value greater than 500!");
+
+        return job;
     }
 
-    private void validateCalculateSalaryInput(Person person, Job job) throws DatabaseOperationException {
+    //also checked by batch payroll runs (PayrollRunService), before evaluating the salary rules;
+    static void validateCalculateSalaryInput(Person person, Job job) throws DatabaseOperationException {
 
         if (person.getSalaryIndex() < 1 || person.getSalaryIndex() > 3) {
 
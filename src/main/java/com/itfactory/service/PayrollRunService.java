@@ -0,0 +1,313 @@
+package com.itfactory.service;
+
+import com.itfactory.dao.JobDao;
+import com.itfactory.dao.PayrollRunDao;
+import com.itfactory.dao.PersonDao;
+import com.itfactory.exceptions.DatabaseOperationException;
+import com.itfactory.model.Job;
+import com.itfactory.model.PayrollRun;
+import com.itfactory.model.PayrollRunProgress;
+import com.itfactory.model.Person;
+import com.itfactory.model.PersonSalary;
+import com.itfactory.rules.SalaryRuleEngine;
+import com.itfactory.rules.SalaryRules;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monthly payroll run: a snapshot of every person's salary, written to the payroll_run tables (PayrollRunDao);
+ * Persons are read by id in partitions of partitionSize persons (keyset pages, so any ids, negative or sparse, make full partitions),
+ * and each partition is computed and written on a bounded worker pool, on its own connections;
+ * Salaries follow the JobService salary checks and the configured salary rules (SalaryRuleEngine), evaluated per partition in a batch;
+ * persons failing the checks are skipped and logged;
+ * Each partition is committed with a checkpoint holding its id range, so an interrupted run resumes with the ids outside those ranges;
+ * Progress is exposed by the payrollrun actuator endpoint (PayrollRunEndpoint);
+ */
+
+@Service
+public class PayrollRunService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PayrollRunService.class);
+
+    private final PersonDao personDao;
+
+    private final JobDao jobDao;
+
+    private final PayrollRunDao payrollRunDao;
+
+    @Value("${payroll.run.partition-size:10000}")
+    private int partitionSize = 10_000;
+
+    @Value("${payroll.run.threads:4}")
+    private int threads = 4;
+
+    private SalaryRuleEngine salaryRuleEngine;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    //progress of the current (or last) run;
+    private volatile String period;
+
+    private volatile String status = "IDLE";
+
+    //only the reading thread changes it;
+    private volatile int totalPartitions;
+
+    private volatile LocalDateTime startedAt;
+
+    private volatile LocalDateTime finishedAt;
+
+    private final AtomicInteger committedPartitions = new AtomicInteger();
+
+    private final AtomicLong personsWritten = new AtomicLong();
+
+    private final AtomicLong personsSkipped = new AtomicLong();
+
+    @Autowired
+    public PayrollRunService(PersonDao personDao, JobDao jobDao, PayrollRunDao payrollRunDao) {
+
+        this.personDao = personDao;
+        this.jobDao = jobDao;
+        this.payrollRunDao = payrollRunDao;
+    }
+
+    //configured salary rules; without them, the salary is salary index * base salary;
+    @Autowired
+    public void setSalaryRuleEngine(SalaryRuleEngine salaryRuleEngine) {
+
+        this.salaryRuleEngine = salaryRuleEngine;
+    }
+
+    //checked daily: the first check of a month runs its payroll, later ones resume it if it was interrupted, or find it completed;
+    @Scheduled(cron = "${payroll.run.cron:0 0 2 * * *}")
+    public void runMonthlyPayroll() {
+
+        runPayroll(YearMonth.now().toString());
+    }
+
+    //running (or resuming) the payroll of a period (yyyy-MM); returns false, without running, if a run is already in progress;
+    public boolean runPayroll(String period) {
+
+        if (!running.compareAndSet(false, true)) {
+
+            return false;
+        }
+
+        try {
+            execute(period);
+        } catch (DatabaseOperationException | RuntimeException e) {
+
+            LOGGER.error("Payroll run for " + period + " failed", e);
+            finish("FAILED");
+        } finally {
+
+            running.set(false);
+        }
+
+        return true;
+    }
+
+    public PayrollRunProgress getProgress() {
+
+        if (period == null) {
+
+            return PayrollRunProgress.IDLE;
+        }
+
+        return new PayrollRunProgress(period, status, totalPartitions, committedPartitions.get(),
+                personsWritten.get(), personsSkipped.get(), startedAt, finishedAt);
+    }
+
+    private void execute(String period) throws DatabaseOperationException {
+
+        PayrollRun run = payrollRunDao.getRunByPeriod(period);
+
+        if (run != null && run.completed()) {
+
+            LOGGER.info("Payroll run for " + period + " already completed;");
+            return;
+        }
+
+        if (run == null) {
+
+            run = payrollRunDao.insertRun(period, partitionSize);
+        }
+
+        //one read of the (few) jobs for the whole run, so every partition uses the same base salaries;
+        Map<Integer, Job> jobsById = new HashMap<>();
+        jobDao.getAllJobs().forEach(job -> jobsById.put(job.getId(), job));
+        SalaryRules rules = salaryRuleEngine == null ? SalaryRules.BUILT_IN : salaryRuleEngine.getRules();
+
+        NavigableMap<Integer, Integer> committed = payrollRunDao.getCommittedPartitions(run.id());
+
+        start(period, committed.size());
+        LOGGER.info("Payroll run for " + period + " started, " + committed.size() + " partitions already committed;");
+
+        //the queue is bounded, and a full queue makes the reading thread run the partition itself, which throttles reading;
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads), new ThreadPoolExecutor.CallerRunsPolicy());
+        List<Future<Void>> futures = new ArrayList<>();
+        boolean failed = false;
+
+        try {
+            //the next id to read (a long, so moving past Integer.MAX_VALUE ends the loop instead of overflowing);
+            long fromId = Integer.MIN_VALUE;
+
+            while (fromId <= Integer.MAX_VALUE) {
+
+                Integer committedTo = committed.get((int) fromId);
+
+                if (committedTo != null) {
+
+                    fromId = committedTo + 1L;
+                    continue;
+                }
+
+                //a partition ends with its partitionSize-th person, or right before the next committed one (or at the last id);
+                Integer nextCommitted = committed.higherKey((int) fromId);
+                int toId = nextCommitted == null ? Integer.MAX_VALUE : nextCommitted - 1;
+                List<Person> persons = personDao.getPersonsByIdRange((int) fromId, toId, run.partitionSize());
+                int partitionTo = persons.size() == run.partitionSize() ? persons.get(persons.size() - 1).getId() : toId;
+
+                PayrollRun currentRun = run;
+                int partitionFrom = (int) fromId;
+
+                totalPartitions++;
+                futures.add(executor.submit(() -> {
+
+                    runPartition(currentRun, partitionFrom, partitionTo, persons, jobsById, rules);
+                    return null;
+                }));
+
+                fromId = partitionTo + 1L;
+            }
+        } catch (DatabaseOperationException e) {
+
+            //the partitions read so far are still waited for, and what they commit is kept;
+            LOGGER.error("Payroll run read failed", e);
+            failed = true;
+        }
+
+        try {
+            //a failed partition doesn't stop the others: whatever commits now is not redone on resume;
+            for (Future<Void> future : futures) {
+
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+
+                    LOGGER.error("Payroll run partition failed", e.getCause());
+                    failed = true;
+                }
+            }
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+            failed = true;
+        } finally {
+
+            executor.shutdownNow();
+        }
+
+        if (failed) {
+
+            finish("FAILED");
+            return;
+        }
+
+        payrollRunDao.completeRun(run.id());
+        finish("COMPLETED");
+        LOGGER.info("Payroll run for " + period + " completed;");
+    }
+
+    private void runPartition(PayrollRun run, int fromId, int toId, List<Person> persons, Map<Integer, Job> jobsById, SalaryRules rules)
+            throws DatabaseOperationException {
+
+        List<Person> validPersons = new ArrayList<>(persons.size());
+        String[] domains = new String[persons.size()];
+        double[] salaryIndexes = new double[persons.size()];
+        double[] baseSalaries = new double[persons.size()];
+        int skipped = 0;
+
+        for (Person person : persons) {
+
+            Job job = jobsById.get(person.getJobId());
+
+            try {
+                if (job == null) {
+
+                    throw new DatabaseOperationException("Error: no job found with id " + person.getJobId() + ".");
+                }
+
+                JobService.validateCalculateSalaryInput(person, job);
+            } catch (DatabaseOperationException e) {
+
+                LOGGER.warn("Payroll run: skipping person " + person.getId() + " - " + e.getMessage());
+                skipped++;
+                continue;
+            }
+
+            domains[validPersons.size()] = job.getDomain();
+            salaryIndexes[validPersons.size()] = person.getSalaryIndex();
+            baseSalaries[validPersons.size()] = job.getBaseSalary();
+            validPersons.add(person);
+        }
+
+        double[] computedSalaries = new double[validPersons.size()];
+        rules.salariesOf(domains, salaryIndexes, baseSalaries, computedSalaries, validPersons.size());
+
+        List<PersonSalary> salaries = new ArrayList<>(validPersons.size());
+
+        for (int i = 0; i < validPersons.size(); i++) {
+
+            salaries.add(new PersonSalary(validPersons.get(i), computedSalaries[i]));
+        }
+
+        payrollRunDao.writePartition(run.id(), fromId, toId, salaries, skipped);
+
+        committedPartitions.incrementAndGet();
+        personsWritten.addAndGet(salaries.size());
+        personsSkipped.addAndGet(skipped);
+    }
+
+    //the partitions still to run are counted as they are read;
+    private void start(String period, int alreadyCommitted) {
+
+        this.period = period;
+        this.status = "RUNNING";
+        this.totalPartitions = alreadyCommitted;
+        this.startedAt = LocalDateTime.now();
+        this.finishedAt = null;
+        committedPartitions.set(alreadyCommitted);
+        personsWritten.set(0);
+        personsSkipped.set(0);
+    }
+
+    private void finish(String status) {
+
+        this.status = status;
+        this.finishedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,238 @@
+package com.itfactory.service;
+
+import com.itfactory.dao.JobDao;
+import com.itfactory.dao.PersonDao;
+import com.itfactory.exceptions.DatabaseOperationException;
+import com.itfactory.model.PayrollSimulation;
+import com.itfactory.model.PayrollSummary;
+import com.itfactory.model.PayrollTotals;
+import com.itfactory.model.PersonSalary;
+import com.itfactory.model.SalaryPercentiles;
+import com.itfactory.model.SalaryScenario;
+import com.itfactory.rules.SalaryRuleEngine;
+import com.itfactory.rules.SalaryRules;
+import com.itfactory.storage.PayrollAggregates;
+import com.itfactory.storage.PayrollSimulator;
+import com.itfactory.storage.SalaryRangeIndex;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Payroll related service methods, answering from the materialized payroll aggregates (PayrollAggregates);
+ * The aggregates are recomputed from the database periodically, to catch any drift of the incremental totals;
+ */
+
+@Service
+public class PayrollService {
+
+    public static final int MAX_TOP_SIZE = 100;
+
+    public static final int MAX_SALARY_INDEX_OVERRIDES = 1000;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PayrollService.class);
+
+    private final PersonDao personDao;
+
+    private final JobDao jobDao;
+
+    private final PayrollAggregates payrollAggregates;
+
+    private SalaryRangeIndex salaryRangeIndex;
+
+    private PayrollSimulator payrollSimulator;
+
+    private SalaryRuleEngine salaryRuleEngine;
+
+    @Autowired
+    public PayrollService(PersonDao personDao, JobDao jobDao, PayrollAggregates payrollAggregates) {
+
+        this.personDao = personDao;
+        this.jobDao = jobDao;
+        this.payrollAggregates = payrollAggregates;
+    }
+
+    //Injecting the computed salary index by setter injection; without it, top salaries are streamed from the database;
+    @Autowired
+    public void setSalaryRangeIndex(SalaryRangeIndex salaryRangeIndex) {
+
+        this.salaryRangeIndex = salaryRangeIndex;
+    }
+
+    //Injecting the payroll simulator by setter injection; without it, each simulation first reads both tables;
+    @Autowired
+    public void setPayrollSimulator(PayrollSimulator payrollSimulator) {
+
+        this.payrollSimulator = payrollSimulator;
+    }
+
+    //Injecting the configured salary rules by setter injection; without them, the salary is salary index * base salary;
+    @Autowired
+    public void setSalaryRuleEngine(SalaryRuleEngine salaryRuleEngine) {
+
+        this.salaryRuleEngine = salaryRuleEngine;
+    }
+
+    public PayrollSummary getPayrollSummary() throws DatabaseOperationException {
+
+        return currentAggregates().summary();
+    }
+
+    //salary percentiles for a domain and/or a job (null for any);
+    public SalaryPercentiles getSalaryPercentiles(String domain, Integer jobId) throws DatabaseOperationException {
+
+        SalaryPercentiles percentiles = currentAggregates().percentiles(domain, jobId);
+
+        if (percentiles.count() == 0) {
+
+            throw new DatabaseOperationException("No persons found for the given domain/job.");
+        }
+
+        return percentiles;
+    }
+
+    //the n highest paid persons (of a domain, or of everyone), highest first; read from the top of the computed salary index when loaded;
+    public List<PersonSalary> getTopPaidPersons(int n, String domain) throws DatabaseOperationException {
+
+        if (n < 1 || n > MAX_TOP_SIZE) {
+
+            throw new DatabaseOperationException("Invalid Input for N - Please specify a value from 1 to " + MAX_TOP_SIZE + "!");
+        }
+
+        if (salaryRangeIndex != null && salaryRangeIndex.isLoaded()) {
+
+            return salaryRangeIndex.getTopPersonsBySalary(n, domain);
+        }
+
+        return personDao.getTopPersonsBySalary(n, domain, salaryRuleEngine == null ? SalaryRules.BUILT_IN : salaryRuleEngine.getRules());
+    }
+
+    //current vs. simulated payroll for a set of hypothetical salary changes; nothing is written;
+    public PayrollSimulation simulatePayroll(SalaryScenario scenario) throws DatabaseOperationException {
+
+        validateSimulateInput(scenario);
+
+        if (payrollSimulator != null && payrollSimulator.isLoaded()) {
+
+            return payrollSimulator.simulate(scenario);
+        }
+
+        PayrollSimulator simulator = new PayrollSimulator();
+        simulator.setSalaryRuleEngine(salaryRuleEngine);
+        simulator.jobsLoaded(jobDao.getAllJobs());
+        simulator.personsLoaded(personDao.getAllPersonRecords());
+
+        return simulator.simulate(scenario);
+    }
+
+    /*skipped while the aggregates are not loaded, or when a write comes in during the database read, or is still being applied
+    (retried next time);*/
+    @Scheduled(initialDelayString = "${payroll.aggregates.recompute-interval-ms:3600000}",
+            fixedDelayString = "${payroll.aggregates.recompute-interval-ms:3600000}")
+    public void recomputePayrollAggregates() {
+
+        if (!payrollAggregates.isLoaded()) {
+
+            return;
+        }
+
+        try {
+            long modificationCount = payrollAggregates.getModificationCount();
+            Map<Integer, PayrollTotals> drifted = payrollAggregates.recompute(
+                    modificationCount, jobDao.getAllJobs(), personDao.getAllPersonRecords());
+
+            if (drifted == null) {
+
+                LOGGER.info("Payroll aggregates recompute skipped, database changed while reading;");
+            } else if (drifted.isEmpty()) {
+
+                LOGGER.info("Payroll aggregates recomputed, no drift;");
+            } else {
+
+                LOGGER.warn("Payroll aggregates recomputed, totals had drifted for job ids: " + drifted.keySet());
+            }
+        } catch (DatabaseOperationException e) {
+
+            LOGGER.error("Failed to recompute payroll aggregates", e);
+        }
+    }
+
+    //the aggregates once loaded; before that, aggregates built from a full read of both tables;
+    private PayrollAggregates currentAggregates() throws DatabaseOperationException {
+
+        if (payrollAggregates.isLoaded()) {
+
+            return payrollAggregates;
+        }
+
+        PayrollAggregates aggregates = new PayrollAggregates();
+        aggregates.setSalaryRuleEngine(salaryRuleEngine);
+        aggregates.jobsLoaded(jobDao.getAllJobs());
+        aggregates.personsLoaded(personDao.getAllPersonRecords());
+
+        return aggregates;
+    }
+
+    private static void validateSimulateInput(SalaryScenario scenario) throws DatabaseOperationException {
+
+        for (Double percent : scenario.domainRaisePercents().values()) {
+
+            validateRaisePercent(percent);
+        }
+
+        for (Double percent : scenario.jobRaisePercents().values()) {
+
+            validateRaisePercent(percent);
+        }
+
+        if (scenario.salaryIndexOverrides().size() > MAX_SALARY_INDEX_OVERRIDES) {
+
+            throw new DatabaseOperationException("Invalid Input - Please specify at most " + MAX_SALARY_INDEX_OVERRIDES
+                    + " salary index overrides!");
+        }
+
+        for (Double salaryIndex : scenario.salaryIndexOverrides().values()) {
+
+            validateSalaryIndex(salaryIndex);
+        }
+
+        if (scenario.salaryIndexCap() != null) {
+
+            validateSalaryIndex(scenario.salaryIndexCap());
+        }
+
+        if (scenario.salaryIndexFloor() != null) {
+
+            validateSalaryIndex(scenario.salaryIndexFloor());
+        }
+
+        if (scenario.salaryIndexCap() != null && scenario.salaryIndexFloor() != null
+                && scenario.salaryIndexFloor() > scenario.salaryIndexCap()) {
+
+            throw new DatabaseOperationException("Invalid Input - Salary index floor must not be above the salary index cap!");
+        }
+    }
+
+    private static void validateRaisePercent(double percent) throws DatabaseOperationException {
+
+        if (!(percent > -100) || !(percent <= 1000)) {
+
+            throw new DatabaseOperationException("Invalid Input for raise - Please specify a percent above -100 and up to 1000!");
+        }
+    }
+
+    private static void validateSalaryIndex(double salaryIndex) throws DatabaseOperationException {
+
+        if (!(salaryIndex >= 1.0) || !(salaryIndex <= 3.0)) {
+
+            throw new DatabaseOperationException("Invalid Input for salary index - Please specify a value from 1 to 3!");
+        }
+    }
+}
@@ -6,6 +6,8 @@ import com.itfactory.model.Person;
 import com.itfactory.model.UserManager;
 import com.itfactory.model.WorkExperience;
 import com.itfactory.exceptions.DatabaseOperationException;
+import com.itfactory.rules.SalaryRuleEngine;
+import com.itfactory.rules.SalaryRules;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -25,6 +27,8 @@ public class PersonManager implements UserManager {
     //instantiating a Person object;
     private Person person;
 
+    private SalaryRuleEngine salaryRuleEngine;
+
     //injecting jobDao and jobService by means of @Autowired and instantiating person (provided with own setter);
     @Autowired
     public PersonManager(JobService jobService, JobDao jobDao) {
@@ -39,6 +43,13 @@ public class PersonManager implements UserManager {
         this.person = person;
     }
 
+    //configured work experience tiers (per domain); without them, the WorkExperience thresholds apply;
+    @Autowired
+    public void setSalaryRuleEngine(SalaryRuleEngine salaryRuleEngine) {
+
+        this.salaryRuleEngine = salaryRuleEngine;
+    }
+
     //writing the 3 methods called in PersonService, for providing information on top of the CRUD methods;
     @Override
     public Job getJob() throws DatabaseOperationException {
@@ -61,25 +72,20 @@ public class PersonManager implements UserManager {
             throw new DatabaseOperationException("Invalid salary index value, outside of range 1 - 3");
         }
 
-        if (person.getSalaryIndex() < 1.4) {
+        WorkExperience workExperience;
 
-            System.out.println(person.getName() + WorkExperience.ENTRY.getWorkExperience());
-            return person.getName() + WorkExperience.ENTRY.getWorkExperience();
-        }
-
-        if (person.getSalaryIndex() < 1.8) {
-
-            System.out.println(person.getName() + WorkExperience.ENTRYTOMID.getWorkExperience());
-            return person.getName() + WorkExperience.ENTRYTOMID.getWorkExperience();
-        }
+        if (salaryRuleEngine == null) {
 
-        if (person.getSalaryIndex() < 2.2) {
+            workExperience = WorkExperience.of(person.getSalaryIndex());
+        } else {
 
-            System.out.println(person.getName() + WorkExperience.MIDDLE.getWorkExperience());
-            return person.getName() + WorkExperience.MIDDLE.getWorkExperience();
+            //the job (for its domain) is only read when some domain has tiers of its own;
+            SalaryRules rules = salaryRuleEngine.getRules();
+            String domain = rules.hasDomainTierRules() ? getJob().getDomain() : SalaryRules.DEFAULT_DOMAIN;
+            workExperience = rules.tierRuleOf(domain).workExperienceOf(person.getSalaryIndex());
         }
 
-        System.out.println(person.getName() + WorkExperience.SENIOR.getWorkExperience());
-        return person.getName() + WorkExperience.SENIOR.getWorkExperience();
+        System.out.println(person.getName() + workExperience.getWorkExperience());
+        return person.getName() + workExperience.getWorkExperience();
     }
 }
\ No newline at end of file
@@ -4,11 +4,38 @@ import com.itfactory.dao.PersonDao;
 import com.itfactory.exceptions.DatabaseOperationException;
 import com.itfactory.model.Job;
 import com.itfactory.model.Person;
+import com.itfactory.model.PersonColumns;
+import com.itfactory.model.PersonField;
+import com.itfactory.model.PersonRecord;
+import com.itfactory.model.PersonSalary;
+import com.itfactory.model.RowChanges;
+import com.itfactory.model.SalaryChangeRecord;
+import com.itfactory.model.SalaryHistoryEntry;
+import com.itfactory.model.WorkExperienceDistribution;
+import com.itfactory.rules.SalaryRuleEngine;
+import com.itfactory.rules.SalaryRules;
+import com.itfactory.storage.EmailBloomFilter;
+import com.itfactory.storage.NameSearchIndex;
+import com.itfactory.storage.PayrollAggregates;
+import com.itfactory.storage.PersonChangeListener;
+import com.itfactory.storage.PersonSnapshot;
+import com.itfactory.storage.SalaryHistoryStore;
+import com.itfactory.storage.SalaryRangeIndex;
+import com.itfactory.storage.SearchMatch;
+import com.itfactory.storage.TableVersions;
+import com.itfactory.storage.VersionedPersonStore;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Separating functionalities of PersonDao and PersonService;
@@ -19,11 +46,39 @@ import java.util.List;
 @Service
 public class PersonService {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(PersonService.class);
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    public static final int MAX_ROW_GROUP_SIZE = 65_536;
+
+    public static final int MAX_SEARCH_LIMIT = 100;
+
+    public static final int MAX_BATCH_SIZE = 100_000;
+
     //instantiating PersonDao and PersonManager objects;
     private final PersonDao personDao;
 
     private PersonManager personManager;
 
+    private VersionedPersonStore personStore;
+
+    private EmailBloomFilter emailFilter;
+
+    private NameSearchIndex nameSearchIndex;
+
+    private SalaryRangeIndex salaryRangeIndex;
+
+    private PayrollAggregates payrollAggregates;
+
+    private SalaryHistoryStore salaryHistoryStore;
+
+    private List<PersonChangeListener> personChangeListeners = List.of();
+
+    private TableVersions tableVersions;
+
+    private SalaryRuleEngine salaryRuleEngine;
+
     //Defining the constructor, @Autowired permits injection of the PersonDao object;
     @Autowired
     public PersonService(PersonDao personDao) {
@@ -38,36 +93,301 @@ public class PersonService {
         this.personManager = personManager;
     }
 
+    //Injecting the in-memory person store by setter injection; without it, every read goes to the database;
+    @Autowired
+    public void setPersonStore(VersionedPersonStore personStore) {
+
+        this.personStore = personStore;
+    }
+
+    //Injecting the email Bloom filter by setter injection; without it, duplicate emails are only caught by the database unique index;
+    @Autowired
+    public void setEmailFilter(EmailBloomFilter emailFilter) {
+
+        this.emailFilter = emailFilter;
+    }
+
+    //Injecting the name search index by setter injection; without it, name searches go to the database;
+    @Autowired
+    public void setNameSearchIndex(NameSearchIndex nameSearchIndex) {
+
+        this.nameSearchIndex = nameSearchIndex;
+    }
+
+    //Injecting the sorted salary indexes by setter injection; without them, salary range queries go to the database;
+    @Autowired
+    public void setSalaryRangeIndex(SalaryRangeIndex salaryRangeIndex) {
+
+        this.salaryRangeIndex = salaryRangeIndex;
+    }
+
+    //Injecting the payroll aggregates by setter injection; without them, the work experience distribution is read from the database;
+    @Autowired
+    public void setPayrollAggregates(PayrollAggregates payrollAggregates) {
+
+        this.payrollAggregates = payrollAggregates;
+    }
+
+    //Injecting the salary history by setter injection; without it, salary history is not available;
+    @Autowired
+    public void setSalaryHistoryStore(SalaryHistoryStore salaryHistoryStore) {
+
+        this.salaryHistoryStore = salaryHistoryStore;
+    }
+
+    //Injecting every in-memory structure kept in sync with the database (store, filter, indexes), notified after each successful write;
+    @Autowired
+    public void setPersonChangeListeners(List<PersonChangeListener> personChangeListeners) {
+
+        this.personChangeListeners = personChangeListeners;
+    }
+
+    //Injecting the table versions by setter injection, bumped after each successful write (the ETags of the person reads);
+    @Autowired
+    public void setTableVersions(TableVersions tableVersions) {
+
+        this.tableVersions = tableVersions;
+    }
+
+    //Injecting the configured salary rules by setter injection; without them, the salary is salary index * base salary;
+    @Autowired
+    public void setSalaryRuleEngine(SalaryRuleEngine salaryRuleEngine) {
+
+        this.salaryRuleEngine = salaryRuleEngine;
+    }
+
     //Creating calling methods for each of the PersonDao CRUD methods;
     public Person getPersonById(int id) throws DatabaseOperationException {
 
         return personDao.getPersonById(id);
     }
 
+    //a person with only the selected fields read (the others are left unset);
+    public Person getPersonById(int id, Set<PersonField> fields) throws DatabaseOperationException {
+
+        return personDao.getPersonById(id, fields);
+    }
+
     public void insertPerson(Person person) throws DatabaseOperationException {
 
         validateInsertPersonInput(person);
 
-        personDao.insertPerson(person);
+        validateUniqueEmail(person.getEmail());
+
+        writeStarted();
+
+        try {
+            personDao.insertPerson(person);
+
+            //one immutable record per write, shared by every listener;
+            PersonRecord inserted = PersonRecord.of(person);
+            notifyListeners(listener -> listener.personInserted(inserted));
+        } finally {
+
+            writeFinished();
+        }
+
+        rowWritten(person.getId());
     }
 
+    //batch ingest: every person is checked (including emails repeated within the batch) before any is inserted, all in one transaction;
+    public void insertPersons(List<Person> persons) throws DatabaseOperationException {
+
+        if (persons.isEmpty() || persons.size() > MAX_BATCH_SIZE) {
+
+            throw new DatabaseOperationException("Invalid Input for Batch Size - Please send from 1 to " + MAX_BATCH_SIZE + " persons!");
+        }
+
+        Set<String> batchEmails = new HashSet<>();
+
+        for (Person person : persons) {
+
+            validateInsertPersonInput(person);
+
+            if (!batchEmails.add(Person.normalizeEmail(person.getEmail()))) {
+
+                throw new DatabaseOperationException("Invalid Input for Email - Email is repeated in the batch: " + person.getEmail());
+            }
+
+            validateUniqueEmail(person.getEmail());
+        }
+
+        writeStarted();
+
+        try {
+            personDao.insertPersons(persons);
+
+            for (Person person : persons) {
+
+                PersonRecord inserted = PersonRecord.of(person);
+                notifyListeners(listener -> listener.personInserted(inserted));
+            }
+        } finally {
+
+            writeFinished();
+        }
+
+        persons.forEach(person -> rowWritten(person.getId()));
+    }
+
+    public Person getPersonByEmail(String email) throws DatabaseOperationException {
+
+        if (personStore != null && personStore.isLoaded()) {
+
+            try (PersonSnapshot snapshot = personStore.openSnapshot()) {
+
+                Person person = snapshot.getPersonByEmail(email);
+
+                if (person == null) {
+
+                    throw new DatabaseOperationException("No person found with given email.");
+                }
+
+                return person;
+            }
+        }
+
+        return personDao.getPersonByEmail(email);
+    }
+
+    //reading from a store snapshot when loaded, so the full scan is consistent and never holds up concurrent writes;
     public List<Person> getAllPersons() throws DatabaseOperationException {
 
+        if (personStore != null && personStore.isLoaded()) {
+
+            try (PersonSnapshot snapshot = personStore.openSnapshot()) {
+
+                return snapshot.getAllPersons();
+            }
+        }
+
         return personDao.getAllPersons();
     }
 
+    /*visiting every person without collecting them first; from a store snapshot when loaded (whole persons: the selected fields
+    only matter when serializing them), otherwise streamed from the database, reading only the selected fields' columns;*/
+    public void forEachPerson(Set<PersonField> fields, Consumer<Person> consumer) throws DatabaseOperationException {
+
+        if (personStore != null && personStore.isLoaded()) {
+
+            try (PersonSnapshot snapshot = personStore.openSnapshot()) {
+
+                snapshot.forEach(consumer);
+            }
+
+            return;
+        }
+
+        personDao.forEachPerson(fields, consumer);
+    }
+
+    //every person, by column, in row groups read straight from the database cursor (for the columnar export);
+    public void forEachPersonRowGroup(int rowGroupSize, Consumer<PersonColumns> consumer) throws DatabaseOperationException {
+
+        if (rowGroupSize < 1 || rowGroupSize > MAX_ROW_GROUP_SIZE) {
+
+            throw new DatabaseOperationException("Invalid row group size - must be between 1 and " + MAX_ROW_GROUP_SIZE + ".");
+        }
+
+        personDao.forEachPersonRowGroup(rowGroupSize, consumer);
+    }
+
+    //one page of the persons holding a job; from the store's job id index when loaded, otherwise from the person(jobId) index;
+    public List<Person> getPersonsByJobId(int jobId, int afterId, int size) throws DatabaseOperationException {
+
+        validatePageSize(size);
+
+        if (personStore != null && personStore.isLoaded()) {
+
+            try (PersonSnapshot snapshot = personStore.openSnapshot()) {
+
+                return snapshot.getPersonsByJobId(jobId, afterId, size);
+            }
+        }
+
+        return personDao.getPersonsByJobId(jobId, afterId, size);
+    }
+
+    //persons whose name shares the most trigrams with the query (typo tolerant); from the name search index when loaded;
+    public List<SearchMatch> searchPersons(String query, int limit) throws DatabaseOperationException {
+
+        validateSearchInput(query, limit);
+
+        if (nameSearchIndex != null && nameSearchIndex.isLoaded()) {
+
+            return nameSearchIndex.search(query, limit);
+        }
+
+        return personDao.searchPersonsByName(query.trim(), limit).stream()
+                .map(person -> new SearchMatch(person, 0, 0))
+                .toList();
+    }
+
+    //persons with a salary index between min and max, lowest first; from the sorted salary index when loaded;
+    public List<Person> getPersonsBySalaryIndexRange(double min, double max, int size) throws DatabaseOperationException {
+
+        validateRangeInput(min, max, size);
+
+        if (salaryRangeIndex != null && salaryRangeIndex.isLoaded()) {
+
+            return salaryRangeIndex.getPersonsBySalaryIndex(min, max, size);
+        }
+
+        return personDao.getPersonsBySalaryIndexRange(min, max, size);
+    }
+
+    //persons with a computed salary (the salary rule of their job's domain) between min and max, lowest first;
+    public List<PersonSalary> getPersonsBySalaryRange(double min, double max, int size) throws DatabaseOperationException {
+
+        validateRangeInput(min, max, size);
+
+        if (salaryRangeIndex != null && salaryRangeIndex.isLoaded()) {
+
+            return salaryRangeIndex.getPersonsBySalary(min, max, size);
+        }
+
+        return personDao.getPersonsBySalaryRange(min, max, size, salaryRules());
+    }
+
     public void deletePerson(int id) throws DatabaseOperationException {
 
-        personDao.getPersonById(id);
+        PersonRecord deletedPerson = PersonRecord.of(personDao.getPersonById(id));
 
-        personDao.deletePerson(id);
+        writeStarted();
+
+        try {
+            personDao.deletePerson(id);
+
+            notifyListeners(listener -> listener.personDeleted(deletedPerson));
+        } finally {
+
+            writeFinished();
+        }
+
+        rowWritten(id);
     }
 
     public Person updateSalaryIndex(int id, double salaryIndex) throws DatabaseOperationException {
 
-        validateUpdateSalaryIndexInput(id, salaryIndex);
+        Person person = validateUpdateSalaryIndexInput(id, salaryIndex);
+
+        Person updatedPerson;
+        writeStarted();
+
+        try {
+            updatedPerson = personDao.updateSalaryIndex(id, salaryIndex);
 
-        return personDao.updateSalaryIndex(id, salaryIndex);
+            PersonRecord before = PersonRecord.of(person);
+            PersonRecord after = PersonRecord.of(updatedPerson);
+            notifyListeners(listener -> listener.personUpdated(before, after));
+        } finally {
+
+            writeFinished();
+        }
+
+        rowWritten(id);
+
+        return updatedPerson;
     }
 
     //Creating calling methods for the 3 PersonManager methods (additional information, added to the CRUD methods);
@@ -92,6 +412,102 @@ public class PersonService {
         return personManager.getWorkExperience();
     }
 
+    //persons changed and deleted since a row version, for delta sync; without since, every person, and the version to sync from;
+    public RowChanges<Person> getPersonChanges(Long since, int limit) throws DatabaseOperationException {
+
+        if (since != null && since < 0) {
+
+            throw new DatabaseOperationException("Invalid version - since must not be negative.");
+        }
+
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+
+            throw new DatabaseOperationException("Invalid limit - must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+
+        return personDao.getPersonChanges(since == null ? -1 : since, limit);
+    }
+
+    //the person's salary after each change of their salary index or their job's base salary, within [from, to] (null for no bound);
+    public List<SalaryHistoryEntry> getSalaryHistory(int id, LocalDateTime from, LocalDateTime to) throws DatabaseOperationException {
+
+        if (from != null && to != null && from.isAfter(to)) {
+
+            throw new DatabaseOperationException("Invalid range - from must not be after to.");
+        }
+
+        if (salaryHistoryStore == null) {
+
+            throw new DatabaseOperationException("Salary history is not available.");
+        }
+
+        Person person = getPersonById(id);
+        personManager.setPerson(person);
+        Job job = personManager.getJob();
+
+        //whole series: the values in effect at from may come from changes made before it;
+        return SalaryHistoryEntry.of(
+                person.getSalaryIndex(), salaryHistoryStore.getChanges(SalaryChangeRecord.PERSON, id, null, null),
+                job.getBaseSalary(), salaryHistoryStore.getChanges(SalaryChangeRecord.JOB, job.getId(), null, null),
+                from, to, salaryRules().salaryRuleOf(job.getDomain()));
+    }
+
+    //work experience tier counts per job and domain, from the maintained per-job counters when loaded, else in one pass over the database;
+    public WorkExperienceDistribution getWorkExperienceDistribution() throws DatabaseOperationException {
+
+        if (payrollAggregates != null && payrollAggregates.isLoaded()) {
+
+            return payrollAggregates.workExperienceDistribution();
+        }
+
+        return personDao.getWorkExperienceDistribution(salaryRules());
+    }
+
+    //the database write already succeeded, so a failing listener is logged, and doesn't fail the request (or the other listeners);
+    private void notifyListeners(Consumer<PersonChangeListener> notification) {
+
+        for (PersonChangeListener listener : personChangeListeners) {
+
+            try {
+                notification.accept(listener);
+            } catch (RuntimeException e) {
+
+                LOGGER.error("Failed to apply person change to " + listener.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    //the payroll aggregates don't swap in a recompute from before the write's listener calls, as it may have read the write already;
+    private void writeStarted() {
+
+        if (payrollAggregates != null) {
+
+            payrollAggregates.writeStarted();
+        }
+    }
+
+    private void writeFinished() {
+
+        if (payrollAggregates != null) {
+
+            payrollAggregates.writeFinished();
+        }
+    }
+
+    //after the listeners, so that the in-memory reads are up to date once the new version is visible;
+    private void rowWritten(int id) {
+
+        if (tableVersions != null) {
+
+            tableVersions.rowWritten(TableVersions.PERSON, id);
+        }
+    }
+
+    private SalaryRules salaryRules() {
+
+        return salaryRuleEngine == null ? SalaryRules.BUILT_IN : salaryRuleEngine.getRules();
+    }
+
     //validation methods for PersonService;
     private static void validateInsertPersonInput(Person person) throws DatabaseOperationException {
 
@@ -118,9 +534,71 @@ public class PersonService {
         }
     }
 
-    private void validateUpdateSalaryIndexInput(int id, double salaryIndex) throws DatabaseOperationException {
+    /*the Bloom filter answers "definitely new" for most new emails, without any lookup (bulk imports);
+    otherwise, the email is checked against the store's email index, or the database unique index;*/
+    private void validateUniqueEmail(String email) throws DatabaseOperationException {
+
+        if (emailFilter == null || !emailFilter.mightContain(email)) {
+
+            return;
+        }
+
+        boolean emailInUse;
+
+        if (personStore != null && personStore.isLoaded()) {
+
+            try (PersonSnapshot snapshot = personStore.openSnapshot()) {
+
+                emailInUse = snapshot.getPersonByEmail(email) != null;
+            }
+        } else {
+
+            emailInUse = personDao.emailExists(email);
+        }
+
+        if (emailInUse) {
+
+            throw new DatabaseOperationException("Invalid Input for Email - Email is already in use: " + email);
+        }
+    }
+
+    private static void validatePageSize(int size) throws DatabaseOperationException {
+
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+
+            throw new DatabaseOperationException("Invalid Input for Page Size - Please specify a value from 1 to " + MAX_PAGE_SIZE + "!");
+        }
+    }
+
+    private static void validateRangeInput(double min, double max, int size) throws DatabaseOperationException {
+
+        if (Double.isNaN(min) || Double.isNaN(max) || min > max) {
+
+            throw new DatabaseOperationException("Invalid Input for Range - Please specify a minimum lesser than or equal to the maximum!");
+        }
+
+        validatePageSize(size);
+    }
+
+    private static void validateSearchInput(String query, int limit) throws DatabaseOperationException {
+
+        if (query == null || query.isBlank()) {
+
+            throw new DatabaseOperationException("Invalid Input for Search - Please specify a name to search for!");
+        }
 
-        if (getPersonById(id).getSalaryIndex() == salaryIndex) {
+        if (limit < 1 || limit > MAX_SEARCH_LIMIT) {
+
+            throw new DatabaseOperationException("Invalid Input for Limit - Please specify a value from 1 to " + MAX_SEARCH_LIMIT + "!");
+        }
+    }
+
+    //returning the person as it is before the update;
+    private Person validateUpdateSalaryIndexInput(int id, double salaryIndex) throws DatabaseOperationException {
+
+        Person person = getPersonById(id);
+
+        if (person.getSalaryIndex() == salaryIndex) {
 
             throw new DatabaseOperationException("Person's salary index is already " + salaryIndex);
         }
@@ -129,5 +607,7 @@ public class PersonService {
 
             throw new DatabaseOperationException("Invalid Input for Salary Index - Please specify a value from 1 to 3!");
         }
+
+        return person;
     }
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.itfactory.service;
+
+import com.itfactory.dao.ChangeVersionDao;
+import com.itfactory.exceptions.DatabaseOperationException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Periodically compacting the tombstones of deleted persons and jobs (ChangeVersionDao) older than the retention window;
+ * A client whose last sync is older than that gets 410 from /person/changes and /job/changes, and resyncs without since;
+ */
+
+@Service
+public class TombstoneCompactionService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TombstoneCompactionService.class);
+
+    private final ChangeVersionDao changeVersionDao;
+
+    @Value("${changes.tombstone.retention-days:7}")
+    private int retentionDays = 7;
+
+    @Autowired
+    public TombstoneCompactionService(ChangeVersionDao changeVersionDao) {
+
+        this.changeVersionDao = changeVersionDao;
+    }
+
+    @Scheduled(fixedDelayString = "${changes.tombstone.compact-interval-ms:3600000}")
+    public void compactTombstones() {
+
+        try {
+            changeVersionDao.compactTombstones(Duration.ofDays(retentionDays));
+        } catch (DatabaseOperationException e) {
+
+            LOGGER.error("Tombstone compaction failed", e);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.itfactory.storage;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.itfactory.model.ChangeEvent;
+import com.itfactory.model.Job;
+import com.itfactory.model.PersonRecord;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Feed of the person and job writes (inserts, updates, deletes), in the order PersonService and JobService applied them;
+ * Each write becomes one event, with an increasing id, rendered to JSON once, and offered to every subscriber (ChangeFeedSubscriber);
+ * The latest events (changes.stream.replay-capacity) are kept, so a subscriber reconnecting with the id of the last event it got
+ * resumes without missing any; one that missed more than that gets a "reset" event, telling it to resync from /person/all, /job/all;
+ * The missed events are not offered, but read by the subscriber with replay, at its own pace, so a long backlog never fills its buffer;
+ * Ids start from the startup time (in microseconds), so they keep increasing across restarts, and ids from before a restart are
+ * answered with a reset (their events are not kept);
+ */
+
+@Component
+public class ChangeFeed implements PersonChangeListener, JobChangeListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChangeFeed.class);
+
+    public static final String RESET = "reset";
+
+    private final ObjectMapper objectMapper;
+
+    private final EventRingBuffer replayBuffer;
+
+    private final List<ChangeFeedSubscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    //id of the latest event; guarded by the feed monitor;
+    private long lastId = System.currentTimeMillis() * 1000;
+
+    @Autowired
+    public ChangeFeed(ObjectMapper objectMapper, @Value("${changes.stream.replay-capacity:10000}") int replayCapacity) {
+
+        this.objectMapper = objectMapper;
+        this.replayBuffer = new EventRingBuffer(replayCapacity);
+    }
+
+    /*registering a subscriber, which is offered every event from now on; with the id of the last event it got (or null, for new
+    subscribers), the events after it are for it to read with replay, or it is offered a reset event first, if some of them are
+    no longer kept; returns false if it was reset;*/
+    public synchronized boolean subscribe(ChangeFeedSubscriber subscriber, Long lastEventId) {
+
+        boolean resumed = lastEventId == null || canResumeAfter(lastEventId);
+
+        if (!resumed) {
+
+            subscriber.offer(resetEvent());
+        }
+
+        subscribers.add(subscriber);
+
+        return resumed;
+    }
+
+    /*the events after afterId, oldest first, at most limit of them, for a subscriber catching up (fewer than limit once caught up:
+    the later ones were offered to it); a single reset event instead, if some of them are no longer kept;*/
+    public synchronized List<ChangeFeedEvent> replay(long afterId, int limit) {
+
+        if (!canResumeAfter(afterId)) {
+
+            return List.of(resetEvent());
+        }
+
+        return replayBuffer.after(afterId, limit);
+    }
+
+    public void unsubscribe(ChangeFeedSubscriber subscriber) {
+
+        subscribers.remove(subscriber);
+    }
+
+    public int getSubscriberCount() {
+
+        return subscribers.size();
+    }
+
+    public synchronized long getLastId() {
+
+        return lastId;
+    }
+
+    @Override
+    public void personsLoaded(Collection<PersonRecord> persons) {
+    }
+
+    @Override
+    public void personInserted(PersonRecord person) {
+
+        publish("person", "inserted", person.id(), person);
+    }
+
+    @Override
+    public void personUpdated(PersonRecord before, PersonRecord after) {
+
+        publish("person", "updated", after.id(), after);
+    }
+
+    @Override
+    public void personDeleted(PersonRecord person) {
+
+        publish("person", "deleted", person.id(), person);
+    }
+
+    @Override
+    public void jobsLoaded(Collection<Job> jobs) {
+    }
+
+    @Override
+    public void jobInserted(Job job) {
+
+        publish("job", "inserted", job.getId(), job);
+    }
+
+    @Override
+    public void jobUpdated(Job before, Job after) {
+
+        publish("job", "updated", after.getId(), after);
+    }
+
+    @Override
+    public void jobDeleted(Job job) {
+
+        publish("job", "deleted", job.getId(), job);
+    }
+
+    //resumable if every event after lastEventId is still kept (the oldest kept one follows it, or none were dropped yet);
+    private boolean canResumeAfter(long lastEventId) {
+
+        ChangeFeedEvent oldest = replayBuffer.oldest();
+        long oldestId = oldest == null ? lastId + 1 : oldest.id();
+
+        return lastEventId <= lastId && lastEventId >= oldestId - 1;
+    }
+
+    //called holding the feed monitor; its id is the latest event's, so the subscriber resumes from there after resyncing;
+    private ChangeFeedEvent resetEvent() {
+
+        return new ChangeFeedEvent(lastId, RESET, "{\"id\":" + lastId + "}");
+    }
+
+    //rendered while the feed is locked, so ids and events keep the same order;
+    private synchronized void publish(String entity, String type, int entityId, Object data) {
+
+        long id = lastId + 1;
+        String json;
+
+        try {
+            json = objectMapper.writeValueAsString(new ChangeEvent(id, entity, type, entityId, data));
+        } catch (JsonProcessingException e) {
+
+            LOGGER.error("Failed to render change event for " + entity + " " + entityId, e);
+            return;
+        }
+
+        lastId = id;
+        ChangeFeedEvent event = new ChangeFeedEvent(id, entity + "." + type, json);
+        replayBuffer.add(event);
+
+        for (ChangeFeedSubscriber subscriber : subscribers) {
+
+            subscriber.offer(event);
+        }
+    }
+}
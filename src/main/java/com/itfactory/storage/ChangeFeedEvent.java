@@ -0,0 +1,8 @@
+package com.itfactory.storage;
+
+/**
+ * An event of the change feed, ready to send: its id, its name ("person.updated", ..., or "reset"), and its data, rendered once as JSON;
+ */
+
+public record ChangeFeedEvent(long id, String name, String data) {
+}
@@ -0,0 +1,11 @@
+package com.itfactory.storage;
+
+/**
+ * Receives the events of the change feed (ChangeFeed), in id order;
+ * offer is called while the feed is locked, for every write: it must not block (buffer the event, and send it from another thread);
+ */
+
+public interface ChangeFeedSubscriber {
+
+    void offer(ChangeFeedEvent event);
+}
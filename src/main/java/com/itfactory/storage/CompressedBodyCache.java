@@ -0,0 +1,238 @@
+package com.itfactory.storage;
+
+import com.itfactory.codec.CompressedBody;
+import com.itfactory.codec.ContentEncoding;
+import com.itfactory.exceptions.DatabaseOperationException;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The rendered bodies of the cacheable full-table responses (/person/all, /job/all), each kept with its compressed variants,
+ * so identical content is rendered and compressed once, then served as it is to every poll, until the next write;
+ * Each body is kept with the version of its table (TableVersions) read before rendering it, and only served for that version:
+ * a write bumps the version, and the body is rendered again (the version of the body served also tags it, as its ETag);
+ * Stale-while-revalidate: once a write made a body stale, it is still served (with its own, older ETag) for up to
+ * compression.cache.stale-while-revalidate-ms, while the new version is rendered in the background, once per key;
+ * under steady load, requests then never wait for a render; past the window (or with 0), a stale body is rendered on request;
+ * The encoding is negotiated from Accept-Encoding, among compression.encodings (in the server's order of preference);
+ * bodies under server.compression.min-response-size, or with server.compression.enabled=false, are sent uncompressed;
+ * Bodies over compression.cache.max-body-size are not kept (rendered and compressed per request), bounding the heap used;
+ */
+
+@Component
+public class CompressedBodyCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompressedBodyCache.class);
+
+    public static final String ALL_PERSONS = "person/all";
+
+    public static final String ALL_JOBS = "job/all";
+
+    private final boolean compressionEnabled;
+
+    private final long minCompressedSize;
+
+    private final long maxCachedSize;
+
+    private final ContentEncoding[] encodings;
+
+    private final long staleWhileRevalidateMillis;
+
+    private final Executor refresher;
+
+    private final Map<String, CachedBody> bodies = new ConcurrentHashMap<>();
+
+    //the keys being rendered in the background;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public CompressedBodyCache(@Value("${server.compression.enabled:false}") boolean compressionEnabled,
+                               @Value("${server.compression.min-response-size:2KB}") String minResponseSize,
+                               @Value("${compression.cache.max-body-size:64MB}") String maxBodySize,
+                               @Value("${compression.encodings:zstd, gzip}") String encodings,
+                               @Value("${compression.cache.stale-while-revalidate-ms:10000}") long staleWhileRevalidateMillis) {
+
+        this(compressionEnabled, minResponseSize, maxBodySize, encodings, staleWhileRevalidateMillis,
+                Executors.newSingleThreadExecutor(runnable -> {
+
+                    Thread thread = new Thread(runnable, "compressed-body-refresher");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+
+    //rendering stale bodies again on the given executor (e.g. in tests);
+    CompressedBodyCache(boolean compressionEnabled, String minResponseSize, String maxBodySize, String encodings,
+                        long staleWhileRevalidateMillis, Executor refresher) {
+
+        this.compressionEnabled = compressionEnabled;
+        this.minCompressedSize = DataSize.parse(minResponseSize).toBytes();
+        this.maxCachedSize = DataSize.parse(maxBodySize).toBytes();
+        this.encodings = Arrays.stream(encodings.split(",")).map(ContentEncoding::forToken).toArray(ContentEncoding[]::new);
+        this.staleWhileRevalidateMillis = staleWhileRevalidateMillis;
+        this.refresher = refresher;
+    }
+
+    //rendering a body (as text); called on a cache miss only;
+    @FunctionalInterface
+    public interface BodyRenderer {
+
+        String render() throws DatabaseOperationException;
+    }
+
+    //the encoding negotiated for a client, before the body is known (a body under the minimum size is still sent uncompressed);
+    public ContentEncoding encodingFor(String acceptEncoding) {
+
+        return compressionEnabled ? ContentEncoding.negotiate(acceptEncoding, encodings) : ContentEncoding.IDENTITY;
+    }
+
+    /*the body to serve for a version, without rendering it on the calling thread: the kept body, if it is of that version (or newer),
+    or a stale one within the stale-while-revalidate window, the version being rendered in the background; null if there is neither;
+    the version is read by the caller before the body is rendered, so a kept body is never older than its version;*/
+    public CachedBody getIfCached(String key, long version, BodyRenderer renderer) {
+
+        CachedBody body = bodies.get(key);
+
+        if (body == null) {
+
+            return null;
+        }
+
+        if (body.version >= version) {
+
+            return body;
+        }
+
+        if (staleWhileRevalidateMillis <= 0 || !body.isStaleWithin(staleWhileRevalidateMillis)) {
+
+            return null;
+        }
+
+        refresh(key, version, renderer);
+
+        return body;
+    }
+
+    //rendering a body on the calling thread (on a miss), kept for the next requests;
+    public CachedBody render(String key, long version, BodyRenderer renderer) throws DatabaseOperationException {
+
+        CachedBody body = new CachedBody(version, renderer.render().getBytes(StandardCharsets.UTF_8));
+        keep(key, body);
+
+        return body;
+    }
+
+    //a body in the encoding negotiated for a client, compressed once per encoding;
+    public CompressedBody encode(CachedBody body, String acceptEncoding) {
+
+        ContentEncoding encoding = body.identity.length >= minCompressedSize ? encodingFor(acceptEncoding) : ContentEncoding.IDENTITY;
+
+        return new CompressedBody(body.encoded(encoding), encoding);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+
+        if (refresher instanceof ExecutorService executorService) {
+
+            executorService.shutdownNow();
+        }
+    }
+
+    //one background render per key at a time; a write during it makes the rendered body stale again, and the next request refreshes it;
+    private void refresh(String key, long version, BodyRenderer renderer) {
+
+        if (!refreshing.add(key)) {
+
+            return;
+        }
+
+        try {
+            refresher.execute(() -> {
+
+                try {
+                    render(key, version, renderer);
+                } catch (DatabaseOperationException | RuntimeException e) {
+
+                    LOGGER.error("Failed to render " + key + " in the background, serving the stale body until the window ends", e);
+                } finally {
+
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+
+            refreshing.remove(key);
+        }
+    }
+
+    /*a body rendered concurrently for an older version doesn't replace a newer one;
+    a body over the maximum cached size isn't kept, and drops an older one (which would otherwise be served stale);*/
+    private void keep(String key, CachedBody body) {
+
+        if (body.identity.length > maxCachedSize) {
+
+            bodies.computeIfPresent(key, (k, current) -> current.version < body.version ? null : current);
+            return;
+        }
+
+        bodies.merge(key, body, (current, rendered) -> rendered.version >= current.version ? rendered : current);
+    }
+
+    //the uncompressed body, and each encoding of it, compressed on first request (once, while concurrent requests wait for it);
+    public static final class CachedBody {
+
+        private final long version;
+
+        private final byte[] identity;
+
+        private final ConcurrentMap<ContentEncoding, byte[]> encoded = new ConcurrentHashMap<>();
+
+        //when a request first found the body stale (0 until then);
+        private final AtomicLong staleSince = new AtomicLong();
+
+        private CachedBody(long version, byte[] identity) {
+
+            this.version = version;
+            this.identity = identity;
+        }
+
+        //the table version the body was rendered at (its ETag's);
+        public long getVersion() {
+
+            return version;
+        }
+
+        private byte[] encoded(ContentEncoding encoding) {
+
+            return encoding == ContentEncoding.IDENTITY ? identity : encoded.computeIfAbsent(encoding, key -> key.compress(identity));
+        }
+
+        private boolean isStaleWithin(long windowMillis) {
+
+            long now = System.currentTimeMillis();
+            staleSince.compareAndSet(0, now);
+
+            return now - staleSince.get() <= windowMillis;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.itfactory.storage;
+
+import com.itfactory.model.Person;
+import com.itfactory.model.PersonRecord;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over the normalized emails of all persons, answering "definitely new" for an email without a database round trip;
+ * Rebuilt at startup (StorageLoader) and updated on every insert;
+ * Deleted emails can't be removed from a Bloom filter - they only cost an extra (index) check, until the next rebuild;
+ * Until built, the filter answers "maybe present" for every email, so callers fall back to the index check;
+ * The emails added until built, or during a rebuild, are also kept aside, and added to the rebuilt filter before it is published:
+ * the emails it is built from were read earlier, and may miss them (an insert passing the filter would then fail on the index);
+ * If more than MAX_PENDING_EMAILS are added meanwhile (e.g. the load failed, or is disabled), the filter is left as it was
+ * (if unbuilt, every email keeps going to the index check);
+ */
+
+@Component
+public class EmailBloomFilter implements PersonChangeListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EmailBloomFilter.class);
+
+    public static final int MAX_PENDING_EMAILS = 100_000;
+
+    @Value("${storage.email-filter.expected-emails:1000000}")
+    private int expectedEmails = 1_000_000;
+
+    @Value("${storage.email-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate = 0.01;
+
+    //bit array and hash count are replaced together (as one Bits object) on rebuild;
+    private volatile Bits bits;
+
+    //the normalized emails added until built or while rebuilding, and whether there were too many; guarded by the filter monitor;
+    private Set<String> pendingEmails = new HashSet<>();
+
+    private boolean pendingOverflow;
+
+    //one rebuild at a time, without holding up the adds (on the filter monitor);
+    private final Object rebuildLock = new Object();
+
+    @Override
+    public void personsLoaded(Collection<PersonRecord> persons) {
+
+        rebuild(persons.stream().map(PersonRecord::email).toList());
+    }
+
+    @Override
+    public void personInserted(PersonRecord person) {
+
+        add(person.email());
+    }
+
+    //salary index updates don't change emails, and deleted emails can't be removed (see above);
+    @Override
+    public void personUpdated(PersonRecord before, PersonRecord after) {
+
+        add(after.email());
+    }
+
+    @Override
+    public void personDeleted(PersonRecord person) {
+
+    }
+
+    //sizing for the larger of the configured and the actual number of emails, with the configured false positive rate;
+    public void rebuild(Collection<String> emails) {
+
+        synchronized (rebuildLock) {
+
+            synchronized (this) {
+
+                if (pendingEmails == null && !pendingOverflow) {
+
+                    pendingEmails = new HashSet<>();
+                }
+            }
+
+            Bits rebuilt = new Bits(Math.max(expectedEmails, emails.size()), falsePositiveRate);
+
+            for (String email : emails) {
+
+                rebuilt.add(Person.normalizeEmail(email));
+            }
+
+            synchronized (this) {
+
+                if (pendingOverflow) {
+
+                    LOGGER.error("Email Bloom filter not rebuilt, too many emails added while building it;");
+                    return;
+                }
+
+                pendingEmails.forEach(rebuilt::add);
+                pendingEmails = null;
+                bits = rebuilt;
+            }
+        }
+    }
+
+    //kept aside as well while the filter is built, so the add can't fall between the build's read and its publication;
+    public void add(String email) {
+
+        if (email == null) {
+
+            return;
+        }
+
+        String normalizedEmail = Person.normalizeEmail(email);
+        Bits current;
+
+        synchronized (this) {
+
+            if (pendingEmails != null) {
+
+                pendingEmails.add(normalizedEmail);
+
+                if (pendingEmails.size() > MAX_PENDING_EMAILS) {
+
+                    pendingEmails = null;
+                    pendingOverflow = true;
+                }
+            }
+
+            current = bits;
+        }
+
+        if (current != null) {
+
+            current.add(normalizedEmail);
+        }
+    }
+
+    //false means the email is definitely not in use; true means it may be (to be confirmed by the index);
+    public boolean mightContain(String email) {
+
+        Bits current = bits;
+
+        return current == null || email == null || current.mightContain(Person.normalizeEmail(email));
+    }
+
+    private static final class Bits {
+
+        private final AtomicLongArray words;
+
+        private final long bitCount;
+
+        private final int hashCount;
+
+        //standard sizing: m = -n ln(p) / ln(2)^2 bits, k = (m / n) ln(2) hash functions;
+        Bits(int expectedEmails, double falsePositiveRate) {
+
+            long optimalBits = (long) Math.ceil(-expectedEmails * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+
+            words = new AtomicLongArray((int) Math.max(1, (optimalBits + 63) / 64));
+            bitCount = words.length() * 64L;
+            hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedEmails * Math.log(2)));
+        }
+
+        void add(String normalizedEmail) {
+
+            long hash = hash64(normalizedEmail);
+            int first = (int) hash;
+            int second = (int) (hash >>> 32);
+
+            for (int i = 0; i < hashCount; i++) {
+
+                long bit = Integer.toUnsignedLong(first + i * second) % bitCount;
+                long mask = 1L << bit;
+                int word = (int) (bit >>> 6);
+
+                //setting the bit with a CAS loop, so concurrent inserts don't overwrite each other's bits;
+                long current;
+
+                do {
+                    current = words.get(word);
+                } while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        boolean mightContain(String normalizedEmail) {
+
+            long hash = hash64(normalizedEmail);
+            int first = (int) hash;
+            int second = (int) (hash >>> 32);
+
+            for (int i = 0; i < hashCount; i++) {
+
+                long bit = Integer.toUnsignedLong(first + i * second) % bitCount;
+
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        //64-bit FNV-1a over the UTF-8 bytes, with a final mix; its two halves drive the double hashing above;
+        private static long hash64(String value) {
+
+            long hash = 0xcbf29ce484222325L;
+
+            for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+
+                hash ^= b & 0xff;
+                hash *= 0x100000001b3L;
+            }
+
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.itfactory.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-capacity ring buffer of change feed events, in id order; adding to a full buffer overwrites its oldest event;
+ * Not thread-safe: its owner (the change feed, or a subscriber) guards it;
+ */
+
+public final class EventRingBuffer {
+
+    private final ChangeFeedEvent[] events;
+
+    private int head;
+
+    private int size;
+
+    public EventRingBuffer(int capacity) {
+
+        if (capacity < 1) {
+
+            throw new IllegalArgumentException("Invalid ring buffer capacity: " + capacity);
+        }
+
+        events = new ChangeFeedEvent[capacity];
+    }
+
+    //returns false if the buffer was full, and its oldest event was overwritten;
+    public boolean add(ChangeFeedEvent event) {
+
+        boolean full = isFull();
+        events[(head + size) % events.length] = event;
+
+        if (full) {
+
+            head = (head + 1) % events.length;
+        } else {
+
+            size++;
+        }
+
+        return !full;
+    }
+
+    //removes and returns the oldest event, or null if the buffer is empty;
+    public ChangeFeedEvent poll() {
+
+        if (size == 0) {
+
+            return null;
+        }
+
+        ChangeFeedEvent event = events[head];
+        events[head] = null;
+        head = (head + 1) % events.length;
+        size--;
+
+        return event;
+    }
+
+    //the oldest event still held, or null if the buffer is empty;
+    public ChangeFeedEvent oldest() {
+
+        return size == 0 ? null : events[head];
+    }
+
+    //the events with an id above the given one, oldest first, at most limit of them;
+    public List<ChangeFeedEvent> after(long id, int limit) {
+
+        List<ChangeFeedEvent> after = new ArrayList<>();
+
+        for (int i = 0; i < size && after.size() < limit; i++) {
+
+            ChangeFeedEvent event = events[(head + i) % events.length];
+
+            if (event.id() > id) {
+
+                after.add(event);
+            }
+        }
+
+        return after;
+    }
+
+    public int size() {
+
+        return size;
+    }
+
+    public boolean isEmpty() {
+
+        return size == 0;
+    }
+
+    public boolean isFull() {
+
+        return size == events.length;
+    }
+}
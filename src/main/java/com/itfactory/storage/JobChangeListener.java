@@ -0,0 +1,22 @@
+package com.itfactory.storage;
+
+import com.itfactory.model.Job;
+
+import java.util.Collection;
+
+/**
+ * Implemented by the in-memory structures depending on the job database (e.g. on base salaries);
+ * jobsLoaded is called once at startup (by StorageLoader, before the persons are loaded), the other methods by JobService after each successful write;
+ * Jobs passed in must not be modified;
+ */
+
+public interface JobChangeListener {
+
+    void jobsLoaded(Collection<Job> jobs);
+
+    void jobInserted(Job job);
+
+    void jobUpdated(Job before, Job after);
+
+    void jobDeleted(Job job);
+}
@@ -0,0 +1,607 @@
+package com.itfactory.storage;
+
+import com.itfactory.model.PersonRecord;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * In-memory trigram index over person names (and, optionally, emails), for typo tolerant search and typeahead;
+ * Each word is padded like "  word " before being cut into trigrams, so word starts weigh more, and a misspelled word still shares most of them;
+ * Characters are coded on 6 bits, so a trigram is an 18 bit number, used directly as the slot of its posting list (no hashing);
+ * Each indexed person gets a dense ordinal (reused once the person is deleted), so ids of any value (negative, or close to
+ * Integer.MAX_VALUE) never size anything; posting lists and the per search counters are kept by ordinal;
+ * Posting lists are immutable sorted ordinal arrays: readers never lock, the (single, synchronized) writer swaps in new lists;
+ * Loaded at startup (StorageLoader), then kept up to date by PersonService on every successful write;
+ */
+
+@Component
+public class NameSearchIndex implements PersonChangeListener {
+
+    private static final int SLOTS = 1 << 18;
+
+    //query trigrams each candidate must share: half of them, rounded up (a typo costs up to 3 trigrams of a word);
+    private static final int MIN_MATCH_DIVISOR = 2;
+
+    //upper bound on the ordinals of the short posting lists counted for one query, so very common trigrams can't make a search read everything;
+    private static final int SCAN_BUDGET = 32_768;
+
+    //upper bound on the ordinals checked against the long posting lists (the most promising ones first), for the same reason;
+    private static final int CHECK_BUDGET = 256;
+
+    //more query trigrams shared, then a higher score, then a lower id;
+    private static final Comparator<Candidate> RANKING = (match, other) -> compareRank(match.matchedTrigrams(), match.score(),
+            match.person().id(), other);
+
+    @Value("${storage.name-search.include-email:false}")
+    private boolean includeEmail;
+
+    private final AtomicReferenceArray<Postings> postings = new AtomicReferenceArray<>(SLOTS);
+
+    //indexed persons by id, with the sorted (distinct) trigrams and the ordinal of each;
+    private final Map<Integer, Document> documents = new ConcurrentHashMap<>();
+
+    //ordinals given back by deleted persons, taken again before new ones (nextOrdinal on); guarded by the index monitor;
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+
+    private int nextOrdinal;
+
+    //persons deleted before the load finished, so the load doesn't bring them back; guarded by the index monitor;
+    private final Set<Integer> deletedWhileLoading = new HashSet<>();
+
+    private volatile boolean loaded;
+
+    //the id and the trigram count (0 if none, 255 for 255 or more) of the person holding each ordinal, so a search can rank a match without
+    //looking the person up; only the writer sets them, before publishing the ordinal in any posting list, and it publishes grown
+    //arrays by replacing these ones;
+    private volatile int[] ordinalIds = new int[0];
+
+    private volatile byte[] trigramCounts = new byte[0];
+
+    //counter arrays (one counter per ordinal) for the searches to take and give back, so a search doesn't allocate one;
+    private final Queue<byte[]> counterPool = new ConcurrentLinkedQueue<>();
+
+    //building every posting list in one pass, at its final size; persons written before the load stay as they are;
+    @Override
+    public synchronized void personsLoaded(Collection<PersonRecord> persons) {
+
+        List<Document> loadedDocuments = new ArrayList<>();
+
+        for (PersonRecord person : persons) {
+
+            if (!documents.containsKey(person.id()) && !deletedWhileLoading.contains(person.id())) {
+
+                loadedDocuments.add(new Document(person, trigramsOf(person), 0));
+            }
+        }
+
+        loadedDocuments.sort(Comparator.comparingInt(document -> document.person.id()));
+
+        //new ordinals, in id order, so every posting list built below comes out sorted;
+        for (int i = 0; i < loadedDocuments.size(); i++) {
+
+            Document document = loadedDocuments.get(i);
+            loadedDocuments.set(i, new Document(document.person, document.trigrams, nextOrdinal++));
+            setOrdinal(nextOrdinal - 1, document.person.id(), document.trigrams.length);
+        }
+
+        int[] counts = new int[SLOTS];
+
+        for (Document document : loadedDocuments) {
+
+            for (int trigram : document.trigrams) {
+
+                counts[trigram]++;
+            }
+        }
+
+        int[][] ordinals = new int[SLOTS][];
+
+        for (int slot = 0; slot < SLOTS; slot++) {
+
+            if (counts[slot] > 0) {
+
+                ordinals[slot] = new int[counts[slot]];
+                counts[slot] = 0;
+            }
+        }
+
+        for (Document document : loadedDocuments) {
+
+            for (int trigram : document.trigrams) {
+
+                ordinals[trigram][counts[trigram]++] = document.ordinal;
+            }
+        }
+
+        for (int slot = 0; slot < SLOTS; slot++) {
+
+            if (ordinals[slot] != null) {
+
+                Postings current = postings.get(slot);
+                postings.set(slot, current == null ? new Postings(ordinals[slot], ordinals[slot].length) : current.merge(ordinals[slot]));
+            }
+        }
+
+        for (Document document : loadedDocuments) {
+
+            documents.put(document.person.id(), document);
+        }
+
+        deletedWhileLoading.clear();
+        loaded = true;
+    }
+
+    @Override
+    public void personInserted(PersonRecord person) {
+
+        put(person);
+    }
+
+    @Override
+    public void personUpdated(PersonRecord before, PersonRecord after) {
+
+        put(after);
+    }
+
+    @Override
+    public void personDeleted(PersonRecord person) {
+
+        remove(person.id());
+    }
+
+    public boolean isLoaded() {
+
+        return loaded;
+    }
+
+    //only the trigrams that changed are touched (none, for a salary index update);
+    public synchronized void put(PersonRecord person) {
+
+        Document previous = documents.get(person.id());
+        int ordinal = previous != null ? previous.ordinal : freeOrdinals.isEmpty() ? nextOrdinal++ : freeOrdinals.pop();
+        Document document = new Document(person, trigramsOf(person), ordinal);
+        int[] previousTrigrams = previous == null ? new int[0] : previous.trigrams;
+
+        setOrdinal(ordinal, person.id(), document.trigrams.length);
+
+        for (int trigram : document.trigrams) {
+
+            if (Arrays.binarySearch(previousTrigrams, trigram) < 0) {
+
+                Postings current = postings.get(trigram);
+                postings.set(trigram, current == null ? new Postings(new int[] {ordinal}, 1) : current.with(ordinal));
+            }
+        }
+
+        documents.put(person.id(), document);
+
+        for (int trigram : previousTrigrams) {
+
+            if (Arrays.binarySearch(document.trigrams, trigram) < 0) {
+
+                postings.set(trigram, postings.get(trigram).without(ordinal));
+            }
+        }
+    }
+
+    public synchronized void remove(int id) {
+
+        Document previous = documents.remove(id);
+
+        if (!loaded) {
+
+            deletedWhileLoading.add(id);
+        }
+
+        if (previous != null) {
+
+            for (int trigram : previous.trigrams) {
+
+                postings.set(trigram, postings.get(trigram).without(previous.ordinal));
+            }
+
+            //searches still reading the old lists may meet the ordinal after it is taken again: they check the ordinal of the document;
+            setOrdinal(previous.ordinal, id, 0);
+            freeOrdinals.push(previous.ordinal);
+        }
+    }
+
+    /*the persons sharing the most trigrams with the query, best first (ties broken by score, then by id);
+    the shortest posting lists of the query trigrams (up to SCAN_BUDGET ordinals in all) are read, counting how many of them hold each ordinal;
+    the ordinals are then checked against the longer lists, the ordinals held by the most short lists first, so the result heap fills with
+    good matches early: once an ordinal can't match as many trigrams as the worst kept match, even with every long list, the search stops;
+    a person sharing at least m of the k query trigrams appears in at least one of any k - m + 1 lists, so only a query whose k - m + 1
+    shortest lists are over the budget (made of very common trigrams), or with over CHECK_BUDGET ordinals to check, can miss some matches;*/
+    public List<SearchMatch> search(String query, int limit) {
+
+        int[] queryTrigrams = trigramsOf(query, false);
+        int minMatch = (queryTrigrams.length + MIN_MATCH_DIVISOR - 1) / MIN_MATCH_DIVISOR;
+
+        if (queryTrigrams.length == 0) {
+
+            return List.of();
+        }
+
+        Postings[] lists = new Postings[queryTrigrams.length];
+
+        for (int i = 0; i < queryTrigrams.length; i++) {
+
+            Postings current = postings.get(queryTrigrams[i]);
+            lists[i] = current == null ? Postings.EMPTY : current;
+        }
+
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+
+        //the short lists, read up to their end (only the first ordinals of the shortest one, if it is over the budget alone);
+        int[] ends = new int[Math.min(lists.length, Byte.MAX_VALUE)];
+        int shortLists = 1;
+        int maxOrdinal = 0;
+        ends[0] = Math.min(lists[0].size, SCAN_BUDGET);
+        int scanned = ends[0];
+
+        while (shortLists < ends.length && scanned + lists[shortLists].size <= SCAN_BUDGET) {
+
+            ends[shortLists] = lists[shortLists].size;
+            scanned += ends[shortLists++];
+        }
+
+        for (int i = 0; i < shortLists; i++) {
+
+            maxOrdinal = ends[i] == 0 ? maxOrdinal : Math.max(maxOrdinal, lists[i].ordinals[ends[i] - 1]);
+        }
+
+        //how many short lists hold each ordinal;
+        byte[] counters = takeCounters(maxOrdinal);
+
+        for (int i = 0; i < shortLists; i++) {
+
+            for (int p = 0; p < ends[i]; p++) {
+
+                counters[lists[i].ordinals[p]]++;
+            }
+        }
+
+        //the ordinals by count, up to CHECK_BUDGET - 1 of each (an ordinal is taken the first time it is met, the ones over that overwrite the
+        //spare last place, so taking an ordinal needs no branch); every counter is cleared on the way;
+        int longLists = lists.length - shortLists;
+        int minCount = Math.max(1, minMatch - longLists);
+        int[] buckets = new int[(shortLists + 1) * CHECK_BUDGET];
+        int[] bucketSizes = new int[shortLists + 1];
+
+        for (int i = 0; i < shortLists; i++) {
+
+            for (int p = 0; p < ends[i]; p++) {
+
+                int ordinal = lists[i].ordinals[p];
+                int count = counters[ordinal] < minCount ? 0 : counters[ordinal];
+                int size = bucketSizes[count];
+                buckets[count * CHECK_BUDGET + size] = ordinal;
+                bucketSizes[count] = size + (count > 0 && size < CHECK_BUDGET - 1 ? 1 : 0);
+                counters[ordinal] = 0;
+            }
+        }
+
+        counterPool.offer(counters);
+
+        PriorityQueue<Candidate> best = new PriorityQueue<>(limit + 1, RANKING);
+        int[] ids = ordinalIds;
+        byte[] counts = trigramCounts;
+        int[] cursors = new int[lists.length];
+        int checks = CHECK_BUDGET;
+
+        //the ordinals held by the most short lists first, so the worst kept match (and with it minMatch) rises early;
+        for (int count = shortLists; count >= minCount && count + longLists >= minMatch && checks > 0; count--) {
+
+            //the ordinals of a count in order, so the long lists are only read forward;
+            if (bucketSizes[count] > 0) {
+
+                Arrays.sort(buckets, count * CHECK_BUDGET, count * CHECK_BUDGET + bucketSizes[count]);
+                Arrays.fill(cursors, 0);
+            }
+
+            for (int j = 0; j < bucketSizes[count] && count + longLists >= minMatch && checks-- > 0; j++) {
+
+                int ordinal = buckets[count * CHECK_BUDGET + j];
+                int matched = count;
+
+                for (int i = shortLists; i < lists.length && matched + lists.length - i >= minMatch; i++) {
+
+                    cursors[i] = lists[i].seek(cursors[i], ordinal);
+
+                    if (cursors[i] < lists[i].size && lists[i].ordinals[cursors[i]] == ordinal) {
+
+                        matched++;
+                    }
+                }
+
+                if (matched < minMatch || ordinal >= ids.length) {
+
+                    continue;
+                }
+
+                //a match scored from its trigram count, that wouldn't make it into the results, isn't looked up;
+                int id = ids[ordinal];
+                int trigramCount = ordinal < counts.length ? counts[ordinal] & 0xFF : 0;
+
+                if (best.size() == limit && trigramCount > 0 && trigramCount < 0xFF && compareRank(matched,
+                        (double) matched / (queryTrigrams.length + trigramCount - matched), id, best.peek()) <= 0) {
+
+                    continue;
+                }
+
+                Document document = documents.get(id);
+
+                if (document == null || document.ordinal != ordinal) {
+
+                    continue;
+                }
+
+                double score = (double) matched / (queryTrigrams.length + document.trigrams.length - matched);
+
+                //keeping only the best matches so far (bounded heap, worst on top), compared before allocating anything;
+                if (best.size() < limit) {
+
+                    best.add(new Candidate(document.person, matched, score));
+                } else if (compareRank(matched, score, id, best.peek()) > 0) {
+
+                    best.poll();
+                    best.add(new Candidate(document.person, matched, score));
+                }
+
+                if (best.size() == limit) {
+
+                    minMatch = Math.max(minMatch, best.peek().matchedTrigrams());
+                }
+            }
+        }
+
+        List<SearchMatch> matches = new ArrayList<>(best.size());
+
+        while (!best.isEmpty()) {
+
+            Candidate match = best.poll();
+            matches.add(new SearchMatch(match.person().toPerson(), match.matchedTrigrams(), match.score()));
+        }
+
+        Collections.reverse(matches);
+
+        return matches;
+    }
+
+    private int[] trigramsOf(PersonRecord person) {
+
+        String text = includeEmail ? person.name() + " " + person.email() : person.name();
+
+        return trigramsOf(text, true);
+    }
+
+    /*the sorted, distinct trigrams of every word of the text; a word not followed by anything in a query
+    gets no trailing padding, so it also matches the names it is the start of (typeahead);*/
+    static int[] trigramsOf(String text, boolean indexing) {
+
+        if (text == null) {
+
+            return new int[0];
+        }
+
+        String normalized = text.toLowerCase(Locale.ROOT);
+        String[] words = normalized.trim().split("[^\\p{L}\\p{N}]+");
+        boolean lastWordComplete = !indexing && !normalized.isEmpty() && !Character.isLetterOrDigit(normalized.charAt(normalized.length() - 1));
+        int[] trigrams = new int[normalized.length() + 3 * words.length];
+        int count = 0;
+
+        for (int w = 0; w < words.length; w++) {
+
+            String word = words[w];
+
+            if (word.isEmpty()) {
+
+                continue;
+            }
+
+            boolean padEnd = indexing || w < words.length - 1 || lastWordComplete;
+            int length = word.length() + (padEnd ? 3 : 2);
+            int key = 0;
+
+            for (int i = 0; i < length; i++) {
+
+                int position = i - 2;
+                int code = position < 0 || position >= word.length() ? 0 : codeOf(word.charAt(position));
+                key = ((key << 6) | code) & (SLOTS - 1);
+
+                if (i >= 2) {
+
+                    trigrams[count++] = key;
+                }
+            }
+        }
+
+        int[] sorted = Arrays.copyOf(trigrams, count);
+        Arrays.sort(sorted);
+
+        return Arrays.stream(sorted).distinct().toArray();
+    }
+
+    //0 is the padding; letters, digits and the few other characters allowed in emails get their own code, the rest share the last ones;
+    private static int codeOf(char character) {
+
+        if (character >= 'a' && character <= 'z') {
+
+            return 1 + character - 'a';
+        }
+
+        if (character >= '0' && character <= '9') {
+
+            return 27 + character - '0';
+        }
+
+        return 37 + character % 27;
+    }
+
+    //called by the writer only (under the index monitor); ordinals are dense, so the arrays only grow with the number of persons;
+    private void setOrdinal(int ordinal, int id, int count) {
+
+        int[] ids = ordinalIds;
+        byte[] counts = trigramCounts;
+
+        if (ordinal >= ids.length) {
+
+            int length = Math.max(ordinal + 1, ids.length + (ids.length >> 1));
+            ids = Arrays.copyOf(ids, length);
+            counts = Arrays.copyOf(counts, length);
+        }
+
+        ids[ordinal] = id;
+        counts[ordinal] = (byte) Math.min(count, 0xFF);
+        trigramCounts = counts;
+        ordinalIds = ids;
+    }
+
+    //a counter array from the pool, or a new one (with some room for new ordinals) if it is empty or its array is too short;
+    private byte[] takeCounters(int maxOrdinal) {
+
+        byte[] counters = counterPool.poll();
+
+        return counters != null && counters.length > maxOrdinal ? counters : new byte[maxOrdinal + (maxOrdinal >> 3) + 1];
+    }
+
+    private static int compareRank(int matchedTrigrams, double score, int id, Candidate other) {
+
+        if (matchedTrigrams != other.matchedTrigrams()) {
+
+            return Integer.compare(matchedTrigrams, other.matchedTrigrams());
+        }
+
+        if (score != other.score()) {
+
+            return Double.compare(score, other.score());
+        }
+
+        return Integer.compare(other.person().id(), id);
+    }
+
+    private record Document(PersonRecord person, int[] trigrams, int ordinal) {
+    }
+
+    private record Candidate(PersonRecord person, int matchedTrigrams, double score) {
+    }
+
+    /*a sorted list of person ordinals; never changed once published, except for the unused tail of the array,
+    which an append fills before publishing a new Postings (readers of this one never look past its size);*/
+    private static final class Postings {
+
+        static final Postings EMPTY = new Postings(new int[0], 0);
+
+        final int[] ordinals;
+
+        final int size;
+
+        Postings(int[] ordinals, int size) {
+
+            this.ordinals = ordinals;
+            this.size = size;
+        }
+
+        //the position of the first ordinal at or after from that is not below ordinal (size if none): the next few ordinals are read in turn,
+        //then the rest is binary searched (its first probes, the same for every seek to the end of the list, stay cached);
+        int seek(int from, int ordinal) {
+
+            int low = from;
+            int end = Math.min(from + 8, size);
+
+            while (low < end) {
+
+                if (ordinals[low] >= ordinal) {
+
+                    return low;
+                }
+
+                low++;
+            }
+
+            int position = Arrays.binarySearch(ordinals, low, size, ordinal);
+
+            return position >= 0 ? position : -position - 1;
+        }
+
+        //new persons mostly take new ordinals, so an insert is usually an append into spare capacity; otherwise a copy with it in place;
+        Postings with(int ordinal) {
+
+            int position = Arrays.binarySearch(ordinals, 0, size, ordinal);
+
+            if (position >= 0) {
+
+                return this;
+            }
+
+            position = -position - 1;
+
+            if (position == size && size < ordinals.length) {
+
+                ordinals[size] = ordinal;
+                return new Postings(ordinals, size + 1);
+            }
+
+            int[] copy = new int[Math.max(4, size + (size >> 1) + 1)];
+            System.arraycopy(ordinals, 0, copy, 0, position);
+            copy[position] = ordinal;
+            System.arraycopy(ordinals, position, copy, position + 1, size - position);
+
+            return new Postings(copy, size + 1);
+        }
+
+        Postings without(int ordinal) {
+
+            int position = Arrays.binarySearch(ordinals, 0, size, ordinal);
+
+            if (position < 0) {
+
+                return this;
+            }
+
+            int[] copy = new int[size - 1];
+            System.arraycopy(ordinals, 0, copy, 0, position);
+            System.arraycopy(ordinals, position + 1, copy, position, size - position - 1);
+
+            return new Postings(copy, size - 1);
+        }
+
+        //merging a sorted ordinal array in (the loaded persons), dropping duplicates;
+        Postings merge(int[] sortedOrdinals) {
+
+            int[] merged = new int[size + sortedOrdinals.length];
+            int count = 0;
+
+            for (int i = 0, j = 0; i < size || j < sortedOrdinals.length; ) {
+
+                int next = j == sortedOrdinals.length || (i < size && ordinals[i] <= sortedOrdinals[j]) ? ordinals[i++] : sortedOrdinals[j++];
+
+                if (count == 0 || merged[count - 1] != next) {
+
+                    merged[count++] = next;
+                }
+            }
+
+            return new Postings(merged, count);
+        }
+    }
+}
@@ -0,0 +1,420 @@
+package com.itfactory.storage;
+
+import com.itfactory.model.Job;
+import com.itfactory.model.PayrollSummary;
+import com.itfactory.model.PayrollTotals;
+import com.itfactory.model.PersonRecord;
+import com.itfactory.model.SalaryPercentiles;
+import com.itfactory.model.WorkExperience;
+import com.itfactory.model.WorkExperienceCounts;
+import com.itfactory.model.WorkExperienceDistribution;
+import com.itfactory.rules.SalaryRule;
+import com.itfactory.rules.SalaryRuleEngine;
+import com.itfactory.rules.SalaryRules;
+import com.itfactory.rules.TierRule;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Materialized payroll aggregates (headcount, salary sum, salary index sum, min/max salary) per job, rolled up per domain on read;
+ * Only salary indexes are counted, and salaries are computed on read with the current salary rules (SalaryRuleEngine) of each job's domain:
+ * person writes only touch their job's counters, and a base salary update or a rules reload re-weights the job without visiting its persons;
+ * Within a job without a salary band, every salary is linear in the salary index, so the salary sum follows from the salary index sum;
+ * Each job also keeps a histogram of its salary indexes (SalaryIndexHistogram), giving min/max, salary percentiles, banded salary sums
+ * and the work experience tier counts without a rescan;
+ * Writes arriving before the load are not applied; the periodic recompute (PayrollService) brings the totals back in line;
+ */
+
+@Component
+public class PayrollAggregates implements PersonChangeListener, JobChangeListener {
+
+    private static final int HISTOGRAM_BUCKETS = 10;
+
+    private final Map<Integer, Job> jobs = new HashMap<>();
+
+    private final Map<Integer, JobTotals> totalsByJobId = new HashMap<>();
+
+    //counting writes, so a recompute can tell whether the totals changed while it was reading the database;
+    private long modificationCount;
+
+    //person writes between their database write and their listener calls (PersonService): already readable, but not applied yet;
+    private int writesInFlight;
+
+    private boolean jobsLoaded;
+
+    private boolean personsLoaded;
+
+    private SalaryRuleEngine salaryRuleEngine;
+
+    //configured salary rules (per domain bonus, band and tiers); without them, the built-in rules apply;
+    @Autowired
+    public synchronized void setSalaryRuleEngine(SalaryRuleEngine salaryRuleEngine) {
+
+        this.salaryRuleEngine = salaryRuleEngine;
+    }
+
+    @Override
+    public synchronized void jobsLoaded(Collection<Job> loadedJobs) {
+
+        loadedJobs.forEach(job -> jobs.put(job.getId(), copyOf(job)));
+        jobsLoaded = true;
+    }
+
+    @Override
+    public synchronized void jobInserted(Job job) {
+
+        modificationCount++;
+        jobs.put(job.getId(), copyOf(job));
+    }
+
+    //the job's totals are kept as salary index sums, so the new base salary applies to them as is;
+    @Override
+    public synchronized void jobUpdated(Job before, Job after) {
+
+        modificationCount++;
+        jobs.put(after.getId(), copyOf(after));
+    }
+
+    @Override
+    public synchronized void jobDeleted(Job job) {
+
+        modificationCount++;
+        jobs.remove(job.getId());
+    }
+
+    @Override
+    public synchronized void personsLoaded(Collection<PersonRecord> persons) {
+
+        persons.forEach(this::add);
+        personsLoaded = true;
+    }
+
+    @Override
+    public synchronized void personInserted(PersonRecord person) {
+
+        if (isLoaded()) {
+
+            modificationCount++;
+            add(person);
+        }
+    }
+
+    @Override
+    public synchronized void personUpdated(PersonRecord before, PersonRecord after) {
+
+        if (isLoaded()) {
+
+            modificationCount++;
+            subtract(before);
+            add(after);
+        }
+    }
+
+    @Override
+    public synchronized void personDeleted(PersonRecord person) {
+
+        if (isLoaded()) {
+
+            modificationCount++;
+            subtract(person);
+        }
+    }
+
+    public synchronized boolean isLoaded() {
+
+        return jobsLoaded && personsLoaded;
+    }
+
+    public synchronized long getModificationCount() {
+
+        return modificationCount;
+    }
+
+    //called by PersonService before a person write reaches the database; writeFinished follows its listener calls (or its failure);
+    public synchronized void writeStarted() {
+
+        writesInFlight++;
+    }
+
+    public synchronized void writeFinished() {
+
+        writesInFlight--;
+    }
+
+    //totals per job and per domain; the cost follows the number of jobs, not of persons;
+    public synchronized PayrollSummary summary() {
+
+        return summarize(jobs, totalsByJobId, salaryRules());
+    }
+
+    /*salary percentiles and histogram for the persons of a domain and/or job (null for any), from the jobs' salary index histograms;
+    each bin of a job is one salary (by the rule of its domain) with a count, so the cost follows jobs * bins, not persons;*/
+    public synchronized SalaryPercentiles percentiles(String domain, Integer jobId) {
+
+        SalaryRules rules = salaryRules();
+        List<double[]> bins = new ArrayList<>();
+
+        for (Map.Entry<Integer, JobTotals> entry : totalsByJobId.entrySet()) {
+
+            Job job = jobs.get(entry.getKey());
+
+            if (job == null || (jobId != null && job.getId() != jobId) || (domain != null && !domain.equalsIgnoreCase(job.getDomain()))) {
+
+                continue;
+            }
+
+            SalaryRule salaryRule = rules.salaryRuleOf(job.getDomain());
+            entry.getValue().histogram.forEachBin(
+                    (salaryIndex, count) -> bins.add(new double[] {salaryRule.salaryOf(salaryIndex, job.getBaseSalary()), count}));
+        }
+
+        return percentilesOf(bins);
+    }
+
+    //work experience tier counts per job and per domain, by the tiers of each job's domain; the cost follows jobs * bins, not persons;
+    public synchronized WorkExperienceDistribution workExperienceDistribution() {
+
+        SalaryRules rules = salaryRules();
+        Map<Integer, WorkExperienceCounts> countsByJobId = new HashMap<>();
+        Map<Integer, String> domainsByJobId = new HashMap<>();
+
+        jobs.forEach((jobId, job) -> domainsByJobId.put(jobId, job.getDomain()));
+        totalsByJobId.forEach((jobId, totals) -> countsByJobId.put(jobId,
+                WorkExperienceCounts.of(totals.tierCounts(rules.tierRuleOf(domainsByJobId.get(jobId))))));
+
+        return WorkExperienceDistribution.of(countsByJobId, domainsByJobId);
+    }
+
+    /*recomputing every total from scratch (read from the database since the given modification count);
+    the recomputed totals replace the incremental ones only if no write came in meanwhile (they would then be missing from the read),
+    and none is in flight (the read may have it, and its listener call would then count it a second time after the swap);
+    returns the jobs whose totals had drifted, or null if the recompute was skipped;*/
+    public synchronized Map<Integer, PayrollTotals> recompute(long sinceModificationCount, Collection<Job> currentJobs,
+                                                              Collection<PersonRecord> currentPersons) {
+
+        if (modificationCount != sinceModificationCount || writesInFlight > 0) {
+
+            return null;
+        }
+
+        PayrollAggregates recomputed = new PayrollAggregates();
+        recomputed.jobsLoaded(currentJobs);
+        recomputed.personsLoaded(currentPersons);
+
+        SalaryRules rules = salaryRules();
+        SortedMap<Integer, PayrollTotals> current = summarize(jobs, totalsByJobId, rules).byJobId();
+        Map<Integer, PayrollTotals> drifted = new TreeMap<>();
+
+        summarize(recomputed.jobs, recomputed.totalsByJobId, rules).byJobId().forEach((jobId, totals) -> {
+
+            if (!closeTo(totals, current.getOrDefault(jobId, PayrollTotals.EMPTY))) {
+
+                drifted.put(jobId, current.getOrDefault(jobId, PayrollTotals.EMPTY));
+            }
+        });
+
+        current.keySet().stream()
+                .filter(jobId -> !recomputed.totalsByJobId.containsKey(jobId))
+                .forEach(jobId -> drifted.put(jobId, current.get(jobId)));
+
+        jobs.clear();
+        jobs.putAll(recomputed.jobs);
+        totalsByJobId.clear();
+        totalsByJobId.putAll(recomputed.totalsByJobId);
+        jobsLoaded = true;
+        personsLoaded = true;
+
+        return drifted;
+    }
+
+    private static PayrollSummary summarize(Map<Integer, Job> jobs, Map<Integer, JobTotals> totalsByJobId, SalaryRules rules) {
+
+        SortedMap<Integer, PayrollTotals> byJobId = new TreeMap<>();
+        SortedMap<String, PayrollTotals> byDomain = new TreeMap<>();
+        PayrollTotals total = PayrollTotals.EMPTY;
+
+        for (Map.Entry<Integer, JobTotals> entry : totalsByJobId.entrySet()) {
+
+            Job job = jobs.get(entry.getKey());
+
+            //persons of an unknown job have no salary, so they are left out;
+            if (job == null || entry.getValue().count == 0) {
+
+                continue;
+            }
+
+            PayrollTotals totals = entry.getValue().toPayrollTotals(job.getBaseSalary(), rules.salaryRuleOf(job.getDomain()),
+                    rules.isLinear(job.getDomain()));
+
+            byJobId.put(job.getId(), totals);
+            byDomain.merge(job.getDomain(), totals, PayrollTotals::plus);
+            total = total.plus(totals);
+        }
+
+        return new PayrollSummary(byJobId, byDomain, total);
+    }
+
+    private static SalaryPercentiles percentilesOf(List<double[]> bins) {
+
+        if (bins.isEmpty()) {
+
+            return new SalaryPercentiles(0, 0, 0, 0, List.of());
+        }
+
+        double[][] sorted = bins.toArray(new double[0][]);
+        Arrays.sort(sorted, (first, second) -> Double.compare(first[0], second[0]));
+
+        long count = 0;
+
+        for (double[] bin : sorted) {
+
+            count += (long) bin[1];
+        }
+
+        double min = sorted[0][0];
+        double max = sorted[sorted.length - 1][0];
+        double width = (max - min) / HISTOGRAM_BUCKETS;
+        long[] bucketCounts = new long[width == 0 ? 1 : HISTOGRAM_BUCKETS];
+
+        for (double[] bin : sorted) {
+
+            int bucket = width == 0 ? 0 : (int) Math.min(HISTOGRAM_BUCKETS - 1, (bin[0] - min) / width);
+            bucketCounts[bucket] += (long) bin[1];
+        }
+
+        List<SalaryPercentiles.Bucket> histogram = new ArrayList<>();
+
+        for (int bucket = 0; bucket < bucketCounts.length; bucket++) {
+
+            histogram.add(new SalaryPercentiles.Bucket(min + bucket * width,
+                    bucket == bucketCounts.length - 1 ? max : min + (bucket + 1) * width, bucketCounts[bucket]));
+        }
+
+        return new SalaryPercentiles(count, percentileOf(sorted, count, 0.50), percentileOf(sorted, count, 0.90),
+                percentileOf(sorted, count, 0.99), histogram);
+    }
+
+    //nearest rank: the smallest salary with at least ceil(q * count) persons at or below it;
+    private static double percentileOf(double[][] sorted, long count, double quantile) {
+
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long cumulative = 0;
+
+        for (double[] bin : sorted) {
+
+            cumulative += (long) bin[1];
+
+            if (cumulative >= rank) {
+
+                return bin[0];
+            }
+        }
+
+        return sorted[sorted.length - 1][0];
+    }
+
+    private SalaryRules salaryRules() {
+
+        return salaryRuleEngine == null ? SalaryRules.BUILT_IN : salaryRuleEngine.getRules();
+    }
+
+    private void add(PersonRecord person) {
+
+        totalsByJobId.computeIfAbsent(person.jobId(), key -> new JobTotals()).add(person.salaryIndex());
+    }
+
+    private void subtract(PersonRecord person) {
+
+        JobTotals totals = totalsByJobId.get(person.jobId());
+
+        if (totals != null) {
+
+            totals.subtract(person.salaryIndex());
+        }
+    }
+
+    //sums built incrementally and from scratch differ by rounding only, unless a write was missed;
+    private static boolean closeTo(PayrollTotals first, PayrollTotals second) {
+
+        return first.count() == second.count()
+                && Math.abs(first.salarySum() - second.salarySum()) <= 1e-6 * Math.max(1, Math.abs(first.salarySum()))
+                && Math.abs(first.salaryIndexSum() - second.salaryIndexSum()) <= 1e-9 * Math.max(1, first.count())
+                && first.minSalary() == second.minSalary()
+                && first.maxSalary() == second.maxSalary();
+    }
+
+    private static Job copyOf(Job job) {
+
+        return new Job(job.getId(), job.getName(), job.getDomain(), job.getBaseSalary());
+    }
+
+    private static final class JobTotals {
+
+        private long count;
+
+        private double salaryIndexSum;
+
+        private final SalaryIndexHistogram histogram = new SalaryIndexHistogram();
+
+        void add(double salaryIndex) {
+
+            count++;
+            salaryIndexSum += salaryIndex;
+            histogram.add(salaryIndex);
+        }
+
+        void subtract(double salaryIndex) {
+
+            if (!histogram.remove(salaryIndex)) {
+
+                return;
+            }
+
+            count--;
+            salaryIndexSum -= salaryIndex;
+
+            //an emptied job starts again from an exact zero, instead of a rounding leftover;
+            if (count == 0) {
+
+                salaryIndexSum = 0;
+            }
+        }
+
+        //salary rules only grow with the salary index, so the lowest and highest salary index give the min and max salary;
+        PayrollTotals toPayrollTotals(double baseSalary, SalaryRule salaryRule, boolean linear) {
+
+            double salarySum = linear ? salaryRule.salaryOf(salaryIndexSum, baseSalary) : bandedSalarySum(baseSalary, salaryRule);
+
+            return new PayrollTotals(count, salarySum, salaryIndexSum,
+                    salaryRule.salaryOf(histogram.min(), baseSalary), salaryRule.salaryOf(histogram.max(), baseSalary));
+        }
+
+        //indexed by WorkExperience ordinal; the histogram visits exact salary indexes, so each is in the tier its persons are in;
+        long[] tierCounts(TierRule tierRule) {
+
+            long[] tierCounts = new long[WorkExperience.values().length];
+            histogram.forEachBin((salaryIndex, binCount) -> tierCounts[tierRule.workExperienceOf(salaryIndex).ordinal()] += binCount);
+
+            return tierCounts;
+        }
+
+        //a banded salary is not linear in the salary index, so it is summed bin by bin;
+        private double bandedSalarySum(double baseSalary, SalaryRule salaryRule) {
+
+            double[] sum = new double[1];
+            histogram.forEachBin((salaryIndex, binCount) -> sum[0] += binCount * salaryRule.salaryOf(salaryIndex, baseSalary));
+
+            return sum[0];
+        }
+    }
+}
@@ -0,0 +1,475 @@
+package com.itfactory.storage;
+
+import com.itfactory.model.Job;
+import com.itfactory.model.PayrollImpact;
+import com.itfactory.model.PayrollSimulation;
+import com.itfactory.model.PersonRecord;
+import com.itfactory.model.SalaryScenario;
+import com.itfactory.rules.SalaryRule;
+import com.itfactory.rules.SalaryRuleEngine;
+import com.itfactory.rules.SalaryRules;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Compact in-memory columns of every person's job and salary index, for simulating salary scenarios (what-if) without writing anything;
+ * Persons are kept densely in fixed size chunks, which are also the partitions summed in parallel (fork/join);
+ * A simulation takes a copy-on-write view: the chunks are shared, not copied, and a write to a shared chunk copies that chunk first;
+ * Salaries follow the salary rules (SalaryRuleEngine) of each job's domain; without a salary band, a salary is linear in the salary index,
+ * so a partition only sums salary indexes per job, current and simulated; the salaries of banded jobs are summed person by person;
+ * Loaded at startup (StorageLoader), then kept up to date by PersonService and JobService on every successful write;
+ */
+
+@Component
+public class PayrollSimulator implements PersonChangeListener, JobChangeListener {
+
+    private static final int CHUNK_SIZE = 4096;
+
+    //chunks summed by one fork/join task, without splitting further;
+    private static final int CHUNKS_PER_TASK = 16;
+
+    private final List<Chunk> chunks = new ArrayList<>();
+
+    //the position of each person (chunk index * CHUNK_SIZE + offset in the chunk);
+    private final Map<Integer, Integer> slotByPersonId = new HashMap<>();
+
+    //jobs (copies) and a dense slot for each job id, so the sums are arrays indexed by job slot; slots are never reused;
+    private final Map<Integer, Job> jobs = new HashMap<>();
+
+    private final Map<Integer, Integer> jobSlotByJobId = new HashMap<>();
+
+    private final List<Integer> jobIdBySlot = new ArrayList<>();
+
+    //persons deleted before the load finished, so the load doesn't bring them back;
+    private final Set<Integer> deletedWhileLoading = new HashSet<>();
+
+    private boolean jobsLoaded;
+
+    private boolean personsLoaded;
+
+    private SalaryRuleEngine salaryRuleEngine;
+
+    //configured salary rules (per domain bonus and band); without them, the salary is salary index * base salary;
+    @Autowired
+    public synchronized void setSalaryRuleEngine(SalaryRuleEngine salaryRuleEngine) {
+
+        this.salaryRuleEngine = salaryRuleEngine;
+    }
+
+    @Override
+    public synchronized void jobsLoaded(Collection<Job> loadedJobs) {
+
+        loadedJobs.forEach(job -> jobs.putIfAbsent(job.getId(), copyOf(job)));
+        jobsLoaded = true;
+    }
+
+    @Override
+    public synchronized void jobInserted(Job job) {
+
+        jobs.put(job.getId(), copyOf(job));
+    }
+
+    @Override
+    public synchronized void jobUpdated(Job before, Job after) {
+
+        jobs.put(after.getId(), copyOf(after));
+    }
+
+    @Override
+    public synchronized void jobDeleted(Job job) {
+
+        jobs.remove(job.getId());
+    }
+
+    @Override
+    public synchronized void personsLoaded(Collection<PersonRecord> persons) {
+
+        for (PersonRecord person : persons) {
+
+            if (!slotByPersonId.containsKey(person.id()) && !deletedWhileLoading.contains(person.id())) {
+
+                put(person);
+            }
+        }
+
+        deletedWhileLoading.clear();
+        personsLoaded = true;
+    }
+
+    @Override
+    public synchronized void personInserted(PersonRecord person) {
+
+        put(person);
+    }
+
+    @Override
+    public synchronized void personUpdated(PersonRecord before, PersonRecord after) {
+
+        put(after);
+    }
+
+    @Override
+    public synchronized void personDeleted(PersonRecord person) {
+
+        remove(person.id());
+    }
+
+    public synchronized boolean isLoaded() {
+
+        return jobsLoaded && personsLoaded;
+    }
+
+    public synchronized int size() {
+
+        return slotByPersonId.size();
+    }
+
+    //current and simulated salary sums per job and domain; writes are not blocked while the partitions are summed;
+    public PayrollSimulation simulate(SalaryScenario scenario) {
+
+        View view;
+
+        synchronized (this) {
+
+            view = openView(scenario);
+        }
+
+        Sums sums = ForkJoinPool.commonPool().invoke(new SumTask(view, 0, view.chunks.length));
+
+        //overridden persons were summed with their current salary index; swapping in the override;
+        for (double[] correction : view.overrideCorrections) {
+
+            int jobSlot = (int) correction[0];
+            sums.simulatedIndexSums[jobSlot] += view.bound(correction[2]) - view.bound(correction[1]);
+
+            if (view.banded[jobSlot]) {
+
+                SalaryRule salaryRule = view.salaryRules[jobSlot];
+                sums.simulatedSalarySums[jobSlot] += salaryRule.salaryOf(view.bound(correction[2]), view.simulatedBaseSalaries[jobSlot])
+                        - salaryRule.salaryOf(view.bound(correction[1]), view.simulatedBaseSalaries[jobSlot]);
+            }
+        }
+
+        return toSimulation(view, sums);
+    }
+
+    private void put(PersonRecord person) {
+
+        Integer slot = slotByPersonId.get(person.id());
+        int jobSlot = jobSlotOf(person.jobId());
+
+        if (slot == null) {
+
+            if (chunks.isEmpty() || chunks.get(chunks.size() - 1).size == CHUNK_SIZE) {
+
+                chunks.add(new Chunk());
+            }
+
+            int chunkIndex = chunks.size() - 1;
+            Chunk chunk = writableChunk(chunkIndex);
+
+            slot = chunkIndex * CHUNK_SIZE + chunk.size;
+            chunk.size++;
+            slotByPersonId.put(person.id(), slot);
+        }
+
+        Chunk chunk = writableChunk(slot / CHUNK_SIZE);
+        int offset = slot % CHUNK_SIZE;
+
+        chunk.personIds[offset] = person.id();
+        chunk.jobSlots[offset] = jobSlot;
+        chunk.salaryIndexes[offset] = person.salaryIndex();
+    }
+
+    //moving the very last person into the freed slot, so the columns stay dense;
+    private void remove(int id) {
+
+        Integer slot = slotByPersonId.remove(id);
+
+        if (!personsLoaded) {
+
+            deletedWhileLoading.add(id);
+        }
+
+        if (slot == null) {
+
+            return;
+        }
+
+        int lastChunkIndex = chunks.size() - 1;
+        Chunk lastChunk = writableChunk(lastChunkIndex);
+        int lastOffset = lastChunk.size - 1;
+
+        if (slot != lastChunkIndex * CHUNK_SIZE + lastOffset) {
+
+            Chunk chunk = writableChunk(slot / CHUNK_SIZE);
+            int offset = slot % CHUNK_SIZE;
+
+            chunk.personIds[offset] = lastChunk.personIds[lastOffset];
+            chunk.jobSlots[offset] = lastChunk.jobSlots[lastOffset];
+            chunk.salaryIndexes[offset] = lastChunk.salaryIndexes[lastOffset];
+            slotByPersonId.put(chunk.personIds[offset], slot);
+        }
+
+        lastChunk.size--;
+
+        if (lastChunk.size == 0) {
+
+            chunks.remove(lastChunkIndex);
+        }
+    }
+
+    //a chunk seen by an open view is copied before its first write, and the copy replaces it;
+    private Chunk writableChunk(int chunkIndex) {
+
+        Chunk chunk = chunks.get(chunkIndex);
+
+        if (chunk.shared) {
+
+            chunk = chunk.copy();
+            chunks.set(chunkIndex, chunk);
+        }
+
+        return chunk;
+    }
+
+    private int jobSlotOf(int jobId) {
+
+        return jobSlotByJobId.computeIfAbsent(jobId, key -> {
+
+            jobIdBySlot.add(jobId);
+            return jobIdBySlot.size() - 1;
+        });
+    }
+
+    //capturing the chunks (marked as shared), their sizes, and the current and simulated base salary and salary rule of every job slot;
+    private View openView(SalaryScenario scenario) {
+
+        int jobSlots = jobIdBySlot.size();
+        SalaryRules rules = salaryRuleEngine == null ? SalaryRules.BUILT_IN : salaryRuleEngine.getRules();
+        View view = new View(chunks.toArray(new Chunk[0]), new int[chunks.size()], new int[jobSlots], new double[jobSlots],
+                new double[jobSlots], new String[jobSlots], new SalaryRule[jobSlots], new boolean[jobSlots],
+                scenario.salaryIndexCap(), scenario.salaryIndexFloor(), new ArrayList<>());
+
+        for (int chunkIndex = 0; chunkIndex < view.chunks.length; chunkIndex++) {
+
+            view.chunks[chunkIndex].shared = true;
+            view.sizes[chunkIndex] = view.chunks[chunkIndex].size;
+        }
+
+        Map<String, Double> domainRaisePercents = new HashMap<>();
+        scenario.domainRaisePercents().forEach((domain, percent) -> domainRaisePercents.put(domain.toLowerCase(Locale.ROOT), percent));
+
+        for (int jobSlot = 0; jobSlot < jobSlots; jobSlot++) {
+
+            view.jobIds[jobSlot] = jobIdBySlot.get(jobSlot);
+            Job job = jobs.get(view.jobIds[jobSlot]);
+
+            //persons of an unknown job have no salary, so they are left out;
+            if (job == null) {
+
+                view.currentBaseSalaries[jobSlot] = Double.NaN;
+                continue;
+            }
+
+            view.domains[jobSlot] = job.getDomain();
+            view.salaryRules[jobSlot] = rules.salaryRuleOf(job.getDomain());
+            view.banded[jobSlot] = !rules.isLinear(job.getDomain());
+            view.currentBaseSalaries[jobSlot] = job.getBaseSalary();
+            view.simulatedBaseSalaries[jobSlot] = job.getBaseSalary()
+                    * (1 + domainRaisePercents.getOrDefault(job.getDomain().toLowerCase(Locale.ROOT), 0.0) / 100)
+                    * (1 + scenario.jobRaisePercents().getOrDefault(job.getId(), 0.0) / 100);
+        }
+
+        scenario.salaryIndexOverrides().forEach((personId, salaryIndex) -> {
+
+            Integer slot = slotByPersonId.get(personId);
+
+            if (slot != null) {
+
+                Chunk chunk = chunks.get(slot / CHUNK_SIZE);
+                int offset = slot % CHUNK_SIZE;
+                view.overrideCorrections.add(new double[] {chunk.jobSlots[offset], chunk.salaryIndexes[offset], salaryIndex});
+            }
+        });
+
+        return view;
+    }
+
+    private static PayrollSimulation toSimulation(View view, Sums sums) {
+
+        SortedMap<Integer, PayrollImpact> byJobId = new TreeMap<>();
+        SortedMap<String, PayrollImpact> byDomain = new TreeMap<>();
+        PayrollImpact total = PayrollImpact.EMPTY;
+
+        for (int jobSlot = 0; jobSlot < sums.counts.length; jobSlot++) {
+
+            if (sums.counts[jobSlot] == 0 || Double.isNaN(view.currentBaseSalaries[jobSlot])) {
+
+                continue;
+            }
+
+            SalaryRule salaryRule = view.salaryRules[jobSlot];
+            PayrollImpact impact = view.banded[jobSlot]
+                    ? new PayrollImpact(sums.counts[jobSlot], sums.salarySums[jobSlot], sums.simulatedSalarySums[jobSlot])
+                    : new PayrollImpact(sums.counts[jobSlot], salaryRule.salaryOf(sums.indexSums[jobSlot], view.currentBaseSalaries[jobSlot]),
+                    salaryRule.salaryOf(sums.simulatedIndexSums[jobSlot], view.simulatedBaseSalaries[jobSlot]));
+
+            byJobId.put(view.jobIds[jobSlot], impact);
+            byDomain.merge(view.domains[jobSlot], impact, PayrollImpact::plus);
+            total = total.plus(impact);
+        }
+
+        return new PayrollSimulation(byJobId, byDomain, total);
+    }
+
+    private static Job copyOf(Job job) {
+
+        return new Job(job.getId(), job.getName(), job.getDomain(), job.getBaseSalary());
+    }
+
+    private static final class Chunk {
+
+        private final int[] personIds;
+
+        private final int[] jobSlots;
+
+        private final double[] salaryIndexes;
+
+        private int size;
+
+        //set (under the simulator monitor) once a view has seen the chunk; from then on, it is never written again;
+        private boolean shared;
+
+        Chunk() {
+
+            this(new int[CHUNK_SIZE], new int[CHUNK_SIZE], new double[CHUNK_SIZE], 0);
+        }
+
+        private Chunk(int[] personIds, int[] jobSlots, double[] salaryIndexes, int size) {
+
+            this.personIds = personIds;
+            this.jobSlots = jobSlots;
+            this.salaryIndexes = salaryIndexes;
+            this.size = size;
+        }
+
+        Chunk copy() {
+
+            return new Chunk(personIds.clone(), jobSlots.clone(), salaryIndexes.clone(), size);
+        }
+    }
+
+    //salaryRules and banded are unset for the slots of unknown jobs;
+    private record View(Chunk[] chunks, int[] sizes, int[] jobIds, double[] currentBaseSalaries, double[] simulatedBaseSalaries, String[] domains,
+                        SalaryRule[] salaryRules, boolean[] banded, Double salaryIndexCap, Double salaryIndexFloor,
+                        List<double[]> overrideCorrections) {
+
+        double bound(double salaryIndex) {
+
+            double bounded = salaryIndexCap == null ? salaryIndex : Math.min(salaryIndexCap, salaryIndex);
+
+            return salaryIndexFloor == null ? bounded : Math.max(salaryIndexFloor, bounded);
+        }
+    }
+
+    //per job slot: person count, current and simulated salary index sums, and current and simulated salary sums (banded jobs only);
+    private record Sums(long[] counts, double[] indexSums, double[] simulatedIndexSums, double[] salarySums, double[] simulatedSalarySums) {
+
+        Sums(int jobSlots) {
+
+            this(new long[jobSlots], new double[jobSlots], new double[jobSlots], new double[jobSlots], new double[jobSlots]);
+        }
+
+        Sums plus(Sums other) {
+
+            for (int jobSlot = 0; jobSlot < counts.length; jobSlot++) {
+
+                counts[jobSlot] += other.counts[jobSlot];
+                indexSums[jobSlot] += other.indexSums[jobSlot];
+                simulatedIndexSums[jobSlot] += other.simulatedIndexSums[jobSlot];
+                salarySums[jobSlot] += other.salarySums[jobSlot];
+                simulatedSalarySums[jobSlot] += other.simulatedSalarySums[jobSlot];
+            }
+
+            return this;
+        }
+    }
+
+    private static final class SumTask extends RecursiveTask<Sums> {
+
+        private static final long serialVersionUID = 1L;
+
+        //tasks are only forked within one fork/join pool, never serialized;
+        private final transient View view;
+
+        private final int fromChunk;
+
+        private final int toChunk;
+
+        SumTask(View view, int fromChunk, int toChunk) {
+
+            this.view = view;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+        }
+
+        @Override
+        protected Sums compute() {
+
+            if (toChunk - fromChunk > CHUNKS_PER_TASK) {
+
+                int middle = (fromChunk + toChunk) >>> 1;
+                SumTask left = new SumTask(view, fromChunk, middle);
+                left.fork();
+
+                Sums right = new SumTask(view, middle, toChunk).compute();
+
+                return right.plus(left.join());
+            }
+
+            Sums sums = new Sums(view.currentBaseSalaries.length);
+            double cap = view.salaryIndexCap == null ? Double.POSITIVE_INFINITY : view.salaryIndexCap;
+            double floor = view.salaryIndexFloor == null ? Double.NEGATIVE_INFINITY : view.salaryIndexFloor;
+
+            for (int chunkIndex = fromChunk; chunkIndex < toChunk; chunkIndex++) {
+
+                Chunk chunk = view.chunks[chunkIndex];
+
+                for (int offset = 0; offset < view.sizes[chunkIndex]; offset++) {
+
+                    int jobSlot = chunk.jobSlots[offset];
+                    double salaryIndex = chunk.salaryIndexes[offset];
+                    double simulatedSalaryIndex = Math.max(floor, Math.min(cap, salaryIndex));
+
+                    sums.counts[jobSlot]++;
+                    sums.indexSums[jobSlot] += salaryIndex;
+                    sums.simulatedIndexSums[jobSlot] += simulatedSalaryIndex;
+
+                    if (view.banded[jobSlot]) {
+
+                        SalaryRule salaryRule = view.salaryRules[jobSlot];
+                        sums.salarySums[jobSlot] += salaryRule.salaryOf(salaryIndex, view.currentBaseSalaries[jobSlot]);
+                        sums.simulatedSalarySums[jobSlot] += salaryRule.salaryOf(simulatedSalaryIndex, view.simulatedBaseSalaries[jobSlot]);
+                    }
+                }
+            }
+
+            return sums;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.itfactory.storage;
+
+import com.itfactory.model.PersonRecord;
+
+import java.util.Collection;
+
+/**
+ * Implemented by the in-memory structures kept in sync with the person database (store, indexes, filters);
+ * personsLoaded is called once at startup (by StorageLoader), the other methods by PersonService after each successful write;
+ * Persons are passed in as immutable records, one per person shared by every listener, so they are kept as they are (never copied);
+ */
+
+public interface PersonChangeListener {
+
+    void personsLoaded(Collection<PersonRecord> persons);
+
+    void personInserted(PersonRecord person);
+
+    void personUpdated(PersonRecord before, PersonRecord after);
+
+    void personDeleted(PersonRecord person);
+}
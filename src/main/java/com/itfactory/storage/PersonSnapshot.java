@@ -0,0 +1,128 @@
+package com.itfactory.storage;
+
+import com.itfactory.model.Person;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * A stable, read-only view of the person store, as of the moment it was opened;
+ * Writes committed after opening are not visible, and never wait for the snapshot to be closed;
+ * Must be closed (try-with-resources), so the versions it holds can be reclaimed;
+ */
+
+public class PersonSnapshot implements AutoCloseable {
+
+    private final VersionedPersonStore store;
+
+    private final long version;
+
+    private boolean closed;
+
+    PersonSnapshot(VersionedPersonStore store, long version) {
+
+        this.store = store;
+        this.version = version;
+    }
+
+    public long getVersion() {
+
+        return version;
+    }
+
+    public Person getPersonById(int id) {
+
+        AtomicReference<PersonVersion> chain = store.chain(id);
+
+        return chain == null ? null : personAt(chain.get());
+    }
+
+    //visiting every person visible in this snapshot, in ascending id order; persons handed out are copies;
+    public void forEach(Consumer<Person> action) {
+
+        for (Map.Entry<Integer, AtomicReference<PersonVersion>> entry : store.chains().entrySet()) {
+
+            Person person = personAt(entry.getValue().get());
+
+            if (person != null) {
+
+                action.accept(person);
+            }
+        }
+    }
+
+    public List<Person> getAllPersons() {
+
+        List<Person> persons = new ArrayList<>();
+        forEach(persons::add);
+
+        return persons;
+    }
+
+    //persons holding the given job, in ascending id order, starting after the given id (keyset paging);
+    //reading candidates from the job id index, so the cost follows the size of the page, not of the store;
+    public List<Person> getPersonsByJobId(int jobId, int afterId, int size) {
+
+        List<Person> persons = new ArrayList<>();
+
+        for (Integer personId : store.jobIdIndex().personIdsAfter(jobId, afterId)) {
+
+            if (persons.size() == size) {
+
+                break;
+            }
+
+            Person person = getPersonById(personId);
+
+            if (person != null && person.getJobId() == jobId) {
+
+                persons.add(person);
+            }
+        }
+
+        return persons;
+    }
+
+    //the person holding the given email (compared normalized), or null; looked up through the email index;
+    public Person getPersonByEmail(String email) {
+
+        String normalizedEmail = Person.normalizeEmail(email);
+
+        if (normalizedEmail == null) {
+
+            return null;
+        }
+
+        for (Integer personId : store.emailIndex().personIdsAfter(normalizedEmail, Integer.MIN_VALUE)) {
+
+            Person person = getPersonById(personId);
+
+            if (person != null && normalizedEmail.equals(Person.normalizeEmail(person.getEmail()))) {
+
+                return person;
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public void close() {
+
+        if (!closed) {
+
+            closed = true;
+            store.release(version);
+        }
+    }
+
+    private Person personAt(PersonVersion head) {
+
+        PersonVersion visible = PersonVersion.visibleAt(head, version, store.clock());
+
+        return visible == null || visible.person() == null ? null : visible.person().toPerson();
+    }
+}
@@ -0,0 +1,134 @@
+package com.itfactory.storage;
+
+import com.itfactory.model.PersonRecord;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * One version of a person record, linked to the older versions of the same record;
+ * A null person marks a deletion (tombstone);
+ * A version is installed as PENDING, and gets its version number right after, from the store clock;
+ * Whoever meets a pending version first (the writer, or a reader) assigns it, so nobody ever waits for a writer to finish;
+ * Chains are only ever replaced as a whole (by CAS), never modified in place;
+ */
+
+final class PersonVersion {
+
+    static final long PENDING = -1;
+
+    //marker placed on a chain that was removed from the store; writers seeing it retry on a fresh chain;
+    static final PersonVersion RETIRED = new PersonVersion(Long.MAX_VALUE, null, null);
+
+    private static final AtomicLongFieldUpdater<PersonVersion> VERSION =
+            AtomicLongFieldUpdater.newUpdater(PersonVersion.class, "version");
+
+    private volatile long version;
+
+    private final PersonRecord person;
+
+    private final PersonVersion older;
+
+    PersonVersion(long version, PersonRecord person, PersonVersion older) {
+
+        this.version = version;
+        this.person = person;
+        this.older = older;
+    }
+
+    PersonRecord person() {
+
+        return person;
+    }
+
+    PersonVersion older() {
+
+        return older;
+    }
+
+    //a version assigned by a reader is always newer than that reader's snapshot, so the reader (correctly) does not see it;
+    long resolveVersion(AtomicLong clock) {
+
+        long current = version;
+
+        if (current == PENDING) {
+
+            VERSION.compareAndSet(this, PENDING, clock.incrementAndGet());
+            current = version;
+        }
+
+        return current;
+    }
+
+    //a chain is not necessarily ordered by version (concurrent writers may install out of order), so we look for the highest visible one;
+    static PersonVersion visibleAt(PersonVersion head, long snapshotVersion, AtomicLong clock) {
+
+        PersonVersion visible = null;
+        long visibleVersion = 0;
+
+        for (PersonVersion current = head; current != null; current = current.older) {
+
+            long currentVersion = current.resolveVersion(clock);
+
+            if (currentVersion <= snapshotVersion && (visible == null || currentVersion > visibleVersion)) {
+
+                visible = current;
+                visibleVersion = currentVersion;
+            }
+        }
+
+        return visible;
+    }
+
+    /*keeping every version newer than the horizon, plus the newest version at or below it (the one the oldest reader sees);
+    returns the same chain if nothing can be dropped, or null if nothing but a tombstone would remain;
+    versions must be resolved before calling (see VersionedPersonStore.prune), so the copies keep the same numbers;*/
+    static PersonVersion prune(PersonVersion head, long horizon, AtomicLong clock) {
+
+        PersonVersion base = visibleAt(head, horizon, clock);
+        int length = 0;
+        int retained = 0;
+
+        for (PersonVersion current = head; current != null; current = current.older) {
+
+            length++;
+
+            if (current.version > horizon) {
+
+                retained++;
+            }
+        }
+
+        //a tombstone at the horizon hides nothing once every reader is past it, so it can go as well;
+        boolean keepBase = base != null && base.person != null;
+
+        if (retained == 0 && !keepBase) {
+
+            return null;
+        }
+
+        if (retained + (keepBase ? 1 : 0) == length) {
+
+            return head;
+        }
+
+        return copyRetained(head, horizon, keepBase ? base : null);
+    }
+
+    private static PersonVersion copyRetained(PersonVersion current, long horizon, PersonVersion base) {
+
+        if (current == null) {
+
+            return base == null ? null : new PersonVersion(base.version, base.person, null);
+        }
+
+        PersonVersion older = copyRetained(current.older, horizon, base);
+
+        if (current.version > horizon) {
+
+            return new PersonVersion(current.version, current.person, older);
+        }
+
+        return older;
+    }
+}
@@ -0,0 +1,272 @@
+package com.itfactory.storage;
+
+import com.itfactory.dao.SalaryHistoryDao;
+import com.itfactory.exceptions.DatabaseOperationException;
+import com.itfactory.model.Job;
+import com.itfactory.model.PersonRecord;
+import com.itfactory.model.SalaryChange;
+import com.itfactory.model.SalaryChangeRecord;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Append-only salary history: every salary index change (per person) and base salary change (per job), in time order;
+ * Changes are queued by the listener calls (after the database write) and recorded by a single appender thread, off the request:
+ * it writes them to salary_history in batches (SalaryHistoryDao), then appends them to in-memory, delta-encoded series (SalarySeries);
+ * The queue is bounded: when full, a write waits up to salary.history.offer-timeout-ms for room, then its change is dropped and logged;
+ * The series are loaded from salary_history when the appender starts (not with storage.memory.enabled=false); until then (or if that
+ * fails, or is disabled), reads go to the database, while changes are still written there;
+ * A change becomes readable once the appender recorded it, usually within milliseconds of the write;
+ */
+
+@Component
+public class SalaryHistoryStore implements PersonChangeListener, JobChangeListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SalaryHistoryStore.class);
+
+    //changes written to the database per batch (and transaction);
+    private static final int BATCH_SIZE = 500;
+
+    private static final long POLL_MILLIS = 200;
+
+    private final SalaryHistoryDao salaryHistoryDao;
+
+    private final BlockingQueue<SalaryChangeRecord> queue;
+
+    private final long offerTimeoutMillis;
+
+    private final boolean memoryEnabled;
+
+    private final Map<Integer, SalarySeries> seriesByPersonId = new ConcurrentHashMap<>();
+
+    private final Map<Integer, SalarySeries> seriesByJobId = new ConcurrentHashMap<>();
+
+    private final AtomicLong droppedChanges = new AtomicLong();
+
+    private volatile boolean loaded;
+
+    private volatile boolean running = true;
+
+    private Thread appender;
+
+    @Autowired
+    public SalaryHistoryStore(SalaryHistoryDao salaryHistoryDao,
+                              @Value("${salary.history.queue-capacity:10000}") int queueCapacity,
+                              @Value("${salary.history.offer-timeout-ms:100}") long offerTimeoutMillis,
+                              @Value("${storage.memory.enabled:true}") boolean memoryEnabled) {
+
+        this.salaryHistoryDao = salaryHistoryDao;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.memoryEnabled = memoryEnabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+
+        if (appender == null) {
+
+            appender = new Thread(this::runAppender, "salary-history-appender");
+            appender.setDaemon(true);
+            appender.start();
+        }
+    }
+
+    //the appender records whatever is still queued before it stops;
+    @PreDestroy
+    public void stop() throws InterruptedException {
+
+        running = false;
+        Thread thread;
+
+        synchronized (this) {
+
+            thread = appender;
+        }
+
+        if (thread != null) {
+
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    public boolean isLoaded() {
+
+        return loaded;
+    }
+
+    //changes of a person (PERSON) or job (JOB) within [from, to] (null for no bound), in time order;
+    public List<SalaryChange> getChanges(String entity, int entityId, LocalDateTime from, LocalDateTime to)
+            throws DatabaseOperationException {
+
+        if (!loaded) {
+
+            return salaryHistoryDao.getChanges(entity, entityId, from, to);
+        }
+
+        SalarySeries series = seriesOf(entity).get(entityId);
+
+        return series == null ? List.of() : series.range(from, to);
+    }
+
+    public int getPendingChanges() {
+
+        return queue.size();
+    }
+
+    public long getDroppedChanges() {
+
+        return droppedChanges.get();
+    }
+
+    //the history is loaded from its own table, by the appender;
+    @Override
+    public void personsLoaded(Collection<PersonRecord> persons) {
+    }
+
+    @Override
+    public void personInserted(PersonRecord person) {
+    }
+
+    @Override
+    public void personUpdated(PersonRecord before, PersonRecord after) {
+
+        if (before.salaryIndex() != after.salaryIndex()) {
+
+            enqueue(SalaryChangeRecord.PERSON, after.id(), before.salaryIndex(), after.salaryIndex());
+        }
+    }
+
+    //the history of a deleted person (or job) is kept;
+    @Override
+    public void personDeleted(PersonRecord person) {
+    }
+
+    @Override
+    public void jobsLoaded(Collection<Job> jobs) {
+    }
+
+    @Override
+    public void jobInserted(Job job) {
+    }
+
+    @Override
+    public void jobUpdated(Job before, Job after) {
+
+        if (before.getBaseSalary() != after.getBaseSalary()) {
+
+            enqueue(SalaryChangeRecord.JOB, after.getId(), before.getBaseSalary(), after.getBaseSalary());
+        }
+    }
+
+    @Override
+    public void jobDeleted(Job job) {
+    }
+
+    private void enqueue(String entity, int entityId, double before, double after) {
+
+        SalaryChangeRecord record = new SalaryChangeRecord(entity, entityId, new SalaryChange(LocalDateTime.now(), before, after));
+
+        try {
+            if (queue.offer(record, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+
+                return;
+            }
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+        }
+
+        droppedChanges.incrementAndGet();
+        LOGGER.error("Salary history queue full, dropped change of " + entity + " " + entityId + ": " + before + " -> " + after);
+    }
+
+    private void runAppender() {
+
+        if (memoryEnabled) {
+
+            load();
+        }
+
+        List<SalaryChangeRecord> batch = new ArrayList<>(BATCH_SIZE);
+
+        while (running || !queue.isEmpty()) {
+
+            try {
+                SalaryChangeRecord first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+
+                if (first == null) {
+
+                    continue;
+                }
+
+                batch.add(first);
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                record(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void load() {
+
+        try {
+            salaryHistoryDao.forEachChange(this::append);
+            loaded = true;
+            LOGGER.info("Loaded salary history: " + seriesByPersonId.size() + " persons, " + seriesByJobId.size() + " jobs;");
+        } catch (DatabaseOperationException e) {
+
+            LOGGER.error("Failed to load salary history into memory, reading from database instead", e);
+        }
+    }
+
+    //a batch that fails to persist is still readable here while the history is loaded, but is lost on restart;
+    private void record(List<SalaryChangeRecord> batch) {
+
+        try {
+            salaryHistoryDao.insertChanges(batch);
+        } catch (DatabaseOperationException | RuntimeException e) {
+
+            LOGGER.error("Failed to persist " + batch.size() + " salary changes", e);
+        }
+
+        if (loaded) {
+
+            batch.forEach(this::append);
+        }
+    }
+
+    private void append(SalaryChangeRecord record) {
+
+        seriesOf(record.entity()).computeIfAbsent(record.entityId(), id -> new SalarySeries()).append(record.change());
+    }
+
+    private Map<Integer, SalarySeries> seriesOf(String entity) {
+
+        return SalaryChangeRecord.PERSON.equals(entity) ? seriesByPersonId : seriesByJobId;
+    }
+}
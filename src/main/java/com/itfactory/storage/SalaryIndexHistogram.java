@@ -0,0 +1,177 @@
+package com.itfactory.storage;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Histogram of salary indexes, in fixed bins of 0.01 over the valid range (1 to 3);
+ * Every histogram has the same bins, so two histograms merge exactly by adding their counts (e.g. histograms built on different nodes);
+ * Unlike quantile sketches (t-digest, KLL), it also supports removals, which person updates and deletions need;
+ * Salary indexes with at most 2 decimals are counted in their bin; any other value (more decimals) is kept exactly, with its own count,
+ * so min/max, percentiles and tier counts are exact for every salary index (the same as classifying each person alone);
+ */
+
+public final class SalaryIndexHistogram {
+
+    public static final double MIN_SALARY_INDEX = 1.0;
+
+    public static final double MAX_SALARY_INDEX = 3.0;
+
+    private static final int BINS_PER_UNIT = 100;
+
+    private static final int BIN_COUNT = (int) ((MAX_SALARY_INDEX - MIN_SALARY_INDEX) * BINS_PER_UNIT) + 1;
+
+    private final long[] counts = new long[BIN_COUNT];
+
+    //salary indexes off the bins (more than 2 decimals, or out of the valid range), by value, few in practice;
+    private final TreeMap<Double, Long> offBinCounts = new TreeMap<>();
+
+    private long total;
+
+    public void add(double salaryIndex) {
+
+        int bin = binOf(salaryIndex);
+
+        if (bin < 0) {
+
+            offBinCounts.merge(salaryIndex, 1L, Long::sum);
+        } else {
+
+            counts[bin]++;
+        }
+
+        total++;
+    }
+
+    //returns false (and changes nothing) if no such salary index was counted;
+    public boolean remove(double salaryIndex) {
+
+        int bin = binOf(salaryIndex);
+
+        if (bin < 0) {
+
+            Long count = offBinCounts.get(salaryIndex);
+
+            if (count == null) {
+
+                return false;
+            }
+
+            if (count == 1) {
+
+                offBinCounts.remove(salaryIndex);
+            } else {
+
+                offBinCounts.put(salaryIndex, count - 1);
+            }
+        } else {
+
+            if (counts[bin] == 0) {
+
+                return false;
+            }
+
+            counts[bin]--;
+        }
+
+        total--;
+
+        return true;
+    }
+
+    public void merge(SalaryIndexHistogram other) {
+
+        for (int bin = 0; bin < BIN_COUNT; bin++) {
+
+            counts[bin] += other.counts[bin];
+        }
+
+        other.offBinCounts.forEach((salaryIndex, count) -> offBinCounts.merge(salaryIndex, count, Long::sum));
+        total += other.total;
+    }
+
+    public long total() {
+
+        return total;
+    }
+
+    public double min() {
+
+        double min = offBinCounts.isEmpty() ? Double.MAX_VALUE : offBinCounts.firstKey();
+
+        for (int bin = 0; bin < BIN_COUNT; bin++) {
+
+            if (counts[bin] > 0) {
+
+                return Math.min(min, valueOf(bin));
+            }
+        }
+
+        return offBinCounts.isEmpty() ? 0 : min;
+    }
+
+    public double max() {
+
+        double max = offBinCounts.isEmpty() ? -Double.MAX_VALUE : offBinCounts.lastKey();
+
+        for (int bin = BIN_COUNT - 1; bin >= 0; bin--) {
+
+            if (counts[bin] > 0) {
+
+                return Math.max(max, valueOf(bin));
+            }
+        }
+
+        return offBinCounts.isEmpty() ? 0 : max;
+    }
+
+    //visiting each non-empty bin, and each salary index kept off the bins, in ascending order of salary index;
+    public void forEachBin(BinConsumer action) {
+
+        Iterator<Map.Entry<Double, Long>> offBin = offBinCounts.entrySet().iterator();
+        Map.Entry<Double, Long> nextOffBin = offBin.hasNext() ? offBin.next() : null;
+
+        for (int bin = 0; bin < BIN_COUNT; bin++) {
+
+            if (counts[bin] > 0) {
+
+                while (nextOffBin != null && nextOffBin.getKey() < valueOf(bin)) {
+
+                    action.accept(nextOffBin.getKey(), nextOffBin.getValue());
+                    nextOffBin = offBin.hasNext() ? offBin.next() : null;
+                }
+
+                action.accept(valueOf(bin), counts[bin]);
+            }
+        }
+
+        while (nextOffBin != null) {
+
+            action.accept(nextOffBin.getKey(), nextOffBin.getValue());
+            nextOffBin = offBin.hasNext() ? offBin.next() : null;
+        }
+    }
+
+    /*the bin of a salary index with at most 2 decimals, in the valid range (-1 for any other value); rounding to the nearest bin
+    (not flooring), so 2.3 - stored as 2.2999999... - still lands in the 2.30 bin, but 2.304 doesn't;*/
+    private static int binOf(double salaryIndex) {
+
+        double scaled = (salaryIndex - MIN_SALARY_INDEX) * BINS_PER_UNIT;
+        long bin = Math.round(scaled);
+
+        return bin >= 0 && bin < BIN_COUNT && Math.abs(scaled - bin) <= 1e-9 ? (int) bin : -1;
+    }
+
+    //the exact quotient of two integers, so the value equals the parsed 2 decimals salary index (2.3, not 2.3000000000000003);
+    private static double valueOf(int bin) {
+
+        return (MIN_SALARY_INDEX * BINS_PER_UNIT + bin) / BINS_PER_UNIT;
+    }
+
+    @FunctionalInterface
+    public interface BinConsumer {
+
+        void accept(double salaryIndex, long count);
+    }
+}
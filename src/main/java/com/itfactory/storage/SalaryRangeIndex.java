@@ -0,0 +1,440 @@
+package com.itfactory.storage;
+
+import com.itfactory.model.Job;
+import com.itfactory.model.Person;
+import com.itfactory.model.PersonRecord;
+import com.itfactory.model.PersonSalary;
+import com.itfactory.rules.SalaryRuleEngine;
+import com.itfactory.rules.SalaryRules;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Sorted in-memory indexes on the salary index of each person, and on its computed salary (the salary rule of the job's domain);
+ * Range queries walk the matching part of a skip list, instead of joining and scanning every person;
+ * The computed salary index doubles as a maintained top-N: the highest earners are the first entries of its descending view;
+ * Updated incrementally: a salary index update moves one entry, a base salary update moves the entries of that job's persons only;
+ * Readers don't lock, and may briefly see a person under both its old and new value (results are re-checked against the current value);
+ * Reloaded salary rules (SalaryRuleEngine) re-key every computed salary once, on the first salary query after the reload;
+ * Loaded at startup (StorageLoader), then kept up to date by PersonService and JobService on every successful write;
+ */
+
+@Component
+public class SalaryRangeIndex implements PersonChangeListener, JobChangeListener {
+
+    private static final Comparator<Entry> ENTRY_ORDER = Comparator.comparingDouble(Entry::value).thenComparingInt(Entry::personId);
+
+    private final NavigableSet<Entry> bySalaryIndex = new ConcurrentSkipListSet<>(ENTRY_ORDER);
+
+    //replaced as a whole (under the index monitor) when the salary rules change;
+    private volatile NavigableSet<Entry> bySalary = new ConcurrentSkipListSet<>(ENTRY_ORDER);
+
+    //the same computed salary entries, split by (lower-case) job domain, so a domain's top earners don't need a filtered scan;
+    private volatile Map<String, NavigableSet<Entry>> bySalaryByDomain = new ConcurrentHashMap<>();
+
+    //the indexed persons (copies), the base salary and domain of each job, and the ids of the persons holding each job;
+    private final Map<Integer, PersonRecord> persons = new ConcurrentHashMap<>();
+
+    private final Map<Integer, Double> baseSalaries = new ConcurrentHashMap<>();
+
+    private final Map<Integer, String> domains = new ConcurrentHashMap<>();
+
+    private final Map<Integer, Set<Integer>> personIdsByJobId = new ConcurrentHashMap<>();
+
+    //persons deleted before the load finished, so the load doesn't bring them back; guarded by the index monitor;
+    private final Set<Integer> deletedWhileLoading = new HashSet<>();
+
+    private volatile boolean jobsLoaded;
+
+    private volatile boolean personsLoaded;
+
+    private SalaryRuleEngine salaryRuleEngine;
+
+    //the rules the computed salaries are keyed by;
+    private volatile SalaryRules rules = SalaryRules.BUILT_IN;
+
+    //configured salary rules (per domain bonus and band); without them, the salary is salary index * base salary;
+    @Autowired
+    public synchronized void setSalaryRuleEngine(SalaryRuleEngine salaryRuleEngine) {
+
+        this.salaryRuleEngine = salaryRuleEngine;
+        reindexSalaries(salaryRuleEngine.getRules());
+    }
+
+    @Override
+    public synchronized void jobsLoaded(Collection<Job> jobs) {
+
+        //jobs written before the load stay as they are; persons already indexed get their computed salary;
+        for (Job job : jobs) {
+
+            if (!baseSalaries.containsKey(job.getId())) {
+
+                putJob(job);
+            }
+        }
+
+        jobsLoaded = true;
+    }
+
+    @Override
+    public void jobInserted(Job job) {
+
+        putJob(job);
+    }
+
+    @Override
+    public void jobUpdated(Job before, Job after) {
+
+        putJob(after);
+    }
+
+    @Override
+    public synchronized void jobDeleted(Job job) {
+
+        Double baseSalary = baseSalaries.get(job.getId());
+        String domain = domains.get(job.getId());
+
+        for (Integer personId : personIdsByJobId.getOrDefault(job.getId(), Set.of())) {
+
+            PersonRecord person = persons.get(personId);
+
+            if (person != null && baseSalary != null) {
+
+                removeSalary(new Entry(salaryOf(person, baseSalary, domain), personId), job.getId());
+            }
+        }
+
+        baseSalaries.remove(job.getId());
+        domains.remove(job.getId());
+    }
+
+    @Override
+    public synchronized void personsLoaded(Collection<PersonRecord> loadedPersons) {
+
+        for (PersonRecord person : loadedPersons) {
+
+            if (!persons.containsKey(person.id()) && !deletedWhileLoading.contains(person.id())) {
+
+                put(person);
+            }
+        }
+
+        deletedWhileLoading.clear();
+        personsLoaded = true;
+    }
+
+    @Override
+    public void personInserted(PersonRecord person) {
+
+        put(person);
+    }
+
+    @Override
+    public void personUpdated(PersonRecord before, PersonRecord after) {
+
+        put(after);
+    }
+
+    @Override
+    public void personDeleted(PersonRecord person) {
+
+        remove(person.id());
+    }
+
+    //computed salaries need both tables; until both are loaded, range queries go to the database;
+    public boolean isLoaded() {
+
+        return jobsLoaded && personsLoaded;
+    }
+
+    //adding the new entries before removing the old ones, so a concurrent range query never misses the person;
+    public synchronized void put(PersonRecord person) {
+
+        PersonRecord previous = persons.put(person.id(), person);
+
+        bySalaryIndex.add(new Entry(person.salaryIndex(), person.id()));
+        personIdsByJobId.computeIfAbsent(person.jobId(), key -> ConcurrentHashMap.newKeySet()).add(person.id());
+
+        Double baseSalary = baseSalaries.get(person.jobId());
+
+        if (baseSalary != null) {
+
+            addSalary(new Entry(salaryOf(person, baseSalary, domains.get(person.jobId())), person.id()), person.jobId());
+        }
+
+        if (previous != null) {
+
+            unindex(previous, person);
+        }
+    }
+
+    public synchronized void remove(int id) {
+
+        PersonRecord previous = persons.remove(id);
+
+        if (!personsLoaded) {
+
+            deletedWhileLoading.add(id);
+        }
+
+        if (previous != null) {
+
+            unindex(previous, null);
+        }
+    }
+
+    //persons with a salary index between min and max (inclusive), ordered by salary index, then id;
+    public List<Person> getPersonsBySalaryIndex(double min, double max, int size) {
+
+        List<Person> matches = new ArrayList<>();
+
+        for (Entry entry : range(bySalaryIndex, min, max)) {
+
+            if (matches.size() == size) {
+
+                break;
+            }
+
+            PersonRecord person = persons.get(entry.personId());
+
+            if (person != null && person.salaryIndex() == entry.value()) {
+
+                matches.add(person.toPerson());
+            }
+        }
+
+        return matches;
+    }
+
+    //persons with a computed salary between min and max (inclusive), ordered by salary, then id;
+    public List<PersonSalary> getPersonsBySalary(double min, double max, int size) {
+
+        checkRules();
+        List<PersonSalary> matches = new ArrayList<>();
+
+        for (Entry entry : range(bySalary, min, max)) {
+
+            if (matches.size() == size) {
+
+                break;
+            }
+
+            PersonRecord person = persons.get(entry.personId());
+            Double baseSalary = person == null ? null : baseSalaries.get(person.jobId());
+
+            if (baseSalary != null && salaryOf(person, baseSalary, domains.get(person.jobId())) == entry.value()) {
+
+                matches.add(new PersonSalary(person.toPerson(), entry.value()));
+            }
+        }
+
+        return matches;
+    }
+
+    //the highest computed salaries (of a domain, or of everyone), highest first;
+    public List<PersonSalary> getTopPersonsBySalary(int size, String domain) {
+
+        checkRules();
+        NavigableSet<Entry> index = domain == null ? bySalary : bySalaryByDomain.get(domain.toLowerCase(Locale.ROOT));
+        List<PersonSalary> matches = new ArrayList<>();
+
+        if (index == null) {
+
+            return matches;
+        }
+
+        for (Entry entry : index.descendingSet()) {
+
+            if (matches.size() == size) {
+
+                break;
+            }
+
+            PersonRecord person = persons.get(entry.personId());
+            Double baseSalary = person == null ? null : baseSalaries.get(person.jobId());
+
+            if (baseSalary != null && salaryOf(person, baseSalary, domains.get(person.jobId())) == entry.value()) {
+
+                matches.add(new PersonSalary(person.toPerson(), entry.value()));
+            }
+        }
+
+        return matches;
+    }
+
+    //re-keying the computed salaries of every person holding the job (only those, through the job's person ids);
+    private synchronized void putJob(Job job) {
+
+        String domain = job.getDomain().toLowerCase(Locale.ROOT);
+        Double previousBaseSalary = baseSalaries.put(job.getId(), job.getBaseSalary());
+        String previousDomain = domains.put(job.getId(), domain);
+
+        for (Integer personId : personIdsByJobId.getOrDefault(job.getId(), Set.of())) {
+
+            PersonRecord person = persons.get(personId);
+
+            if (person == null || person.jobId() != job.getId()) {
+
+                continue;
+            }
+
+            Entry entry = new Entry(salaryOf(person, job.getBaseSalary(), domain), personId);
+            addSalary(entry, job.getId());
+
+            if (previousBaseSalary == null) {
+
+                continue;
+            }
+
+            //the previous entry was keyed by the previous base salary and the rule of the previous domain;
+            Entry previousEntry = new Entry(salaryOf(person, previousBaseSalary, previousDomain), personId);
+
+            if (previousEntry.value() != entry.value()) {
+
+                bySalary.remove(previousEntry);
+            }
+
+            if (previousEntry.value() != entry.value() || !domain.equals(previousDomain)) {
+
+                removeFromDomain(previousEntry, previousDomain);
+            }
+        }
+    }
+
+    private void checkRules() {
+
+        SalaryRuleEngine engine = salaryRuleEngine;
+
+        if (engine != null && engine.getRules() != rules) {
+
+            reindexSalaries(engine.getRules());
+        }
+    }
+
+    //computing every salary again into new indexes, swapped in whole, so readers see either the previous or the new salaries;
+    private synchronized void reindexSalaries(SalaryRules currentRules) {
+
+        if (currentRules == rules) {
+
+            return;
+        }
+
+        NavigableSet<Entry> salaries = new ConcurrentSkipListSet<>(ENTRY_ORDER);
+        Map<String, NavigableSet<Entry>> salariesByDomain = new ConcurrentHashMap<>();
+
+        rules = currentRules;
+
+        for (PersonRecord person : persons.values()) {
+
+            Double baseSalary = baseSalaries.get(person.jobId());
+            String domain = domains.get(person.jobId());
+
+            if (baseSalary != null) {
+
+                Entry entry = new Entry(salaryOf(person, baseSalary, domain), person.id());
+                salaries.add(entry);
+                salariesByDomain.computeIfAbsent(domain, key -> new ConcurrentSkipListSet<>(ENTRY_ORDER)).add(entry);
+            }
+        }
+
+        bySalary = salaries;
+        bySalaryByDomain = salariesByDomain;
+    }
+
+    //removing the entries of the previous version of a person that the current one (null if deleted) doesn't share;
+    private void unindex(PersonRecord previous, PersonRecord current) {
+
+        if (current == null || current.salaryIndex() != previous.salaryIndex()) {
+
+            bySalaryIndex.remove(new Entry(previous.salaryIndex(), previous.id()));
+        }
+
+        if (current == null || current.jobId() != previous.jobId()) {
+
+            Set<Integer> personIds = personIdsByJobId.get(previous.jobId());
+
+            if (personIds != null) {
+
+                personIds.remove(previous.id());
+            }
+        }
+
+        Double previousBaseSalary = baseSalaries.get(previous.jobId());
+        Double currentBaseSalary = current == null ? null : baseSalaries.get(current.jobId());
+
+        if (previousBaseSalary == null) {
+
+            return;
+        }
+
+        String previousDomain = domains.get(previous.jobId());
+        Entry previousEntry = new Entry(salaryOf(previous, previousBaseSalary, previousDomain), previous.id());
+        boolean sameSalary = currentBaseSalary != null
+                && previousEntry.value() == salaryOf(current, currentBaseSalary, domains.get(current.jobId()));
+
+        if (!sameSalary) {
+
+            bySalary.remove(previousEntry);
+        }
+
+        if (previousDomain != null && (!sameSalary || !previousDomain.equals(domains.get(current.jobId())))) {
+
+            removeFromDomain(previousEntry, previousDomain);
+        }
+    }
+
+    private void addSalary(Entry entry, int jobId) {
+
+        bySalary.add(entry);
+
+        String domain = domains.get(jobId);
+
+        if (domain != null) {
+
+            bySalaryByDomain.computeIfAbsent(domain, key -> new ConcurrentSkipListSet<>(ENTRY_ORDER)).add(entry);
+        }
+    }
+
+    private void removeSalary(Entry entry, int jobId) {
+
+        bySalary.remove(entry);
+
+        removeFromDomain(entry, domains.get(jobId));
+    }
+
+    private void removeFromDomain(Entry entry, String domain) {
+
+        NavigableSet<Entry> index = domain == null ? null : bySalaryByDomain.get(domain);
+
+        if (index != null) {
+
+            index.remove(entry);
+        }
+    }
+
+    private static NavigableSet<Entry> range(NavigableSet<Entry> index, double min, double max) {
+
+        return index.subSet(new Entry(min, Integer.MIN_VALUE), true, new Entry(max, Integer.MAX_VALUE), true);
+    }
+
+    private double salaryOf(PersonRecord person, double baseSalary, String domain) {
+
+        return rules.salaryRuleOf(domain).salaryOf(person.salaryIndex(), baseSalary);
+    }
+
+    private record Entry(double value, int personId) {
+    }
+}
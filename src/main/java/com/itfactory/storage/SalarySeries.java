@@ -0,0 +1,157 @@
+package com.itfactory.storage;
+
+import com.itfactory.model.SalaryChange;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Append-only series of the changes of one value (a person's salary index, or a job's base salary), delta-encoded in a byte array;
+ * Each change is written as the milliseconds since the previous change (a varint), then its before and after values, each as the XOR
+ * of its bits with the value written just before it (before with the previous after, after with before), shifted right past its
+ * trailing zeros (a count byte, then a varint): an unchanged before takes one byte, and close values share their sign and exponent;
+ * A change typically takes 6 to 12 bytes, instead of 24 (plus object headers) for a SalaryChange;
+ * Times never go backwards: a change older than the previous one is recorded at the previous one's time;
+ */
+
+public final class SalarySeries {
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private byte[] bytes = new byte[32];
+
+    private int length;
+
+    private int size;
+
+    private long lastMillis;
+
+    private long lastBits;
+
+    public synchronized void append(SalaryChange change) {
+
+        long millis = Math.max(lastMillis, toMillis(change.changedAt()));
+        long beforeBits = Double.doubleToLongBits(change.before());
+        long afterBits = Double.doubleToLongBits(change.after());
+
+        //at most 10 bytes per varint, plus 2 count bytes;
+        ensureCapacity(32);
+        writeVarLong(size == 0 ? millis : millis - lastMillis);
+        writeXor(beforeBits ^ lastBits);
+        writeXor(afterBits ^ beforeBits);
+
+        lastMillis = millis;
+        lastBits = afterBits;
+        size++;
+    }
+
+    public synchronized int size() {
+
+        return size;
+    }
+
+    //bytes used by the encoded changes;
+    public synchronized int encodedLength() {
+
+        return length;
+    }
+
+    //the changes made within [from, to] (null for no bound), in time order; decoding stops at the first change after to;
+    public synchronized List<SalaryChange> range(LocalDateTime from, LocalDateTime to) {
+
+        long fromMillis = from == null ? Long.MIN_VALUE : toMillis(from);
+        long toMillis = to == null ? Long.MAX_VALUE : toMillis(to);
+        List<SalaryChange> changes = new ArrayList<>();
+        int[] position = {0};
+        long millis = 0;
+        long bits = 0;
+
+        for (int i = 0; i < size; i++) {
+
+            millis = i == 0 ? readVarLong(position) : millis + readVarLong(position);
+
+            if (millis > toMillis) {
+
+                break;
+            }
+
+            long beforeBits = bits ^ readXor(position);
+            bits = beforeBits ^ readXor(position);
+
+            if (millis >= fromMillis) {
+
+                changes.add(new SalaryChange(toDateTime(millis), Double.longBitsToDouble(beforeBits), Double.longBitsToDouble(bits)));
+            }
+        }
+
+        return changes;
+    }
+
+    private void writeXor(long xor) {
+
+        //a zero XOR is its count byte only (64 trailing zeros);
+        int trailingZeros = Long.numberOfTrailingZeros(xor);
+        bytes[length++] = (byte) trailingZeros;
+
+        if (xor != 0) {
+
+            writeVarLong(xor >>> trailingZeros);
+        }
+    }
+
+    private long readXor(int[] position) {
+
+        int trailingZeros = bytes[position[0]++];
+
+        return trailingZeros == 64 ? 0 : readVarLong(position) << trailingZeros;
+    }
+
+    private void writeVarLong(long value) {
+
+        while ((value & ~0x7FL) != 0) {
+
+            bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        bytes[length++] = (byte) value;
+    }
+
+    private long readVarLong(int[] position) {
+
+        long value = 0;
+
+        for (int shift = 0; ; shift += 7) {
+
+            byte b = bytes[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+
+            if (b >= 0) {
+
+                return value;
+            }
+        }
+    }
+
+    private void ensureCapacity(int extra) {
+
+        if (length + extra > bytes.length) {
+
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+        }
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+
+        return dateTime.atZone(ZONE).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZONE);
+    }
+}
@@ -0,0 +1,11 @@
+package com.itfactory.storage;
+
+import com.itfactory.model.Person;
+
+/**
+ * One result of a name search: the person, the number of query trigrams its name shares, and its similarity score (0 to 1);
+ * Results coming from the database fallback (no trigram index loaded) have no trigram count or score (0);
+ */
+
+public record SearchMatch(Person person, int matchedTrigrams, double score) {
+}
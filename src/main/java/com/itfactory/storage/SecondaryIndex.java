@@ -0,0 +1,61 @@
+package com.itfactory.storage;
+
+import com.itfactory.model.PersonRecord;
+
+import java.util.Collections;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+
+/**
+ * Secondary index of the person store: key (job id, normalized email etc.) -> sorted set of person ids;
+ * Maintained incrementally on every store write (insert, delete, key change);
+ * The index may briefly list an id under a key it no longer holds (concurrent writes), never the other way round;
+ * Readers therefore re-check each candidate against their snapshot;
+ */
+
+class SecondaryIndex<K> {
+
+    private final Function<PersonRecord, K> keyExtractor;
+
+    private final ConcurrentHashMap<K, ConcurrentSkipListSet<Integer>> personIdsByKey = new ConcurrentHashMap<>();
+
+    SecondaryIndex(Function<PersonRecord, K> keyExtractor) {
+
+        this.keyExtractor = keyExtractor;
+    }
+
+    K keyOf(PersonRecord person) {
+
+        return keyExtractor.apply(person);
+    }
+
+    void add(PersonRecord person) {
+
+        K key = keyOf(person);
+
+        if (key != null) {
+
+            personIdsByKey.computeIfAbsent(key, k -> new ConcurrentSkipListSet<>()).add(person.id());
+        }
+    }
+
+    void remove(K key, int personId) {
+
+        NavigableSet<Integer> personIds = personIdsByKey.get(key);
+
+        if (personIds != null) {
+
+            personIds.remove(personId);
+        }
+    }
+
+    //candidate person ids for the given key, in ascending order, strictly after the given id;
+    NavigableSet<Integer> personIdsAfter(K key, int afterId) {
+
+        NavigableSet<Integer> personIds = personIdsByKey.get(key);
+
+        return personIds == null ? Collections.emptyNavigableSet() : personIds.tailSet(afterId, false);
+    }
+}
@@ -0,0 +1,84 @@
+package com.itfactory.storage;
+
+import com.itfactory.dao.JobDao;
+import com.itfactory.dao.PersonDao;
+import com.itfactory.exceptions.DatabaseOperationException;
+import com.itfactory.model.Job;
+import com.itfactory.model.PersonRecord;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Loading the job and person databases once the application is up, and handing them to every Job/PersonChangeListener;
+ * A single read of each table feeds all in-memory structures, instead of one full read each;
+ * Jobs are loaded first, so structures depending on both (computed salaries) have the jobs when the persons come in;
+ * On failure, the structures stay unloaded, and reads keep going to the database;
+ * With storage.memory.enabled=false (as in the tests, against mocked DAOs), nothing is loaded, and every read goes to the database;
+ */
+
+@Component
+@ConditionalOnProperty(name = "storage.memory.enabled", havingValue = "true", matchIfMissing = true)
+public class StorageLoader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StorageLoader.class);
+
+    private final PersonDao personDao;
+
+    private final JobDao jobDao;
+
+    private final List<PersonChangeListener> personListeners;
+
+    private final List<JobChangeListener> jobListeners;
+
+    @Autowired
+    public StorageLoader(PersonDao personDao, JobDao jobDao,
+                         List<PersonChangeListener> personListeners, List<JobChangeListener> jobListeners) {
+
+        this.personDao = personDao;
+        this.jobDao = jobDao;
+        this.personListeners = personListeners;
+        this.jobListeners = jobListeners;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadFromDatabase() {
+
+        try {
+            List<Job> jobs = jobDao.getAllJobs();
+
+            for (JobChangeListener listener : jobListeners) {
+
+                listener.jobsLoaded(jobs);
+                LOGGER.info("Loaded " + jobs.size() + " jobs into " + listener.getClass().getSimpleName() + ";");
+            }
+        } catch (DatabaseOperationException e) {
+
+            LOGGER.error("Failed to load job database into memory, reading from database instead", e);
+        }
+
+        List<PersonRecord> persons;
+
+        try {
+            persons = personDao.getAllPersonRecords();
+        } catch (DatabaseOperationException e) {
+
+            LOGGER.error("Failed to load person database into memory, reading from database instead", e);
+            return;
+        }
+
+        for (PersonChangeListener listener : personListeners) {
+
+            listener.personsLoaded(persons);
+            LOGGER.info("Loaded " + persons.size() + " persons into " + listener.getClass().getSimpleName() + ";");
+        }
+    }
+}
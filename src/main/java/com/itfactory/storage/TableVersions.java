@@ -0,0 +1,102 @@
+package com.itfactory.storage;
+
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory write versions of the person and job tables, for strong ETags (conditional GETs answered without the database):
+ * a version per table, bumped by every write, and the version of each row written since startup (unwritten rows are at 0);
+ * Bumped by PersonService and JobService after each successful write, once its listeners were notified: a version read before
+ * rendering a body (or reading a row) then never tags content older than it;
+ * Versions start over on every startup, so tags also carry the startup time: a tag from before a restart never matches;
+ * Row versions are bounded per table: past the bound they are all dropped, and the rows not written since share the table version
+ * of that moment, which is never below a dropped version (so a row written since its tag was issued never matches it);
+ */
+
+@Component
+public class TableVersions {
+
+    public static final String PERSON = "person";
+
+    public static final String JOB = "job";
+
+    private static final int MAX_ROW_VERSIONS = 100_000;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Map<String, Versions> versionsByTable;
+
+    public TableVersions() {
+
+        this(MAX_ROW_VERSIONS);
+    }
+
+    TableVersions(int maxRowVersions) {
+
+        this.versionsByTable = Map.of(PERSON, new Versions(maxRowVersions), JOB, new Versions(maxRowVersions));
+    }
+
+    public void rowWritten(String table, int id) {
+
+        versionsByTable.get(table).rowWritten(id);
+    }
+
+    public long tableVersion(String table) {
+
+        return versionsByTable.get(table).table.get();
+    }
+
+    public long rowVersion(String table, int id) {
+
+        return versionsByTable.get(table).rowVersion(id);
+    }
+
+    //a strong ETag of a resource at a version, in one of its representations (e.g. its format, or content encoding);
+    public String eTag(String resource, long version, String representation) {
+
+        return "\"" + resource + "-" + epoch + "-" + version + "-" + representation + "\"";
+    }
+
+    //the ETag of one row (e.g. person/7), at its current version;
+    public String rowETag(String table, int id, String representation) {
+
+        return eTag(table + "/" + id, rowVersion(table, id), representation);
+    }
+
+    private static final class Versions {
+
+        private final AtomicLong table = new AtomicLong();
+
+        private final int maxRows;
+
+        //guarded by the Versions monitor, so a row is never seen between being dropped and the dropped version being raised;
+        private final Map<Integer, Long> rows = new HashMap<>();
+
+        private long droppedVersion;
+
+        Versions(int maxRows) {
+
+            this.maxRows = maxRows;
+        }
+
+        synchronized void rowWritten(int id) {
+
+            if (rows.size() >= maxRows && !rows.containsKey(id)) {
+
+                droppedVersion = table.get();
+                rows.clear();
+            }
+
+            rows.put(id, table.incrementAndGet());
+        }
+
+        //rows never written (or dropped) since startup are at 0 (or at the dropped version);
+        synchronized long rowVersion(int id) {
+
+            return rows.getOrDefault(id, droppedVersion);
+        }
+    }
+}
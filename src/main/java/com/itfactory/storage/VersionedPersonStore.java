@@ -0,0 +1,361 @@
+package com.itfactory.storage;
+
+import com.itfactory.model.Person;
+import com.itfactory.model.PersonRecord;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * VersionedPersonStore keeps an in-memory, multi-version (MVCC) copy of the person database;
+ * Loaded at startup (StorageLoader), then kept up to date by PersonService on every successful write;
+ * Writes install a new version with a single CAS per record, then take their version number - no locks, no waiting on anyone;
+ * Long scans read through a PersonSnapshot, seeing the newest version at or below the snapshot version;
+ * Versions that no open snapshot can see anymore are pruned on write, and when the oldest snapshot is closed;
+ * Secondary indexes (job id, normalized email) are kept alongside, so lookups by them don't scan the store;
+ */
+
+@Component
+public class VersionedPersonStore implements PersonChangeListener {
+
+    @Value("${storage.memory.enabled:true}")
+    private boolean enabled = true;
+
+    //version chains for each person, kept sorted by id (so scans come out in the same order as the database);
+    private final ConcurrentSkipListMap<Integer, AtomicReference<PersonVersion>> records = new ConcurrentSkipListMap<>();
+
+    //the store clock, handing out version numbers; a snapshot sees every version numbered at or below the clock when opened;
+    private final AtomicLong clock = new AtomicLong();
+
+    //versions held by open snapshots, with the number of snapshots holding each; guarded by its own monitor;
+    private final TreeMap<Long, Integer> openSnapshots = new TreeMap<>();
+
+    //secondary indexes, covering every version still held in the chains;
+    private final SecondaryIndex<Integer> jobIdIndex = new SecondaryIndex<>(PersonRecord::jobId);
+
+    private final SecondaryIndex<String> emailIndex = new SecondaryIndex<>(person -> Person.normalizeEmail(person.email()));
+
+    private final List<SecondaryIndex<?>> indexes = List.of(jobIdIndex, emailIndex);
+
+    //ids whose chains still hold old versions, because an open snapshot might need them;
+    private final Queue<Integer> pendingCleanup = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean loaded;
+
+    @Override
+    public void personsLoaded(Collection<PersonRecord> persons) {
+
+        if (enabled) {
+
+            load(persons);
+        }
+    }
+
+    @Override
+    public void personInserted(PersonRecord person) {
+
+        putPerson(person);
+    }
+
+    @Override
+    public void personUpdated(PersonRecord before, PersonRecord after) {
+
+        putPerson(after);
+    }
+
+    @Override
+    public void personDeleted(PersonRecord person) {
+
+        removePerson(person.id());
+    }
+
+    //writes applied while loading win over the loaded rows (putIfAbsent), since they are at least as recent;
+    public void load(Collection<PersonRecord> persons) {
+
+        long version = clock.incrementAndGet();
+
+        for (PersonRecord person : persons) {
+
+            if (records.putIfAbsent(person.id(), new AtomicReference<>(new PersonVersion(version, person, null))) == null) {
+
+                index(person);
+            }
+        }
+
+        loaded = true;
+    }
+
+    public boolean isLoaded() {
+
+        return loaded;
+    }
+
+    public void putPerson(PersonRecord person) {
+
+        if (enabled) {
+
+            write(person.id(), person);
+        }
+    }
+
+    public void removePerson(int id) {
+
+        if (enabled) {
+
+            write(id, null);
+        }
+    }
+
+    public PersonSnapshot openSnapshot() {
+
+        synchronized (openSnapshots) {
+
+            long version = clock.get();
+            openSnapshots.merge(version, 1, Integer::sum);
+
+            return new PersonSnapshot(this, version);
+        }
+    }
+
+    //number of versions currently held across all chains (live records included);
+    public int countVersions() {
+
+        int count = 0;
+
+        for (AtomicReference<PersonVersion> chain : records.values()) {
+
+            for (PersonVersion current = chain.get(); current != null; current = current.older()) {
+
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    //pruning every chain left behind by snapshots that have since been closed;
+    public void collectGarbage() {
+
+        for (int remaining = pendingCleanup.size(); remaining > 0; remaining--) {
+
+            Integer id = pendingCleanup.poll();
+
+            if (id == null) {
+
+                return;
+            }
+
+            prune(id);
+        }
+    }
+
+    AtomicReference<PersonVersion> chain(int id) {
+
+        return records.get(id);
+    }
+
+    ConcurrentNavigableMap<Integer, AtomicReference<PersonVersion>> chains() {
+
+        return records;
+    }
+
+    AtomicLong clock() {
+
+        return clock;
+    }
+
+    SecondaryIndex<Integer> jobIdIndex() {
+
+        return jobIdIndex;
+    }
+
+    SecondaryIndex<String> emailIndex() {
+
+        return emailIndex;
+    }
+
+    void release(long version) {
+
+        boolean oldestReleased;
+
+        synchronized (openSnapshots) {
+
+            oldestReleased = openSnapshots.firstKey() == version;
+            openSnapshots.computeIfPresent(version, (key, count) -> count == 1 ? null : count - 1);
+        }
+
+        if (oldestReleased) {
+
+            collectGarbage();
+        }
+    }
+
+    //indexing before installing (so a snapshot seeing the version finds it in the index), and again after (see unindex);
+    private void write(int id, PersonRecord person) {
+
+        if (person != null) {
+
+            index(person);
+        }
+
+        install(id, person).resolveVersion(clock);
+
+        if (person != null) {
+
+            index(person);
+        }
+
+        prune(id);
+    }
+
+    private PersonVersion install(int id, PersonRecord person) {
+
+        while (true) {
+
+            AtomicReference<PersonVersion> chain = records.computeIfAbsent(id, key -> new AtomicReference<>());
+            PersonVersion head = chain.get();
+
+            //the chain was retired by the garbage collector; dropping it and retrying on a fresh one;
+            if (head == PersonVersion.RETIRED) {
+
+                records.remove(id, chain);
+                continue;
+            }
+
+            PersonVersion version = new PersonVersion(PersonVersion.PENDING, person, head);
+
+            if (chain.compareAndSet(head, version)) {
+
+                return version;
+            }
+        }
+    }
+
+    //the oldest version any current or future snapshot can ask for;
+    private long horizon() {
+
+        synchronized (openSnapshots) {
+
+            return openSnapshots.isEmpty() ? clock.get() : openSnapshots.firstKey();
+        }
+    }
+
+    private void prune(int id) {
+
+        AtomicReference<PersonVersion> chain = records.get(id);
+
+        if (chain == null) {
+
+            return;
+        }
+
+        PersonVersion head = chain.get();
+
+        if (head == PersonVersion.RETIRED) {
+
+            return;
+        }
+
+        //pending versions get their number before pruning (still pending, they would look older than the horizon);
+        for (PersonVersion current = head; current != null; current = current.older()) {
+
+            current.resolveVersion(clock);
+        }
+
+        PersonVersion pruned = PersonVersion.prune(head, horizon(), clock);
+
+        //only a tombstone nobody can see past is left; removing the record (kept until loaded, so the load can't revive it);
+        if (pruned == null) {
+
+            if (loaded && chain.compareAndSet(head, PersonVersion.RETIRED)) {
+
+                records.remove(id, chain);
+                unindex(id, head, null);
+            }
+
+            return;
+        }
+
+        if (pruned != head) {
+
+            if (!chain.compareAndSet(head, pruned)) {
+
+                pendingCleanup.add(id);
+                return;
+            }
+
+            unindex(id, head, pruned);
+        }
+
+        if (pruned.older() != null) {
+
+            pendingCleanup.add(id);
+        }
+    }
+
+    private void index(PersonRecord person) {
+
+        for (SecondaryIndex<?> index : indexes) {
+
+            index.add(person);
+        }
+    }
+
+    private void unindex(int id, PersonVersion dropped, PersonVersion retained) {
+
+        for (SecondaryIndex<?> index : indexes) {
+
+            unindex(index, id, dropped, retained);
+        }
+    }
+
+    /*removing the person id from the keys only held by dropped versions;
+    a concurrent writer may have just indexed the person under one of those keys (it indexes after installing),
+    so we check the current chain again after removing, and put the id back if needed;*/
+    private <K> void unindex(SecondaryIndex<K> index, int id, PersonVersion dropped, PersonVersion retained) {
+
+        for (PersonVersion current = dropped; current != null; current = current.older()) {
+
+            K key = current.person() == null ? null : index.keyOf(current.person());
+
+            if (key == null || holderOf(index, retained, key) != null) {
+
+                continue;
+            }
+
+            index.remove(key, id);
+
+            AtomicReference<PersonVersion> chain = records.get(id);
+            PersonRecord holder = chain == null ? null : holderOf(index, chain.get(), key);
+
+            if (holder != null) {
+
+                index.add(holder);
+            }
+        }
+    }
+
+    //the person (in any version of the chain) holding the given index key, if any;
+    private static <K> PersonRecord holderOf(SecondaryIndex<K> index, PersonVersion head, K key) {
+
+        for (PersonVersion current = head; current != null; current = current.older()) {
+
+            if (current.person() != null && key.equals(index.keyOf(current.person()))) {
+
+                return current.person();
+            }
+        }
+
+        return null;
+    }
+}
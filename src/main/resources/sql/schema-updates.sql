@@ -0,0 +1,88 @@
+-- Schema updates for the userms database, on top of the existing person and job tables;
+-- To be applied in order (MySQL 8), each block once;
+
+-- person(jobId) index, for listing the persons holding a job (GET /job/{id}/persons);
+-- id is part of the index, so a page (jobId = ? AND id > ? ORDER BY id LIMIT ?) is read straight from it;
+CREATE INDEX idx_person_job_id ON person (jobId, id);
+
+-- unique index on the normalized email (functional key part, MySQL 8.0.13+), for email lookups and uniqueness on insert;
+-- existing duplicate emails (compared trimmed and lower-case) must be fixed before creating it;
+CREATE UNIQUE INDEX ux_person_email ON person ((LOWER(TRIM(email))));
+
+-- person salary index range queries (GET /person/salary-index), ordered by salary index;
+CREATE INDEX idx_person_salary_index ON person (salaryIndex, id);
+
+-- monthly payroll runs (PayrollRunService): one row per period, one salary row per person, one checkpoint per committed partition;
+-- a partition's salary rows and its checkpoint (the id range it covers) are committed together, so an interrupted run resumes
+-- with the ids outside its checkpoints;
+CREATE TABLE payroll_run (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    period CHAR(7) NOT NULL UNIQUE,
+    partitionSize INT NOT NULL,
+    startedAt DATETIME NOT NULL,
+    completedAt DATETIME NULL
+);
+
+CREATE TABLE payroll_run_salary (
+    runId INT NOT NULL,
+    personId INT NOT NULL,
+    jobId INT NOT NULL,
+    salaryIndex DOUBLE NOT NULL,
+    salary DOUBLE NOT NULL,
+    PRIMARY KEY (runId, personId),
+    FOREIGN KEY (runId) REFERENCES payroll_run (id)
+);
+
+CREATE TABLE payroll_run_checkpoint (
+    runId INT NOT NULL,
+    fromId INT NOT NULL,
+    toId INT NOT NULL,
+    persons INT NOT NULL,
+    skipped INT NOT NULL,
+    committedAt DATETIME NOT NULL,
+    PRIMARY KEY (runId, fromId),
+    FOREIGN KEY (runId) REFERENCES payroll_run (id)
+);
+
+
+-- salary history (SalaryHistoryStore): one row per salary index (PERSON) or base salary (JOB) change, appended and never updated;
+CREATE TABLE salary_history (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    entity VARCHAR(6) NOT NULL,
+    entityId INT NOT NULL,
+    changedAt DATETIME(3) NOT NULL,
+    valueBefore DOUBLE NOT NULL,
+    valueAfter DOUBLE NOT NULL,
+    INDEX idx_salary_history_entity (entity, entityId, changedAt)
+);
+
+
+-- delta sync (ChangeVersionDao): 'row' is the latest row version taken by a person or job write, 'compacted' the highest compacted tombstone version;
+CREATE TABLE change_sequence (
+    name VARCHAR(16) PRIMARY KEY,
+    version BIGINT NOT NULL
+);
+
+INSERT INTO change_sequence (name, version) VALUES ('row', 0), ('compacted', 0);
+
+ALTER TABLE person ADD COLUMN rowVersion BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE job ADD COLUMN rowVersion BIGINT NOT NULL DEFAULT 0;
+
+-- existing rows get distinct versions, so clients paging by version never split rows sharing one;
+UPDATE person SET rowVersion = id;
+UPDATE job SET rowVersion = (SELECT maxId FROM (SELECT COALESCE(MAX(id), 0) AS maxId FROM person) AS persons) + id;
+UPDATE change_sequence SET version = (SELECT GREATEST(
+    (SELECT COALESCE(MAX(rowVersion), 0) FROM person), (SELECT COALESCE(MAX(rowVersion), 0) FROM job))) WHERE name = 'row';
+
+CREATE UNIQUE INDEX idx_person_row_version ON person (rowVersion);
+CREATE UNIQUE INDEX idx_job_row_version ON job (rowVersion);
+
+-- one row per deleted person or job, kept for changes.tombstone.retention-days;
+CREATE TABLE tombstone (
+    entity VARCHAR(6) NOT NULL,
+    id INT NOT NULL,
+    rowVersion BIGINT PRIMARY KEY,
+    deletedAt DATETIME NOT NULL,
+    INDEX idx_tombstone_entity (entity, rowVersion),
+    INDEX idx_tombstone_deleted_at (deletedAt)
+);
@@ -0,0 +1,103 @@
+package com.itfactory.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.itfactory.codec.JsonCodecHttpMessageConverter;
+import com.itfactory.codec.PersonJsonCodec;
+import com.itfactory.controller.PersonApiController;
+import com.itfactory.model.Person;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of deserializing a batch ingest body (a JSON array of persons): Jackson databinding (reflection, setters, and a
+ * Random per Person()), against PersonJsonCodec, as read by JsonCodecHttpMessageConverter for /api/v2/person/batch;
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.itfactory.benchmark.JsonCodecBenchmark
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonCodecBenchmark {
+
+    @Param({"100000"})
+    private int persons;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final JsonCodecHttpMessageConverter converter = new JsonCodecHttpMessageConverter(objectMapper.getFactory(),
+            MediaType.APPLICATION_JSON, new PersonJsonCodec());
+
+    private Type personBatch;
+
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException, NoSuchMethodException {
+
+        personBatch = PersonApiController.class.getMethod("insertPersons", List.class).getGenericParameterTypes()[0];
+
+        Random random = new Random(42);
+        List<Person> personList = new ArrayList<>(persons);
+
+        for (int i = 1; i <= persons; i++) {
+
+            personList.add(new Person(i, "Person Name " + i, "person" + i + "@itfactory.com", 1 + random.nextInt(50),
+                    1 + random.nextInt(21) / 10.0));
+        }
+
+        json = objectMapper.writeValueAsBytes(personList);
+    }
+
+    @Benchmark
+    public List<Person> deserializeDatabind() throws IOException {
+
+        return objectMapper.readValue(json, new TypeReference<List<Person>>() {
+        });
+    }
+
+    @Benchmark
+    public Object deserializeCodec() throws IOException {
+
+        return converter.read(personBatch, null, new HttpInputMessage() {
+
+            @Override
+            public InputStream getBody() {
+
+                return new ByteArrayInputStream(json);
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+
+                return new HttpHeaders();
+            }
+        });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+
+        Options options = new OptionsBuilder().include(JsonCodecBenchmark.class.getSimpleName()).build();
+        new Runner(options).run();
+    }
+}
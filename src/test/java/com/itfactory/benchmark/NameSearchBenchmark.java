@@ -0,0 +1,156 @@
+package com.itfactory.benchmark;
+
+import com.itfactory.model.PersonRecord;
+import com.itfactory.storage.NameSearchIndex;
+import com.itfactory.storage.SearchMatch;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the trigram name search (NameSearchIndex) over a million persons, per query latency (p50, p99):
+ * full names with a transposition typo, and typeahead (first name plus the start of the last name);
+ * Half of the first names come from a short list, so their trigrams are very common; the other first names (2000) and the last names
+ * (100000, long-tailed: a few are very common) are built from random syllables;
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.itfactory.benchmark.NameSearchBenchmark
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class NameSearchBenchmark {
+
+    //the most common first names, given to half of the persons; the other half get one of FIRST_NAME_POOL generated names;
+    private static final String[] COMMON_FIRST_NAMES = {"John", "Maria", "Andrei", "Elena", "Michael", "Ana", "David", "Ioana",
+            "Daniel", "Laura", "Alexandru", "Cristina", "Robert", "Andreea", "Stefan", "Mihaela", "George", "Diana", "Adrian",
+            "Alina", "Paul", "Irina", "Victor", "Simona", "Radu", "Monica", "Vlad", "Oana", "Bogdan", "Raluca", "James", "Sarah",
+            "Thomas", "Emily", "Mark", "Anna", "Peter", "Julia", "Lucas", "Sofia"};
+
+    private static final int FIRST_NAME_POOL = 2_000;
+
+    private static final int LAST_NAME_POOL = 100_000;
+
+    private static final String CONSONANTS = "bcdfghjklmnprstvz";
+
+    private static final String VOWELS = "aeiou";
+
+    private static final String CODAS = "  nrsl";
+
+    private static final int QUERIES = 1024;
+
+    @Param({"1000000"})
+    private int persons;
+
+    private NameSearchIndex nameSearchIndex;
+
+    private String[] typoQueries;
+
+    private String[] typeaheadQueries;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+
+        Random random = new Random(42);
+        String[] firstNames = new String[FIRST_NAME_POOL];
+        String[] lastNames = new String[LAST_NAME_POOL];
+
+        for (int i = 0; i < FIRST_NAME_POOL; i++) {
+
+            firstNames[i] = capitalized(syllable(random) + syllable(random));
+        }
+
+        for (int i = 0; i < LAST_NAME_POOL; i++) {
+
+            lastNames[i] = capitalized(syllable(random) + syllable(random) + (random.nextBoolean() ? syllable(random) : ""));
+        }
+
+        List<PersonRecord> records = new ArrayList<>(persons);
+        List<String> names = new ArrayList<>(persons);
+
+        for (int i = 1; i <= persons; i++) {
+
+            //last names are long-tailed, as real ones: the first ones of the pool are far more common than the rest;
+            double skew = random.nextDouble();
+            String firstName = random.nextBoolean() ? COMMON_FIRST_NAMES[random.nextInt(COMMON_FIRST_NAMES.length)]
+                    : firstNames[random.nextInt(FIRST_NAME_POOL)];
+            String name = firstName + " " + lastNames[(int) (LAST_NAME_POOL * skew * skew * skew)];
+
+            names.add(name);
+            records.add(new PersonRecord(i, name, "person" + i + "@itfactory.com", 1, 1.0));
+        }
+
+        nameSearchIndex = new NameSearchIndex();
+        nameSearchIndex.personsLoaded(records);
+
+        typoQueries = new String[QUERIES];
+        typeaheadQueries = new String[QUERIES];
+        String[] typoNames = new String[QUERIES];
+
+        for (int i = 0; i < QUERIES; i++) {
+
+            String name = names.get(random.nextInt(persons));
+            int space = name.indexOf(' ');
+
+            //two adjacent letters of the last name swapped;
+            int swap = space + 2 + random.nextInt(name.length() - space - 3);
+            typoQueries[i] = name.substring(0, swap) + name.charAt(swap + 1) + name.charAt(swap) + name.substring(swap + 2);
+
+            typeaheadQueries[i] = name.substring(0, space + 1 + 3 + random.nextInt(2));
+            typoNames[i] = name;
+        }
+
+        //the share of typo queries finding the name they were made from, among their 10 results (the search is bounded, so approximate);
+        int found = 0;
+
+        for (int i = 0; i < QUERIES; i++) {
+
+            String name = typoNames[i];
+            found += nameSearchIndex.search(typoQueries[i], 10).stream().anyMatch(match -> match.person().getName().equals(name)) ? 1 : 0;
+        }
+
+        System.out.printf("%nTypo queries finding their name: %.1f%%%n", 100.0 * found / QUERIES);
+    }
+
+    @Benchmark
+    public List<SearchMatch> typoSearch() {
+
+        return nameSearchIndex.search(typoQueries[next++ & (QUERIES - 1)], 10);
+    }
+
+    @Benchmark
+    public List<SearchMatch> typeaheadSearch() {
+
+        return nameSearchIndex.search(typeaheadQueries[next++ & (QUERIES - 1)], 10);
+    }
+
+    //a consonant, a vowel, and sometimes a closing consonant;
+    private static String syllable(Random random) {
+
+        return ("" + CONSONANTS.charAt(random.nextInt(CONSONANTS.length())) + VOWELS.charAt(random.nextInt(VOWELS.length()))
+                + CODAS.charAt(random.nextInt(CODAS.length()))).trim();
+    }
+
+    private static String capitalized(String name) {
+
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+
+        Options options = new OptionsBuilder().include(NameSearchBenchmark.class.getSimpleName()).build();
+        new Runner(options).run();
+    }
+}
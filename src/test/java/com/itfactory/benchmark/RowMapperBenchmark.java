@@ -0,0 +1,116 @@
+package com.itfactory.benchmark;
+
+import com.itfactory.dao.PersonRowMapper;
+import com.itfactory.model.Person;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of mapping person rows (rows/sec): by column label, per field and row (as PersonDao did before PersonRowMapper),
+ * against PersonRowMapper, which resolves the column indexes once per result set and reads by index;
+ * The rows are an in-memory result set (person join job columns), so driver I/O is left out and the mapping cost is what differs;
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.itfactory.benchmark.RowMapperBenchmark
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowMapperBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    private static final String[] LABELS = {"id", "name", "email", "jobId", "salaryIndex", "domain", "baseSalary", "salary"};
+
+    private static final int[] TYPES = {Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.DOUBLE, Types.VARCHAR,
+            Types.DOUBLE, Types.DOUBLE};
+
+    private CachedRowSet rows;
+
+    @Setup
+    public void setUp() throws SQLException {
+
+        RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+        metaData.setColumnCount(LABELS.length);
+
+        for (int column = 1; column <= LABELS.length; column++) {
+
+            metaData.setColumnLabel(column, LABELS[column - 1]);
+            metaData.setColumnName(column, LABELS[column - 1]);
+            metaData.setColumnType(column, TYPES[column - 1]);
+        }
+
+        rows = RowSetProvider.newFactory().createCachedRowSet();
+        rows.setMetaData(metaData);
+
+        Random random = new Random(42);
+
+        for (int i = 1; i <= ROWS; i++) {
+
+            rows.moveToInsertRow();
+            rows.updateInt(1, i);
+            rows.updateString(2, "Person Name " + i);
+            rows.updateString(3, "person" + i + "@itfactory.com");
+            rows.updateInt(4, 1 + random.nextInt(50));
+            rows.updateDouble(5, 1 + random.nextInt(21) / 10.0);
+            rows.updateString(6, "IT");
+            rows.updateDouble(7, 3000);
+            rows.updateDouble(8, 4500);
+            rows.insertRow();
+            rows.moveToCurrentRow();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void mapByLabel(Blackhole blackhole) throws SQLException {
+
+        rows.beforeFirst();
+
+        while (rows.next()) {
+
+            Person personRetrieved = new Person();
+            personRetrieved.setId(rows.getInt("id"));
+            personRetrieved.setName(rows.getString("name"));
+            personRetrieved.setEmail(rows.getString("email"));
+            personRetrieved.setJobId(rows.getInt("jobId"));
+            personRetrieved.setSalaryIndex(rows.getDouble("salaryIndex"));
+
+            blackhole.consume(personRetrieved);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void mapByIndex(Blackhole blackhole) throws SQLException {
+
+        rows.beforeFirst();
+        PersonRowMapper mapper = PersonRowMapper.of(rows);
+
+        while (rows.next()) {
+
+            blackhole.consume(mapper.map());
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+
+        Options options = new OptionsBuilder().include(RowMapperBenchmark.class.getSimpleName()).build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,125 @@
+package com.itfactory.benchmark;
+
+import com.itfactory.model.WorkExperience;
+import com.itfactory.rules.SalaryRules;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the compiled salary rules (SalaryRules) against the hard-coded salary and work experience path,
+ * over a batch of persons; the built-in rules should match the hard-coded path, and domain rules should stay close to it;
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.itfactory.benchmark.SalaryRulesBenchmark
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SalaryRulesBenchmark {
+
+    private static final String[] DOMAINS = {"IT", "Sales", "Finance", "Marketing", "HR"};
+
+    @Param({"10000"})
+    private int batchSize;
+
+    private String[] domains;
+
+    private double[] salaryIndexes;
+
+    private double[] baseSalaries;
+
+    private double[] salaries;
+
+    private SalaryRules domainRules;
+
+    @Setup
+    public void setUp() {
+
+        Random random = new Random(42);
+        domains = new String[batchSize];
+        salaryIndexes = new double[batchSize];
+        baseSalaries = new double[batchSize];
+        salaries = new double[batchSize];
+
+        for (int i = 0; i < batchSize; i++) {
+
+            domains[i] = DOMAINS[random.nextInt(DOMAINS.length)];
+            salaryIndexes[i] = 1 + random.nextInt(201) / 100.0;
+            baseSalaries[i] = 1000 + random.nextInt(9000);
+        }
+
+        Properties properties = new Properties();
+        properties.setProperty("IT.bonus-percent", "10");
+        properties.setProperty("IT.band-max", "20000");
+        properties.setProperty("Sales.bonus-percent", "5");
+        properties.setProperty("Sales.tiers", "1.3, 1.7, 2.1");
+        domainRules = SalaryRules.compile(properties);
+    }
+
+    @Benchmark
+    public double[] hardCodedSalaries() {
+
+        for (int i = 0; i < batchSize; i++) {
+
+            salaries[i] = salaryIndexes[i] * baseSalaries[i];
+        }
+
+        return salaries;
+    }
+
+    @Benchmark
+    public double[] builtInRuleSalaries() {
+
+        SalaryRules.BUILT_IN.salariesOf(domains, salaryIndexes, baseSalaries, salaries, batchSize);
+        return salaries;
+    }
+
+    @Benchmark
+    public double[] domainRuleSalaries() {
+
+        domainRules.salariesOf(domains, salaryIndexes, baseSalaries, salaries, batchSize);
+        return salaries;
+    }
+
+    @Benchmark
+    public int hardCodedTiers() {
+
+        int seniors = 0;
+
+        for (int i = 0; i < batchSize; i++) {
+
+            seniors += WorkExperience.of(salaryIndexes[i]) == WorkExperience.SENIOR ? 1 : 0;
+        }
+
+        return seniors;
+    }
+
+    @Benchmark
+    public int domainRuleTiers() {
+
+        int seniors = 0;
+
+        for (int i = 0; i < batchSize; i++) {
+
+            seniors += domainRules.tierRuleOf(domains[i]).workExperienceOf(salaryIndexes[i]) == WorkExperience.SENIOR ? 1 : 0;
+        }
+
+        return seniors;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+
+        Options options = new OptionsBuilder().include(SalaryRulesBenchmark.class.getSimpleName()).build();
+        new Runner(options).run();
+    }
+}
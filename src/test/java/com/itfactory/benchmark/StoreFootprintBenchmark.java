@@ -0,0 +1,79 @@
+package com.itfactory.benchmark;
+
+import com.itfactory.model.Job;
+import com.itfactory.model.PersonRecord;
+import com.itfactory.storage.NameSearchIndex;
+import com.itfactory.storage.SalaryRangeIndex;
+import com.itfactory.storage.VersionedPersonStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Heap footprint of a million-person load into the in-memory structures (the store, the name search and salary range indexes),
+ * measured as the used heap after a full gc, before and after the load; the loaded persons are the only thing left reachable;
+ * Not a JMH benchmark: JMH measures time (and allocation rate), not the retained heap;
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.itfactory.benchmark.StoreFootprintBenchmark
+ */
+
+public class StoreFootprintBenchmark {
+
+    private static final int PERSONS = 1_000_000;
+
+    private static final int JOBS = 50;
+
+    public static void main(String[] args) throws InterruptedException {
+
+        List<Job> jobs = new ArrayList<>(JOBS);
+
+        for (int i = 1; i <= JOBS; i++) {
+
+            jobs.add(new Job(i, "Job " + i, i % 2 == 0 ? "IT" : "Finance", 3000 + i * 10));
+        }
+
+        long before = usedHeap();
+
+        VersionedPersonStore personStore = new VersionedPersonStore();
+        NameSearchIndex nameSearchIndex = new NameSearchIndex();
+        SalaryRangeIndex salaryRangeIndex = new SalaryRangeIndex();
+        salaryRangeIndex.jobsLoaded(jobs);
+
+        Random random = new Random(42);
+        List<PersonRecord> persons = new ArrayList<>(PERSONS);
+
+        for (int i = 1; i <= PERSONS; i++) {
+
+            persons.add(new PersonRecord(i, "Person Name " + i, "person" + i + "@itfactory.com", 1 + random.nextInt(JOBS),
+                    1 + random.nextInt(21) / 10.0));
+        }
+
+        personStore.personsLoaded(persons);
+        nameSearchIndex.personsLoaded(persons);
+        salaryRangeIndex.personsLoaded(persons);
+
+        //the rows read by the loader are garbage once loaded;
+        persons = null;
+
+        long after = usedHeap();
+
+        System.out.printf("%d persons: %.1f MB retained, %d bytes per person%n", PERSONS, (after - before) / 1e6,
+                (after - before) / PERSONS);
+
+        //keeping the structures reachable until measured;
+        System.out.println(personStore.isLoaded() && nameSearchIndex.isLoaded() && salaryRangeIndex.isLoaded());
+    }
+
+    private static long usedHeap() throws InterruptedException {
+
+        Runtime runtime = Runtime.getRuntime();
+
+        for (int i = 0; i < 5; i++) {
+
+            System.gc();
+            Thread.sleep(100);
+        }
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,152 @@
+package com.itfactory.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.itfactory.codec.LengthPrefixedFrames;
+import com.itfactory.codec.RowStreams;
+import com.itfactory.codec.WireFormat;
+import com.itfactory.model.Person;
+import com.itfactory.model.PersonDto;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of encoding (and decoding) the person list in each wire format: the /person/all text, and the /api/v2/person/all
+ * JSON, CBOR and CBOR frames; the encoded sizes are printed before the run;
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.itfactory.benchmark.WireFormatBenchmark
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"10000"})
+    private int persons;
+
+    private List<Person> personList;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final CBORMapper cborMapper = new CBORMapper();
+
+    private byte[] json;
+
+    private byte[] cborFrames;
+
+    @Setup
+    public void setUp() throws IOException {
+
+        personList = persons(persons);
+        json = encode(WireFormat.JSON);
+        cborFrames = encode(WireFormat.CBOR_FRAMES);
+    }
+
+    //as PersonRestController.getAllPersons formats it;
+    @Benchmark
+    public String encodeText() {
+
+        StringBuilder htmlResponse = new StringBuilder();
+
+        for (Person person : personList) {
+
+            htmlResponse.append(String.format("Person id: %2d; name: %18s; email: %25s; job id: %3d; salary index: %3.1f\n",
+                    person.getId(), person.getName(), person.getEmail(), person.getJobId(), person.getSalaryIndex()));
+        }
+
+        return "Person database retrieved successfully:\n<pre>" + htmlResponse + "</pre>";
+    }
+
+    @Benchmark
+    public byte[] encodeJson() throws IOException {
+
+        return encode(WireFormat.JSON);
+    }
+
+    @Benchmark
+    public byte[] encodeCbor() throws IOException {
+
+        return encode(WireFormat.CBOR);
+    }
+
+    @Benchmark
+    public byte[] encodeCborFrames() throws IOException {
+
+        return encode(WireFormat.CBOR_FRAMES);
+    }
+
+    @Benchmark
+    public PersonDto[] decodeJson() throws IOException {
+
+        return objectMapper.readValue(json, PersonDto[].class);
+    }
+
+    //one frame at a time, as a consumer reading the response as it arrives;
+    @Benchmark
+    public int decodeCborFrames() throws IOException {
+
+        LengthPrefixedFrames.Reader reader = new LengthPrefixedFrames.Reader(new ByteArrayInputStream(cborFrames));
+        int decoded = 0;
+        byte[] frame;
+
+        while ((frame = reader.next()) != null) {
+
+            decoded += cborMapper.readValue(frame, PersonDto.class).id() >= 0 ? 1 : 0;
+        }
+
+        return decoded;
+    }
+
+    private byte[] encode(WireFormat format) throws IOException {
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        RowStreams.body(format, objectMapper.getFactory(), personList::forEach, PersonDto::write).writeTo(output);
+
+        return output.toByteArray();
+    }
+
+    private static List<Person> persons(int count) {
+
+        Random random = new Random(42);
+        List<Person> persons = new ArrayList<>(count);
+
+        for (int i = 1; i <= count; i++) {
+
+            persons.add(new Person(i, "Person Name " + i, "person" + i + "@itfactory.com", 1 + random.nextInt(50),
+                    1 + random.nextInt(21) / 10.0));
+        }
+
+        return persons;
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+
+        WireFormatBenchmark sizes = new WireFormatBenchmark();
+        sizes.persons = 10_000;
+        sizes.setUp();
+
+        System.out.println("Encoded size of " + sizes.persons + " persons (bytes):");
+        System.out.println("  text:        " + sizes.encodeText().getBytes().length);
+        System.out.println("  JSON:        " + sizes.encodeJson().length);
+        System.out.println("  CBOR:        " + sizes.encodeCbor().length);
+        System.out.println("  CBOR frames: " + sizes.encodeCborFrames().length);
+
+        Options options = new OptionsBuilder().include(WireFormatBenchmark.class.getSimpleName()).build();
+        new Runner(options).run();
+    }
+}
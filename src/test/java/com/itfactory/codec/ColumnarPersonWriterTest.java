@@ -0,0 +1,56 @@
+package com.itfactory.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.itfactory.model.PersonColumns;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writing JUnit tests for the columnar person layout, over two row groups;
+ */
+
+class ColumnarPersonWriterTest {
+
+    @Test
+    void writeTest() throws IOException {
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        PersonColumns columns = new PersonColumns(2);
+
+        try (JsonGenerator generator = new ObjectMapper().getFactory().createGenerator(output)) {
+
+            ColumnarPersonWriter writer = new ColumnarPersonWriter(generator);
+            writer.writeStart();
+
+            columns.add(1, "Ana", "ana@itfactory.com", 10, "IT", 2.0);
+            columns.add(2, "Dan", "dan@itfactory.com", 11, "Sales", 1.5);
+            writer.writeRowGroup(columns);
+            columns.clear();
+
+            columns.add(3, "Ana", "ana2@itfactory.com", 12, null, 1.0);
+            writer.writeRowGroup(columns);
+
+            writer.writeEnd();
+        }
+
+        assertEquals("{\"rowGroups\":["
+                + "{\"rowCount\":2,\"id\":[1,2],"
+                + "\"name\":{\"reset\":false,\"dictionary\":[\"Ana\",\"Dan\"],\"codes\":[0,1]},"
+                + "\"email\":[\"ana@itfactory.com\",\"dan@itfactory.com\"],\"jobId\":[10,11],"
+                + "\"domain\":{\"reset\":false,\"dictionary\":[\"IT\",\"Sales\"],\"codes\":[0,1]},"
+                + "\"salaryIndex\":[2.0,1.5]},"
+                + "{\"rowCount\":1,\"id\":[3],"
+                + "\"name\":{\"reset\":false,\"dictionary\":[],\"codes\":[0]},"
+                + "\"email\":[\"ana2@itfactory.com\"],\"jobId\":[12],"
+                + "\"domain\":{\"reset\":false,\"dictionary\":[],\"codes\":[-1]},"
+                + "\"salaryIndex\":[1.0]}"
+                + "],\"rowCount\":3}", output.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,61 @@
+package com.itfactory.codec;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writing JUnit tests for choosing a ContentEncoding from the Accept-Encoding header, and for compressing with it;
+ */
+
+class ContentEncodingTest {
+
+    private static final ContentEncoding[] ENCODINGS = {ContentEncoding.ZSTD, ContentEncoding.GZIP};
+
+    @Test
+    void negotiateTest() {
+
+        assertEquals(ContentEncoding.IDENTITY, ContentEncoding.negotiate(null, ENCODINGS));
+        assertEquals(ContentEncoding.IDENTITY, ContentEncoding.negotiate("deflate, br", ENCODINGS));
+        assertEquals(ContentEncoding.GZIP, ContentEncoding.negotiate("gzip, deflate, br", ENCODINGS));
+        assertEquals(ContentEncoding.ZSTD, ContentEncoding.negotiate("gzip, deflate, br, zstd", ENCODINGS));
+        assertEquals(ContentEncoding.ZSTD, ContentEncoding.negotiate("*", ENCODINGS));
+    }
+
+    @Test
+    void qualityTest() {
+
+        assertEquals(ContentEncoding.GZIP, ContentEncoding.negotiate("zstd;q=0.5, gzip", ENCODINGS));
+        assertEquals(ContentEncoding.GZIP, ContentEncoding.negotiate("zstd;q=0, *", ENCODINGS));
+        assertEquals(ContentEncoding.IDENTITY, ContentEncoding.negotiate("gzip;q=0", ENCODINGS));
+        assertEquals(ContentEncoding.IDENTITY, ContentEncoding.negotiate("gzip;q=high", ENCODINGS));
+        assertEquals(ContentEncoding.GZIP, ContentEncoding.negotiate("zstd, gzip", ContentEncoding.GZIP));
+    }
+
+    @Test
+    void gzipTest() throws IOException {
+
+        byte[] body = "Person id:  1; name: Test Name\n".repeat(1000).getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = ContentEncoding.GZIP.compress(body);
+
+        assertTrue(compressed.length < body.length / 10);
+
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+
+            assertArrayEquals(body, input.readAllBytes());
+        }
+    }
+
+    @Test
+    void forTokenTest() {
+
+        assertEquals(ContentEncoding.ZSTD, ContentEncoding.forToken(" zstd"));
+        assertEquals(ContentEncoding.GZIP, ContentEncoding.forToken("GZIP"));
+        assertThrows(IllegalArgumentException.class, () -> ContentEncoding.forToken("br"));
+    }
+}
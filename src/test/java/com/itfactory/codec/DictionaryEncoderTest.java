@@ -0,0 +1,53 @@
+package com.itfactory.codec;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writing JUnit tests for dictionary encoding a string column across row groups;
+ */
+
+class DictionaryEncoderTest {
+
+    @Test
+    void encodeTest() {
+
+        DictionaryEncoder encoder = new DictionaryEncoder(100);
+
+        encoder.startGroup();
+        assertEquals(0, encoder.encode("IT"));
+        assertEquals(1, encoder.encode("Sales"));
+        assertEquals(0, encoder.encode("IT"));
+        assertEquals(DictionaryEncoder.NULL_CODE, encoder.encode(null));
+        assertEquals(List.of("IT", "Sales"), encoder.added());
+        assertFalse(encoder.isReset());
+
+        //a later group sends only the values it adds, and keeps the earlier codes;
+        encoder.startGroup();
+        assertEquals(1, encoder.encode("Sales"));
+        assertEquals(2, encoder.encode("HR"));
+        assertEquals(List.of("HR"), encoder.added());
+        assertFalse(encoder.isReset());
+    }
+
+    @Test
+    void resetTest() {
+
+        DictionaryEncoder encoder = new DictionaryEncoder(2);
+
+        encoder.startGroup();
+        encoder.encode("IT");
+        encoder.encode("Sales");
+
+        encoder.startGroup();
+        assertTrue(encoder.isReset());
+        assertEquals(0, encoder.encode("Sales"));
+        assertEquals(List.of("Sales"), encoder.added());
+
+        encoder.startGroup();
+        assertFalse(encoder.isReset());
+    }
+}
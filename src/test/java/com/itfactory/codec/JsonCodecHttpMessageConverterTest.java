@@ -0,0 +1,150 @@
+package com.itfactory.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.itfactory.controller.JobApiController;
+import com.itfactory.controller.PersonApiController;
+import com.itfactory.model.Job;
+import com.itfactory.model.Person;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writing JUnit tests for reading (and writing) persons, jobs and their batches with the JSON codecs;
+ */
+
+class JsonCodecHttpMessageConverterTest {
+
+    private final JsonCodecHttpMessageConverter converter = new JsonCodecHttpMessageConverter(new JsonFactory(),
+            MediaType.APPLICATION_JSON, new PersonJsonCodec(), new JobJsonCodec());
+
+    @Test
+    void readPersonsTest() throws Exception {
+
+        Type personBatch = PersonApiController.class.getMethod("insertPersons", List.class).getGenericParameterTypes()[0];
+
+        assertTrue(converter.canRead(personBatch, null, MediaType.APPLICATION_JSON));
+
+        List<?> persons = (List<?>) converter.read(personBatch, null, input(
+                "[{\"id\":1,\"name\":\"Test Name\",\"email\":\"test@itfactory.com\",\"jobId\":3,\"salaryIndex\":1.5},"
+                        + "{\"salaryIndex\":2,\"jobId\":4,\"id\":2,\"email\":\"other@itfactory.com\",\"name\":\"Other Name\"}]"));
+
+        assertEquals(2, persons.size());
+        assertPerson(new Person(1, "Test Name", "test@itfactory.com", 3, 1.5), (Person) persons.get(0));
+        assertPerson(new Person(2, "Other Name", "other@itfactory.com", 4, 2.0), (Person) persons.get(1));
+    }
+
+    @Test
+    void readPersonDefaultsTest() throws IOException {
+
+        //unknown fields are skipped; a missing salary index gets Person()'s default, nulls read as 0;
+        Person person = (Person) converter.read(Person.class, null, input(
+                "{\"id\":1,\"name\":\"Test Name\",\"unknown\":{\"nested\":[1,2]},\"jobId\":null}"));
+
+        assertEquals(1, person.getId());
+        assertEquals("Test Name", person.getName());
+        assertNull(person.getEmail());
+        assertEquals(0, person.getJobId());
+        assertTrue(person.getSalaryIndex() == 1 || person.getSalaryIndex() == 2);
+    }
+
+    @Test
+    void readJobsTest() throws Exception {
+
+        Type jobBatch = JobApiController.class.getMethod("insertJobs", List.class).getGenericParameterTypes()[0];
+
+        List<?> jobs = (List<?>) converter.read(jobBatch, null, input("[{\"id\":3,\"name\":\"Tester\",\"domain\":\"IT\",\"baseSalary\":3000.5}]"));
+        Job job = (Job) jobs.get(0);
+
+        assertEquals(1, jobs.size());
+        assertEquals(3, job.getId());
+        assertEquals("Tester", job.getName());
+        assertEquals("IT", job.getDomain());
+        assertEquals(3000.5, job.getBaseSalary());
+    }
+
+    @Test
+    void readInvalidTest() {
+
+        //a raw list has no element type, so it is left to Jackson;
+        assertFalse(converter.canRead(List.class, null, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(String.class, null, MediaType.APPLICATION_JSON));
+        assertThrows(HttpMessageNotReadableException.class, () -> converter.read(Person.class, null, input("[1, 2]")));
+        assertThrows(HttpMessageNotReadableException.class,
+                () -> converter.read(Person.class, null, input("{\"id\":\"one\"}")));
+
+        //an object or array where a string is expected fails the request, instead of being read as a null name or email;
+        assertThrows(HttpMessageNotReadableException.class,
+                () -> converter.read(Person.class, null, input("{\"name\":{\"first\":\"Test\"},\"email\":\"test@itfactory.com\"}")));
+        assertThrows(HttpMessageNotReadableException.class,
+                () -> converter.read(Person.class, null, input("{\"name\":\"Test Name\",\"email\":[\"test@itfactory.com\"]}")));
+        assertThrows(HttpMessageNotReadableException.class, () -> converter.read(Job.class, null, input("{\"domain\":[]}")));
+    }
+
+    @Test
+    void writePersonTest() throws IOException {
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        converter.writeInternal(new Person(1, "Test Name", "test@itfactory.com", 3, 1.5), Person.class, new HttpOutputMessage() {
+
+            @Override
+            public OutputStream getBody() {
+
+                return body;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+
+                return new HttpHeaders();
+            }
+        });
+
+        assertEquals("{\"id\":1,\"name\":\"Test Name\",\"email\":\"test@itfactory.com\",\"jobId\":3,\"salaryIndex\":1.5}",
+                body.toString(StandardCharsets.UTF_8));
+    }
+
+    private static void assertPerson(Person expected, Person actual) {
+
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getEmail(), actual.getEmail());
+        assertEquals(expected.getJobId(), actual.getJobId());
+        assertEquals(expected.getSalaryIndex(), actual.getSalaryIndex());
+    }
+
+    private static HttpInputMessage input(String json) {
+
+        return new HttpInputMessage() {
+
+            @Override
+            public InputStream getBody() {
+
+                return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+
+                return new HttpHeaders();
+            }
+        };
+    }
+}
@@ -0,0 +1,65 @@
+package com.itfactory.codec;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writing JUnit tests for writing and incrementally reading length-prefixed frames;
+ */
+
+class LengthPrefixedFramesTest {
+
+    @Test
+    void roundTripTest() throws IOException {
+
+        byte[] empty = new byte[0];
+        byte[] small = {1, 2, 3};
+        byte[] large = new byte[300];
+        Arrays.fill(large, (byte) 7);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        LengthPrefixedFrames.writeFrame(output, small, small.length);
+        LengthPrefixedFrames.writeFrame(output, empty, 0);
+        LengthPrefixedFrames.writeFrame(output, large, large.length);
+
+        //1 byte prefixes up to 127 bytes, 2 bytes for 300;
+        assertEquals(1 + 3 + 1 + 2 + 300, output.size());
+
+        LengthPrefixedFrames.Reader reader = new LengthPrefixedFrames.Reader(new ByteArrayInputStream(output.toByteArray()));
+
+        assertArrayEquals(small, reader.next());
+        assertArrayEquals(empty, reader.next());
+        assertArrayEquals(large, reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void truncatedStreamTest() throws IOException {
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        LengthPrefixedFrames.writeFrame(output, new byte[]{1, 2, 3}, 3);
+        LengthPrefixedFrames.writeFrame(output, new byte[]{4, 5, 6}, 3);
+
+        byte[] truncated = Arrays.copyOf(output.toByteArray(), output.size() - 1);
+        LengthPrefixedFrames.Reader reader = new LengthPrefixedFrames.Reader(new ByteArrayInputStream(truncated));
+
+        assertArrayEquals(new byte[]{1, 2, 3}, reader.next());
+        assertThrows(EOFException.class, reader::next);
+    }
+
+    @Test
+    void invalidLengthTest() {
+
+        byte[] stream = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F};
+        LengthPrefixedFrames.Reader reader = new LengthPrefixedFrames.Reader(new ByteArrayInputStream(stream));
+
+        assertThrows(IOException.class, reader::next);
+    }
+}
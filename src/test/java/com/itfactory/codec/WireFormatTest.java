@@ -0,0 +1,33 @@
+package com.itfactory.codec;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writing JUnit tests for choosing a WireFormat from the Accept header;
+ */
+
+class WireFormatTest {
+
+    private static final WireFormat[] ALL_FORMATS = {WireFormat.JSON, WireFormat.CBOR, WireFormat.CBOR_FRAMES};
+
+    @Test
+    void negotiateTest() {
+
+        assertEquals(WireFormat.JSON, WireFormat.negotiate(null, ALL_FORMATS));
+        assertEquals(WireFormat.JSON, WireFormat.negotiate("*/*", ALL_FORMATS));
+        assertEquals(WireFormat.JSON, WireFormat.negotiate("application/json", ALL_FORMATS));
+        assertEquals(WireFormat.CBOR, WireFormat.negotiate("application/cbor", ALL_FORMATS));
+        assertEquals(WireFormat.CBOR_FRAMES, WireFormat.negotiate("application/x-cbor-frames", ALL_FORMATS));
+    }
+
+    @Test
+    void qualityTest() {
+
+        assertEquals(WireFormat.CBOR, WireFormat.negotiate("application/json;q=0.5, application/cbor", ALL_FORMATS));
+        assertEquals(WireFormat.JSON, WireFormat.negotiate("application/cbor;q=0, */*", ALL_FORMATS));
+        assertNull(WireFormat.negotiate("text/html", ALL_FORMATS));
+        assertNull(WireFormat.negotiate("application/x-cbor-frames", WireFormat.JSON, WireFormat.CBOR));
+    }
+}
@@ -0,0 +1,74 @@
+package com.itfactory.controller;
+
+import com.itfactory.service.ChangeStreamService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.mockito.Mock;
+import static org.mockito.Mockito.*;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Writing JUnit MOCK tests for the ChangeStreamController method: resume tokens (header, parameter, invalid) and the subscriber limit;
+ */
+
+@SpringBootTest
+class ChangeStreamControllerMockTest {
+
+    @Mock
+    private ChangeStreamService changeStreamService;
+
+    private ChangeStreamController changeStreamController;
+
+    @BeforeEach
+    void setUp() {
+
+        changeStreamController = new ChangeStreamController(changeStreamService);
+    }
+
+    @Test
+    public void streamChangesMockTest() {
+
+        SseEmitter emitter = new SseEmitter();
+
+        when(changeStreamService.subscribe(null)).thenReturn(emitter);
+        when(changeStreamService.subscribe(42L)).thenReturn(emitter);
+        when(changeStreamService.subscribe(-1L)).thenReturn(emitter);
+
+        ResponseEntity<SseEmitter> mockResponse = changeStreamController.streamChanges(null, null);
+        ResponseEntity<SseEmitter> mockResponseHeader = changeStreamController.streamChanges("42", "7");
+        ResponseEntity<SseEmitter> mockResponseParam = changeStreamController.streamChanges(null, "42");
+        ResponseEntity<SseEmitter> mockResponseInvalid = changeStreamController.streamChanges("not-an-id", null);
+
+        assertEquals(HttpStatus.OK, mockResponse.getStatusCode());
+        assertSame(emitter, mockResponse.getBody());
+        assertEquals(HttpStatus.OK, mockResponseHeader.getStatusCode());
+        assertEquals(HttpStatus.OK, mockResponseParam.getStatusCode());
+        assertEquals(HttpStatus.OK, mockResponseInvalid.getStatusCode());
+
+        verify(changeStreamService, times(1)).subscribe(null);
+        verify(changeStreamService, times(2)).subscribe(42L);
+        verify(changeStreamService, times(1)).subscribe(-1L);
+        verifyNoMoreInteractions(changeStreamService);
+    }
+
+    @Test
+    public void streamChangesFullMockTest() {
+
+        when(changeStreamService.subscribe(null)).thenReturn(null);
+
+        ResponseEntity<SseEmitter> mockResponse = changeStreamController.streamChanges(null, null);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, mockResponse.getStatusCode());
+
+        verify(changeStreamService, times(1)).subscribe(null);
+        verifyNoMoreInteractions(changeStreamService);
+    }
+}
@@ -0,0 +1,113 @@
+package com.itfactory.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.itfactory.exceptions.DatabaseOperationException;
+import com.itfactory.model.Job;
+import com.itfactory.model.JobDto;
+import com.itfactory.model.JobField;
+import com.itfactory.service.JobService;
+import com.itfactory.utility.TestIdGenerator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.mockito.Mock;
+import static org.mockito.Mockito.*;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Writing JUnit MOCK tests for the JSON API (v2) job controller methods in JobApiController class;
+ */
+
+@SpringBootTest
+class JobApiControllerMockTest {
+
+    @Mock
+    private JobService jobService;
+
+    private JobApiController jobApiController;
+
+    @BeforeEach
+    void setUp() {
+
+        jobApiController = new JobApiController(jobService, new ObjectMapper());
+    }
+
+    @Test
+    public void updateBaseSalaryMockTest() throws DatabaseOperationException {
+
+        int existentId = TestIdGenerator.generateExistentTestId();
+        int invalidId = TestIdGenerator.generateInvalidTestId();
+
+        when(jobService.updateBaseSalary(existentId, 2500)).thenReturn(new Job(existentId, "Test Api", "Testing", 2500));
+        when(jobService.updateBaseSalary(invalidId, 2500)).thenThrow(DatabaseOperationException.class);
+
+        assertEquals(new JobDto(existentId, "Test Api", "Testing", 2500), jobApiController.updateBaseSalary(existentId, 2500));
+        assertThrows(DatabaseOperationException.class, () -> jobApiController.updateBaseSalary(invalidId, 2500));
+
+        verify(jobService, times(1)).updateBaseSalary(existentId, 2500);
+        verify(jobService, times(1)).updateBaseSalary(invalidId, 2500);
+        verifyNoMoreInteractions(jobService);
+    }
+
+    @Test
+    public void insertJobsMockTest() throws DatabaseOperationException {
+
+        List<Job> jobs = List.of(new Job(1, "Test Api", "Testing", 2000), new Job(2, "Test Batch", "Testing", 3000));
+
+        ResponseEntity<Void> mockResponse = jobApiController.insertJobs(jobs);
+
+        assertEquals(HttpStatus.CREATED, mockResponse.getStatusCode());
+
+        verify(jobService, times(1)).insertJobs(jobs);
+        verifyNoMoreInteractions(jobService);
+    }
+
+    @Test
+    public void getAllJobsMockTest() throws DatabaseOperationException, IOException {
+
+        when(jobService.getAllJobs()).thenReturn(List.of(new Job(1, "Test Api", "Testing", 2000), new Job(2, "Test Stream", "Testing", 3000)));
+
+        ResponseEntity<StreamingResponseBody> mockResponse = jobApiController.getAllJobs(null, null);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        mockResponse.getBody().writeTo(output);
+
+        assertEquals(HttpStatus.OK, mockResponse.getStatusCode());
+        assertEquals("[{\"id\":1,\"name\":\"Test Api\",\"domain\":\"Testing\",\"baseSalary\":2000.0},"
+                        + "{\"id\":2,\"name\":\"Test Stream\",\"domain\":\"Testing\",\"baseSalary\":3000.0}]",
+                output.toString(StandardCharsets.UTF_8));
+
+        verify(jobService, times(1)).getAllJobs();
+        verifyNoMoreInteractions(jobService);
+    }
+
+    @Test
+    public void getJobFieldsByIdMockTest() throws DatabaseOperationException, IOException {
+
+        int existentId = TestIdGenerator.generateExistentTestId();
+        EnumSet<JobField> selectedFields = EnumSet.of(JobField.ID, JobField.DOMAIN);
+
+        when(jobService.getJobById(existentId, selectedFields)).thenReturn(new Job(existentId, null, "Testing", 0));
+
+        ResponseEntity<StreamingResponseBody> mockResponse = jobApiController.getJobFieldsById(existentId, "domain,id", null);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        mockResponse.getBody().writeTo(output);
+
+        assertEquals(HttpStatus.OK, mockResponse.getStatusCode());
+        assertEquals("{\"id\":" + existentId + ",\"domain\":\"Testing\"}", output.toString(StandardCharsets.UTF_8));
+
+        verify(jobService, times(1)).getJobById(existentId, selectedFields);
+        verifyNoMoreInteractions(jobService);
+    }
+}
@@ -8,6 +8,10 @@ import org.junit.jupiter.api.Test;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.nio.charset.StandardCharsets;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -70,7 +74,7 @@ class JobRestControllerIntegrationTest {
         testJob2.setDomain("Test Domain");
         jobRestController.insertJob(testJob2);
 
-        assertTrue(jobRestController.getAllJobs().toString().contains("successfully"));
+        assertTrue(new String(jobRestController.getAllJobs(null, new ServletWebRequest(new MockHttpServletRequest())).getBody(), StandardCharsets.UTF_8).contains("successfully"));
 
         jobRestController.deleteJob(String.valueOf(testJob1.getId()));
         jobRestController.deleteJob(String.valueOf(testJob2.getId()));
@@ -1,8 +1,13 @@
 package com.itfactory.controller;
 
 import com.itfactory.exceptions.DatabaseOperationException;
+import com.itfactory.exceptions.ChangesExpiredException;
 import com.itfactory.model.Job;
+import com.itfactory.model.Person;
+import com.itfactory.model.RowChanges;
+import com.itfactory.model.SalaryChange;
 import com.itfactory.service.JobService;
+import com.itfactory.service.PersonService;
 import com.itfactory.utility.TestIdGenerator;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -17,6 +22,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -34,12 +41,16 @@ class JobRestControllerMockTest {
     @Mock
     private JobService jobService;
 
+    @Mock
+    private PersonService personService;
+
     private JobRestController jobRestController;
 
     @BeforeEach
     void setUp() {
 
         jobRestController = new JobRestController(jobService);
+        jobRestController.setPersonService(personService);
     }
 
     @Test
@@ -130,10 +141,10 @@ class JobRestControllerMockTest {
 
         when(jobService.getAllJobs()).thenReturn(testJobsInserted);
 
-        ResponseEntity<String> mockResponse = jobRestController.getAllJobs();
+        ResponseEntity<byte[]> mockResponse = jobRestController.getAllJobs(null, null);
 
         assertEquals(HttpStatus.OK, mockResponse.getStatusCode());
-        assertTrue(mockResponse.getBody().contains("successfully"));
+        assertTrue(new String(mockResponse.getBody(), StandardCharsets.UTF_8).contains("successfully"));
 
         verify(jobService, times(1)).getAllJobs();
         verifyNoMoreInteractions(jobService);
@@ -239,4 +250,99 @@ class JobRestControllerMockTest {
         verify(jobService, times(1)).updateBaseSalary(mockJob.getId(), existingBaseSalary);
         verifyNoMoreInteractions(jobService);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getJobPersonsMockTest() throws DatabaseOperationException {
+
+        Job mockJob = new Job();
+        mockJob.setId(TestIdGenerator.generateExistentTestId());
+        mockJob.setName("Mock Job");
+
+        Person mockPerson1 = new Person(1, "Mock Person One", "one@email.com", mockJob.getId(), 2);
+        Person mockPerson2 = new Person(2, "Mock Person Two", "two@email.com", mockJob.getId(), 2);
+
+        when(jobService.getJobById(mockJob.getId())).thenReturn(mockJob);
+        when(personService.getPersonsByJobId(mockJob.getId(), Integer.MIN_VALUE, 2))
+                .thenReturn(List.of(mockPerson1, mockPerson2));
+
+        ResponseEntity<String> mockResponse = jobRestController.getJobPersons(String.valueOf(mockJob.getId()), null, "2");
+
+        assertEquals(HttpStatus.OK, mockResponse.getStatusCode());
+        assertTrue(mockResponse.getBody().contains("successfully"));
+        assertTrue(mockResponse.getBody().contains("Next page: after=2"));
+
+        verify(jobService, times(1)).getJobById(mockJob.getId());
+        verify(personService, times(1)).getPersonsByJobId(mockJob.getId(), Integer.MIN_VALUE, 2);
+        verifyNoMoreInteractions(jobService, personService);
+    }
+
+    @Test
+    public void getJobPersonsInvalidMockTest() throws DatabaseOperationException {
+
+        int invalidId = TestIdGenerator.generateInvalidTestId();
+
+        doThrow(DatabaseOperationException.class).when(jobService).getJobById(invalidId);
+
+        ResponseEntity<String> mockResponse = jobRestController.getJobPersons(String.valueOf(invalidId), null, "50");
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, mockResponse.getStatusCode());
+        assertTrue(mockResponse.getBody().contains("Failed"));
+
+        verify(jobService, times(1)).getJobById(invalidId);
+        verifyNoInteractions(personService);
+    }
+
+    @Test
+    public void getBaseSalaryHistoryMockTest() throws DatabaseOperationException {
+
+        int existentId = TestIdGenerator.generateExistentTestId();
+        int invalidId = TestIdGenerator.generateInvalidTestId();
+        LocalDateTime from = LocalDateTime.of(2026, 1, 1, 8, 0);
+        SalaryChange change = new SalaryChange(LocalDateTime.of(2026, 1, 15, 10, 30), 1000, 1200);
+
+        when(jobService.getBaseSalaryHistory(existentId, from, null)).thenReturn(List.of(change));
+        doThrow(DatabaseOperationException.class).when(jobService).getBaseSalaryHistory(invalidId, null, null);
+
+        ResponseEntity<String> mockResponse = jobRestController.getBaseSalaryHistory(String.valueOf(existentId), "2026-01-01T08:00", null);
+        ResponseEntity<String> mockResponseFailed = jobRestController.getBaseSalaryHistory(String.valueOf(invalidId), null, null);
+
+        assertEquals(HttpStatus.OK, mockResponse.getStatusCode());
+        assertTrue(mockResponse.getBody().contains("successfully"));
+        assertTrue(mockResponse.getBody().contains("1000.00 ->   1200.00"));
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, mockResponseFailed.getStatusCode());
+        assertTrue(mockResponseFailed.getBody().contains("Failed"));
+
+        verify(jobService, times(1)).getBaseSalaryHistory(existentId, from, null);
+        verify(jobService, times(1)).getBaseSalaryHistory(invalidId, null, null);
+        verifyNoMoreInteractions(jobService);
+        verifyNoInteractions(personService);
+    }
+
+    @Test
+    public void getJobChangesMockTest() throws DatabaseOperationException {
+
+        Job job = new Job(TestIdGenerator.generateExistentTestId(), "Test Changes", "Testing", 2000);
+        RowChanges<Job> changes = new RowChanges<>(List.of(job), List.of(), 80, false);
+
+        when(jobService.getJobChanges(70L, 1000)).thenReturn(changes);
+        when(jobService.getJobChanges(5L, 1000)).thenThrow(new ChangesExpiredException("Changes since version 5 are no longer available"));
+
+        ResponseEntity<String> mockResponse = jobRestController.getJobChanges("70", "1000");
+        ResponseEntity<String> mockResponseExpired = jobRestController.getJobChanges("5", "1000");
+        ResponseEntity<String> mockResponseInvalidLimit = jobRestController.getJobChanges("70", "all");
+
+        assertEquals(HttpStatus.OK, mockResponse.getStatusCode());
+        assertTrue(mockResponse.getBody().contains("Test Changes"));
+        assertTrue(mockResponse.getBody().contains("Version: 80"));
+        assertFalse(mockResponse.getBody().contains("More changes"));
+
+        assertEquals(HttpStatus.GONE, mockResponseExpired.getStatusCode());
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, mockResponseInvalidLimit.getStatusCode());
+
+        verify(jobService, times(1)).getJobChanges(70L, 1000);
+        verify(jobService, times(1)).getJobChanges(5L, 1000);
+        verifyNoMoreInteractions(jobService);
+        verifyNoInteractions(personService);
+    }
+}
@@ -0,0 +1,160 @@
+package com.itfactory.controller;
+
+import com.itfactory.exceptions.DatabaseOperationException;
+import com.itfactory.model.PayrollImpact;
+import com.itfactory.model.PayrollSimulation;
+import com.itfactory.model.PayrollSummary;
+import com.itfactory.model.PayrollTotals;
+import com.itfactory.model.Person;
+import com.itfactory.model.PersonSalary;
+import com.itfactory.model.SalaryPercentiles;
+import com.itfactory.model.SalaryScenario;
+import com.itfactory.service.PayrollService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.mockito.Mock;
+import static org.mockito.Mockito.*;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writing JUnit MOCK tests for the PayrollRestController methods;
+ * Asserting with the ResponseEntity<String>, by both status code and String returned;
+ */
+
+@SpringBootTest
+class PayrollRestControllerMockTest {
+
+    @Mock
+    private PayrollService payrollService;
+
+    private PayrollRestController payrollRestController;
+
+    @BeforeEach
+    void setUp() {
+
+        payrollRestController = new PayrollRestController(payrollService);
+    }
+
+    @Test
+    public void getPayrollSummaryMockTest() throws DatabaseOperationException {
+
+        PayrollTotals totals = new PayrollTotals(2, 5000, 4, 2000, 3000);
+        TreeMap<Integer, PayrollTotals> byJobId = new TreeMap<>();
+        byJobId.put(1, totals);
+        TreeMap<String, PayrollTotals> byDomain = new TreeMap<>();
+        byDomain.put("Testing", totals);
+
+        when(payrollService.getPayrollSummary()).thenReturn(new PayrollSummary(byJobId, byDomain, totals));
+
+        ResponseEntity<String> mockResponse = payrollRestController.getPayrollSummary();
+
+        assertEquals(HttpStatus.OK, mockResponse.getStatusCode());
+        assertTrue(mockResponse.getBody().contains("successfully"));
+        assertTrue(mockResponse.getBody().contains("Domain: Testing"));
+        assertTrue(mockResponse.getBody().contains("5000.0"));
+
+        verify(payrollService, times(1)).getPayrollSummary();
+        verifyNoMoreInteractions(payrollService);
+    }
+
+    @Test
+    public void getPayrollSummaryFailureMockTest() throws DatabaseOperationException {
+
+        doThrow(DatabaseOperationException.class).when(payrollService).getPayrollSummary();
+
+        ResponseEntity<String> mockResponse = payrollRestController.getPayrollSummary();
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, mockResponse.getStatusCode());
+        assertTrue(mockResponse.getBody().contains("Failed"));
+
+        verify(payrollService, times(1)).getPayrollSummary();
+        verifyNoMoreInteractions(payrollService);
+    }
+
+    @Test
+    public void getSalaryPercentilesMockTest() throws DatabaseOperationException {
+
+        SalaryPercentiles percentiles = new SalaryPercentiles(3, 2400, 2500, 2500,
+                List.of(new SalaryPercentiles.Bucket(1500, 2500, 3)));
+
+        when(payrollService.getSalaryPercentiles("Testing", null)).thenReturn(percentiles);
+        doThrow(DatabaseOperationException.class).when(payrollService).getSalaryPercentiles("Unknown", null);
+
+        ResponseEntity<String> mockResponse = payrollRestController.getSalaryPercentiles("Testing", null);
+        ResponseEntity<String> mockResponseUnknown = payrollRestController.getSalaryPercentiles("Unknown", null);
+        ResponseEntity<String> mockResponseInvalidJobId = payrollRestController.getSalaryPercentiles(null, "one");
+
+        assertEquals(HttpStatus.OK, mockResponse.getStatusCode());
+        assertTrue(mockResponse.getBody().contains("p50 salary: 2400.0"));
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, mockResponseUnknown.getStatusCode());
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, mockResponseInvalidJobId.getStatusCode());
+        assertTrue(mockResponseInvalidJobId.getBody().contains("Failed"));
+
+        verify(payrollService, times(1)).getSalaryPercentiles("Testing", null);
+        verify(payrollService, times(1)).getSalaryPercentiles("Unknown", null);
+        verifyNoMoreInteractions(payrollService);
+    }
+
+    @Test
+    public void getTopPaidPersonsMockTest() throws DatabaseOperationException {
+
+        Person mockPerson = new Person(1, "Test Mock Person", "testmock@email.com", 1, 3);
+
+        when(payrollService.getTopPaidPersons(1, "Testing")).thenReturn(List.of(new PersonSalary(mockPerson, 6000)));
+        doThrow(DatabaseOperationException.class).when(payrollService).getTopPaidPersons(0, null);
+
+        ResponseEntity<String> mockResponse = payrollRestController.getTopPaidPersons("1", "Testing");
+        ResponseEntity<String> mockResponseInvalidN = payrollRestController.getTopPaidPersons("0", null);
+
+        assertEquals(HttpStatus.OK, mockResponse.getStatusCode());
+        assertTrue(mockResponse.getBody().contains("Test Mock Person"));
+        assertTrue(mockResponse.getBody().contains("6000.0"));
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, mockResponseInvalidN.getStatusCode());
+        assertTrue(mockResponseInvalidN.getBody().contains("Failed"));
+
+        verify(payrollService, times(1)).getTopPaidPersons(1, "Testing");
+        verify(payrollService, times(1)).getTopPaidPersons(0, null);
+        verifyNoMoreInteractions(payrollService);
+    }
+
+    @Test
+    public void simulatePayrollMockTest() throws DatabaseOperationException {
+
+        PayrollImpact impact = new PayrollImpact(2, 5000, 5350);
+        SalaryScenario scenario = new SalaryScenario(Map.of("Testing", 7.0), Map.of(), Map.of(1, 2.0), 2.5, null);
+        TreeMap<Integer, PayrollImpact> byJobId = new TreeMap<>();
+        byJobId.put(1, impact);
+        TreeMap<String, PayrollImpact> byDomain = new TreeMap<>();
+        byDomain.put("Testing", impact);
+
+        when(payrollService.simulatePayroll(scenario)).thenReturn(new PayrollSimulation(byJobId, byDomain, impact));
+
+        ResponseEntity<String> mockResponse = payrollRestController.simulatePayroll(
+                List.of("Testing:7"), null, List.of("1:2"), "2.5", null);
+        ResponseEntity<String> mockResponseInvalidRaise = payrollRestController.simulatePayroll(
+                List.of("Testing"), null, null, null, null);
+
+        assertEquals(HttpStatus.OK, mockResponse.getStatusCode());
+        assertTrue(mockResponse.getBody().contains("successfully"));
+        assertTrue(mockResponse.getBody().contains("+350.0"));
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, mockResponseInvalidRaise.getStatusCode());
+        assertTrue(mockResponseInvalidRaise.getBody().contains("Failed"));
+
+        verify(payrollService, times(1)).simulatePayroll(scenario);
+        verifyNoMoreInteractions(payrollService);
+    }
+}
@@ -0,0 +1,198 @@
+package com.itfactory.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.itfactory.codec.LengthPrefixedFrames;
+import com.itfactory.exceptions.DatabaseOperationException;
+import com.itfactory.exceptions.InvalidFieldsException;
+import com.itfactory.model.Person;
+import com.itfactory.model.PersonDto;
+import com.itfactory.model.PersonField;
+import com.itfactory.model.PersonSalaryDto;
+import com.itfactory.service.PersonService;
+import com.itfactory.utility.TestIdGenerator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.mockito.Mock;
+import static org.mockito.Mockito.*;
+import static org.mockito.ArgumentMatchers.any;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Writing JUnit MOCK tests for the JSON API (v2) person controller methods in PersonApiController class;
+ * Asserting with the returned DTOs, and with the JSON (or CBOR frames) written by the streamed /all response;
+ */
+
+@SpringBootTest
+class PersonApiControllerMockTest {
+
+    @Mock
+    private PersonService personService;
+
+    private PersonApiController personApiController;
+
+    @BeforeEach
+    void setUp() {
+
+        personApiController = new PersonApiController(personService, new ObjectMapper());
+    }
+
+    @Test
+    public void getPersonByIdMockTest() throws DatabaseOperationException {
+
+        int existentId = TestIdGenerator.generateExistentTestId();
+        int invalidId = TestIdGenerator.generateInvalidTestId();
+        Person mockPerson = new Person(existentId, "Test Api", "test@api.com", 1, 2.0);
+
+        when(personService.getPersonById(existentId)).thenReturn(mockPerson);
+        when(personService.getPersonById(invalidId)).thenThrow(DatabaseOperationException.class);
+        when(personService.getPersonSalary(existentId)).thenReturn(4000.0);
+
+        assertEquals(new PersonDto(existentId, "Test Api", "test@api.com", 1, 2.0), personApiController.getPersonById(existentId, null, null).getBody());
+        assertEquals(new PersonSalaryDto(existentId, 4000.0), personApiController.getPersonSalary(existentId));
+        assertThrows(DatabaseOperationException.class, () -> personApiController.getPersonById(invalidId, null, null));
+
+        verify(personService, times(1)).getPersonById(existentId);
+        verify(personService, times(1)).getPersonById(invalidId);
+        verify(personService, times(1)).getPersonSalary(existentId);
+        verifyNoMoreInteractions(personService);
+    }
+
+    @Test
+    public void insertPersonMockTest() throws DatabaseOperationException {
+
+        PersonDto person = new PersonDto(TestIdGenerator.generateExistentTestId(), "Test Api", "test@api.com", 1, 2.0);
+
+        ResponseEntity<PersonDto> mockResponse = personApiController.insertPerson(person);
+
+        assertEquals(HttpStatus.CREATED, mockResponse.getStatusCode());
+        assertEquals(person, mockResponse.getBody());
+
+        verify(personService, times(1)).insertPerson(any(Person.class));
+        verifyNoMoreInteractions(personService);
+    }
+
+    @Test
+    public void insertPersonsMockTest() throws DatabaseOperationException {
+
+        List<Person> persons = List.of(new Person(1, "Test Api", "test@api.com", 1, 2.0), new Person(2, "Test Batch", "batch@api.com", 1, 1.0));
+
+        ResponseEntity<Void> mockResponse = personApiController.insertPersons(persons);
+
+        assertEquals(HttpStatus.CREATED, mockResponse.getStatusCode());
+
+        verify(personService, times(1)).insertPersons(persons);
+        verifyNoMoreInteractions(personService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void getAllPersonsMockTest() throws DatabaseOperationException, IOException {
+
+        doAnswer(invocation -> {
+
+            Consumer<Person> consumer = invocation.getArgument(1);
+            consumer.accept(new Person(1, "Test Api", "test@api.com", 1, 2.0));
+            consumer.accept(new Person(2, "Test \"Quoted\"", "quoted@api.com", 2, 1.5));
+            return null;
+        }).when(personService).forEachPerson(any(), any(Consumer.class));
+
+        ResponseEntity<StreamingResponseBody> mockResponse = personApiController.getAllPersons(null, "application/json");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        mockResponse.getBody().writeTo(output);
+
+        assertEquals(HttpStatus.OK, mockResponse.getStatusCode());
+        assertEquals("[{\"id\":1,\"name\":\"Test Api\",\"email\":\"test@api.com\",\"jobId\":1,\"salaryIndex\":2.0},"
+                        + "{\"id\":2,\"name\":\"Test \\\"Quoted\\\"\",\"email\":\"quoted@api.com\",\"jobId\":2,\"salaryIndex\":1.5}]",
+                output.toString(StandardCharsets.UTF_8));
+
+        verify(personService, times(1)).forEachPerson(any(), any(Consumer.class));
+        verifyNoMoreInteractions(personService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void getAllPersonsFailedMockTest() throws DatabaseOperationException {
+
+        doThrow(DatabaseOperationException.class).when(personService).forEachPerson(any(), any(Consumer.class));
+
+        ResponseEntity<StreamingResponseBody> mockResponse = personApiController.getAllPersons(null, null);
+
+        assertThrows(IOException.class, () -> mockResponse.getBody().writeTo(new ByteArrayOutputStream()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void getAllPersonsCborFramesMockTest() throws DatabaseOperationException, IOException {
+
+        Person first = new Person(1, "Test Api", "test@api.com", 1, 2.0);
+        Person second = new Person(2, "Test Frames", "frames@api.com", 2, 1.5);
+
+        doAnswer(invocation -> {
+
+            Consumer<Person> consumer = invocation.getArgument(1);
+            consumer.accept(first);
+            consumer.accept(second);
+            return null;
+        }).when(personService).forEachPerson(any(), any(Consumer.class));
+
+        ResponseEntity<StreamingResponseBody> mockResponse = personApiController.getAllPersons(null, "application/x-cbor-frames");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        mockResponse.getBody().writeTo(output);
+
+        LengthPrefixedFrames.Reader reader = new LengthPrefixedFrames.Reader(new ByteArrayInputStream(output.toByteArray()));
+        CBORMapper cborMapper = new CBORMapper();
+
+        assertEquals(HttpStatus.OK, mockResponse.getStatusCode());
+        assertEquals(PersonDto.of(first), cborMapper.readValue(reader.next(), PersonDto.class));
+        assertEquals(PersonDto.of(second), cborMapper.readValue(reader.next(), PersonDto.class));
+        assertNull(reader.next());
+
+        ResponseEntity<StreamingResponseBody> mockResponseNotAcceptable = personApiController.getAllPersons(null, "text/html");
+
+        assertEquals(HttpStatus.NOT_ACCEPTABLE, mockResponseNotAcceptable.getStatusCode());
+
+        verify(personService, times(1)).forEachPerson(any(), any(Consumer.class));
+        verifyNoMoreInteractions(personService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void getAllPersonsFieldsMockTest() throws DatabaseOperationException, IOException {
+
+        EnumSet<PersonField> selectedFields = EnumSet.of(PersonField.ID, PersonField.NAME);
+
+        doAnswer(invocation -> {
+
+            Consumer<Person> consumer = invocation.getArgument(1);
+            consumer.accept(new Person(1, "Test Api", null, 0, 0));
+            return null;
+        }).when(personService).forEachPerson(eq(selectedFields), any(Consumer.class));
+
+        ResponseEntity<StreamingResponseBody> mockResponse = personApiController.getAllPersons("name,id", null);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        mockResponse.getBody().writeTo(output);
+
+        assertEquals(HttpStatus.OK, mockResponse.getStatusCode());
+        assertEquals("[{\"id\":1,\"name\":\"Test Api\"}]", output.toString(StandardCharsets.UTF_8));
+        assertThrows(InvalidFieldsException.class, () -> personApiController.getAllPersons("id,password", null));
+
+        verify(personService, times(1)).forEachPerson(eq(selectedFields), any(Consumer.class));
+        verifyNoMoreInteractions(personService);
+    }
+}
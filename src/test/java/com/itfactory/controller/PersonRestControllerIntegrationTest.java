@@ -9,6 +9,10 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.nio.charset.StandardCharsets;
 
 /**
  * Writing JUnit INTEGRATION tests for each of the 8 PersonRestController methods;
@@ -70,7 +74,7 @@ class PersonRestControllerIntegrationTest {
         testPerson2.setJobId(TestIdGenerator.generateExistentTestId());
         personRestController.insertPerson(testPerson2);
 
-        assertTrue(personRestController.getAllPersons().toString().contains("successfully"));
+        assertTrue(new String(personRestController.getAllPersons(null, new ServletWebRequest(new MockHttpServletRequest())).getBody(), StandardCharsets.UTF_8).contains("successfully"));
 
         personRestController.deletePerson(String.valueOf(testPerson1.getId()));
         personRestController.deletePerson(String.valueOf(testPerson2.getId()));
@@ -1,9 +1,18 @@
 package com.itfactory.controller;
 
 import com.itfactory.exceptions.DatabaseOperationException;
+import com.itfactory.exceptions.ChangesExpiredException;
 import com.itfactory.model.Job;
 import com.itfactory.model.Person;
+import com.itfactory.model.PersonSalary;
+import com.itfactory.model.RowChanges;
+import com.itfactory.model.SalaryHistoryEntry;
+import com.itfactory.model.WorkExperienceCounts;
+import com.itfactory.model.WorkExperienceDistribution;
 import com.itfactory.service.PersonService;
+import com.itfactory.storage.CompressedBodyCache;
+import com.itfactory.storage.SearchMatch;
+import com.itfactory.storage.TableVersions;
 import com.itfactory.utility.TestIdGenerator;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -15,11 +24,19 @@ import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * Writing JUnit MOCK tests for each of the 8 PersonRestController methods;
@@ -131,15 +148,53 @@ class PersonRestControllerMockTest {
 
         when(personService.getAllPersons()).thenReturn(testPersonsInserted);
 
-        ResponseEntity<String> mockResponse = personRestController.getAllPersons();
+        ResponseEntity<byte[]> mockResponse = personRestController.getAllPersons(null, webRequest(null));
 
         assertEquals(HttpStatus.OK, mockResponse.getStatusCode());
-        assertTrue(mockResponse.getBody().contains("successfully"));
+        assertTrue(new String(mockResponse.getBody(), StandardCharsets.UTF_8).contains("successfully"));
 
         verify(personService, times(1)).getAllPersons();
         verifyNoMoreInteractions(personService);
     }
 
+    //with the cache (and no stale-while-revalidate window), the body is rendered once, and served until a write bumps the table version;
+    @Test
+    public void getAllPersonsCachedMockTest() throws DatabaseOperationException {
+
+        TableVersions tableVersions = new TableVersions();
+        personRestController.setCompressedBodyCache(new CompressedBodyCache(true, "1B", "64MB", "zstd, gzip", 0));
+        personRestController.setTableVersions(tableVersions);
+
+        Person mockPerson = new Person();
+        mockPerson.setId(TestIdGenerator.generateExistentTestId());
+
+        when(personService.getAllPersons()).thenReturn(List.of(mockPerson));
+
+        ResponseEntity<byte[]> firstResponse = personRestController.getAllPersons("gzip, deflate", webRequest(null));
+        ResponseEntity<byte[]> secondResponse = personRestController.getAllPersons("gzip, deflate", webRequest(null));
+
+        assertEquals("gzip", firstResponse.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertSame(firstResponse.getBody(), secondResponse.getBody());
+
+        //a current ETag gets a 304, without the service being called;
+        String eTag = firstResponse.getHeaders().getETag();
+        MockHttpServletResponse notModified = new MockHttpServletResponse();
+
+        assertNull(personRestController.getAllPersons("gzip, deflate", new ServletWebRequest(ifNoneMatch(eTag), notModified)));
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), notModified.getStatus());
+
+        tableVersions.rowWritten(TableVersions.PERSON, mockPerson.getId());
+
+        ResponseEntity<byte[]> identityResponse = personRestController.getAllPersons(null, webRequest(eTag));
+
+        assertNull(identityResponse.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertNotEquals(eTag, identityResponse.getHeaders().getETag());
+        assertTrue(new String(identityResponse.getBody(), StandardCharsets.UTF_8).contains("successfully"));
+
+        verify(personService, times(2)).getAllPersons();
+        verifyNoMoreInteractions(personService);
+    }
+
     @Test
     public void insertPersonMockTest() throws DatabaseOperationException {
 
@@ -387,4 +442,178 @@ class PersonRestControllerMockTest {
         verify(personService, never()).getPersonWorkExperience(mockPerson.getId());
         verifyNoMoreInteractions(personService);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getPersonByEmailMockTest() throws DatabaseOperationException {
+
+        Person mockPerson = new Person(TestIdGenerator.generateExistentTestId(), "Test Mock Person",
+                "testmock@email.com", TestIdGenerator.generateExistentTestId(), 2);
+
+        when(personService.getPersonByEmail(mockPerson.getEmail())).thenReturn(mockPerson);
+        doThrow(DatabaseOperationException.class).when(personService).getPersonByEmail("unknown@email.com");
+
+        ResponseEntity<String> mockResponse = personRestController.getPersonByEmail(mockPerson.getEmail());
+        ResponseEntity<String> mockResponseUnknown = personRestController.getPersonByEmail("unknown@email.com");
+
+        assertEquals(HttpStatus.OK, mockResponse.getStatusCode());
+        assertTrue(mockResponse.getBody().contains("successfully"));
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, mockResponseUnknown.getStatusCode());
+        assertTrue(mockResponseUnknown.getBody().contains("Failed"));
+
+        verify(personService, times(1)).getPersonByEmail(mockPerson.getEmail());
+        verify(personService, times(1)).getPersonByEmail("unknown@email.com");
+        verifyNoMoreInteractions(personService);
+    }
+
+    @Test
+    public void searchPersonsMockTest() throws DatabaseOperationException {
+
+        Person mockPerson = new Person(TestIdGenerator.generateExistentTestId(), "Test Mock Person",
+                "testmock@email.com", TestIdGenerator.generateExistentTestId(), 2);
+
+        when(personService.searchPersons("Tset Mock", 10)).thenReturn(List.of(new SearchMatch(mockPerson, 5, 0.5)));
+        doThrow(DatabaseOperationException.class).when(personService).searchPersons(" ", 10);
+
+        ResponseEntity<String> mockResponse = personRestController.searchPersons("Tset Mock", "10");
+        ResponseEntity<String> mockResponseBlank = personRestController.searchPersons(" ", "10");
+        ResponseEntity<String> mockResponseInvalidLimit = personRestController.searchPersons("Tset Mock", "ten");
+
+        assertEquals(HttpStatus.OK, mockResponse.getStatusCode());
+        assertTrue(mockResponse.getBody().contains("successfully"));
+        assertTrue(mockResponse.getBody().contains(mockPerson.getName()));
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, mockResponseBlank.getStatusCode());
+        assertTrue(mockResponseBlank.getBody().contains("Failed"));
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, mockResponseInvalidLimit.getStatusCode());
+        assertTrue(mockResponseInvalidLimit.getBody().contains("Failed"));
+
+        verify(personService, times(1)).searchPersons("Tset Mock", 10);
+        verify(personService, times(1)).searchPersons(" ", 10);
+        verifyNoMoreInteractions(personService);
+    }
+
+    @Test
+    public void getPersonsBySalaryRangeMockTest() throws DatabaseOperationException {
+
+        Person mockPerson = new Person(TestIdGenerator.generateExistentTestId(), "Test Mock Person",
+                "testmock@email.com", TestIdGenerator.generateExistentTestId(), 2);
+
+        when(personService.getPersonsBySalaryRange(3000, Double.MAX_VALUE, 50)).thenReturn(List.of(new PersonSalary(mockPerson, 4000)));
+        doThrow(DatabaseOperationException.class).when(personService).getPersonsBySalaryRange(3000, 1000, 50);
+
+        ResponseEntity<String> mockResponse = personRestController.getPersonsBySalaryRange("3000", null, "50");
+        ResponseEntity<String> mockResponseInvalidRange = personRestController.getPersonsBySalaryRange("3000", "1000", "50");
+
+        assertEquals(HttpStatus.OK, mockResponse.getStatusCode());
+        assertTrue(mockResponse.getBody().contains("successfully"));
+        assertTrue(mockResponse.getBody().contains("4000.0"));
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, mockResponseInvalidRange.getStatusCode());
+        assertTrue(mockResponseInvalidRange.getBody().contains("Failed"));
+
+        verify(personService, times(1)).getPersonsBySalaryRange(3000, Double.MAX_VALUE, 50);
+        verify(personService, times(1)).getPersonsBySalaryRange(3000, 1000, 50);
+        verifyNoMoreInteractions(personService);
+    }
+
+    @Test
+    public void getWorkExperienceDistributionMockTest() throws DatabaseOperationException {
+
+        WorkExperienceCounts counts = new WorkExperienceCounts(1, 2, 3, 4);
+        WorkExperienceDistribution distribution = new WorkExperienceDistribution(
+                new TreeMap<>(Map.of(1, counts)), new TreeMap<>(Map.of("Testing", counts)), counts);
+
+        when(personService.getWorkExperienceDistribution()).thenReturn(distribution).thenThrow(DatabaseOperationException.class);
+
+        ResponseEntity<String> mockResponse = personRestController.getWorkExperienceDistribution();
+        ResponseEntity<String> mockResponseFailed = personRestController.getWorkExperienceDistribution();
+
+        assertEquals(HttpStatus.OK, mockResponse.getStatusCode());
+        assertTrue(mockResponse.getBody().contains("successfully"));
+        assertTrue(mockResponse.getBody().contains("Domain: Testing"));
+        assertTrue(mockResponse.getBody().contains("persons:     10"));
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, mockResponseFailed.getStatusCode());
+        assertTrue(mockResponseFailed.getBody().contains("Failed"));
+
+        verify(personService, times(2)).getWorkExperienceDistribution();
+        verifyNoMoreInteractions(personService);
+    }
+
+    @Test
+    public void getSalaryHistoryMockTest() throws DatabaseOperationException {
+
+        int existentId = TestIdGenerator.generateExistentTestId();
+        LocalDateTime from = LocalDateTime.of(2026, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2026, 1, 31, 23, 59, 59, 999_999_999);
+        SalaryHistoryEntry entry = new SalaryHistoryEntry(LocalDateTime.of(2026, 1, 15, 10, 30), "salary index", 2.5, 1000, 2500);
+
+        when(personService.getSalaryHistory(existentId, from, to)).thenReturn(List.of(entry)).thenThrow(DatabaseOperationException.class);
+
+        ResponseEntity<String> mockResponse = personRestController.getSalaryHistory(String.valueOf(existentId), "2026-01-01", "2026-01-31");
+        ResponseEntity<String> mockResponseFailed = personRestController.getSalaryHistory(String.valueOf(existentId), "2026-01-01", "2026-01-31");
+        ResponseEntity<String> mockResponseInvalidDate = personRestController.getSalaryHistory(String.valueOf(existentId), "January", null);
+
+        assertEquals(HttpStatus.OK, mockResponse.getStatusCode());
+        assertTrue(mockResponse.getBody().contains("successfully"));
+        assertTrue(mockResponse.getBody().contains("salary:   2500.00"));
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, mockResponseFailed.getStatusCode());
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, mockResponseInvalidDate.getStatusCode());
+        assertTrue(mockResponseInvalidDate.getBody().contains("Failed"));
+
+        verify(personService, times(2)).getSalaryHistory(existentId, from, to);
+        verifyNoMoreInteractions(personService);
+    }
+
+    @Test
+    public void getPersonChangesMockTest() throws DatabaseOperationException {
+
+        Person person = new Person(TestIdGenerator.generateExistentTestId(), "Test Changes", "test@changes.com", 1, 2.0);
+        RowChanges<Person> changes = new RowChanges<>(List.of(person), List.of(42), 120, true);
+
+        when(personService.getPersonChanges(100L, 2)).thenReturn(changes);
+        when(personService.getPersonChanges(5L, 1000)).thenThrow(new ChangesExpiredException("Changes since version 5 are no longer available"));
+        when(personService.getPersonChanges(null, 1000)).thenThrow(DatabaseOperationException.class);
+
+        ResponseEntity<String> mockResponse = personRestController.getPersonChanges("100", "2");
+        ResponseEntity<String> mockResponseExpired = personRestController.getPersonChanges("5", "1000");
+        ResponseEntity<String> mockResponseFailed = personRestController.getPersonChanges(null, "1000");
+        ResponseEntity<String> mockResponseInvalidVersion = personRestController.getPersonChanges("latest", "1000");
+
+        assertEquals(HttpStatus.OK, mockResponse.getStatusCode());
+        assertTrue(mockResponse.getBody().contains("Test Changes"));
+        assertTrue(mockResponse.getBody().contains("Deleted person id: 42"));
+        assertTrue(mockResponse.getBody().contains("Version: 120"));
+        assertTrue(mockResponse.getBody().contains("since=120"));
+
+        assertEquals(HttpStatus.GONE, mockResponseExpired.getStatusCode());
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, mockResponseFailed.getStatusCode());
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, mockResponseInvalidVersion.getStatusCode());
+        assertTrue(mockResponseInvalidVersion.getBody().contains("Failed"));
+
+        verify(personService, times(1)).getPersonChanges(100L, 2);
+        verify(personService, times(1)).getPersonChanges(5L, 1000);
+        verify(personService, times(1)).getPersonChanges(null, 1000);
+        verifyNoMoreInteractions(personService);
+    }
+
+    private static MockHttpServletRequest ifNoneMatch(String eTag) {
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/person/all");
+
+        if (eTag != null) {
+
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, eTag);
+        }
+
+        return request;
+    }
+
+    private static ServletWebRequest webRequest(String eTag) {
+
+        return new ServletWebRequest(ifNoneMatch(eTag), new MockHttpServletResponse());
+    }
+}
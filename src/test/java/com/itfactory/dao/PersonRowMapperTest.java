@@ -0,0 +1,149 @@
+package com.itfactory.dao;
+
+import com.itfactory.model.Job;
+import com.itfactory.model.Person;
+import com.itfactory.model.PersonRecord;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writing JUnit tests for mapping result set rows to persons, person records and jobs by column index;
+ */
+
+class PersonRowMapperTest {
+
+    @Test
+    void mapPersonTest() throws SQLException {
+
+        CachedRowSet rows = rows(new String[]{"id", "name", "email", "jobId", "salaryIndex", "salary"},
+                new int[]{Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.DOUBLE, Types.DOUBLE},
+                new Object[]{1, "Test Name", "test@itfactory.com", 3, 1.5, 4500.0},
+                new Object[]{2, "Other Name", "other@itfactory.com", 4, 2.0, 8000.0});
+
+        PersonRowMapper mapper = PersonRowMapper.of(rows);
+
+        assertTrue(rows.next());
+        assertPerson(new Person(1, "Test Name", "test@itfactory.com", 3, 1.5), mapper.map());
+
+        assertTrue(rows.next());
+        assertPerson(new Person(2, "Other Name", "other@itfactory.com", 4, 2.0), mapper.map());
+
+        assertFalse(rows.next());
+    }
+
+    @Test
+    void mapProjectionTest() throws SQLException {
+
+        CachedRowSet rows = rows(new String[]{"id", "email"}, new int[]{Types.INTEGER, Types.VARCHAR},
+                new Object[]{7, "test@itfactory.com"});
+
+        PersonRowMapper mapper = PersonRowMapper.of(rows);
+
+        assertTrue(rows.next());
+        assertPerson(new Person(7, null, "test@itfactory.com", 0, 0), mapper.map());
+    }
+
+    @Test
+    void mapJoinTest() throws SQLException {
+
+        //person join job: both tables have id and name, and each mapper takes the first one;
+        CachedRowSet rows = rows(new String[]{"jobId", "id", "name", "domain", "baseSalary"},
+                new int[]{Types.INTEGER, Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.DOUBLE},
+                new Object[]{3, 3, "Tester", "IT", 3000.5});
+
+        JobRowMapper mapper = JobRowMapper.of(rows);
+
+        assertTrue(rows.next());
+
+        Job job = mapper.map();
+
+        assertEquals(3, job.getId());
+        assertEquals("Tester", job.getName());
+        assertEquals("IT", job.getDomain());
+        assertEquals(3000.5, job.getBaseSalary());
+    }
+
+    @Test
+    void mapRecordTest() throws SQLException {
+
+        CachedRowSet rows = rows(new String[]{"id", "name", "email", "jobId", "salaryIndex"},
+                new int[]{Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.DOUBLE},
+                new Object[]{1, "Test Name", "test@itfactory.com", 3, 1.5});
+
+        PersonRowMapper mapper = PersonRowMapper.of(rows);
+
+        assertTrue(rows.next());
+        assertEquals(new PersonRecord(1, "Test Name", "test@itfactory.com", 3, 1.5), mapper.mapRecord());
+    }
+
+    @Test
+    void domainsInternedTest() throws SQLException {
+
+        //each row gets its own String from the driver; the mapped jobs share one instance per domain;
+        CachedRowSet rows = rows(new String[]{"id", "name", "domain", "baseSalary"},
+                new int[]{Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.DOUBLE},
+                new Object[]{1, "Tester", new String("Testing"), 3000.0},
+                new Object[]{2, "Test Lead", new String("Testing"), 5000.0});
+
+        JobRowMapper mapper = JobRowMapper.of(rows);
+
+        assertTrue(rows.next());
+        Job first = mapper.map();
+        assertTrue(rows.next());
+        Job second = mapper.map();
+
+        assertEquals("Testing", first.getDomain());
+        assertSame(first.getDomain(), second.getDomain());
+    }
+
+    private static void assertPerson(Person expected, Person actual) {
+
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getEmail(), actual.getEmail());
+        assertEquals(expected.getJobId(), actual.getJobId());
+        assertEquals(expected.getSalaryIndex(), actual.getSalaryIndex());
+    }
+
+    private static CachedRowSet rows(String[] labels, int[] types, Object[]... values) throws SQLException {
+
+        RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+        metaData.setColumnCount(labels.length);
+
+        for (int column = 1; column <= labels.length; column++) {
+
+            metaData.setColumnLabel(column, labels[column - 1]);
+            metaData.setColumnName(column, labels[column - 1]);
+            metaData.setColumnType(column, types[column - 1]);
+        }
+
+        CachedRowSet rows = RowSetProvider.newFactory().createCachedRowSet();
+        rows.setMetaData(metaData);
+
+        //an inserted row goes before the current one (before first), hence the reverse order;
+        for (int i = values.length - 1; i >= 0; i--) {
+
+            rows.moveToInsertRow();
+
+            for (int column = 1; column <= values[i].length; column++) {
+
+                rows.updateObject(column, values[i][column - 1]);
+            }
+
+            rows.insertRow();
+            rows.moveToCurrentRow();
+        }
+
+        rows.beforeFirst();
+
+        return rows;
+    }
+}
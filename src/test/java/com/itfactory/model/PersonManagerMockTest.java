@@ -113,23 +113,34 @@ class PersonManagerMockTest {
         verifyNoMoreInteractions(jobDao);
     }
 
-    //creating a custom work experience, setting salary index for person, mocking person to return set salary index;
-    //calling tested method, asserting between custom work experience and obtained work experience, verifying successful calling;
+    //mocking person to return the salary index at each tier threshold, and right below it, asserting the work experience obtained;
     //invalid scenario - setting invalid salary index for person, mock person to return set salary index, assert if corresponding message is returned;
     @Test
     public void getWorkExperienceMockTest() throws DatabaseOperationException {
 
-        person.setSalaryIndex(2.0);
+        when(person.getName()).thenReturn("Test Person");
+
+        //each tier starts exactly at its threshold (a bin edge of the lookup table), and the value right below it is in the previous tier;
+        for (WorkExperience tier : WorkExperience.values()) {
+
+            when(person.getSalaryIndex()).thenReturn(tier.getMinSalaryIndex());
+            assertEquals("Test Person" + tier.getWorkExperience(), personManager.getWorkExperience());
 
-        String actualWorkExperience = "mid level";
+            if (tier.ordinal() > 0) {
 
-        when(person.getSalaryIndex()).thenReturn(2.0);
+                WorkExperience previousTier = WorkExperience.values()[tier.ordinal() - 1];
 
-        String getWorkExperience = personManager.getWorkExperience();
+                when(person.getSalaryIndex()).thenReturn(Math.nextDown(tier.getMinSalaryIndex()));
+                assertEquals("Test Person" + previousTier.getWorkExperience(), personManager.getWorkExperience());
+            }
+        }
 
-        assertTrue(getWorkExperience.contains(actualWorkExperience));
+        //the top of the valid range is still the top tier;
+        when(person.getSalaryIndex()).thenReturn(3.0);
+        assertEquals("Test Person" + WorkExperience.SENIOR.getWorkExperience(), personManager.getWorkExperience());
 
-        verify(person, times(5)).getSalaryIndex();
+        //without salary rules, the tier only depends on the salary index: the job is never read;
+        verifyNoInteractions(jobDao, jobService);
     }
 
     @Test
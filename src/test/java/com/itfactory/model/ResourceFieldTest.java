@@ -0,0 +1,41 @@
+package com.itfactory.model;
+
+import com.itfactory.exceptions.InvalidFieldsException;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writing JUnit tests for parsing fields= against the person and job field whitelists, and projecting them to SQL columns;
+ */
+
+class ResourceFieldTest {
+
+    @Test
+    void parseTest() throws InvalidFieldsException {
+
+        assertEquals(EnumSet.allOf(PersonField.class), ResourceField.parse(null, PersonField.class));
+        assertEquals(EnumSet.of(PersonField.ID, PersonField.NAME), ResourceField.parse("name, id", PersonField.class));
+        assertEquals(EnumSet.of(JobField.DOMAIN), ResourceField.parse("domain,,domain", JobField.class));
+    }
+
+    @Test
+    void invalidFieldsTest() {
+
+        assertThrows(InvalidFieldsException.class, () -> ResourceField.parse("id,password", PersonField.class));
+        assertThrows(InvalidFieldsException.class, () -> ResourceField.parse("id; DROP TABLE person", PersonField.class));
+        assertThrows(InvalidFieldsException.class, () -> ResourceField.parse("baseSalary", PersonField.class));
+        assertThrows(InvalidFieldsException.class, () -> ResourceField.parse(" , ", JobField.class));
+    }
+
+    @Test
+    void columnsTest() throws InvalidFieldsException {
+
+        //declaration order, whatever the order asked for, as the row mappers read columns by position;
+        assertEquals("id, name, salaryIndex", ResourceField.columns(ResourceField.parse("salaryIndex,name,id", PersonField.class)));
+        assertEquals("id, name, domain, baseSalary", ResourceField.columns(EnumSet.allOf(JobField.class)));
+    }
+}
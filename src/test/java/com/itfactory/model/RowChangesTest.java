@@ -0,0 +1,75 @@
+package com.itfactory.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writing JUnit tests for merging changed rows and tombstones into a page of delta sync changes;
+ */
+
+class RowChangesTest {
+
+    private static final List<String> ROWS = List.of("a", "b", "c");
+
+    private static final List<Long> ROW_VERSIONS = List.of(11L, 13L, 16L);
+
+    private static final List<Integer> DELETED_IDS = List.of(7, 8);
+
+    private static final List<Long> DELETED_VERSIONS = List.of(12L, 15L);
+
+    @Test
+    void mergeTest() {
+
+        RowChanges<String> changes = RowChanges.of(ROWS, ROW_VERSIONS, DELETED_IDS, DELETED_VERSIONS, 10, 10, 20);
+
+        assertEquals(ROWS, changes.changed());
+        assertEquals(DELETED_IDS, changes.deletedIds());
+        assertFalse(changes.hasMore());
+
+        //a page that isn't full ends at the latest committed version, including versions taken by the other table;
+        assertEquals(20, changes.version());
+    }
+
+    @Test
+    void limitTest() {
+
+        RowChanges<String> firstPage = RowChanges.of(ROWS, ROW_VERSIONS, DELETED_IDS, DELETED_VERSIONS, 3, 10, 20);
+
+        assertEquals(List.of("a", "b"), firstPage.changed());
+        assertEquals(List.of(7), firstPage.deletedIds());
+        assertTrue(firstPage.hasMore());
+        assertEquals(13, firstPage.version());
+
+        RowChanges<String> secondPage = RowChanges.of(List.of("c"), List.of(16L), List.of(8), List.of(15L), 3, 13, 20);
+
+        assertEquals(List.of("c"), secondPage.changed());
+        assertEquals(List.of(8), secondPage.deletedIds());
+        assertFalse(secondPage.hasMore());
+        assertEquals(20, secondPage.version());
+    }
+
+    @Test
+    void noChangesTest() {
+
+        RowChanges<String> changes = RowChanges.of(List.of(), List.of(), List.of(), List.of(), 10, 20, 20);
+
+        assertTrue(changes.changed().isEmpty());
+        assertTrue(changes.deletedIds().isEmpty());
+        assertFalse(changes.hasMore());
+        assertEquals(20, changes.version());
+    }
+
+    @Test
+    void fullSyncTest() {
+
+        RowChanges<String> changes = RowChanges.of(ROWS, ROW_VERSIONS, List.of(), List.of(), Integer.MAX_VALUE, -1, 20);
+
+        assertEquals(ROWS, changes.changed());
+        assertTrue(changes.deletedIds().isEmpty());
+        assertFalse(changes.hasMore());
+        assertEquals(20, changes.version());
+    }
+}
@@ -0,0 +1,62 @@
+package com.itfactory.model;
+
+import com.itfactory.rules.SalaryRule;
+import com.itfactory.rules.SalaryRules;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writing JUnit tests for merging salary index and base salary changes into a person's salary history;
+ */
+
+class SalaryHistoryEntryTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 9, 0);
+
+    private static final List<SalaryChange> SALARY_INDEX_CHANGES = List.of(
+            new SalaryChange(START.plusDays(1), 1.5, 2.0),
+            new SalaryChange(START.plusDays(3), 2.0, 2.5));
+
+    private static final SalaryRule SALARY_RULE = SalaryRules.BUILT_IN.salaryRuleOf(null);
+
+    private static final List<SalaryChange> BASE_SALARY_CHANGES = List.of(
+            new SalaryChange(START.plusDays(2), 1000, 1200),
+            new SalaryChange(START.plusDays(3), 1200, 1500));
+
+    @Test
+    void mergeTest() {
+
+        List<SalaryHistoryEntry> history = SalaryHistoryEntry.of(2.5, SALARY_INDEX_CHANGES, 1500, BASE_SALARY_CHANGES, null, null, SALARY_RULE);
+
+        assertEquals(4, history.size());
+        assertEquals(new SalaryHistoryEntry(START.plusDays(1), "salary index", 2.0, 1000, 2000), history.get(0));
+        assertEquals(new SalaryHistoryEntry(START.plusDays(2), "base salary", 2.0, 1200, 2400), history.get(1));
+        assertEquals(new SalaryHistoryEntry(START.plusDays(3), "salary index", 2.5, 1200, 3000), history.get(2));
+        assertEquals(new SalaryHistoryEntry(START.plusDays(3), "base salary", 2.5, 1500, 3750), history.get(3));
+    }
+
+    @Test
+    void rangeTest() {
+
+        List<SalaryHistoryEntry> history = SalaryHistoryEntry.of(
+                2.5, SALARY_INDEX_CHANGES, 1500, BASE_SALARY_CHANGES, START.plusDays(2), START.plusDays(2), SALARY_RULE);
+
+        //the salary index in effect comes from the change before the range;
+        assertEquals(List.of(new SalaryHistoryEntry(START.plusDays(2), "base salary", 2.0, 1200, 2400)), history);
+    }
+
+    @Test
+    void noChangesTest() {
+
+        assertTrue(SalaryHistoryEntry.of(2.5, List.of(), 1500, List.of(), null, null, SALARY_RULE).isEmpty());
+
+        List<SalaryHistoryEntry> history = SalaryHistoryEntry.of(2.5, List.of(), 1500, BASE_SALARY_CHANGES, null, null, SALARY_RULE);
+
+        assertEquals(2.5 * 1200, history.get(0).salary());
+    }
+}
@@ -0,0 +1,78 @@
+package com.itfactory.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writing JUnit tests for the work experience lookup, against the original comparison chain (from PersonManager);
+ * Covering the thresholds themselves, the values right next to them, and random salary indexes over the whole range;
+ */
+
+class WorkExperienceTest {
+
+    @Test
+    public void thresholdsTest() {
+
+        assertEquals(WorkExperience.ENTRY, WorkExperience.of(1.0));
+        assertEquals(WorkExperience.ENTRY, WorkExperience.of(Math.nextDown(1.4)));
+        assertEquals(WorkExperience.ENTRYTOMID, WorkExperience.of(1.4));
+        assertEquals(WorkExperience.ENTRYTOMID, WorkExperience.of(1.79));
+        assertEquals(WorkExperience.MIDDLE, WorkExperience.of(1.8));
+        assertEquals(WorkExperience.MIDDLE, WorkExperience.of(Math.nextDown(2.2)));
+        assertEquals(WorkExperience.SENIOR, WorkExperience.of(2.2));
+        assertEquals(WorkExperience.SENIOR, WorkExperience.of(3.0));
+    }
+
+    @Test
+    public void matchesComparisonChainTest() {
+
+        for (WorkExperience tier : WorkExperience.values()) {
+
+            double threshold = tier.getMinSalaryIndex();
+
+            for (double salaryIndex : new double[] {Math.nextDown(threshold), threshold, Math.nextUp(threshold)}) {
+
+                assertEquals(comparisonChain(salaryIndex), WorkExperience.of(salaryIndex), "salary index " + salaryIndex);
+            }
+        }
+
+        for (int hundredths = 100; hundredths <= 300; hundredths++) {
+
+            double salaryIndex = hundredths / 100.0;
+
+            assertEquals(comparisonChain(salaryIndex), WorkExperience.of(salaryIndex), "salary index " + salaryIndex);
+        }
+
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100_000; i++) {
+
+            double salaryIndex = 1 + 2 * random.nextDouble();
+
+            assertEquals(comparisonChain(salaryIndex), WorkExperience.of(salaryIndex), "salary index " + salaryIndex);
+        }
+    }
+
+    private static WorkExperience comparisonChain(double salaryIndex) {
+
+        if (salaryIndex < 1.4) {
+
+            return WorkExperience.ENTRY;
+        }
+
+        if (salaryIndex < 1.8) {
+
+            return WorkExperience.ENTRYTOMID;
+        }
+
+        if (salaryIndex < 2.2) {
+
+            return WorkExperience.MIDDLE;
+        }
+
+        return WorkExperience.SENIOR;
+    }
+}
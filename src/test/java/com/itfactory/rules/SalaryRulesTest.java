@@ -0,0 +1,100 @@
+package com.itfactory.rules;
+
+import com.itfactory.model.WorkExperience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writing JUnit tests for the compiled salary rules: the built-in defaults, per domain bonus, band and tiers, and invalid rules;
+ */
+
+class SalaryRulesTest {
+
+    @Test
+    void builtInRulesTest() {
+
+        SalaryRules rules = SalaryRules.compile(properties("default.bonus-percent", "0", "default.tiers", "1.4, 1.8, 2.2"));
+
+        for (double salaryIndex = 1; salaryIndex <= 3; salaryIndex += 0.01) {
+
+            assertEquals(salaryIndex * 1234.5, rules.salaryRuleOf("Testing").salaryOf(salaryIndex, 1234.5));
+            assertEquals(salaryIndex * 1234.5, SalaryRules.BUILT_IN.salaryRuleOf(null).salaryOf(salaryIndex, 1234.5));
+            assertEquals(WorkExperience.of(salaryIndex), rules.tierRuleOf("Testing").workExperienceOf(salaryIndex));
+        }
+
+        assertFalse(rules.hasDomainTierRules());
+    }
+
+    @Test
+    void domainRulesTest() {
+
+        SalaryRules rules = SalaryRules.compile(properties(
+                "default.bonus-percent", "10",
+                "testing.band-max", "2500",
+                "Sales.bonus-percent", "0",
+                "Sales.tiers", "1.2, 1.5, 2"));
+
+        //domains are case-insensitive, and inherit the default settings they don't set;
+        assertEquals(2200, rules.salaryRuleOf("Testing").salaryOf(2, 1000), 1e-9);
+        assertEquals(2500, rules.salaryRuleOf("TESTING").salaryOf(3, 1000), 1e-9);
+        assertEquals(3000, rules.salaryRuleOf("Sales").salaryOf(3, 1000), 1e-9);
+        assertEquals(1100, rules.salaryRuleOf("Other").salaryOf(1, 1000), 1e-9);
+
+        assertTrue(rules.hasDomainTierRules());
+        assertEquals(WorkExperience.ENTRY, rules.tierRuleOf("Sales").workExperienceOf(1.1));
+        assertEquals(WorkExperience.ENTRYTOMID, rules.tierRuleOf("Sales").workExperienceOf(1.2));
+        assertEquals(WorkExperience.MIDDLE, rules.tierRuleOf("Sales").workExperienceOf(1.9));
+        assertEquals(WorkExperience.SENIOR, rules.tierRuleOf("Sales").workExperienceOf(2));
+        assertEquals(WorkExperience.ENTRYTOMID, rules.tierRuleOf("Testing").workExperienceOf(1.5));
+
+        //a band makes the salary non-linear in the salary index;
+        assertTrue(rules.isLinear("Sales"));
+        assertTrue(rules.isLinear("Other"));
+        assertFalse(rules.isLinear("Testing"));
+    }
+
+    @Test
+    void salariesOfTest() {
+
+        SalaryRules rules = SalaryRules.compile(properties("Sales.bonus-percent", "50"));
+
+        String[] domains = {"Testing", "Sales", null, "Sales"};
+        double[] salaryIndexes = {1.5, 2, 3, 1};
+        double[] baseSalaries = {1000, 1000, 2000, 4000};
+        double[] salaries = new double[4];
+
+        rules.salariesOf(domains, salaryIndexes, baseSalaries, salaries, 3);
+
+        assertArrayEquals(new double[]{1500, 3000, 6000, 0}, salaries, 1e-9);
+    }
+
+    @Test
+    void invalidRulesTest() {
+
+        assertThrows(IllegalArgumentException.class, () -> SalaryRules.compile(properties("bonus-percent", "10")));
+        assertThrows(IllegalArgumentException.class, () -> SalaryRules.compile(properties("default.bonus", "10")));
+        assertThrows(IllegalArgumentException.class, () -> SalaryRules.compile(properties("default.bonus-percent", "ten")));
+        assertThrows(IllegalArgumentException.class, () -> SalaryRules.compile(properties("default.bonus-percent", "-100")));
+        assertThrows(IllegalArgumentException.class, () -> SalaryRules.compile(properties("Sales.band-min", "5", "Sales.band-max", "4")));
+        assertThrows(IllegalArgumentException.class, () -> SalaryRules.compile(properties("Sales.tiers", "1.4, 1.8")));
+        assertThrows(IllegalArgumentException.class, () -> SalaryRules.compile(properties("Sales.tiers", "1.8, 1.4, 2.2")));
+        assertThrows(IllegalArgumentException.class, () -> SalaryRules.compile(properties("Sales.tiers", "1.4, 1.8, 3.5")));
+        assertThrows(IllegalArgumentException.class, () -> SalaryRules.compile(properties("Sales.tiers", "1.4, 1.805, 2.2")));
+    }
+
+    private static Properties properties(String... keysAndValues) {
+
+        Properties properties = new Properties();
+
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+
+            properties.setProperty(keysAndValues[i], keysAndValues[i + 1]);
+        }
+
+        return properties;
+    }
+}
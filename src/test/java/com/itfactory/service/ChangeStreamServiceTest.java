@@ -0,0 +1,260 @@
+package com.itfactory.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.itfactory.model.PersonRecord;
+import com.itfactory.storage.ChangeFeed;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writing JUnit tests for the change stream subscriptions: catching up on a backlog longer than the subscriber buffer,
+ * the slow consumer policies (disconnect, drop), keep-alives, and closing;
+ * The subscribers get test emitters, recording what is sent to them; a send waits for a permit, to make a client slow;
+ */
+
+class ChangeStreamServiceTest {
+
+    private ChangeFeed changeFeed;
+
+    private ChangeStreamService changeStreamService;
+
+    private final List<TestEmitter> emitters = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+
+        changeFeed = new ChangeFeed(new ObjectMapper(), 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+
+        emitters.forEach(emitter -> emitter.permits.release(1000));
+        changeStreamService.shutdown();
+    }
+
+    //a backlog of 5 events with a buffer of 2: replayed 2 at a time, without disconnecting the subscriber;
+    @Test
+    void replayTest() throws InterruptedException {
+
+        createService(2, "disconnect", 10);
+        long lastId = changeFeed.getLastId();
+        publish(5);
+
+        changeStreamService.subscribe(lastId);
+        TestEmitter emitter = emitters.get(0);
+
+        for (long id = lastId + 1; id <= lastId + 5; id++) {
+
+            assertEquals("person.deleted " + id, emitter.next());
+        }
+
+        publish(1);
+
+        assertEquals("person.deleted " + (lastId + 6), emitter.next());
+        assertEquals(1, changeStreamService.getSubscriberCount());
+        assertEquals(1, changeFeed.getSubscriberCount());
+    }
+
+    //missed events no longer kept: a reset, then the new events;
+    @Test
+    void resetTest() throws InterruptedException {
+
+        createService(2, "disconnect", 10);
+        long lastId = changeFeed.getLastId();
+        publish(12);
+
+        changeStreamService.subscribe(lastId);
+        TestEmitter emitter = emitters.get(0);
+
+        assertEquals("reset " + (lastId + 12), emitter.next());
+
+        publish(1);
+
+        assertEquals("person.deleted " + (lastId + 13), emitter.next());
+    }
+
+    @Test
+    void disconnectTest() throws InterruptedException {
+
+        createService(2, "disconnect", 10);
+        long lastId = changeFeed.getLastId();
+
+        changeStreamService.subscribe(null);
+        TestEmitter emitter = emitters.get(0);
+        emitter.permits.drainPermits();
+
+        //the first event is being sent (slowly), the next 2 fill the buffer, and the 4th disconnects the subscriber;
+        publish(1);
+        emitter.awaitSending();
+        publish(3);
+
+        assertEquals("complete", emitter.next());
+        assertEquals(0, changeStreamService.getSubscriberCount());
+        assertEquals(0, changeFeed.getSubscriberCount());
+
+        emitter.permits.release(10);
+
+        assertEquals("person.deleted " + (lastId + 1), emitter.next());
+        assertNull(emitter.sent.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void dropTest() throws InterruptedException {
+
+        createService(2, "drop", 10);
+        long lastId = changeFeed.getLastId();
+
+        changeStreamService.subscribe(null);
+        TestEmitter emitter = emitters.get(0);
+        emitter.permits.drainPermits();
+
+        //the first event is being sent (slowly), and events 2 and 3 are dropped for 4 and 5;
+        publish(1);
+        emitter.awaitSending();
+        publish(4);
+        emitter.permits.release(10);
+
+        assertEquals("person.deleted " + (lastId + 1), emitter.next());
+        assertEquals("dropped 2", emitter.next());
+        assertEquals("person.deleted " + (lastId + 4), emitter.next());
+        assertEquals("person.deleted " + (lastId + 5), emitter.next());
+        assertEquals(1, changeStreamService.getSubscriberCount());
+    }
+
+    @Test
+    void keepAliveTest() throws InterruptedException {
+
+        createService(2, "disconnect", 10);
+
+        changeStreamService.subscribe(null);
+        changeStreamService.keepAlive();
+
+        assertEquals("keep-alive", emitters.get(0).next());
+    }
+
+    @Test
+    void closeTest() throws InterruptedException {
+
+        createService(2, "disconnect", 1);
+
+        changeStreamService.subscribe(null);
+        TestEmitter emitter = emitters.get(0);
+
+        //no more subscribers than max-subscribers;
+        assertNull(changeStreamService.subscribe(null));
+
+        //a failed send (the client went away) closes the subscription;
+        emitter.failing = true;
+        publish(1);
+
+        assertEquals("error", emitter.next());
+        assertEquals(0, changeStreamService.getSubscriberCount());
+        assertEquals(0, changeFeed.getSubscriberCount());
+        assertNotNull(changeStreamService.subscribe(null));
+    }
+
+    private void createService(int bufferCapacity, String slowConsumerPolicy, int maxSubscribers) {
+
+        changeStreamService = new ChangeStreamService(changeFeed, 2, bufferCapacity, slowConsumerPolicy, maxSubscribers, () -> {
+
+            TestEmitter emitter = new TestEmitter();
+            emitters.add(emitter);
+            return emitter;
+        });
+    }
+
+    private void publish(int events) {
+
+        for (int id = 1; id <= events; id++) {
+
+            changeFeed.personDeleted(new PersonRecord(id, "Test Person", "test@email.com", 1, 1));
+        }
+    }
+
+    //records each event sent as its name (or comment) and id (or data), and the completion (after its callback, as the container);
+    private static final class TestEmitter extends SseEmitter {
+
+        private final BlockingQueue<String> sent = new LinkedBlockingQueue<>();
+
+        private final Semaphore permits = new Semaphore(1000);
+
+        private volatile boolean failing;
+
+        private Runnable completion;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+
+            permits.acquireUninterruptibly();
+
+            if (failing) {
+
+                throw new IOException("Test client went away");
+            }
+
+            String text = builder.build().stream().map(part -> part.getData().toString()).collect(Collectors.joining());
+            String name = text.startsWith(":") ? text.substring(1).trim() : field(text, "event:");
+            String value = text.contains("id:") ? field(text, "id:") : text.contains("data:") ? field(text, "data:") : null;
+
+            sent.add(value == null ? name : name + " " + value);
+        }
+
+        @Override
+        public synchronized void onCompletion(Runnable callback) {
+
+            completion = callback;
+        }
+
+        @Override
+        public void complete() {
+
+            completion.run();
+            sent.add("complete");
+        }
+
+        @Override
+        public void completeWithError(Throwable e) {
+
+            completion.run();
+            sent.add("error");
+        }
+
+        private String next() throws InterruptedException {
+
+            return sent.poll(5, TimeUnit.SECONDS);
+        }
+
+        private void awaitSending() throws InterruptedException {
+
+            while (!permits.hasQueuedThreads()) {
+
+                Thread.sleep(1);
+            }
+        }
+
+        private static String field(String text, String prefix) {
+
+            int start = text.indexOf(prefix) + prefix.length();
+            int end = text.indexOf('\n', start);
+
+            return text.substring(start, end < 0 ? text.length() : end).trim();
+        }
+    }
+}
@@ -158,6 +158,22 @@ class JobServiceMockTest {
         verifyNoMoreInteractions(jobDao);
     }
 
+    @Test
+    public void insertJobsMockTest() throws DatabaseOperationException {
+
+        List<Job> jobs = List.of(new Job(TestIdGenerator.generateInvalidTestId(), "Mock Job", "Mock Job Domain", 3000),
+                new Job(TestIdGenerator.generateInvalidTestId(), "Other Mock Job", "Mock Job Domain", 4000));
+        List<Job> invalidJobs = List.of(new Job(TestIdGenerator.generateInvalidTestId(), "Mock Job", "Mock Job Domain", 3000),
+                new Job(TestIdGenerator.generateInvalidTestId(), "Mock Job", "Mock Job Domain", 100));
+
+        jobService.insertJobs(jobs);
+
+        assertThrows(DatabaseOperationException.class, () -> jobService.insertJobs(invalidJobs));
+
+        verify(jobDao, times(1)).insertJobs(jobs);
+        verifyNoMoreInteractions(jobDao);
+    }
+
     @Test
     public void insertJobInvalidIdMockTest() throws DatabaseOperationException {
 
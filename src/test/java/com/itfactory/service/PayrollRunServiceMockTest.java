@@ -0,0 +1,138 @@
+package com.itfactory.service;
+
+import com.itfactory.dao.JobDao;
+import com.itfactory.dao.PayrollRunDao;
+import com.itfactory.dao.PersonDao;
+import com.itfactory.exceptions.DatabaseOperationException;
+import com.itfactory.model.Job;
+import com.itfactory.model.PayrollRun;
+import com.itfactory.model.PayrollRunProgress;
+import com.itfactory.model.Person;
+import com.itfactory.model.PersonSalary;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.mockito.Mock;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Writing JUnit MOCK tests for the monthly payroll run: resuming after the committed partitions, skipping invalid persons,
+ * paying negative and extreme ids, and not redoing a completed run;
+ */
+
+@SpringBootTest
+class PayrollRunServiceMockTest {
+
+    @Mock
+    private PersonDao personDao;
+
+    @Mock
+    private JobDao jobDao;
+
+    @Mock
+    private PayrollRunDao payrollRunDao;
+
+    private PayrollRunService payrollRunService;
+
+    @BeforeEach
+    void setUp() {
+
+        payrollRunService = new PayrollRunService(personDao, jobDao, payrollRunDao);
+    }
+
+    //partitions of 2 persons: the ids up to 10 were committed before an interruption, the rest is run now;
+    @Test
+    public void resumeRunMockTest() throws DatabaseOperationException {
+
+        PayrollRun run = new PayrollRun(1, "2026-10", 2, false);
+        Person validPerson = new Person(12, "Test Person One", "one@email.com", 1, 2);
+        Person unknownJobPerson = new Person(15, "Test Person Two", "two@email.com", 9, 2);
+        Person invalidIndexPerson = new Person(21, "Test Person Three", "three@email.com", 1, 0.5);
+
+        when(payrollRunDao.getRunByPeriod("2026-10")).thenReturn(run);
+        when(jobDao.getAllJobs()).thenReturn(List.of(new Job(1, "Test Job", "Testing", 1000)));
+        when(payrollRunDao.getCommittedPartitions(1)).thenReturn(new TreeMap<>(Map.of(Integer.MIN_VALUE, 10)));
+        when(personDao.getPersonsByIdRange(11, Integer.MAX_VALUE, 2)).thenReturn(List.of(validPerson, unknownJobPerson));
+        when(personDao.getPersonsByIdRange(16, Integer.MAX_VALUE, 2)).thenReturn(List.of(invalidIndexPerson));
+
+        assertTrue(payrollRunService.runPayroll("2026-10"));
+
+        PayrollRunProgress progress = payrollRunService.getProgress();
+
+        assertEquals("COMPLETED", progress.status());
+        assertEquals(3, progress.totalPartitions());
+        assertEquals(3, progress.committedPartitions());
+        assertEquals(1, progress.personsWritten());
+        assertEquals(2, progress.personsSkipped());
+
+        verify(personDao, times(2)).getPersonsByIdRange(anyInt(), anyInt(), anyInt());
+        verify(payrollRunDao, times(1)).writePartition(1, 11, 15, List.of(new PersonSalary(validPerson, 2000)), 1);
+        verify(payrollRunDao, times(1)).writePartition(1, 16, Integer.MAX_VALUE, List.of(), 1);
+        verify(payrollRunDao, times(1)).completeRun(1);
+        verify(payrollRunDao, never()).insertRun(anyString(), anyInt());
+    }
+
+    //negative ids are paid, and a stray id close to Integer.MAX_VALUE makes no extra partitions (nor overflows);
+    @Test
+    public void extremeIdsMockTest() throws DatabaseOperationException {
+
+        Person negativeIdPerson = new Person(-2, "Test Person One", "one@email.com", 1, 2);
+        Person person = new Person(7, "Test Person Two", "two@email.com", 1, 1);
+        Person largeIdPerson = new Person(Integer.MAX_VALUE, "Test Person Three", "three@email.com", 1, 3);
+
+        when(payrollRunDao.getRunByPeriod("2026-10")).thenReturn(null);
+        when(payrollRunDao.insertRun("2026-10", 10_000)).thenReturn(new PayrollRun(2, "2026-10", 10_000, false));
+        when(jobDao.getAllJobs()).thenReturn(List.of(new Job(1, "Test Job", "Testing", 1000)));
+        when(payrollRunDao.getCommittedPartitions(2)).thenReturn(new TreeMap<>());
+        when(personDao.getPersonsByIdRange(Integer.MIN_VALUE, Integer.MAX_VALUE, 10_000))
+                .thenReturn(List.of(negativeIdPerson, person, largeIdPerson));
+
+        assertTrue(payrollRunService.runPayroll("2026-10"));
+
+        assertEquals("COMPLETED", payrollRunService.getProgress().status());
+        assertEquals(1, payrollRunService.getProgress().totalPartitions());
+        assertEquals(3, payrollRunService.getProgress().personsWritten());
+
+        verify(personDao, times(1)).getPersonsByIdRange(anyInt(), anyInt(), anyInt());
+        verify(payrollRunDao, times(1)).writePartition(2, Integer.MIN_VALUE, Integer.MAX_VALUE, List.of(
+                new PersonSalary(negativeIdPerson, 2000), new PersonSalary(person, 1000), new PersonSalary(largeIdPerson, 3000)), 0);
+        verify(payrollRunDao, times(1)).completeRun(2);
+    }
+
+    @Test
+    public void completedRunMockTest() throws DatabaseOperationException {
+
+        when(payrollRunDao.getRunByPeriod("2026-09")).thenReturn(new PayrollRun(1, "2026-09", 10, true));
+
+        assertTrue(payrollRunService.runPayroll("2026-09"));
+
+        verify(payrollRunDao, times(1)).getRunByPeriod("2026-09");
+        verifyNoMoreInteractions(payrollRunDao);
+        verifyNoInteractions(personDao, jobDao);
+    }
+
+    //a failed partition leaves the run open (not completed), to be resumed by the next run;
+    @Test
+    public void failedPartitionMockTest() throws DatabaseOperationException {
+
+        when(payrollRunDao.getRunByPeriod("2026-10")).thenReturn(null);
+        when(payrollRunDao.insertRun("2026-10", 10_000)).thenReturn(new PayrollRun(2, "2026-10", 10_000, false));
+        when(payrollRunDao.getCommittedPartitions(2)).thenReturn(new TreeMap<>());
+        doThrow(DatabaseOperationException.class).when(personDao).getPersonsByIdRange(Integer.MIN_VALUE, Integer.MAX_VALUE, 10_000);
+
+        assertTrue(payrollRunService.runPayroll("2026-10"));
+
+        assertEquals("FAILED", payrollRunService.getProgress().status());
+
+        verify(payrollRunDao, never()).completeRun(2);
+    }
+}
@@ -85,14 +85,14 @@ public class PersonServiceIntegrationTest {
         Person testPerson1 = new Person();
         testPerson1.setId(TestIdGenerator.generateInvalidTestId());
         testPerson1.setName("Test Person One");
-        testPerson1.setEmail("test@email.com");
+        testPerson1.setEmail("test1@email.com");
         testPerson1.setJobId(TestIdGenerator.generateExistentTestId());
         personService.insertPerson(testPerson1);
 
         Person testPerson2 = new Person();
         testPerson2.setId(TestIdGenerator.generateInvalidTestId() - 1);
         testPerson2.setName("Test Person Two");
-        testPerson2.setEmail("test@email.com");
+        testPerson2.setEmail("test2@email.com");
         testPerson2.setJobId(TestIdGenerator.generateExistentTestId());
         personService.insertPerson(testPerson2);
 
@@ -2,7 +2,12 @@ package com.itfactory.service;
 
 import com.itfactory.dao.PersonDao;
 import com.itfactory.exceptions.DatabaseOperationException;
+import com.itfactory.model.Job;
 import com.itfactory.model.Person;
+import com.itfactory.model.PersonRecord;
+import com.itfactory.storage.EmailBloomFilter;
+import com.itfactory.storage.PayrollAggregates;
+import com.itfactory.storage.VersionedPersonStore;
 import com.itfactory.utility.TestIdGenerator;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -132,6 +137,23 @@ class PersonServiceMockTest {
         verifyNoMoreInteractions(personDao);
     }
 
+    //with a loaded in-memory store, the full read is served from a store snapshot, without calling personDao;
+    @Test
+    public void getAllPersonsFromStoreMockTest() throws DatabaseOperationException {
+
+        VersionedPersonStore personStore = new VersionedPersonStore();
+        personStore.load(List.of(new PersonRecord(TestIdGenerator.generateExistentTestId(), "Test Mock Person",
+                "testmock@email.com", TestIdGenerator.generateExistentTestId(), 2)));
+        personService.setPersonStore(personStore);
+
+        List<Person> getAllResult = personService.getAllPersons();
+
+        assertEquals(1, getAllResult.size());
+        assertEquals(TestIdGenerator.generateExistentTestId(), getAllResult.get(0).getId());
+
+        verifyNoInteractions(personDao);
+    }
+
     @Test
     public void insertPersonMockTest() throws DatabaseOperationException {
 
@@ -160,6 +182,36 @@ class PersonServiceMockTest {
         verifyNoMoreInteractions(personDao);
     }
 
+    @Test
+    public void insertPersonsMockTest() throws DatabaseOperationException {
+
+        List<Person> persons = List.of(
+                new Person(TestIdGenerator.generateInvalidTestId(), "Test Batch", "batch1@email.com", 1, 2),
+                new Person(TestIdGenerator.generateInvalidTestId(), "Test Batch", "batch2@email.com", 1, 1.5));
+
+        personService.insertPersons(persons);
+
+        verify(personDao, times(1)).insertPersons(persons);
+        verifyNoMoreInteractions(personDao);
+    }
+
+    @Test
+    public void insertPersonsInvalidMockTest() throws DatabaseOperationException {
+
+        List<Person> repeatedEmail = List.of(
+                new Person(TestIdGenerator.generateInvalidTestId(), "Test Batch", "batch@email.com", 1, 2),
+                new Person(TestIdGenerator.generateInvalidTestId(), "Test Batch", " Batch@Email.com", 1, 2));
+        List<Person> invalidSalaryIndex = List.of(
+                new Person(TestIdGenerator.generateInvalidTestId(), "Test Batch", "batch@email.com", 1, 5));
+
+        //nothing is inserted when any person of the batch is invalid;
+        assertThrows(DatabaseOperationException.class, () -> personService.insertPersons(repeatedEmail));
+        assertThrows(DatabaseOperationException.class, () -> personService.insertPersons(invalidSalaryIndex));
+        assertThrows(DatabaseOperationException.class, () -> personService.insertPersons(List.of()));
+
+        verifyNoInteractions(personDao);
+    }
+
     @Test
     public void insertPersonInvalidIdMockTest() throws DatabaseOperationException {
 
@@ -178,6 +230,31 @@ class PersonServiceMockTest {
         verifyNoMoreInteractions(personDao);
     }
 
+    //with the email filter in place, a new email skips the lookup, and a (maybe) known one is checked against personDao;
+    @Test
+    public void insertPersonDuplicateEmailMockTest() throws DatabaseOperationException {
+
+        EmailBloomFilter emailFilter = new EmailBloomFilter();
+        emailFilter.rebuild(List.of("existing@email.com"));
+        personService.setEmailFilter(emailFilter);
+
+        Person newPerson = new Person(TestIdGenerator.generateInvalidTestId(), "Test Mock Person",
+                "new@email.com", TestIdGenerator.generateExistentTestId(), 2);
+        Person duplicatePerson = new Person(TestIdGenerator.generateInvalidTestId() - 1, "Test Mock Person",
+                "Existing@Email.com", TestIdGenerator.generateExistentTestId(), 2);
+
+        when(personDao.emailExists("Existing@Email.com")).thenReturn(true);
+
+        personService.insertPerson(newPerson);
+
+        assertThrows(DatabaseOperationException.class, () -> personService.insertPerson(duplicatePerson));
+
+        verify(personDao, times(1)).insertPerson(newPerson);
+        verify(personDao, times(1)).emailExists("Existing@Email.com");
+        verify(personDao, never()).insertPerson(duplicatePerson);
+        verifyNoMoreInteractions(personDao);
+    }
+
     @Test
     public void updateSalaryIndexMockTest() throws DatabaseOperationException {
 
@@ -227,4 +304,38 @@ class PersonServiceMockTest {
         verify(personDao, never()).updateSalaryIndex(mockPerson.getId(), existingSalaryIndex);
         verifyNoMoreInteractions(personDao);
     }
-}
\ No newline at end of file
+
+    //a recompute of the payroll aggregates reading a write not applied yet is skipped, and a failed write doesn't hold recomputes up;
+    @Test
+    public void insertPersonInFlightMockTest() throws DatabaseOperationException {
+
+        List<Job> jobs = List.of(new Job(1, "Test Job", "Testing", 1000));
+        PayrollAggregates payrollAggregates = new PayrollAggregates();
+        payrollAggregates.jobsLoaded(jobs);
+        payrollAggregates.personsLoaded(List.of());
+        personService.setPayrollAggregates(payrollAggregates);
+        personService.setPersonChangeListeners(List.of(payrollAggregates));
+
+        Person insertedPerson = new Person(TestIdGenerator.generateInvalidTestId(), "Test Mock Person", "one@email.com", 1, 2);
+        Person failedPerson = new Person(TestIdGenerator.generateInvalidTestId(), "Test Mock Person", "two@email.com", 1, 2);
+        List<PersonRecord> database = List.of(PersonRecord.of(insertedPerson));
+
+        //the insert is committed, and read by the recompute, before the listeners apply it;
+        doAnswer(invocation -> {
+
+            assertNull(payrollAggregates.recompute(payrollAggregates.getModificationCount(), jobs, database));
+            return null;
+        }).when(personDao).insertPerson(insertedPerson);
+        doThrow(DatabaseOperationException.class).when(personDao).insertPerson(failedPerson);
+
+        personService.insertPerson(insertedPerson);
+        assertThrows(DatabaseOperationException.class, () -> personService.insertPerson(failedPerson));
+
+        assertEquals(1, payrollAggregates.summary().total().count());
+        assertTrue(payrollAggregates.recompute(payrollAggregates.getModificationCount(), jobs, database).isEmpty());
+
+        verify(personDao, times(1)).insertPerson(insertedPerson);
+        verify(personDao, times(1)).insertPerson(failedPerson);
+        verifyNoMoreInteractions(personDao);
+    }
+}
@@ -0,0 +1,123 @@
+package com.itfactory.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.itfactory.model.Job;
+import com.itfactory.model.Person;
+import com.itfactory.model.PersonRecord;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writing JUnit tests for the change feed: event order and content, resuming and replaying after a given event id, and resets;
+ * The feed is created directly, with a replay buffer of 3 events, and subscribers recording what they are offered;
+ */
+
+class ChangeFeedTest {
+
+    private ChangeFeed changeFeed;
+
+    @BeforeEach
+    void setUp() {
+
+        changeFeed = new ChangeFeed(new ObjectMapper(), 3);
+    }
+
+    @Test
+    void publishTest() {
+
+        List<ChangeFeedEvent> events = new ArrayList<>();
+        changeFeed.subscribe(events::add, null);
+        long firstId = changeFeed.getLastId() + 1;
+
+        PersonRecord person = new PersonRecord(1, "Test Person", "test@email.com", 2, 1.5);
+        changeFeed.personInserted(person);
+        changeFeed.personUpdated(person, new PersonRecord(1, "Test Person", "test@email.com", 2, 2.5));
+        changeFeed.jobDeleted(new Job(2, "Test Job", "Testing", 1000));
+
+        assertEquals(List.of("person.inserted", "person.updated", "job.deleted"), events.stream().map(ChangeFeedEvent::name).toList());
+        assertEquals(List.of(firstId, firstId + 1, firstId + 2), events.stream().map(ChangeFeedEvent::id).toList());
+        assertTrue(events.get(1).data().contains("\"type\":\"updated\""));
+        assertTrue(events.get(1).data().contains("\"salaryIndex\":2.5"));
+        assertTrue(events.get(2).data().contains("\"domain\":\"Testing\""));
+    }
+
+    @Test
+    void resumeTest() {
+
+        long lastId = changeFeed.getLastId();
+
+        for (int id = 1; id <= 3; id++) {
+
+            changeFeed.personDeleted(new PersonRecord(id, "Test Person", "test@email.com", 1, 1));
+        }
+
+        List<ChangeFeedEvent> events = new ArrayList<>();
+
+        //the missed events are read with replay, not offered;
+        assertTrue(changeFeed.subscribe(events::add, lastId + 1));
+        assertEquals(List.of(), events);
+        assertEquals(List.of(lastId + 2), changeFeed.replay(lastId + 1, 1).stream().map(ChangeFeedEvent::id).toList());
+        assertEquals(List.of(lastId + 3), changeFeed.replay(lastId + 2, 1).stream().map(ChangeFeedEvent::id).toList());
+        assertEquals(List.of(), changeFeed.replay(lastId + 3, 1));
+
+        changeFeed.personDeleted(new PersonRecord(4, "Test Person", "test@email.com", 1, 1));
+        assertEquals(List.of(lastId + 4), events.stream().map(ChangeFeedEvent::id).toList());
+
+        //an up-to-date subscriber resumes with no events;
+        assertTrue(changeFeed.subscribe(event -> fail("unexpected event"), lastId + 4));
+    }
+
+    @Test
+    void resetTest() {
+
+        long lastId = changeFeed.getLastId();
+
+        for (int id = 1; id <= 5; id++) {
+
+            changeFeed.personDeleted(new PersonRecord(id, "Test Person", "test@email.com", 1, 1));
+        }
+
+        List<ChangeFeedEvent> missed = new ArrayList<>();
+        List<ChangeFeedEvent> unknown = new ArrayList<>();
+
+        //events lastId + 1 and + 2 are no longer kept; an id from the future (before a restart) is unknown;
+        assertFalse(changeFeed.subscribe(missed::add, lastId + 1));
+        assertFalse(changeFeed.subscribe(unknown::add, lastId + 100));
+        assertTrue(changeFeed.subscribe(event -> { }, lastId + 2));
+
+        assertEquals(1, missed.size());
+        assertEquals(ChangeFeed.RESET, missed.get(0).name());
+        assertEquals(lastId + 5, missed.get(0).id());
+        assertEquals(ChangeFeed.RESET, unknown.get(0).name());
+    }
+
+    @Test
+    void replayResetTest() {
+
+        long lastId = changeFeed.getLastId();
+        changeFeed.personDeleted(new PersonRecord(1, "Test Person", "test@email.com", 1, 1));
+
+        List<ChangeFeedEvent> events = new ArrayList<>();
+        assertTrue(changeFeed.subscribe(events::add, lastId));
+
+        for (int id = 2; id <= 5; id++) {
+
+            changeFeed.personDeleted(new PersonRecord(id, "Test Person", "test@email.com", 1, 1));
+        }
+
+        //the subscriber fell behind the replay buffer while catching up: event lastId + 1 is no longer kept;
+        List<ChangeFeedEvent> replayed = changeFeed.replay(lastId, 10);
+
+        assertEquals(1, replayed.size());
+        assertEquals(ChangeFeed.RESET, replayed.get(0).name());
+        assertEquals(lastId + 5, replayed.get(0).id());
+        assertEquals(4, events.size());
+    }
+}
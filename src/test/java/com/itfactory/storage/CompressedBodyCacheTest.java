@@ -0,0 +1,137 @@
+package com.itfactory.storage;
+
+import com.itfactory.codec.CompressedBody;
+import com.itfactory.codec.ContentEncoding;
+import com.itfactory.exceptions.DatabaseOperationException;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writing JUnit tests for caching rendered bodies and their compressed variants, per table version, rendered again in the background;
+ */
+
+class CompressedBodyCacheTest {
+
+    private static final String BODY = "Job id:  1; name: Tester; domain: IT; base salary: 3000.0\n".repeat(100);
+
+    private final AtomicInteger renders = new AtomicInteger();
+
+    //background renders, run by the test;
+    private final List<Runnable> refreshes = new ArrayList<>();
+
+    @Test
+    void renderedOnceTest() throws DatabaseOperationException {
+
+        CompressedBodyCache cache = newCache(true, "1KB", "64MB", 0);
+
+        CompressedBody gzip = get(cache, 1, "gzip");
+        CompressedBody identity = get(cache, 1, null);
+
+        assertEquals(ContentEncoding.GZIP, gzip.encoding());
+        assertSame(gzip.bytes(), get(cache, 1, "gzip").bytes());
+        assertEquals(ContentEncoding.IDENTITY, identity.encoding());
+        assertEquals(BODY, new String(identity.bytes(), StandardCharsets.UTF_8));
+        assertEquals(1, renders.get());
+    }
+
+    @Test
+    void newVersionRenderedTest() throws DatabaseOperationException {
+
+        CompressedBodyCache cache = newCache(true, "1KB", "64MB", 0);
+
+        get(cache, 1, "gzip");
+        get(cache, 2, "gzip");
+        get(cache, 2, "gzip");
+
+        assertEquals(2, renders.get());
+
+        //a late request still on the older version is served the newer body, tagged with its own version;
+        assertEquals(2, cache.getIfCached(CompressedBodyCache.ALL_JOBS, 1, this::render).getVersion());
+        assertEquals(2, renders.get());
+        assertTrue(refreshes.isEmpty());
+    }
+
+    @Test
+    void staleWhileRevalidateTest() throws DatabaseOperationException {
+
+        CompressedBodyCache cache = newCache(true, "1KB", "64MB", 60_000);
+
+        get(cache, 1, "gzip");
+
+        //after a write, the stale body is served, and the new version rendered once, in the background;
+        assertEquals(1, cache.getIfCached(CompressedBodyCache.ALL_JOBS, 2, this::render).getVersion());
+        assertEquals(1, cache.getIfCached(CompressedBodyCache.ALL_JOBS, 2, this::render).getVersion());
+        assertEquals(1, renders.get());
+        assertEquals(1, refreshes.size());
+
+        refreshes.remove(0).run();
+
+        assertEquals(2, cache.getIfCached(CompressedBodyCache.ALL_JOBS, 2, this::render).getVersion());
+        assertEquals(2, renders.get());
+
+        //a write during the background render makes it stale again, and the next request refreshes it;
+        assertEquals(2, cache.getIfCached(CompressedBodyCache.ALL_JOBS, 3, this::render).getVersion());
+        assertEquals(1, refreshes.size());
+    }
+
+    @Test
+    void staleRenderedOnRequestTest() throws DatabaseOperationException {
+
+        //without a window, a stale body is rendered again by the request;
+        CompressedBodyCache cache = newCache(true, "1KB", "64MB", 0);
+
+        get(cache, 1, "gzip");
+
+        assertNull(cache.getIfCached(CompressedBodyCache.ALL_JOBS, 2, this::render));
+        assertTrue(refreshes.isEmpty());
+    }
+
+    @Test
+    void thresholdsTest() throws DatabaseOperationException {
+
+        //under the minimum size, or with compression disabled, bodies are sent uncompressed;
+        assertEquals(ContentEncoding.IDENTITY, get(newCache(true, "1MB", "64MB", 0), 1, "gzip").encoding());
+        assertEquals(ContentEncoding.IDENTITY, get(newCache(false, "1KB", "64MB", 0), 1, "gzip").encoding());
+        assertEquals(ContentEncoding.IDENTITY, newCache(false, "1KB", "64MB", 0).encodingFor("gzip"));
+
+        //over the maximum cached size, bodies are rendered per request (and never served stale);
+        CompressedBodyCache cache = newCache(true, "1KB", "2KB", 60_000);
+        get(cache, 1, "gzip");
+        get(cache, 1, "gzip");
+
+        assertEquals(4, renders.get());
+        assertNull(cache.getIfCached(CompressedBodyCache.ALL_JOBS, 2, this::render));
+    }
+
+    private CompressedBodyCache newCache(boolean enabled, String minResponseSize, String maxBodySize, long staleWhileRevalidateMillis) {
+
+        return new CompressedBodyCache(enabled, minResponseSize, maxBodySize, "gzip", staleWhileRevalidateMillis, refreshes::add);
+    }
+
+    //as the controllers do: the cached body, if there is one to serve, or rendered by the request;
+    private CompressedBody get(CompressedBodyCache cache, long version, String acceptEncoding) throws DatabaseOperationException {
+
+        CompressedBodyCache.CachedBody body = cache.getIfCached(CompressedBodyCache.ALL_JOBS, version, this::render);
+
+        if (body == null) {
+
+            body = cache.render(CompressedBodyCache.ALL_JOBS, version, this::render);
+        }
+
+        return cache.encode(body, acceptEncoding);
+    }
+
+    private String render() {
+
+        renders.incrementAndGet();
+
+        return BODY;
+    }
+}
@@ -0,0 +1,125 @@
+package com.itfactory.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writing JUnit tests for the email Bloom filter: no false negatives, few false positives, normalized matching, and no email added
+ * before or during a build missed;
+ * The filter is created directly and rebuilt by hand, instead of from the database;
+ */
+
+class EmailBloomFilterTest {
+
+    private EmailBloomFilter emailFilter;
+
+    @BeforeEach
+    void setUp() {
+
+        emailFilter = new EmailBloomFilter();
+    }
+
+    @Test
+    public void unbuiltFilterMightContainAnythingTest() {
+
+        assertTrue(emailFilter.mightContain("new@email.com"));
+    }
+
+    @Test
+    public void noFalseNegativesTest() {
+
+        List<String> emails = new ArrayList<>();
+
+        for (int i = 0; i < 10_000; i++) {
+
+            emails.add("person" + i + "@email.com");
+        }
+
+        emailFilter.rebuild(emails);
+        emailFilter.add("Added@Email.com ");
+
+        emails.forEach(email -> assertTrue(emailFilter.mightContain(email)));
+        assertTrue(emailFilter.mightContain("PERSON1@email.com"));
+        assertTrue(emailFilter.mightContain("added@email.com"));
+    }
+
+    @Test
+    public void fewFalsePositivesTest() {
+
+        List<String> emails = new ArrayList<>();
+
+        for (int i = 0; i < 100_000; i++) {
+
+            emails.add("person" + i + "@email.com");
+        }
+
+        emailFilter.rebuild(emails);
+
+        int falsePositives = 0;
+
+        for (int i = 0; i < 100_000; i++) {
+
+            if (emailFilter.mightContain("other" + i + "@email.com")) {
+
+                falsePositives++;
+            }
+        }
+
+        //sized for 1% at a million emails, so well below that here;
+        assertTrue(falsePositives < 1_000, "false positives: " + falsePositives);
+    }
+
+    //the emails the filter is built from were read before these were added;
+    @Test
+    public void addedBeforeBuildTest() {
+
+        emailFilter.add("Early@Email.com");
+        emailFilter.rebuild(List.of("person@email.com"));
+
+        assertTrue(emailFilter.mightContain("early@email.com"));
+        assertTrue(emailFilter.mightContain("person@email.com"));
+        assertFalse(emailFilter.mightContain("other@email.com"));
+    }
+
+    @Test
+    public void addedDuringRebuildTest() {
+
+        emailFilter.rebuild(List.of("person@email.com"));
+
+        //an insert notified while the new bits are being filled;
+        List<String> emails = new ArrayList<>(List.of("person@email.com")) {
+
+            @Override
+            public Iterator<String> iterator() {
+
+                emailFilter.add("during@email.com");
+                return super.iterator();
+            }
+        };
+
+        emailFilter.rebuild(emails);
+
+        assertTrue(emailFilter.mightContain("during@email.com"));
+        assertFalse(emailFilter.mightContain("other@email.com"));
+    }
+
+    //too many emails to keep aside before the build: it is not published, and every email stays "maybe present";
+    @Test
+    public void tooManyAddedBeforeBuildTest() {
+
+        for (int i = 0; i <= EmailBloomFilter.MAX_PENDING_EMAILS; i++) {
+
+            emailFilter.add("person" + i + "@email.com");
+        }
+
+        emailFilter.rebuild(List.of());
+
+        assertTrue(emailFilter.mightContain("other@email.com"));
+    }
+}
@@ -0,0 +1,60 @@
+package com.itfactory.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writing JUnit tests for the change feed ring buffer: order, overwriting when full, and the events after a given id;
+ */
+
+class EventRingBufferTest {
+
+    @Test
+    void addPollTest() {
+
+        EventRingBuffer buffer = new EventRingBuffer(3);
+
+        assertTrue(buffer.add(event(1)));
+        assertTrue(buffer.add(event(2)));
+        assertEquals(1, buffer.poll().id());
+        assertTrue(buffer.add(event(3)));
+        assertTrue(buffer.add(event(4)));
+        assertTrue(buffer.isFull());
+
+        assertEquals(2, buffer.poll().id());
+        assertEquals(3, buffer.poll().id());
+        assertEquals(4, buffer.poll().id());
+        assertNull(buffer.poll());
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    void overwriteTest() {
+
+        EventRingBuffer buffer = new EventRingBuffer(2);
+
+        buffer.add(event(1));
+        buffer.add(event(2));
+
+        assertFalse(buffer.add(event(3)));
+        assertEquals(2, buffer.size());
+        assertEquals(2, buffer.oldest().id());
+        assertEquals(List.of(event(3)), buffer.after(2, 10));
+        assertEquals(List.of(event(2), event(3)), buffer.after(0, 10));
+        assertEquals(List.of(event(2)), buffer.after(0, 1));
+    }
+
+    @Test
+    void invalidCapacityTest() {
+
+        assertThrows(IllegalArgumentException.class, () -> new EventRingBuffer(0));
+    }
+
+    private static ChangeFeedEvent event(long id) {
+
+        return new ChangeFeedEvent(id, "person.updated", "{}");
+    }
+}
@@ -0,0 +1,98 @@
+package com.itfactory.storage;
+
+import com.itfactory.model.PersonRecord;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writing JUnit tests for the trigram name search index: typo tolerance, typeahead, ranking, and updates;
+ * The index is created directly and loaded by hand, instead of from the database;
+ */
+
+class NameSearchIndexTest {
+
+    private NameSearchIndex nameSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+
+        nameSearchIndex = new NameSearchIndex();
+        nameSearchIndex.personsLoaded(List.of(
+                new PersonRecord(1, "John Smith", "john@email.com", 1, 1.5),
+                new PersonRecord(2, "Johanna Smythe", "johanna@email.com", 1, 2.5),
+                new PersonRecord(3, "Maria Popescu", "maria@email.com", 2, 2.0),
+                new PersonRecord(4, "Jon Smith", "jon@email.com", 2, 2.0)));
+    }
+
+    @Test
+    public void misspelledNameFoundTest() {
+
+        List<SearchMatch> matches = nameSearchIndex.search("Jonh Smiht", 10);
+
+        assertFalse(matches.isEmpty());
+        assertTrue(List.of(1, 4).contains(matches.get(0).person().getId()));
+        assertTrue(ids(matches).contains(1));
+        assertFalse(ids(matches).contains(3));
+    }
+
+    @Test
+    public void exactNameRankedFirstTest() {
+
+        List<SearchMatch> matches = nameSearchIndex.search("john smith ", 10);
+
+        assertEquals(1, matches.get(0).person().getId());
+        assertEquals(1.0, matches.get(0).score());
+        assertEquals(List.of(1), ids(nameSearchIndex.search("john smith", 1)));
+    }
+
+    @Test
+    public void typeaheadPrefixTest() {
+
+        //"joh" names share some of the trigrams, but the one starting with the whole query comes first;
+        assertEquals(2, nameSearchIndex.search("joha", 10).get(0).person().getId());
+        assertEquals(List.of(3), ids(nameSearchIndex.search("popes", 10)));
+        assertTrue(nameSearchIndex.search("?!", 10).isEmpty());
+    }
+
+    @Test
+    public void writesAppliedTest() {
+
+        nameSearchIndex.put(new PersonRecord(5, "Maria Ionescu", "ionescu@email.com", 2, 1.0));
+        nameSearchIndex.put(new PersonRecord(3, "Maria Popescu", "maria@email.com", 2, 3.0));
+        nameSearchIndex.remove(1);
+
+        assertEquals(List.of(5), ids(nameSearchIndex.search("ionescu", 10)));
+        assertEquals(3.0, nameSearchIndex.search("popescu", 10).get(0).person().getSalaryIndex());
+        assertFalse(ids(nameSearchIndex.search("john smith", 10)).contains(1));
+    }
+
+    @Test
+    public void anyIdIndexedTest() {
+
+        nameSearchIndex.put(new PersonRecord(-5, "Andrei Negru", "negru@email.com", 1, 1.0));
+        nameSearchIndex.put(new PersonRecord(Integer.MAX_VALUE - 1, "Andrei Negrescu", "negrescu@email.com", 1, 1.0));
+        nameSearchIndex.put(new PersonRecord(Integer.MIN_VALUE, "Elena Negru", "elena@email.com", 1, 1.0));
+
+        assertEquals(List.of(Integer.MIN_VALUE, -5), ids(nameSearchIndex.search("negru ", 10)).subList(0, 2));
+        assertEquals(Integer.MAX_VALUE - 1, nameSearchIndex.search("andrei negrescu", 10).get(0).person().getId());
+        assertEquals(List.of(3), ids(nameSearchIndex.search("popescu", 10)));
+
+        //a deleted person's ordinal is taken by the next insert, and nothing of the deleted person is found anymore;
+        nameSearchIndex.remove(-5);
+        nameSearchIndex.put(new PersonRecord(6, "Radu Vasile", "radu@email.com", 2, 1.0));
+
+        assertEquals(Integer.MIN_VALUE, nameSearchIndex.search("negru ", 10).get(0).person().getId());
+        assertFalse(ids(nameSearchIndex.search("andrei negru", 10)).contains(-5));
+        assertEquals(List.of(6), ids(nameSearchIndex.search("vasile", 10)));
+    }
+
+    private static List<Integer> ids(List<SearchMatch> matches) {
+
+        return matches.stream().map(match -> match.person().getId()).toList();
+    }
+}
@@ -0,0 +1,245 @@
+package com.itfactory.storage;
+
+import com.itfactory.model.Job;
+import com.itfactory.model.PayrollSummary;
+import com.itfactory.model.PayrollTotals;
+import com.itfactory.model.Person;
+import com.itfactory.model.PersonRecord;
+import com.itfactory.model.SalaryPercentiles;
+import com.itfactory.model.WorkExperience;
+import com.itfactory.model.WorkExperienceCounts;
+import com.itfactory.model.WorkExperienceDistribution;
+import com.itfactory.rules.SalaryRuleEngine;
+import com.itfactory.rules.SalaryRules;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writing JUnit tests for the materialized payroll aggregates: incremental updates, re-weighting, and drift recompute;
+ * The aggregates are created directly and loaded by hand, instead of from the database;
+ */
+
+class PayrollAggregatesTest {
+
+    private static final List<Job> JOBS = List.of(
+            new Job(1, "Test Job One", "Testing", 1000),
+            new Job(2, "Test Job Two", "Testing", 2000),
+            new Job(3, "Test Job Three", "Sales", 1500));
+
+    private PayrollAggregates payrollAggregates;
+
+    @BeforeEach
+    void setUp() {
+
+        payrollAggregates = new PayrollAggregates();
+        payrollAggregates.jobsLoaded(JOBS);
+        payrollAggregates.personsLoaded(List.of(
+                new PersonRecord(1, "Test Person One", "one@email.com", 1, 1.5),
+                new PersonRecord(2, "Test Person Two", "two@email.com", 1, 2.5),
+                new PersonRecord(3, "Test Person Three", "three@email.com", 2, 1.2),
+                new PersonRecord(4, "Test Person Four", "four@email.com", 3, 2.0)));
+    }
+
+    @Test
+    public void summaryTest() {
+
+        PayrollSummary summary = payrollAggregates.summary();
+
+        assertEquals(new PayrollTotals(2, 4000, 4.0, 1500, 2500), summary.byJobId().get(1));
+        assertEquals(new PayrollTotals(3, 6400, 5.2, 1500, 2500), summary.byDomain().get("Testing"));
+        assertEquals(new PayrollTotals(1, 3000, 2.0, 3000, 3000), summary.byDomain().get("Sales"));
+        assertEquals(4, summary.total().count());
+        assertEquals(9400, summary.total().salarySum());
+    }
+
+    //salary indexes with 3 decimals are valid, and are neither rounded into the min/max salaries nor into the percentiles;
+    @Test
+    public void moreDecimalsSummaryTest() {
+
+        payrollAggregates.personInserted(new PersonRecord(5, "Test Person Five", "five@email.com", 1, 1.396));
+        payrollAggregates.personInserted(new PersonRecord(6, "Test Person Six", "six@email.com", 1, 2.504));
+
+        PayrollSummary summary = payrollAggregates.summary();
+
+        assertEquals(4, summary.byJobId().get(1).count());
+        assertEquals(1396, summary.byJobId().get(1).minSalary(), 1e-9);
+        assertEquals(2504, summary.byJobId().get(1).maxSalary(), 1e-9);
+        assertEquals(1396, payrollAggregates.percentiles(null, 1).histogram().get(0).from(), 1e-9);
+        assertEquals(2504, payrollAggregates.percentiles(null, 1).p99(), 1e-9);
+    }
+
+    @Test
+    public void personWritesUpdateTotalsTest() {
+
+        payrollAggregates.personInserted(new PersonRecord(5, "Test Person Five", "five@email.com", 3, 3.0));
+        payrollAggregates.personUpdated(new PersonRecord(2, "Test Person Two", "two@email.com", 1, 2.5),
+                new PersonRecord(2, "Test Person Two", "two@email.com", 1, 1.0));
+        payrollAggregates.personDeleted(new PersonRecord(3, "Test Person Three", "three@email.com", 2, 1.2));
+
+        PayrollSummary summary = payrollAggregates.summary();
+
+        assertEquals(new PayrollTotals(2, 2500, 2.5, 1000, 1500), summary.byJobId().get(1));
+        assertNull(summary.byJobId().get(2));
+        assertEquals(new PayrollTotals(2, 7500, 5.0, 3000, 4500), summary.byDomain().get("Sales"));
+    }
+
+    @Test
+    public void baseSalaryUpdateReweightsJobTest() {
+
+        payrollAggregates.jobUpdated(JOBS.get(0), new Job(1, "Test Job One", "Testing", 3000));
+
+        assertEquals(new PayrollTotals(2, 12000, 4.0, 4500, 7500), payrollAggregates.summary().byJobId().get(1));
+    }
+
+    @Test
+    public void workExperienceDistributionTest() {
+
+        payrollAggregates.personInserted(new PersonRecord(5, "Test Person Five", "five@email.com", 2, 1.4));
+        payrollAggregates.personUpdated(new PersonRecord(2, "Test Person Two", "two@email.com", 1, 2.5),
+                new PersonRecord(2, "Test Person Two", "two@email.com", 1, 1.8));
+
+        WorkExperienceDistribution distribution = payrollAggregates.workExperienceDistribution();
+
+        assertEquals(new WorkExperienceCounts(0, 1, 1, 0), distribution.byJobId().get(1));
+        assertEquals(new WorkExperienceCounts(1, 1, 0, 0), distribution.byJobId().get(2));
+        assertEquals(new WorkExperienceCounts(1, 2, 1, 0), distribution.byDomain().get("Testing"));
+        assertEquals(new WorkExperienceCounts(0, 0, 1, 0), distribution.byDomain().get("Sales"));
+        assertEquals(5, distribution.total().total());
+    }
+
+    //each person's own tier (WorkExperience.of, as GET /person/{id}/workexperience classifies) against the distribution, for salary
+    //indexes 0.004 around every tier edge;
+    @Test
+    public void workExperienceAtTierEdgesTest() {
+
+        PayrollAggregates aggregates = new PayrollAggregates();
+        aggregates.jobsLoaded(JOBS);
+        aggregates.personsLoaded(List.of());
+
+        long[] expected = new long[WorkExperience.values().length];
+        int id = 0;
+
+        for (WorkExperience tier : WorkExperience.values()) {
+
+            for (double salaryIndex : new double[] {tier.getMinSalaryIndex() - 0.004, tier.getMinSalaryIndex() + 0.004}) {
+
+                if (salaryIndex >= 1) {
+
+                    aggregates.personInserted(new PersonRecord(++id, "Test Person", id + "@email.com", 1, salaryIndex));
+                    expected[WorkExperience.of(salaryIndex).ordinal()]++;
+                }
+            }
+        }
+
+        assertEquals(WorkExperienceCounts.of(expected), aggregates.workExperienceDistribution().byJobId().get(1));
+        assertEquals(WorkExperience.ENTRY, WorkExperience.of(1.396));
+        assertEquals(new WorkExperienceCounts(2, 2, 2, 1), aggregates.workExperienceDistribution().byJobId().get(1));
+    }
+
+    @Test
+    public void percentilesTest() {
+
+        //salaries: 1500, 2500 (job 1), 2400 (job 2), 3000 (job 3);
+        SalaryPercentiles testing = payrollAggregates.percentiles("testing", null);
+
+        assertEquals(3, testing.count());
+        assertEquals(2400, testing.p50());
+        assertEquals(2500, testing.p90());
+        assertEquals(1500, testing.histogram().get(0).from());
+        assertEquals(2500, testing.histogram().get(testing.histogram().size() - 1).to());
+        assertEquals(3, testing.histogram().stream().mapToLong(SalaryPercentiles.Bucket::count).sum());
+
+        SalaryPercentiles everyone = payrollAggregates.percentiles(null, null);
+
+        assertEquals(4, everyone.count());
+        assertEquals(2400, everyone.p50());
+        assertEquals(3000, everyone.p99());
+
+        assertEquals(1500, payrollAggregates.percentiles(null, 1).p50());
+        assertEquals(0, payrollAggregates.percentiles("Unknown", null).count());
+    }
+
+    @Test
+    public void salaryRulesTest() {
+
+        payrollAggregates.setSalaryRuleEngine(salaryRuleEngine());
+
+        //testing salaries: 1500, 2500 (banded to 2000) in job 1, and 2400 (banded to 2000) in job 2; sales: 3000 * 1.5;
+        PayrollSummary summary = payrollAggregates.summary();
+
+        assertEquals(new PayrollTotals(2, 3500, 4.0, 1500, 2000), summary.byJobId().get(1));
+        assertEquals(new PayrollTotals(3, 5500, 5.2, 1500, 2000), summary.byDomain().get("Testing"));
+        assertEquals(new PayrollTotals(1, 4500, 2.0, 4500, 4500), summary.byDomain().get("Sales"));
+        assertEquals(2000, payrollAggregates.percentiles("Testing", null).p50());
+        assertEquals(4500, payrollAggregates.percentiles("Sales", null).p99());
+
+        //salary index 2.0 is senior with the sales tiers;
+        assertEquals(new WorkExperienceCounts(0, 0, 0, 1), payrollAggregates.workExperienceDistribution().byDomain().get("Sales"));
+    }
+
+    @Test
+    public void recomputeReportsDriftTest() {
+
+        long modificationCount = payrollAggregates.getModificationCount();
+
+        //the database holds one more person than the aggregates (as if a write had been missed);
+        List<PersonRecord> persons = List.of(
+                new PersonRecord(1, "Test Person One", "one@email.com", 1, 1.5),
+                new PersonRecord(2, "Test Person Two", "two@email.com", 1, 2.5),
+                new PersonRecord(3, "Test Person Three", "three@email.com", 2, 1.2),
+                new PersonRecord(4, "Test Person Four", "four@email.com", 3, 2.0),
+                new PersonRecord(5, "Test Person Five", "five@email.com", 3, 1.0));
+
+        Map<Integer, PayrollTotals> drifted = payrollAggregates.recompute(modificationCount, JOBS, persons);
+
+        assertEquals(List.of(3), List.copyOf(drifted.keySet()));
+        assertEquals(2, payrollAggregates.summary().byJobId().get(3).count());
+
+        //a write since the read makes the recompute skip;
+        payrollAggregates.personDeleted(persons.get(4));
+
+        assertNull(payrollAggregates.recompute(modificationCount, JOBS, persons));
+        assertTrue(payrollAggregates.recompute(payrollAggregates.getModificationCount(), JOBS, persons.subList(0, 4)).isEmpty());
+    }
+
+    //a write committed before the read, but applied after it: the recompute is skipped, so the write is counted once;
+    @Test
+    public void recomputeSkipsWriteInFlightTest() {
+
+        PersonRecord inserted = new PersonRecord(5, "Test Person Five", "five@email.com", 3, 1.0);
+        List<PersonRecord> persons = List.of(
+                new PersonRecord(1, "Test Person One", "one@email.com", 1, 1.5),
+                new PersonRecord(2, "Test Person Two", "two@email.com", 1, 2.5),
+                new PersonRecord(3, "Test Person Three", "three@email.com", 2, 1.2),
+                new PersonRecord(4, "Test Person Four", "four@email.com", 3, 2.0),
+                inserted);
+
+        payrollAggregates.writeStarted();
+
+        assertNull(payrollAggregates.recompute(payrollAggregates.getModificationCount(), JOBS, persons));
+
+        payrollAggregates.personInserted(inserted);
+        payrollAggregates.writeFinished();
+
+        assertEquals(2, payrollAggregates.summary().byJobId().get(3).count());
+        assertTrue(payrollAggregates.recompute(payrollAggregates.getModificationCount(), JOBS, persons).isEmpty());
+    }
+
+    //a 2000 salary band for testing, and a 50% bonus with earlier seniority for sales;
+    private static SalaryRuleEngine salaryRuleEngine() {
+
+        Properties properties = new Properties();
+        properties.setProperty("Testing.band-max", "2000");
+        properties.setProperty("Sales.bonus-percent", "50");
+        properties.setProperty("Sales.tiers", "1.2, 1.5, 2");
+
+        return new SalaryRuleEngine(SalaryRules.compile(properties));
+    }
+}
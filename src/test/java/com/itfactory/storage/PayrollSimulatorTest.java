@@ -0,0 +1,157 @@
+package com.itfactory.storage;
+
+import com.itfactory.model.Job;
+import com.itfactory.model.PayrollImpact;
+import com.itfactory.model.PayrollSimulation;
+import com.itfactory.model.Person;
+import com.itfactory.model.PersonRecord;
+import com.itfactory.model.SalaryScenario;
+import com.itfactory.rules.SalaryRuleEngine;
+import com.itfactory.rules.SalaryRules;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writing JUnit tests for the payroll simulator: raises, salary index cap/floor and overrides, and writes made while a view is open;
+ * The simulator is created directly and loaded by hand, instead of from the database;
+ */
+
+class PayrollSimulatorTest {
+
+    private static final List<Job> JOBS = List.of(
+            new Job(1, "Test Job One", "Testing", 1000),
+            new Job(2, "Test Job Two", "Testing", 2000),
+            new Job(3, "Test Job Three", "Sales", 1500));
+
+    private static final SalaryScenario NO_CHANGES = new SalaryScenario(Map.of(), Map.of(), Map.of(), null, null);
+
+    private PayrollSimulator payrollSimulator;
+
+    @BeforeEach
+    void setUp() {
+
+        payrollSimulator = new PayrollSimulator();
+        payrollSimulator.jobsLoaded(JOBS);
+        payrollSimulator.personsLoaded(List.of(
+                new PersonRecord(1, "Test Person One", "one@email.com", 1, 1.5),
+                new PersonRecord(2, "Test Person Two", "two@email.com", 1, 2.5),
+                new PersonRecord(3, "Test Person Three", "three@email.com", 2, 1.2),
+                new PersonRecord(4, "Test Person Four", "four@email.com", 3, 2.0)));
+    }
+
+    @Test
+    public void noChangesTest() {
+
+        PayrollSimulation simulation = payrollSimulator.simulate(NO_CHANGES);
+
+        assertEquals(new PayrollImpact(2, 4000, 4000), simulation.byJobId().get(1));
+        assertEquals(new PayrollImpact(3, 6400, 6400), simulation.byDomain().get("Testing"));
+        assertEquals(new PayrollImpact(4, 9400, 9400), simulation.total());
+        assertEquals(0, simulation.total().delta());
+    }
+
+    @Test
+    public void raisesAndCapTest() {
+
+        PayrollSimulation simulation = payrollSimulator.simulate(new SalaryScenario(
+                Map.of("testing", 10.0), Map.of(2, 50.0), Map.of(), 2.0, null));
+
+        //job 1: indexes 1.5 + 2.0 (capped), base 1100; job 2: index 1.2, base 2000 * 1.1 * 1.5; job 3: unchanged;
+        assertEquals(3850, simulation.byJobId().get(1).simulatedSalarySum(), 1e-9);
+        assertEquals(3960, simulation.byJobId().get(2).simulatedSalarySum(), 1e-9);
+        assertEquals(new PayrollImpact(1, 3000, 3000), simulation.byDomain().get("Sales"));
+        assertEquals(10810 - 9400, simulation.total().delta(), 1e-9);
+    }
+
+    @Test
+    public void overridesAndFloorTest() {
+
+        PayrollSimulation simulation = payrollSimulator.simulate(new SalaryScenario(
+                Map.of(), Map.of(), Map.of(4, 3.0, 99, 2.0), null, 1.4));
+
+        assertEquals(new PayrollImpact(1, 3000, 4500), simulation.byJobId().get(3));
+        assertEquals(2800, simulation.byJobId().get(2).simulatedSalarySum(), 1e-9);
+        assertEquals(4000, simulation.byJobId().get(1).simulatedSalarySum(), 1e-9);
+    }
+
+    @Test
+    public void salaryRulesTest() {
+
+        payrollSimulator.setSalaryRuleEngine(salaryRuleEngine());
+
+        PayrollSimulation simulation = payrollSimulator.simulate(new SalaryScenario(
+                Map.of("testing", 100.0), Map.of(), Map.of(1, 1.0), null, null));
+
+        //job 1: 1500 + 2500 (banded to 2000), then base 2000: 2000 (override) + 5000 (banded to 2000); job 3: 3000 * 1.5;
+        assertEquals(new PayrollImpact(2, 3500, 4000), simulation.byJobId().get(1));
+        assertEquals(new PayrollImpact(1, 2000, 2000), simulation.byJobId().get(2));
+        assertEquals(new PayrollImpact(1, 4500, 4500), simulation.byDomain().get("Sales"));
+    }
+
+    //after a simulation, its chunks stay shared: the following writes copy them first, and are all seen by the next simulation;
+    @Test
+    public void writesFollowTest() {
+
+        payrollSimulator.personInserted(new PersonRecord(5, "Test Person Five", "five@email.com", 3, 3.0));
+        payrollSimulator.personUpdated(new PersonRecord(2, "Test Person Two", "two@email.com", 1, 2.5),
+                new PersonRecord(2, "Test Person Two", "two@email.com", 1, 1.0));
+        payrollSimulator.personDeleted(new PersonRecord(1, "Test Person One", "one@email.com", 1, 1.5));
+        payrollSimulator.jobUpdated(JOBS.get(2), new Job(3, "Test Job Three", "Sales", 1000));
+
+        PayrollSimulation simulation = payrollSimulator.simulate(NO_CHANGES);
+
+        assertEquals(new PayrollImpact(1, 1000, 1000), simulation.byJobId().get(1));
+        assertEquals(new PayrollImpact(2, 5000, 5000), simulation.byJobId().get(3));
+        assertEquals(4, payrollSimulator.size());
+
+        payrollSimulator.personDeleted(new PersonRecord(5, "Test Person Five", "five@email.com", 3, 3.0));
+
+        assertEquals(new PayrollImpact(1, 2000, 2000), payrollSimulator.simulate(NO_CHANGES).byJobId().get(3));
+    }
+
+    @Test
+    public void manyPersonsTest() {
+
+        PayrollSimulator simulator = new PayrollSimulator();
+        simulator.jobsLoaded(JOBS);
+
+        for (int id = 1; id <= 100_000; id++) {
+
+            simulator.personInserted(new PersonRecord(id, "Test Person", "test" + id + "@email.com", 1 + id % 3, 1 + (id % 201) / 100.0));
+        }
+
+        double expectedSalarySum = 0;
+
+        for (int id = 1; id <= 100_000; id += 2) {
+
+            simulator.personDeleted(new PersonRecord(id, "Test Person", "test" + id + "@email.com", 1 + id % 3, 1 + (id % 201) / 100.0));
+        }
+
+        for (int id = 2; id <= 100_000; id += 2) {
+
+            expectedSalarySum += (1 + (id % 201) / 100.0) * JOBS.get(id % 3).getBaseSalary();
+        }
+
+        PayrollSimulation simulation = simulator.simulate(new SalaryScenario(Map.of(), Map.of(), Map.of(), null, null));
+
+        assertEquals(50_000, simulation.total().count());
+        assertEquals(expectedSalarySum, simulation.total().currentSalarySum(), 1e-6 * expectedSalarySum);
+    }
+
+    //a 2000 salary band for testing, and a 50% bonus for sales;
+    private static SalaryRuleEngine salaryRuleEngine() {
+
+        Properties properties = new Properties();
+        properties.setProperty("Testing.band-max", "2000");
+        properties.setProperty("Sales.bonus-percent", "50");
+
+        return new SalaryRuleEngine(SalaryRules.compile(properties));
+    }
+}
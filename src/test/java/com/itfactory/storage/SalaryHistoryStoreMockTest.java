@@ -0,0 +1,140 @@
+package com.itfactory.storage;
+
+import com.itfactory.dao.SalaryHistoryDao;
+import com.itfactory.exceptions.DatabaseOperationException;
+import com.itfactory.model.Job;
+import com.itfactory.model.PersonRecord;
+import com.itfactory.model.SalaryChange;
+import com.itfactory.model.SalaryChangeRecord;
+
+import org.junit.jupiter.api.Test;
+
+import org.mockito.Mock;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Writing JUnit MOCK tests for the salary history store: dropping changes when the queue is full, recording queued changes in
+ * batches, and reading from the database until the history is loaded (or when storage.memory.enabled=false);
+ */
+
+@SpringBootTest
+class SalaryHistoryStoreMockTest {
+
+    private static final LocalDateTime EARLIER = LocalDateTime.of(2026, 1, 1, 9, 0);
+
+    @Mock
+    private SalaryHistoryDao salaryHistoryDao;
+
+    //no appender started: the first change fills the queue, and the second is dropped without waiting;
+    @Test
+    public void fullQueueMockTest() {
+
+        SalaryHistoryStore store = new SalaryHistoryStore(salaryHistoryDao, 1, 0, true);
+
+        store.personUpdated(person(1, 1.5), person(1, 2));
+        store.personUpdated(person(1, 2), person(1, 2.5));
+
+        assertEquals(1, store.getPendingChanges());
+        assertEquals(1, store.getDroppedChanges());
+
+        verifyNoInteractions(salaryHistoryDao);
+    }
+
+    //the changes queued before the appender starts are written as one batch, then read from memory along with the loaded ones;
+    @Test
+    public void batchMockTest() throws DatabaseOperationException, InterruptedException {
+
+        List<List<SalaryChangeRecord>> batches = new ArrayList<>();
+
+        doAnswer(invocation -> {
+
+            invocation.<Consumer<SalaryChangeRecord>>getArgument(0).accept(
+                    new SalaryChangeRecord(SalaryChangeRecord.PERSON, 1, new SalaryChange(EARLIER, 1, 1.5)));
+            return null;
+        }).when(salaryHistoryDao).forEachChange(any());
+        doAnswer(invocation -> batches.add(List.copyOf(invocation.getArgument(0))))
+                .when(salaryHistoryDao).insertChanges(anyList());
+
+        SalaryHistoryStore store = new SalaryHistoryStore(salaryHistoryDao, 10, 0, true);
+
+        store.personUpdated(person(1, 1.5), person(1, 2));
+        store.personUpdated(person(2, 1.5), person(2, 1.5));
+        store.jobUpdated(new Job(3, "Test Job", "Testing", 1000), new Job(3, "Test Job", "Testing", 1200));
+        store.personUpdated(person(1, 2), person(1, 2.5));
+
+        assertFalse(store.isLoaded());
+        assertEquals(3, store.getPendingChanges());
+
+        store.start();
+        store.stop();
+
+        assertTrue(store.isLoaded());
+        assertEquals(1, batches.size());
+        assertEquals(List.of(1, 3, 1), batches.get(0).stream().map(SalaryChangeRecord::entityId).toList());
+        assertEquals(List.of(1.0, 1.5, 2.0), store.getChanges(SalaryChangeRecord.PERSON, 1, null, null).stream()
+                .map(SalaryChange::before).toList());
+        assertEquals(1200, store.getChanges(SalaryChangeRecord.JOB, 3, null, null).get(0).after());
+        assertEquals(List.of(), store.getChanges(SalaryChangeRecord.PERSON, 2, null, null));
+
+        verify(salaryHistoryDao, times(1)).forEachChange(any());
+        verify(salaryHistoryDao, times(1)).insertChanges(anyList());
+        verifyNoMoreInteractions(salaryHistoryDao);
+    }
+
+    //until loaded, then if the load failed, reads go to the database;
+    @Test
+    public void readsBeforeLoadMockTest() throws DatabaseOperationException, InterruptedException {
+
+        List<SalaryChange> changes = List.of(new SalaryChange(EARLIER, 1, 1.5));
+
+        when(salaryHistoryDao.getChanges(SalaryChangeRecord.PERSON, 1, null, null)).thenReturn(changes);
+        doThrow(DatabaseOperationException.class).when(salaryHistoryDao).forEachChange(any());
+
+        SalaryHistoryStore store = new SalaryHistoryStore(salaryHistoryDao, 10, 0, true);
+
+        assertEquals(changes, store.getChanges(SalaryChangeRecord.PERSON, 1, null, null));
+
+        store.start();
+        store.stop();
+
+        assertFalse(store.isLoaded());
+        assertEquals(changes, store.getChanges(SalaryChangeRecord.PERSON, 1, null, null));
+
+        verify(salaryHistoryDao, times(2)).getChanges(SalaryChangeRecord.PERSON, 1, null, null);
+        verify(salaryHistoryDao, times(1)).forEachChange(any());
+        verifyNoMoreInteractions(salaryHistoryDao);
+    }
+
+    //with storage.memory.enabled=false, nothing is loaded, but the changes are still written;
+    @Test
+    public void memoryDisabledMockTest() throws DatabaseOperationException, InterruptedException {
+
+        SalaryHistoryStore store = new SalaryHistoryStore(salaryHistoryDao, 10, 0, false);
+
+        store.personUpdated(person(1, 1.5), person(1, 2));
+        store.start();
+        store.stop();
+
+        assertFalse(store.isLoaded());
+        assertEquals(List.of(), store.getChanges(SalaryChangeRecord.PERSON, 1, null, null));
+
+        verify(salaryHistoryDao, never()).forEachChange(any());
+        verify(salaryHistoryDao, times(1)).insertChanges(anyList());
+        verify(salaryHistoryDao, times(1)).getChanges(SalaryChangeRecord.PERSON, 1, null, null);
+        verifyNoMoreInteractions(salaryHistoryDao);
+    }
+
+    private static PersonRecord person(int id, double salaryIndex) {
+
+        return new PersonRecord(id, "Test Person", "test@email.com", 1, salaryIndex);
+    }
+}
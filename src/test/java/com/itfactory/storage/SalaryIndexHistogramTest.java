@@ -0,0 +1,99 @@
+package com.itfactory.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writing JUnit tests for the salary index histogram: exact bins, salary indexes with more decimals, removals, and merging;
+ */
+
+class SalaryIndexHistogramTest {
+
+    @Test
+    public void binsAreExactForTwoDecimalsTest() {
+
+        SalaryIndexHistogram histogram = new SalaryIndexHistogram();
+
+        //values not exactly representable as doubles (0.1 + 0.2 style) still land in their own bin;
+        histogram.add(2.3);
+        histogram.add(1.1 + 0.2);
+        histogram.add(2.99);
+
+        List<Double> values = new ArrayList<>();
+        histogram.forEachBin((salaryIndex, count) -> values.add(salaryIndex));
+
+        assertEquals(List.of(1.3, 2.3, 2.99), values);
+        assertEquals(1.3, histogram.min());
+        assertEquals(2.99, histogram.max());
+    }
+
+    @Test
+    public void moreDecimalsKeptExactlyTest() {
+
+        SalaryIndexHistogram histogram = new SalaryIndexHistogram();
+
+        histogram.add(1.396);
+        histogram.add(1.4);
+        histogram.add(2.004);
+        histogram.add(2.004);
+
+        List<Double> values = new ArrayList<>();
+        List<Long> counts = new ArrayList<>();
+        histogram.forEachBin((salaryIndex, count) -> {
+
+            values.add(salaryIndex);
+            counts.add(count);
+        });
+
+        assertEquals(List.of(1.396, 1.4, 2.004), values);
+        assertEquals(List.of(1L, 1L, 2L), counts);
+        assertEquals(1.396, histogram.min());
+        assertEquals(2.004, histogram.max());
+
+        SalaryIndexHistogram other = new SalaryIndexHistogram();
+        other.add(2.004);
+        histogram.merge(other);
+
+        assertTrue(histogram.remove(1.396));
+        assertFalse(histogram.remove(1.396));
+        assertFalse(histogram.remove(1.397));
+        assertEquals(1.4, histogram.min());
+        assertEquals(4, histogram.total());
+    }
+
+    @Test
+    public void removeTest() {
+
+        SalaryIndexHistogram histogram = new SalaryIndexHistogram();
+        histogram.add(1.5);
+
+        assertFalse(histogram.remove(2.5));
+        assertTrue(histogram.remove(1.5));
+        assertFalse(histogram.remove(1.5));
+        assertEquals(0, histogram.total());
+    }
+
+    @Test
+    public void mergeTest() {
+
+        SalaryIndexHistogram first = new SalaryIndexHistogram();
+        SalaryIndexHistogram second = new SalaryIndexHistogram();
+
+        first.add(1.5);
+        first.add(2.0);
+        second.add(2.0);
+        second.add(3.0);
+
+        first.merge(second);
+
+        List<Long> counts = new ArrayList<>();
+        first.forEachBin((salaryIndex, count) -> counts.add(count));
+
+        assertEquals(4, first.total());
+        assertEquals(List.of(1L, 2L, 1L), counts);
+    }
+}
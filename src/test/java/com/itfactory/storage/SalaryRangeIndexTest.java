@@ -0,0 +1,141 @@
+package com.itfactory.storage;
+
+import com.itfactory.model.Job;
+import com.itfactory.model.Person;
+import com.itfactory.model.PersonRecord;
+import com.itfactory.model.PersonSalary;
+import com.itfactory.rules.SalaryRuleEngine;
+import com.itfactory.rules.SalaryRules;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writing JUnit tests for the sorted salary index and computed salary index;
+ * Checking range queries, and incremental updates on salary index and base salary changes;
+ * The index is created directly and loaded by hand, instead of from the database;
+ */
+
+class SalaryRangeIndexTest {
+
+    private SalaryRangeIndex salaryRangeIndex;
+
+    @BeforeEach
+    void setUp() {
+
+        salaryRangeIndex = new SalaryRangeIndex();
+        salaryRangeIndex.jobsLoaded(List.of(
+                new Job(1, "Test Job One", "Testing", 1000),
+                new Job(2, "Test Job Two", "Testing", 2000),
+                new Job(3, "Test Job Three", "Sales", 1000)));
+        salaryRangeIndex.personsLoaded(List.of(
+                new PersonRecord(1, "Test Person One", "one@email.com", 1, 1.5),
+                new PersonRecord(2, "Test Person Two", "two@email.com", 1, 2.5),
+                new PersonRecord(3, "Test Person Three", "three@email.com", 2, 1.2),
+                new PersonRecord(4, "Test Person Four", "four@email.com", 2, 2.0)));
+    }
+
+    @Test
+    public void salaryIndexRangeTest() {
+
+        assertEquals(List.of(3, 1, 4), personIds(salaryRangeIndex.getPersonsBySalaryIndex(1.0, 2.0, 10)));
+        assertEquals(List.of(3, 1), personIds(salaryRangeIndex.getPersonsBySalaryIndex(1.0, 2.0, 2)));
+        assertTrue(salaryRangeIndex.getPersonsBySalaryIndex(2.6, 3.0, 10).isEmpty());
+    }
+
+    @Test
+    public void salaryRangeTest() {
+
+        List<PersonSalary> persons = salaryRangeIndex.getPersonsBySalary(2000, Double.MAX_VALUE, 10);
+
+        assertEquals(List.of(3, 2, 4), salaryPersonIds(persons));
+        assertEquals(2400, persons.get(0).salary());
+        assertEquals(4000, persons.get(2).salary());
+    }
+
+    @Test
+    public void salaryIndexUpdateMovesPersonTest() {
+
+        salaryRangeIndex.personUpdated(new PersonRecord(1, "Test Person One", "one@email.com", 1, 1.5),
+                new PersonRecord(1, "Test Person One", "one@email.com", 1, 3.0));
+        salaryRangeIndex.personDeleted(new PersonRecord(4, "Test Person Four", "four@email.com", 2, 2.0));
+
+        assertEquals(List.of(3), personIds(salaryRangeIndex.getPersonsBySalaryIndex(1.0, 2.0, 10)));
+        assertEquals(List.of(1), personIds(salaryRangeIndex.getPersonsBySalaryIndex(3.0, 3.0, 10)));
+        assertEquals(List.of(3, 2, 1), salaryPersonIds(salaryRangeIndex.getPersonsBySalary(2000, 5000, 10)));
+    }
+
+    @Test
+    public void baseSalaryUpdateMovesJobPersonsTest() {
+
+        salaryRangeIndex.jobUpdated(new Job(2, "Test Job Two", "Testing", 2000), new Job(2, "Test Job Two", "Testing", 500));
+
+        List<PersonSalary> persons = salaryRangeIndex.getPersonsBySalary(0, Double.MAX_VALUE, 10);
+
+        assertEquals(List.of(3, 4, 1, 2), salaryPersonIds(persons));
+        assertEquals(600, persons.get(0).salary());
+
+        salaryRangeIndex.jobDeleted(new Job(2, "Test Job Two", "Testing", 500));
+
+        assertEquals(List.of(1, 2), salaryPersonIds(salaryRangeIndex.getPersonsBySalary(0, Double.MAX_VALUE, 10)));
+    }
+
+    @Test
+    public void topPersonsBySalaryTest() {
+
+        salaryRangeIndex.personInserted(new PersonRecord(5, "Test Person Five", "five@email.com", 3, 3.0));
+
+        assertEquals(List.of(4, 5, 2), salaryPersonIds(salaryRangeIndex.getTopPersonsBySalary(3, null)));
+        assertEquals(List.of(4, 2), salaryPersonIds(salaryRangeIndex.getTopPersonsBySalary(2, "TESTING")));
+        assertEquals(List.of(5), salaryPersonIds(salaryRangeIndex.getTopPersonsBySalary(10, "Sales")));
+
+        //moving person 4 to the sales job (same salary index, lower salary), then raising the sales base salary;
+        salaryRangeIndex.personUpdated(new PersonRecord(4, "Test Person Four", "four@email.com", 2, 2.0),
+                new PersonRecord(4, "Test Person Four", "four@email.com", 3, 2.0));
+        salaryRangeIndex.jobUpdated(new Job(3, "Test Job Three", "Sales", 1000), new Job(3, "Test Job Three", "Sales", 2500));
+
+        assertEquals(List.of(5, 4), salaryPersonIds(salaryRangeIndex.getTopPersonsBySalary(10, "sales")));
+        assertEquals(List.of(2, 3, 1), salaryPersonIds(salaryRangeIndex.getTopPersonsBySalary(10, "testing")));
+        assertTrue(salaryRangeIndex.getTopPersonsBySalary(10, "Unknown").isEmpty());
+    }
+
+    @Test
+    public void salaryRulesTest() {
+
+        Properties properties = new Properties();
+        properties.setProperty("Testing.band-max", "2000");
+        properties.setProperty("Sales.bonus-percent", "50");
+
+        //the salaries indexed with the built-in rules are re-keyed by the new ones;
+        salaryRangeIndex.setSalaryRuleEngine(new SalaryRuleEngine(SalaryRules.compile(properties)));
+        salaryRangeIndex.personInserted(new PersonRecord(5, "Test Person Five", "five@email.com", 3, 2.0));
+
+        //testing salaries: 1500, 2500, 2400 and 4000, banded to 2000; sales: 2000 * 1.5;
+        List<PersonSalary> persons = salaryRangeIndex.getPersonsBySalary(1600, Double.MAX_VALUE, 10);
+
+        assertEquals(List.of(2, 3, 4, 5), salaryPersonIds(persons));
+        assertEquals(2000, persons.get(0).salary());
+        assertEquals(3000, persons.get(3).salary());
+        assertEquals(List.of(4, 3), salaryPersonIds(salaryRangeIndex.getTopPersonsBySalary(2, "Testing")));
+
+        salaryRangeIndex.jobUpdated(new Job(1, "Test Job One", "Testing", 1000), new Job(1, "Test Job One", "Testing", 500));
+
+        assertEquals(List.of(1, 2), salaryPersonIds(salaryRangeIndex.getPersonsBySalary(0, 1600, 10)));
+        assertEquals(List.of(3, 4, 5), salaryPersonIds(salaryRangeIndex.getPersonsBySalary(1600, Double.MAX_VALUE, 10)));
+    }
+
+    private static List<Integer> personIds(List<Person> persons) {
+
+        return persons.stream().map(Person::getId).toList();
+    }
+
+    private static List<Integer> salaryPersonIds(List<PersonSalary> persons) {
+
+        return persons.stream().map(person -> person.person().getId()).toList();
+    }
+}
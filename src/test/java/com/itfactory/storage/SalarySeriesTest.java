@@ -0,0 +1,90 @@
+package com.itfactory.storage;
+
+import com.itfactory.model.SalaryChange;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writing JUnit tests for the delta-encoded salary series: round trips of times and values, range queries, and encoded size;
+ */
+
+class SalarySeriesTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 9, 0);
+
+    @Test
+    void roundTripTest() {
+
+        SalarySeries series = new SalarySeries();
+        List<SalaryChange> changes = new ArrayList<>();
+        Random random = new Random(7);
+        double value = 1.5;
+
+        for (int i = 0; i < 1000; i++) {
+
+            double next = i % 10 == 0 ? random.nextDouble() * 10_000 : 1 + random.nextInt(201) / 100.0;
+            changes.add(new SalaryChange(START.plusSeconds(i * 3600L + random.nextInt(60)), value, next));
+            value = next;
+        }
+
+        //a before value differing from the previous after, and special values;
+        changes.add(new SalaryChange(START.plusDays(60), 2.0, -0.0));
+        changes.add(new SalaryChange(START.plusDays(61), Double.NaN, Double.MAX_VALUE));
+        changes.forEach(series::append);
+
+        assertEquals(changes, series.range(null, null));
+        assertEquals(changes.size(), series.size());
+    }
+
+    @Test
+    void rangeTest() {
+
+        SalarySeries series = new SalarySeries();
+
+        for (int day = 0; day < 10; day++) {
+
+            series.append(new SalaryChange(START.plusDays(day), 1 + day / 10.0, 1.1 + day / 10.0));
+        }
+
+        List<SalaryChange> range = series.range(START.plusDays(3), START.plusDays(5));
+
+        assertEquals(3, range.size());
+        assertEquals(START.plusDays(3), range.get(0).changedAt());
+        assertEquals(START.plusDays(5), range.get(2).changedAt());
+        assertEquals(10, series.range(START, null).size());
+        assertTrue(series.range(START.plusDays(20), null).isEmpty());
+        assertTrue(new SalarySeries().range(null, null).isEmpty());
+    }
+
+    @Test
+    void timesNeverGoBackwardsTest() {
+
+        SalarySeries series = new SalarySeries();
+
+        series.append(new SalaryChange(START, 1, 2));
+        series.append(new SalaryChange(START.minusMinutes(5), 2, 3));
+
+        assertEquals(START, series.range(null, null).get(1).changedAt());
+    }
+
+    @Test
+    void encodedLengthTest() {
+
+        SalarySeries series = new SalarySeries();
+
+        //base salaries changed once a month, in whole amounts;
+        for (int month = 0; month < 120; month++) {
+
+            series.append(new SalaryChange(START.plusMonths(month), 3000 + month * 50, 3000 + (month + 1) * 50));
+        }
+
+        assertTrue(series.encodedLength() < 120 * 12, "encoded length: " + series.encodedLength());
+    }
+}
@@ -0,0 +1,70 @@
+package com.itfactory.storage;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writing JUnit tests for the table and row versions, and the ETags built from them;
+ */
+
+class TableVersionsTest {
+
+    private final TableVersions tableVersions = new TableVersions();
+
+    @Test
+    void rowWrittenTest() {
+
+        assertEquals(0, tableVersions.tableVersion(TableVersions.PERSON));
+        assertEquals(0, tableVersions.rowVersion(TableVersions.PERSON, 7));
+
+        tableVersions.rowWritten(TableVersions.PERSON, 7);
+        tableVersions.rowWritten(TableVersions.PERSON, 8);
+
+        assertEquals(2, tableVersions.tableVersion(TableVersions.PERSON));
+        assertEquals(1, tableVersions.rowVersion(TableVersions.PERSON, 7));
+        assertEquals(2, tableVersions.rowVersion(TableVersions.PERSON, 8));
+
+        //each table is versioned on its own;
+        assertEquals(0, tableVersions.tableVersion(TableVersions.JOB));
+        assertEquals(0, tableVersions.rowVersion(TableVersions.JOB, 7));
+    }
+
+    @Test
+    void boundedRowVersionsTest() {
+
+        TableVersions bounded = new TableVersions(2);
+
+        bounded.rowWritten(TableVersions.PERSON, 7);
+        bounded.rowWritten(TableVersions.PERSON, 8);
+        bounded.rowWritten(TableVersions.PERSON, 8);
+
+        //a third row drops the row versions: the others then share the table version of that moment;
+        bounded.rowWritten(TableVersions.PERSON, 9);
+
+        assertEquals(4, bounded.rowVersion(TableVersions.PERSON, 9));
+        assertEquals(3, bounded.rowVersion(TableVersions.PERSON, 7));
+        assertEquals(3, bounded.rowVersion(TableVersions.PERSON, 8));
+        assertEquals(3, bounded.rowVersion(TableVersions.PERSON, 100));
+
+        bounded.rowWritten(TableVersions.PERSON, 8);
+
+        assertEquals(5, bounded.rowVersion(TableVersions.PERSON, 8));
+    }
+
+    @Test
+    void eTagTest() {
+
+        String before = tableVersions.rowETag(TableVersions.PERSON, 7, "json");
+
+        assertTrue(before.startsWith("\"person/7-") && before.endsWith("-0-json\""));
+        assertEquals(before, tableVersions.rowETag(TableVersions.PERSON, 7, "json"));
+        assertNotEquals(before, tableVersions.rowETag(TableVersions.PERSON, 7, "cbor"));
+        assertNotEquals(before, tableVersions.rowETag(TableVersions.JOB, 7, "json"));
+
+        tableVersions.rowWritten(TableVersions.PERSON, 7);
+
+        assertNotEquals(before, tableVersions.rowETag(TableVersions.PERSON, 7, "json"));
+        assertNotEquals(tableVersions.eTag("person/all", 1, "gzip"), tableVersions.eTag("person/all", 1, "identity"));
+    }
+}
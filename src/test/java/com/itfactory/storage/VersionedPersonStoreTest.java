@@ -0,0 +1,141 @@
+package com.itfactory.storage;
+
+import com.itfactory.model.Person;
+import com.itfactory.model.PersonRecord;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writing JUnit tests for the in-memory, versioned person store;
+ * Checking snapshot isolation (scans not seeing later writes) and reclaiming of old versions;
+ * The store is created directly and loaded by hand, instead of from the database;
+ */
+
+class VersionedPersonStoreTest {
+
+    private VersionedPersonStore personStore;
+
+    @BeforeEach
+    void setUp() {
+
+        personStore = new VersionedPersonStore();
+        personStore.load(List.of(
+                new PersonRecord(1, "Test Person One", "one@email.com", 1, 1.5),
+                new PersonRecord(2, "Test Person Two", "two@email.com", 1, 2.5)));
+    }
+
+    @Test
+    public void snapshotIgnoresLaterWritesTest() {
+
+        try (PersonSnapshot snapshot = personStore.openSnapshot()) {
+
+            personStore.putPerson(new PersonRecord(3, "Test Person Three", "three@email.com", 2, 2.0));
+            personStore.putPerson(new PersonRecord(1, "Test Person One", "one@email.com", 1, 2.9));
+            personStore.removePerson(2);
+
+            List<Person> snapshotPersons = snapshot.getAllPersons();
+
+            assertEquals(2, snapshotPersons.size());
+            assertEquals(1.5, snapshot.getPersonById(1).getSalaryIndex());
+            assertNotNull(snapshot.getPersonById(2));
+            assertNull(snapshot.getPersonById(3));
+        }
+
+        try (PersonSnapshot snapshot = personStore.openSnapshot()) {
+
+            List<Person> snapshotPersons = snapshot.getAllPersons();
+
+            assertEquals(2, snapshotPersons.size());
+            assertEquals(1, snapshotPersons.get(0).getId());
+            assertEquals(3, snapshotPersons.get(1).getId());
+            assertEquals(2.9, snapshot.getPersonById(1).getSalaryIndex());
+        }
+    }
+
+    @Test
+    public void oldVersionsReclaimedTest() {
+
+        PersonSnapshot snapshot = personStore.openSnapshot();
+
+        personStore.putPerson(new PersonRecord(1, "Test Person One", "one@email.com", 1, 2.0));
+        personStore.putPerson(new PersonRecord(1, "Test Person One", "one@email.com", 1, 2.2));
+        personStore.removePerson(2);
+
+        //the open snapshot still needs the original versions of both persons;
+        assertEquals(5, personStore.countVersions());
+
+        snapshot.close();
+
+        //only the latest version of person 1 is left; person 2 is gone altogether;
+        assertEquals(1, personStore.countVersions());
+    }
+
+    @Test
+    public void personsByJobIdTest() {
+
+        personStore.putPerson(new PersonRecord(3, "Test Person Three", "three@email.com", 1, 2.0));
+        personStore.putPerson(new PersonRecord(4, "Test Person Four", "four@email.com", 2, 2.0));
+
+        try (PersonSnapshot snapshot = personStore.openSnapshot()) {
+
+            //moving person 1 to job 2 after the snapshot was opened; the snapshot still lists it under job 1;
+            personStore.putPerson(new PersonRecord(1, "Test Person One", "one@email.com", 2, 1.5));
+
+            assertEquals(List.of(1, 2, 3), ids(snapshot.getPersonsByJobId(1, Integer.MIN_VALUE, 10)));
+            assertEquals(List.of(4), ids(snapshot.getPersonsByJobId(2, Integer.MIN_VALUE, 10)));
+        }
+
+        personStore.removePerson(3);
+
+        try (PersonSnapshot snapshot = personStore.openSnapshot()) {
+
+            assertEquals(List.of(2), ids(snapshot.getPersonsByJobId(1, Integer.MIN_VALUE, 10)));
+            assertEquals(List.of(1), ids(snapshot.getPersonsByJobId(2, Integer.MIN_VALUE, 1)));
+            assertEquals(List.of(4), ids(snapshot.getPersonsByJobId(2, 1, 1)));
+            assertTrue(snapshot.getPersonsByJobId(3, Integer.MIN_VALUE, 10).isEmpty());
+        }
+    }
+
+    @Test
+    public void personByEmailTest() {
+
+        try (PersonSnapshot snapshot = personStore.openSnapshot()) {
+
+            personStore.putPerson(new PersonRecord(1, "Test Person One", "changed@email.com", 1, 1.5));
+
+            assertEquals(1, snapshot.getPersonByEmail(" ONE@email.com").getId());
+            assertNull(snapshot.getPersonByEmail("changed@email.com"));
+        }
+
+        try (PersonSnapshot snapshot = personStore.openSnapshot()) {
+
+            assertNull(snapshot.getPersonByEmail("one@email.com"));
+            assertEquals(1, snapshot.getPersonByEmail("Changed@Email.com").getId());
+            assertEquals(2, snapshot.getPersonByEmail("two@email.com").getId());
+        }
+    }
+
+    @Test
+    public void readPersonsAreCopiesTest() {
+
+        //the stored record is immutable; what a snapshot hands out is a copy, so changing it leaves the store as it was;
+        personStore.putPerson(new PersonRecord(3, "Test Person Three", "three@email.com", 2, 2.0));
+
+        try (PersonSnapshot snapshot = personStore.openSnapshot()) {
+
+            snapshot.getPersonById(3).setSalaryIndex(1.0);
+
+            assertEquals(2.0, snapshot.getPersonById(3).getSalaryIndex());
+        }
+    }
+
+    private static List<Integer> ids(List<Person> persons) {
+
+        return persons.stream().map(Person::getId).toList();
+    }
+}